@@ -133,6 +133,25 @@ protected void store(final Document document) throws IOException {
 		Files.move(tempFile, storageFile, backupFile); //move the temp file to the normal file, creating a backup if necessary
 	}
 
+	/**
+	 * Stores the RDF information at the storage URI using the serialization format. A temporary file and optionally a backup file is used to mitigate data loss.
+	 * @param rdf The RDF data model to store.
+	 * @throws IOException Thrown if there is a problem storing the information.
+	 * @see #getStorageURI()
+	 * @see #isBackupUsed
+	 */
+	protected void store(final RDFModel rdf) throws IOException {
+		final File storageFile = new File(getStorageURI()); //get the file to use for storage
+		final File directory = storageFile.getParentFile(); //get the directory of the file
+		if(!directory.exists() || !directory.isDirectory()) { //if the directory doesn't exist as a directory
+			Files.mkdirs(directory); //create the directory
+		}
+		final File tempFile = Files.getTempFile(storageFile); //get a temporary file to write to
+		final File backupFile = isBackupUsed() ? Files.getBackupFile(storageFile) : null; //get a backup file, if we should create a backup, or null if we shouldn't
+		store(rdf, Files.toURI(tempFile)); //store the data model in the temporary file
+		Files.move(tempFile, storageFile, backupFile); //move the temp file to the normal file, creating a backup if necessary
+	}
+
 	/**
 	 * Retrieves the information from RDF stored at the given URI. This version attempts to locate a backup copy if the requested file does not exist.
 	 * @param uri The URI at which the information is be stored
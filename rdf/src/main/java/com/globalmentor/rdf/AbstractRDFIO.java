@@ -0,0 +1,168 @@
+/*
+ * Copyright © 1996-2008 GlobalMentor, Inc. <https://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.globalmentor.rdf;
+
+import java.io.*;
+import java.net.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.util.Collections.*;
+import static java.util.Objects.*;
+
+/**
+ * Base functionality for loading and saving information stored in some RDF serialization, independent of the serialization format.
+ * @param <T> The type to read and write.
+ * @author Garret Wilson
+ */
+public abstract class AbstractRDFIO<T> implements RDFIO<T> {
+
+	/** The class representing the type of object being loaded and saved. */
+	private final Class<T> objectClass;
+
+	/** @return The class representing the type of object being loaded and saved. */
+	public Class<T> getObjectClass() {
+		return objectClass;
+	}
+
+	/** A map of resource factories, keyed to namespace URI. */
+	private final Map<URI, RDFResourceFactory> resourceFactoryMap = new ConcurrentHashMap<URI, RDFResourceFactory>();
+
+	/**
+	 * Registers a resource factory to be used to create resources with a type from the specified namespace. If a resource factory is already registered for this
+	 * namespace, it will be replaced.
+	 * @param typeNamespaceURI The namespace of the resource type for which this factory should be used to create objects.
+	 * @param factory The resource factory that will be used to create resources of types from this namespace.
+	 */
+	public void registerResourceFactory(final URI typeNamespaceURI, final RDFResourceFactory factory) {
+		resourceFactoryMap.put(typeNamespaceURI, factory);
+		invalidatePrototypeRDF(); //the prototype data model no longer has the correct resource factories
+	}
+
+	/**
+	 * Removes the resource factory being used to create resources with a type from the specified namespace. If there is no resource factory registered for this
+	 * namespace, no action will be taken.
+	 * @param typeNamespaceURI The namespace of the resource type for which this factory should be used to create objects.
+	 */
+	public void unregisterResourceFactory(final URI typeNamespaceURI) {
+		resourceFactoryMap.remove(typeNamespaceURI);
+		invalidatePrototypeRDF(); //the prototype data model no longer has the correct resource factories
+	}
+
+	/** An empty data model with the registered resource factories, from which new data models are created, or <code>null</code> if it must be recreated. */
+	private volatile RDFModel prototypeRDF = null;
+
+	/**
+	 * Returns an empty data model with the registered resource factories, creating it if needed. The prototype data model must not be modified.
+	 * @return A data model with the registered resource factories.
+	 */
+	private synchronized RDFModel getPrototypeRDF() {
+		RDFModel prototypeRDF = this.prototypeRDF;
+		if(prototypeRDF == null) { //if the resource factories have changed, create a new prototype
+			prototypeRDF = new RDFModel();
+			for(final Map.Entry<URI, RDFResourceFactory> resourceFactoryEntry : resourceFactoryMap.entrySet()) { //for each registered resource factory
+				prototypeRDF.registerResourceFactory(resourceFactoryEntry.getKey(), resourceFactoryEntry.getValue()); //register the factory with the prototype
+			}
+			this.prototypeRDF = prototypeRDF;
+		}
+		return prototypeRDF;
+	}
+
+	/** Indicates that the prototype data model must be recreated because the resource factories have changed. */
+	private synchronized void invalidatePrototypeRDF() {
+		prototypeRDF = null;
+	}
+
+	/** The map of serialization prefixes, keyed by namespace URIs. */
+	private final Map<URI, String> namespaceURIPrefixMap = new HashMap<URI, String>();
+
+	/** @return A read-only map of the registered serialization prefixes, keyed by namespace URIs. */
+	protected Map<URI, String> getNamespacePrefixMap() {
+		return unmodifiableMap(namespaceURIPrefixMap);
+	}
+
+	/**
+	 * Registers the given serialization prefix to be used with the given namespace URI. If a prefix is already registered with the given namespace, it is
+	 * replaced with this prefix.
+	 * @param namespaceURI The namespace URI.
+	 * @param prefix The serialization prefix to use with the given namespace.
+	 */
+	public void registerNamespacePrefix(final URI namespaceURI, final String prefix) {
+		namespaceURIPrefixMap.put(namespaceURI, prefix); //store the prefix in the map, keyed to the URI
+	}
+
+	/**
+	 * Unregisters the serialization prefix for the given namespace URI. If no prefix is registered for the given namespace, no action occurs.
+	 * @param namespaceURI The namespace URI.
+	 * @param prefix The serialization prefix to use with the given namespace.
+	 */
+	public void unregisterNamespacePrefix(final String namespaceURI, final String prefix) {
+		namespaceURIPrefixMap.remove(namespaceURI); //remove whatever prefix is registered with this namespace, if any
+	}
+
+	/** The bounds on the resources consumed while reading a single document. */
+	private RDFProcessingLimits limits = RDFProcessingLimits.UNLIMITED;
+
+	/** @return The bounds on the resources consumed while reading a single document; by default {@link RDFProcessingLimits#UNLIMITED}. */
+	public RDFProcessingLimits getLimits() {
+		return limits;
+	}
+
+	/**
+	 * Sets the bounds on the resources consumed while reading a single document. Reading a document that exceeds the limits fails with an
+	 * {@link java.io.IOException} the cause of which is a {@link RDFLimitExceededException}.
+	 * @param limits The processing limits.
+	 * @throws NullPointerException if the given limits are <code>null</code>.
+	 */
+	public void setLimits(final RDFProcessingLimits limits) {
+		this.limits = requireNonNull(limits, "Processing limits cannot be null.");
+	}
+
+	/**
+	 * Class constructor.
+	 * @param objectClass The class representing the type of object being loaded and saved.
+	 * @throws NullPointerException if the given class is <code>null</code>.
+	 */
+	public AbstractRDFIO(final Class<T> objectClass) {
+		this.objectClass = requireNonNull(objectClass, "Object class must be provided.");
+	}
+
+	/**
+	 * Creates an RDF instance for use in reading RDF data. This version creates a default RDF instance and then registers known resource factories.
+	 * @param baseURI The base URI of the RDF data model, or <code>null</code> if unknown.
+	 * @return An RDF instance appropriate for populating with data read from some source.
+	 */
+	protected RDFModel createRDF(final URI baseURI) {
+		final RDFModel prototypeRDF = this.prototypeRDF; //avoid locking if the prototype is available
+		return new RDFModel(prototypeRDF != null ? prototypeRDF : getPrototypeRDF()); //create a new RDF data model with the same factories as the prototype
+	}
+
+	/**
+	 * Reads a resource from an input stream. This version delegates to {@link #read(RDFModel, InputStream, URI)} using {@link #createRDF(URI)} to create a new RDF
+	 * instance.
+	 * @param inputStream The input stream from which to read the data.
+	 * @param baseURI The base URI of the data, or <code>null</code> if no base URI is available.
+	 * @return The resource read from the input stream.
+	 * @throws NullPointerException if the given input stream is <code>null</code>.
+	 * @throws IOException if there is an error reading the data.
+	 * @throws ClassCastException if no appropriate resource factory was installed, and the loaded resource is not of the correct Java class.
+	 */
+	public final T read(final InputStream inputStream, final URI baseURI) throws IOException {
+		return read(createRDF(baseURI), inputStream, baseURI); //create a new RDF data model, showing the base URI, and read and return the object
+	}
+
+}
@@ -16,14 +16,17 @@
 
 package com.globalmentor.rdf;
 
-import java.net.URI;
+import java.net.*;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.globalmentor.java.Java;
+import com.globalmentor.model.Locales;
 import com.globalmentor.net.*;
 
 import static com.globalmentor.rdf.RDFResources.*;
 import static com.globalmentor.rdf.spec.RDF.*;
+import static java.util.Objects.*;
 
 /**
  * Base class for RDF processors. Each instance of an RDF processor maintains an internal RDF data model throughout its lifetime that is continually updated
@@ -59,12 +62,171 @@ public RDFModel getRDF() {
 
 	/**
 	 * Sets the RDF data model. The list of statements is reset.
-	 * @param newRDF The RDF data model to use.
+	 * @param newRDF The RDF data model to use, or <code>null</code> if a reused processor should release its data model until the next processing.
 	 */
 	public void setRDF(final RDFModel newRDF) {
 		rdf = newRDF; //set the RDF data model
 		//TODO del when works			setBaseURI(rdf.getBaseURI());	//use the same base URI
-		statementSet.clear(); //clear the set of statements
+		clearStatements(); //clear the set of statements
+		clearResourceCaches(); //the cached resources belong to the old data model
+	}
+
+	/** The cache of namespace URIs, keyed to their string forms. */
+	private final Map<String, URI> namespaceURIMap = new HashMap<String, URI>();
+
+	/**
+	 * Returns the URI of a namespace given in a serialization. Namespace URIs are cached until the processor is reset, so that the many elements and attributes
+	 * in the same namespace share a single URI instance.
+	 * @param namespace The string form of the namespace URI, or <code>null</code> or the empty string if there is no namespace.
+	 * @return The namespace URI, or <code>null</code> if there is no namespace.
+	 * @throws URISyntaxException if the namespace is not a valid URI.
+	 */
+	protected URI toNamespaceURI(final String namespace) throws URISyntaxException {
+		if(namespace == null || namespace.isEmpty()) { //if there is no namespace
+			return null;
+		}
+		URI namespaceURI = namespaceURIMap.get(namespace); //see if we've seen this namespace before
+		if(namespaceURI == null) { //if this is a new namespace
+			namespaceURI = new URI(namespace);
+			namespaceURIMap.put(namespace, namespaceURI); //cache the URI for next time
+		}
+		return namespaceURI;
+	}
+
+	/** The cache of resources located by qualified name, keyed to local names in maps keyed to namespace URIs. */
+	private final Map<URI, Map<String, RDFResource>> qualifiedNameResourceMap = new HashMap<URI, Map<String, RDFResource>>();
+
+	/**
+	 * Retrieves a resource from the data model based upon an XML namespace URI and an XML local name, creating it if needed. Resources are cached until the
+	 * processor is reset, so that frequently used properties and types need not have reference URIs created and looked up in the data model each time.
+	 * @param namespaceURI The XML namespace URI used in the serialization, or <code>null</code> if there is no namespace.
+	 * @param localName The XML local name used in the serialization.
+	 * @return A resource with a reference URI corresponding to the given namespace URI and local name.
+	 * @see RDFModel#locateResource(URI, String)
+	 */
+	protected RDFResource locateQualifiedResource(final URI namespaceURI, final String localName) {
+		Map<String, RDFResource> localNameResourceMap = qualifiedNameResourceMap.get(namespaceURI); //get the resources in this namespace
+		if(localNameResourceMap == null) {
+			localNameResourceMap = new HashMap<String, RDFResource>();
+			qualifiedNameResourceMap.put(namespaceURI, localNameResourceMap);
+		}
+		RDFResource resource = localNameResourceMap.get(localName); //see if we've located this resource before
+		if(resource == null) { //if this is a new resource
+			resource = locateModelResource(createReferenceURI(namespaceURI, localName)); //locate the resource in the data model
+			localNameResourceMap.put(localName, resource); //cache the resource for next time
+		}
+		return resource;
+	}
+
+	/** The <code>rdf:type</code> property resource, or <code>null</code> if it has not yet been located. */
+	private RDFResource typeProperty = null;
+
+	/** @return The <code>rdf:type</code> property resource in the data model. */
+	protected RDFResource getTypeProperty() {
+		if(typeProperty == null) {
+			typeProperty = locateModelResource(createReferenceURI(NAMESPACE_URI, TYPE_PROPERTY_NAME));
+		}
+		return typeProperty;
+	}
+
+	/** The <code>rdf:first</code> property resource, or <code>null</code> if it has not yet been located. */
+	private RDFResource firstProperty = null;
+
+	/** @return The <code>rdf:first</code> property resource in the data model. */
+	protected RDFResource getFirstProperty() {
+		if(firstProperty == null) {
+			firstProperty = locateModelResource(createReferenceURI(NAMESPACE_URI, FIRST_PROPERTY_NAME));
+		}
+		return firstProperty;
+	}
+
+	/** The <code>rdf:rest</code> property resource, or <code>null</code> if it has not yet been located. */
+	private RDFResource restProperty = null;
+
+	/** @return The <code>rdf:rest</code> property resource in the data model. */
+	protected RDFResource getRestProperty() {
+		if(restProperty == null) {
+			restProperty = locateModelResource(createReferenceURI(NAMESPACE_URI, REST_PROPERTY_NAME));
+		}
+		return restProperty;
+	}
+
+	/** The <code>rdf:List</code> class resource, or <code>null</code> if it has not yet been located. */
+	private RDFResource listClass = null;
+
+	/** @return The <code>rdf:List</code> class resource in the data model. */
+	protected RDFResource getListClass() {
+		if(listClass == null) {
+			listClass = locateModelResource(createReferenceURI(NAMESPACE_URI, LIST_CLASS_NAME));
+		}
+		return listClass;
+	}
+
+	/**
+	 * The data model holding the resources located while projecting that were not already in the data model being populated, or <code>null</code> if no such
+	 * resources have been located.
+	 */
+	private RDFModel vocabularyRDF = null;
+
+	/**
+	 * Retrieves a resource used in the serialization, such as a predicate or a type, from the data model, creating it if needed. If a projection has been set,
+	 * a resource not already in the data model is instead created in a separate data model, and only moved to the data model being populated once a statement
+	 * using it is retained, so that the resources used only by discarded statements are never added.
+	 * @param referenceURI The reference URI of the resource to retrieve.
+	 * @return A resource with the given reference URI.
+	 * @see RDFModel#locateResource(URI)
+	 * @see #setProjection(RDFProjection)
+	 */
+	protected RDFResource locateModelResource(final URI referenceURI) {
+		if(getProjection() == null) { //if all statements will be retained
+			return getRDF().locateResource(referenceURI);
+		}
+		RDFResource resource = getRDF().getResource(referenceURI); //an existing resource can be used whether or not the statement is retained
+		if(resource == null) {
+			if(vocabularyRDF == null) {
+				vocabularyRDF = new RDFModel();
+			}
+			resource = vocabularyRDF.locateResource(referenceURI); //hold the resource apart until it is known to be needed
+		}
+		return resource;
+	}
+
+	/**
+	 * Moves any resources of a statement being retained that were located apart from the data model while projecting into the data model being populated.
+	 * @param statement The statement being retained.
+	 * @see #locateModelResource(URI)
+	 */
+	protected void locateModelResources(final Statement statement) {
+		if(vocabularyRDF != null && statement instanceof DefaultStatement) { //if resources have been held apart from the data model
+			final DefaultStatement defaultStatement = (DefaultStatement)statement;
+			final Resource subject = defaultStatement.getSubject();
+			if(subject instanceof RDFResource && ((RDFResource)subject).getRDF() == vocabularyRDF) {
+				defaultStatement.setSubject(getRDF().locateResource(subject.getURI()));
+			}
+			final Resource predicate = defaultStatement.getPredicate();
+			if(predicate instanceof RDFResource && ((RDFResource)predicate).getRDF() == vocabularyRDF) {
+				defaultStatement.setPredicate(getRDF().locateResource(predicate.getURI()));
+			}
+			final Object object = defaultStatement.getObject();
+			if(object instanceof RDFResource && ((RDFResource)object).getRDF() == vocabularyRDF) {
+				defaultStatement.setObject(getRDF().locateResource(((RDFResource)object).getURI()));
+			}
+		}
+	}
+
+	/**
+	 * Clears all cached namespace URIs and resources. The resources of the RDF vocabulary will be located again the next time they are needed.
+	 * @see #toNamespaceURI(String)
+	 * @see #locateQualifiedResource(URI, String)
+	 */
+	protected void clearResourceCaches() {
+		namespaceURIMap.clear();
+		qualifiedNameResourceMap.clear();
+		typeProperty = null;
+		firstProperty = null;
+		restProperty = null;
+		listClass = null;
+		vocabularyRDF = null;
 	}
 
 	/**
@@ -117,6 +279,7 @@ protected ResourceProxy getResourceProxy(final URI referenceURI) {
 	protected ResourceProxy getResourceProxy(final String nodeID) {
 		ResourceProxy resourceProxy = nodeIDResourceProxyMap.get(nodeID); //see if there is a proxy associated with the node ID
 		if(resourceProxy == null) { ///if there is no such resource proxy
+			countBlankNode(); //anonymous nodes, which are given generated node IDs, are counted as well
 			resourceProxy = new ResourceProxy(nodeID); //create a new resource proxy
 			nodeIDResourceProxyMap.put(nodeID, resourceProxy); //store the resource proxy in the map for next time
 		}
@@ -144,23 +307,429 @@ protected void putProxiedRDFResource(final ResourceProxy resourceProxy, final RD
 		proxiedRDFResourceMap.put(resourceProxy, resource); //store the resource keyed to the resource proxy
 	}
 
+	/**
+	 * Returns the RDF resources created for the node IDs that appeared in the processed serialization, keyed to node ID. Node IDs generated by the processor
+	 * for anonymous nodes are not included, as they have no meaning outside this processor. This information is only available after resources have been
+	 * created and before the processor is reset.
+	 * @return A map of RDF resources created for node IDs given in the serialization.
+	 * @see #createResources()
+	 */
+	public Map<String, RDFResource> getNodeIDRDFResources() {
+		final Map<String, RDFResource> nodeIDRDFResourceMap = new HashMap<String, RDFResource>();
+		for(final Map.Entry<String, ResourceProxy> nodeIDResourceProxyEntry : nodeIDResourceProxyMap.entrySet()) { //look at all the node IDs we know about
+			final String nodeID = nodeIDResourceProxyEntry.getKey();
+			if(!isGeneratedNodeID(nodeID)) { //if this node ID came from the serialization
+				final RDFResource resource = getProxiedRDFResource(nodeIDResourceProxyEntry.getValue()); //see which resource was created for the node ID
+				if(resource != null) {
+					nodeIDRDFResourceMap.put(nodeID, resource);
+				}
+			}
+		}
+		return nodeIDRDFResourceMap;
+	}
+
+	/**
+	 * Merges the data model of a processor that processed part of the same serialization into the data model of this processor. Blank nodes that the
+	 * serialization identifies by the same node ID are reconciled with those of chunks merged earlier, and named resources are deduplicated by reference URI.
+	 * Chunks should be merged in serialization order.
+	 * <p>
+	 * References to resources replaced by more specific resources of the chunk are not redirected, so that merging many chunks does not walk the growing data
+	 * model once per chunk; once all the chunks have been merged, {@link #completeChunkMerge(Map, Map)} must be called to redirect the references in a single
+	 * pass.
+	 * </p>
+	 * @param chunkProcessor The processor of a chunk of the serialization, which has already created its resources and processed its statements.
+	 * @param nodeIDRDFResourceMap The resources of this data model representing each node ID merged so far, which will be updated with the node IDs of the
+	 *          chunk. Resources in the map may have been replaced by resources in the replaced resource map.
+	 * @param replacedResourceMap The resources of this data model replaced by chunks merged so far, mapped to their replacements using identity rather than
+	 *          equality, which will be updated with the resources replaced by the chunk.
+	 * @see RDFModel#mergeWithoutRedirection(RDFModel, Map)
+	 * @see #shareCounts(AbstractRDFProcessor)
+	 */
+	protected void mergeChunk(final AbstractRDFProcessor chunkProcessor, final Map<String, RDFResource> nodeIDRDFResourceMap,
+			final Map<RDFResource, RDFResource> replacedResourceMap) {
+		final Map<RDFResource, RDFResource> mergedResourceMap = new IdentityHashMap<RDFResource, RDFResource>(); //the chunk blank nodes that are the same as ones already merged
+		for(final Map.Entry<String, RDFResource> chunkNodeIDRDFResourceEntry : chunkProcessor.getNodeIDRDFResources().entrySet()) {
+			final RDFResource nodeIDRDFResource = nodeIDRDFResourceMap.putIfAbsent(chunkNodeIDRDFResourceEntry.getKey(), chunkNodeIDRDFResourceEntry.getValue());
+			if(nodeIDRDFResource != null) { //if an earlier chunk already had a resource for this node ID, use that resource, or whatever replaced it
+				mergedResourceMap.put(chunkNodeIDRDFResourceEntry.getValue(), replacedResourceMap.getOrDefault(nodeIDRDFResource, nodeIDRDFResource));
+			}
+		}
+		replacedResourceMap.putAll(getRDF().mergeWithoutRedirection(chunkProcessor.getRDF(), mergedResourceMap)); //merge the resources of the chunk
+	}
+
+	/**
+	 * Completes the merging of the data models of chunks of the serialization: redirects all references to resources replaced while merging to their
+	 * replacements, and associates node IDs with the resources of this data model that represent them, so that any remaining references to the node IDs in
+	 * statements of this processor will resolve to those resources. The blank nodes are not counted again, as they were counted by the processors that produced
+	 * them.
+	 * @param nodeIDRDFResourceMap The resources of this data model keyed to the node IDs they represent.
+	 * @param replacedResourceMap The resources of this data model replaced while merging, mapped to their replacements.
+	 * @see #mergeChunk(AbstractRDFProcessor, Map, Map)
+	 * @see RDFModel#redirectReferences(Map)
+	 */
+	protected void completeChunkMerge(final Map<String, RDFResource> nodeIDRDFResourceMap, final Map<RDFResource, RDFResource> replacedResourceMap) {
+		getRDF().redirectReferences(replacedResourceMap);
+		for(final Map.Entry<String, RDFResource> nodeIDRDFResourceEntry : nodeIDRDFResourceMap.entrySet()) {
+			final ResourceProxy resourceProxy = nodeIDResourceProxyMap.computeIfAbsent(nodeIDRDFResourceEntry.getKey(), nodeID -> new ResourceProxy(nodeID));
+			final RDFResource resource = nodeIDRDFResourceEntry.getValue();
+			putProxiedRDFResource(resourceProxy, replacedResourceMap.getOrDefault(resource, resource)); //the node ID now represents any replacement
+		}
+	}
+
+	/** The prefix of node IDs generated by the processor. */
+	private static final String GENERATED_NODE_ID_PREFIX = AbstractRDFProcessor.class.getName() + Java.PACKAGE_SEPARATOR + "nodeID";
+
+	/**
+	 * Determines whether the given node ID was generated by a processor rather than appearing in a serialization.
+	 * @param nodeID The node ID to check.
+	 * @return <code>true</code> if the node ID was generated using {@link #generateNodeID()}.
+	 */
+	protected static boolean isGeneratedNodeID(final String nodeID) {
+		return nodeID.startsWith(GENERATED_NODE_ID_PREFIX);
+	}
+
 	/** The next number to use when generating node IDs. */
 	private long nextNodeIDTag = 1;
 
 	/** @return A unique node ID appropriate for a new node. */
 	protected String generateNodeID() {
-		return AbstractRDFProcessor.class.getName() + Java.PACKAGE_SEPARATOR + "nodeID" + (nextNodeIDTag++); //use the next node ID tag and increments TODO use a constant
+		return GENERATED_NODE_ID_PREFIX + (nextNodeIDTag++); //use the next node ID tag and increment it
+	}
+
+	/** Whether statements are applied to the data model as soon as their resources can be determined. */
+	private boolean streaming = false;
+
+	/** @return Whether statements are applied to the data model as soon as their resources can be determined, rather than being collected first. */
+	public boolean isStreaming() {
+		return streaming;
 	}
 
-	/** The set of all statements used to create the resources. */
-	private final Set<Statement> statementSet = new HashSet<Statement>();
+	/**
+	 * Sets whether statements are applied to the data model as soon as their resources can be determined.
+	 * <p>
+	 * In streaming mode a resource proxy is resolved the moment its type is known, and any statement whose subject, predicate, and object are all resolved is
+	 * added directly to the data model rather than being collected. Only statements that are still ambiguous, such as those referring to a resource the type of
+	 * which may appear later, are collected and processed after parsing. As a result the processor's statements only include those that were deferred.
+	 * </p>
+	 * @param streaming <code>true</code> if statements should be applied as they are added.
+	 */
+	public void setStreaming(final boolean streaming) {
+		this.streaming = streaming;
+	}
+
+	/** The projection identifying the resources for which statements should be retained, or <code>null</code> if all statements should be retained. */
+	private RDFProjection projection = null;
+
+	/** @return The projection identifying the resources for which statements should be retained, or <code>null</code> if all statements should be retained. */
+	public RDFProjection getProjection() {
+		return projection;
+	}
 
 	/**
-	 * Adds a statement to the list of statements. If an equivalent statement already exists in the list, no action occurs.
+	 * Sets the projection identifying the resources for which statements should be retained. When a projection is set, statements are filtered as they are
+	 * produced: a statement is retained, and streamed if streaming is enabled, once its subject is reachable from the projection targets. The statements of a
+	 * subject not yet reachable are held until the subject becomes reachable, and are discarded if it never does.
+	 * @param projection The projection of the data to retain, or <code>null</code> if all statements should be retained.
+	 * @see #createResources()
+	 */
+	public void setProjection(final RDFProjection projection) {
+		this.projection = projection;
+	}
+
+	/** The resources reachable from the projection targets among the statements produced so far. */
+	private final Set<Resource> projectedResources = new HashSet<Resource>();
+
+	/** The statements held back while projecting, keyed to the subjects not yet reachable from the projection targets. */
+	private final Map<Resource, List<Statement>> heldSubjectStatementsMap = new HashMap<Resource, List<Statement>>();
+
+	/** The projection targets that have been referred to as the objects of statements, the statements of which may have been discarded. */
+	private final List<ResourceProxy> objectTargetProxies = new ArrayList<ResourceProxy>();
+
+	/** The bounds on the resources consumed while processing. */
+	private RDFProcessingLimits limits = RDFProcessingLimits.UNLIMITED;
+
+	/** @return The bounds on the resources consumed while processing; by default {@link RDFProcessingLimits#UNLIMITED}. */
+	public RDFProcessingLimits getLimits() {
+		return limits;
+	}
+
+	/**
+	 * Sets the bounds on the resources consumed while processing. If a limit is exceeded, processing stops immediately with a
+	 * {@link RDFLimitExceededException}. The limits apply to each serialization processed between resets of the processor.
+	 * @param limits The processing limits.
+	 * @throws NullPointerException if the given limits are <code>null</code>.
+	 */
+	public void setLimits(final RDFProcessingLimits limits) {
+		this.limits = requireNonNull(limits, "Processing limits cannot be null.");
+	}
+
+	/** The number of statements produced since the last reset. */
+	private int statementCount = 0;
+
+	/** The number of distinct blank nodes produced since the last reset. */
+	private int blankNodeCount = 0;
+
+	/** The number of statements produced by all the processors of the serialization being processed in parallel, or <code>null</code> if not shared. */
+	private AtomicInteger sharedStatementCount = null;
+
+	/** The number of blank nodes produced by all the processors of the serialization being processed in parallel, or <code>null</code> if not shared. */
+	private AtomicInteger sharedBlankNodeCount = null;
+
+	/**
+	 * Shares the counts used for enforcing the processing limits with a processor that will process part of the same serialization, so that the statements and
+	 * blank nodes of all the parts are held to a single budget while they are being processed, rather than each part being given the entire budget. The shared
+	 * counts start with the counts of this processor, and remain shared until this processor is reset. A blank node identified by the same node ID in several
+	 * parts is counted once for each part.
+	 * @param chunkProcessor The newly created processor of a chunk of the serialization, which must not be reset before it has finished processing.
+	 * @see #mergeChunk(AbstractRDFProcessor, Map, Map)
+	 */
+	protected void shareCounts(final AbstractRDFProcessor chunkProcessor) {
+		if(sharedStatementCount == null) { //if this is the first chunk, start sharing our own counts
+			sharedStatementCount = new AtomicInteger(statementCount);
+			sharedBlankNodeCount = new AtomicInteger(blankNodeCount);
+		}
+		chunkProcessor.sharedStatementCount = sharedStatementCount;
+		chunkProcessor.sharedBlankNodeCount = sharedBlankNodeCount;
+	}
+
+	/**
+	 * Counts a statement against the maximum statement count.
+	 * @throws RDFLimitExceededException if the statement would exceed the maximum statement count.
+	 * @see RDFProcessingLimits#getMaxStatementCount()
+	 * @see #shareCounts(AbstractRDFProcessor)
+	 */
+	protected void countStatement() {
+		final int count = sharedStatementCount != null ? sharedStatementCount.incrementAndGet() : ++statementCount;
+		if(count > limits.getMaxStatementCount()) { //if this statement would take us over the limit
+			throw new RDFLimitExceededException("statements", limits.getMaxStatementCount());
+		}
+	}
+
+	/**
+	 * Counts a distinct blank node against the maximum blank node count.
+	 * @throws RDFLimitExceededException if the blank node would exceed the maximum blank node count.
+	 * @see RDFProcessingLimits#getMaxBlankNodeCount()
+	 * @see #shareCounts(AbstractRDFProcessor)
+	 */
+	protected void countBlankNode() {
+		final int count = sharedBlankNodeCount != null ? sharedBlankNodeCount.incrementAndGet() : ++blankNodeCount;
+		if(count > limits.getMaxBlankNodeCount()) { //if this blank node would take us over the limit
+			throw new RDFLimitExceededException("blank nodes", limits.getMaxBlankNodeCount());
+		}
+	}
+
+	/** The current nesting depth of the serialization being processed. */
+	private int depth = 0;
+
+	/**
+	 * Indicates that processing has descended one level into the serialization, such as to the children of an element.
+	 * @throws RDFLimitExceededException if the new depth exceeds the maximum depth.
+	 * @see RDFProcessingLimits#getMaxDepth()
+	 */
+	protected void increaseDepth() {
+		if(++depth > limits.getMaxDepth()) {
+			throw new RDFLimitExceededException("levels of nesting", limits.getMaxDepth());
+		}
+	}
+
+	/**
+	 * Indicates that processing has ascended one level in the serialization.
+	 * @see #increaseDepth()
+	 */
+	protected void decreaseDepth() {
+		--depth;
+	}
+
+	/**
+	 * Checks the length of the lexical form of a literal, or of the part of it collected so far.
+	 * @param length The number of characters in the lexical form.
+	 * @throws RDFLimitExceededException if the length exceeds the maximum literal length.
+	 * @see RDFProcessingLimits#getMaxLiteralLength()
+	 */
+	protected void checkLiteralLength(final int length) {
+		if(length > limits.getMaxLiteralLength()) {
+			throw new RDFLimitExceededException("characters in a literal", limits.getMaxLiteralLength());
+		}
+	}
+
+	/** The set of all statements used to create the resources, in the order they were added. */
+	private final Set<Statement> statementSet = new LinkedHashSet<Statement>();
+
+	/** The lists of <code>rdf:type</code> statements, keyed to the subject, usually a resource proxy, the statements had when they were added. */
+	private final Map<Resource, List<Statement>> subjectTypeStatementsMap = new HashMap<Resource, List<Statement>>();
+
+	/**
+	 * Retrieves the <code>rdf:type</code> statements that were added with the given subject.
+	 * @param subject The subject, usually a resource proxy, of the type statements.
+	 * @return The type statements with the given subject, in the order they were added.
+	 */
+	protected List<Statement> getTypeStatements(final Resource subject) {
+		final List<Statement> typeStatements = subjectTypeStatementsMap.get(subject); //get the type statements for this subject
+		return typeStatements != null ? typeStatements : Collections.<Statement>emptyList(); //return the type statements, if any
+	}
+
+	/** The statement handler that collects statements and uses them to populate the RDF data model. */
+	private final StatementHandler rdfModelStatementHandler = new RDFModelStatementHandler();
+
+	/**
+	 * Returns the statement handler that collects statements and uses them to populate the RDF data model. This handler is used by default, and may be used by
+	 * another statement handler that wishes to populate the data model in addition to handling the statements itself.
+	 * @return The statement handler that populates the RDF data model.
+	 */
+	public StatementHandler getRDFModelStatementHandler() {
+		return rdfModelStatementHandler;
+	}
+
+	/** The handler to receive statements as they are produced. */
+	private StatementHandler statementHandler = rdfModelStatementHandler;
+
+	/** @return The handler to receive statements as they are produced; by default the handler that populates the RDF data model. */
+	public StatementHandler getStatementHandler() {
+		return statementHandler;
+	}
+
+	/**
+	 * Sets the handler to receive statements as they are produced. If the handler is not the handler that populates the RDF data model, statements are not
+	 * collected and the RDF data model is not populated, other than to represent the predicates and types encountered.
+	 * @param statementHandler The handler to receive statements.
+	 * @throws NullPointerException if the given statement handler is <code>null</code>.
+	 * @see #getRDFModelStatementHandler()
+	 */
+	public void setStatementHandler(final StatementHandler statementHandler) {
+		this.statementHandler = requireNonNull(statementHandler, "Statement handler cannot be null.");
+	}
+
+	/**
+	 * Sends a statement to the statement handler.
 	 * @param statement The statement to add.
+	 * @see #getStatementHandler()
 	 */
 	protected void addStatement(final Statement statement) {
-		statementSet.add(statement); //add the statement to the set
+		countStatement();
+		getStatementHandler().handleStatement(statement); //let the statement handler handle the statement
+	}
+
+	/**
+	 * Creates a statement with an object that is either a resource or a literal.
+	 * @param subject The subject of the statement.
+	 * @param predicate The predicate of the statement.
+	 * @param object The resource or literal object of the statement.
+	 * @return A new statement.
+	 * @throws NullPointerException if the given object is <code>null</code>.
+	 * @throws IllegalArgumentException if the given object is neither a resource nor a literal.
+	 */
+	protected static Statement createStatement(final Resource subject, final Resource predicate, final Object object) {
+		if(requireNonNull(object, "Object cannot be null.") instanceof Resource) {
+			return new DefaultStatement(subject, predicate, (Resource)object);
+		} else if(object instanceof RDFLiteral) {
+			return new DefaultStatement(subject, predicate, (RDFLiteral)object);
+		}
+		throw new IllegalArgumentException("Statement object must be a resource or a literal; found " + object.getClass() + ".");
+	}
+
+	/**
+	 * Creates a literal from its lexical form and either a datatype or a language tag.
+	 * @param lexicalForm The lexical form of the literal.
+	 * @param datatypeURI The URI of the datatype of a typed literal, or <code>null</code> if the literal is a plain literal.
+	 * @param languageTag The language tag of a plain literal, or <code>null</code> if the literal has no language; ignored if a datatype is given.
+	 * @return A typed literal if a datatype is given, otherwise a plain literal.
+	 * @throws IllegalArgumentException if the lexical form is not valid for the given datatype.
+	 */
+	protected RDFLiteral createLiteral(final String lexicalForm, final URI datatypeURI, final String languageTag) {
+		if(datatypeURI != null) { //if a datatype is present
+			return getRDF().createTypedLiteral(lexicalForm, datatypeURI); //create a typed literal from the lexical form
+		}
+		final Locale languageLocale = languageTag != null ? Locales.createLocale(languageTag) : null; //create a locale for the language if there is a language tag
+		return new RDFPlainLiteral(lexicalForm, languageLocale); //create a plain literal, noting the specified language if any
+	}
+
+	/**
+	 * Adds the statements describing a new node of an RDF list: the list type of the node, the item of the node as its <code>rdf:first</code> property, and, if
+	 * there is a previous node, the new node as the <code>rdf:rest</code> property of the previous node.
+	 * @param previousListNode The previous node of the list, or <code>null</code> if the new node is the first node of the list.
+	 * @param item The resource or literal item of the new node.
+	 * @return A resource proxy representing the new list node.
+	 * @see #endList(Resource, Resource)
+	 */
+	protected Resource addListNode(final Resource previousListNode, final Object item) {
+		final Resource listNode = getResourceProxy(generateNodeID()); //create a new list resource proxy to represent this item in the collection
+		//add a statement in the form, {list, rdf:type, rdf:list}
+		addStatement(new DefaultStatement(listNode, getTypeProperty(), getListClass()));
+		//add a statement setting the list's rdf:first property to the item
+		addStatement(createStatement(listNode, getFirstProperty(), item));
+		if(previousListNode != null) { //if there is a previous list node, set its rdf:rest property to the new list node
+			addStatement(new DefaultStatement(previousListNode, getRestProperty(), listNode));
+		}
+		return listNode;
+	}
+
+	/**
+	 * Ends an RDF list by adding the statements describing the <code>rdf:nil</code> list and setting it as the <code>rdf:rest</code> property of the last node of
+	 * the list.
+	 * @param firstListNode The first node of the list, or <code>null</code> if the list has no items.
+	 * @param lastListNode The last node of the list, or <code>null</code> if the list has no items.
+	 * @return The first node of the list, or a list resource representing <code>rdf:nil</code> if the list has no items.
+	 * @see #addListNode(Resource, Object)
+	 */
+	protected Resource endList(final Resource firstListNode, final Resource lastListNode) {
+		final RDFListResource<RDFObject> nilListResource = new RDFListResource<RDFObject>(NIL_RESOURCE_URI); //create a list resource representing the rdf:nil resource; don't use an existing rdf:nil list resource, because the reference URI may need to change when the list is modified
+		//add a statement in the form, {nil list, rdf:type, rdf:list}
+		addStatement(new DefaultStatement(nilListResource, getTypeProperty(), getListClass()));
+		if(lastListNode != null) { //if there was a last item, set its rdf:rest property to the rdf:nil list
+			addStatement(new DefaultStatement(lastListNode, getRestProperty(), nilListResource));
+		}
+		return firstListNode != null ? firstListNode : nilListResource; //an empty list is the rdf:nil list
+	}
+
+	/**
+	 * Attempts to apply a statement directly to the data model. The statement is applied only if its predicate and object are already resolved, and if its
+	 * subject is resolved or can be resolved because the statement provides the first type of the subject.
+	 * @param statement The statement to apply.
+	 * @return <code>true</code> if the statement was applied, or <code>false</code> if applying it must be deferred.
+	 * @see #isStreaming()
+	 */
+	protected boolean applyStatement(final Statement statement) {
+		final Object object = statement.getObject(); //get the statement object
+		final RDFObject rdfObject = object instanceof RDFLiteral ? (RDFLiteral)object : getResolvedRDFResource(object); //see if we have a literal or a resolved resource
+		if(rdfObject == null) { //if the object is not yet known
+			return false;
+		}
+		final RDFResource predicate = getResolvedRDFResource(statement.getPredicate()); //see if the predicate is known
+		if(predicate == null) { //if the predicate is not yet known
+			return false;
+		}
+		final Resource subject = statement.getSubject(); //get the statement subject
+		RDFResource rdfSubject = getResolvedRDFResource(subject); //see if the subject is known
+		if(rdfSubject == null) { //if the subject is not yet known, see if this statement gives us its type
+			//if this is the first type for the proxy, in the form {resource proxy, rdf:type, type resource}
+			if(subject instanceof ResourceProxy && TYPE_PROPERTY_REFERENCE_URI.equals(predicate.getURI()) && rdfObject instanceof RDFResource
+					&& getTypeStatements(subject).isEmpty()) {
+				final ResourceProxy resourceProxy = (ResourceProxy)subject;
+				rdfSubject = createTypedResource(resourceProxy, (RDFResource)rdfObject); //create a resource of the appropriate type
+				if(rdfSubject == null) { //if the type couldn't be used for creating a resource, let the type be determined later
+					return false;
+				}
+				putProxiedRDFResource(resourceProxy, rdfSubject); //associate the resource with the resource proxy
+			} else {
+				return false;
+			}
+		}
+		rdfSubject.addProperty(predicate, rdfObject); //process this statement by adding the predicate and object to the subject as a property
+		return true;
+	}
+
+	/**
+	 * Returns the RDF resource for the given object if it is already an RDF resource or is a proxy for which a resource has already been created.
+	 * @param object The resource or resource proxy.
+	 * @return The RDF resource represented by the object, or <code>null</code> if the object has not yet been resolved to an RDF resource.
+	 */
+	protected RDFResource getResolvedRDFResource(final Object object) {
+		if(object instanceof RDFResource) { //if the object is already an RDF resource
+			return (RDFResource)object;
+		} else if(object instanceof ResourceProxy) { //if the object is a proxy, see if it has been resolved
+			return getProxiedRDFResource((ResourceProxy)object);
+		}
+		return null; //we don't recognize the object
 	}
 
 	/**
@@ -173,6 +742,7 @@ public Iterator<Statement> getStatementIterator() {
 	/** Clear all collected RDF statements. */
 	public void clearStatements() {
 		statementSet.clear(); //clear the set of statements
+		subjectTypeStatementsMap.clear(); //clear the index of type statements
 	}
 
 	/** Default constructor. */
@@ -196,7 +766,16 @@ public void reset() {
 		referenceURIResourceProxyMap.clear(); //clear our map of resource proxies keyed to reference URIs
 		nodeIDResourceProxyMap.clear(); //clear our map of resource proxies keyed to node IDs
 		proxiedRDFResourceMap.clear(); //clear our map of RDF resources keyed to resource proxies
+		clearResourceCaches(); //the data model may change before the next processing
 		nextNodeIDTag = 1; //reset our counter that keeps track of the next node ID to use
+		statementCount = 0; //reset the counters used for enforcing the processing limits
+		blankNodeCount = 0;
+		sharedStatementCount = null; //stop sharing counts with the processors of any chunks
+		sharedBlankNodeCount = null;
+		depth = 0;
+		projectedResources.clear(); //discard the statements of any resources never reached
+		heldSubjectStatementsMap.clear();
+		objectTargetProxies.clear();
 	}
 
 	/**
@@ -205,6 +784,9 @@ public void reset() {
 	 * @see ResourceProxy
 	 */
 	public void createResources() {
+		for(final ResourceProxy objectTargetProxy : objectTargetProxies) { //the statements referring to these targets may have been discarded, so create the targets now
+			unproxyRDFResource(objectTargetProxy);
+		}
 		createResources(null); //create resources without keeping track of any resource in particular
 	}
 
@@ -261,36 +843,26 @@ public RDFResource createResources(final Resource resource) { //TODO maybe check
 
 	/**
 	 * For the given resource proxy, returns the existing RDF resource the proxy represents or, if there is no target, creates a new RDF resource for the proxy.
-	 * If the latter, the statements are iterated to determine an appropriate type for the new resource, if possible.
+	 * If the latter, the indexed type statements of the proxy are used to determine an appropriate type for the new resource, if possible.
 	 * @param resourceProxy The resource that represents the RDF resource by reference URI or node ID.
 	 * @return A
 	 */
 	protected RDFResource unproxyRDFResource(final ResourceProxy resourceProxy) {
 		RDFResource resource = getProxiedRDFResource(resourceProxy); //see if we already have a resource represented by the proxy
 		if(resource == null) { //if we have no such resource, create one; first, look for an appropriate type
-			final Iterator<Statement> statementIterator = getStatementIterator(); //get an iterator to statements
-			while(resource == null && statementIterator.hasNext()) { //while there are more statements and we haven't created a resource
-				final Statement statement = statementIterator.next(); //get the next statement
-				//if this is a statement in the form, {resource proxy, rdf:type, XXX}
-				if(statement.getSubject().equals(resourceProxy) //if this statement has this resource proxy as its subject
-						&& TYPE_PROPERTY_REFERENCE_URI.equals(statement.getPredicate().getURI())) { //if this statement has a predicate of rdf:type
-					final RDFResource typeValueRDFResource; //we'll find a resource to use as the type value
-					final Object typeValueResource = statement.getObject(); //get the type value, which may be a resource or a literal
-					if(typeValueResource instanceof RDFResource) { //if the type value is already an RDF resource
-						typeValueRDFResource = (RDFResource)typeValueResource; //use the type value already in place
-					} else if(typeValueResource instanceof ResourceProxy) { //if the type value is only resource proxy
-						typeValueRDFResource = unproxyRDFResource((ResourceProxy)typeValueResource); //unproxy the type value (note that this will not replace the proxy in the statement, but it will create the resource and associate it with the proxy so that when it does come time to replace the proxy, it will already be there)
-					} else { //if we don't recognize the value
-						continue; //go to the next statement---we even though this is a type statement, there's no type value we can use
-					}
-					//if the type value has a separate namespace URI and local name we can use for creating a resource from a factory
-					final URI typeNamespaceURI = getNamespaceURI(typeValueRDFResource.getURI()); //see if we can get a namespace URI for the type
-					final String typeLocalName = getLocalName(typeValueRDFResource.getURI()); //see if we can get a local name for the type
-					if(typeNamespaceURI != null && typeLocalName != null) { //if we have both a type and local name
-						//try to create a resource using the appropriate resource factory, creating a default resource if no factory could generate one 
-						resource = getRDF().createTypedResource(resourceProxy.getURI(), typeNamespaceURI, typeLocalName);
-					}
+			final Iterator<Statement> statementIterator = getTypeStatements(resourceProxy).iterator(); //get an iterator to the statements in the form, {resource proxy, rdf:type, XXX}
+			while(resource == null && statementIterator.hasNext()) { //while there are more type statements and we haven't created a resource
+				final Statement statement = statementIterator.next(); //get the next type statement
+				final RDFResource typeValueRDFResource; //we'll find a resource to use as the type value
+				final Object typeValueResource = statement.getObject(); //get the type value, which may be a resource or a literal
+				if(typeValueResource instanceof RDFResource) { //if the type value is already an RDF resource
+					typeValueRDFResource = (RDFResource)typeValueResource; //use the type value already in place
+				} else if(typeValueResource instanceof ResourceProxy) { //if the type value is only resource proxy
+					typeValueRDFResource = unproxyRDFResource((ResourceProxy)typeValueResource); //unproxy the type value (note that this will not replace the proxy in the statement, but it will create the resource and associate it with the proxy so that when it does come time to replace the proxy, it will already be there)
+				} else { //if we don't recognize the value
+					continue; //go to the next statement---we even though this is a type statement, there's no type value we can use
 				}
+				resource = createTypedResource(resourceProxy, typeValueRDFResource); //try to create a resource of the given type
 			}
 			if(resource == null) { //if we couldn't create a resource from a statement that provided the type
 				resource = getRDF().createResource(resourceProxy.getURI()); //create a default resource from the proxy
@@ -300,6 +872,24 @@ protected RDFResource unproxyRDFResource(final ResourceProxy resourceProxy) {
 		return resource; //return the resource that was either already the target of the proxy, or that we created and associated with the proxy
 	}
 
+	/**
+	 * Creates a resource for a resource proxy using the given type.
+	 * @param resourceProxy The resource that represents the RDF resource by reference URI or node ID.
+	 * @param typeValueRDFResource The resource representing the type of the resource.
+	 * @return A new resource, created using the appropriate resource factory if possible, or <code>null</code> if the type has no separate namespace URI and local
+	 *         name.
+	 */
+	protected RDFResource createTypedResource(final ResourceProxy resourceProxy, final RDFResource typeValueRDFResource) {
+		//if the type value has a separate namespace URI and local name we can use for creating a resource from a factory
+		final URI typeNamespaceURI = getNamespaceURI(typeValueRDFResource.getURI()); //see if we can get a namespace URI for the type
+		final String typeLocalName = getLocalName(typeValueRDFResource.getURI()); //see if we can get a local name for the type
+		if(typeNamespaceURI != null && typeLocalName != null) { //if we have both a type and local name
+			//try to create a resource using the appropriate resource factory, creating a default resource if no factory could generate one 
+			return getRDF().createTypedResource(resourceProxy.getURI(), typeNamespaceURI, typeLocalName);
+		}
+		return null; //we couldn't use the type
+	}
+
 	/**
 	 * Processes all statements by creating associations between resources that reflect the assertions contained in the statements.
 	 */
@@ -324,6 +914,108 @@ public void processStatements() {
 		}
 	}
 
+	/**
+	 * The statement handler that populates the RDF data model.
+	 * <p>
+	 * Statements are added to the list of statements. If an equivalent statement already exists in the list, no action occurs. In streaming mode, the statement
+	 * is instead applied directly to the data model if possible. Statements with a predicate of <code>rdf:type</code> are also indexed by their subject, so that
+	 * types can be found for resource proxies without searching all the statements. If a projection has been set, a statement is only handled in this way once
+	 * its subject is reachable from the projection targets.
+	 * </p>
+	 * @author Garret Wilson
+	 * @see AbstractRDFProcessor#isStreaming()
+	 * @see AbstractRDFProcessor#setProjection(RDFProjection)
+	 */
+	protected class RDFModelStatementHandler implements StatementHandler {
+
+		@Override
+		public void handleStatement(final Statement statement) {
+			final RDFProjection projection = getProjection();
+			if(projection != null) { //if only some of the data is needed
+				projectStatement(statement, projection);
+			} else {
+				retainStatement(statement);
+			}
+		}
+
+		/**
+		 * Retains a statement if its subject is reachable from the targets of the given projection; otherwise holds the statement until its subject becomes
+		 * reachable.
+		 * @param statement The statement to project.
+		 * @param projection The projection identifying the target resources.
+		 * @see RDFProjection#isTarget(Resource, Collection)
+		 */
+		protected void projectStatement(final Statement statement, final RDFProjection projection) {
+			final Resource subject = statement.getSubject();
+			final Object object = statement.getObject();
+			if(object instanceof Resource && !projectedResources.contains(object) && projection.isTarget((Resource)object, Collections.<Statement>emptyList())) {
+				if(object instanceof ResourceProxy) { //if the target is only referred to, it will need to be created even if this statement is discarded
+					objectTargetProxies.add((ResourceProxy)object);
+				}
+				project((Resource)object);
+			}
+			if(projectedResources.contains(subject)) { //if we already know the subject is needed
+				retainStatement(statement);
+				if(object instanceof Resource) {
+					project((Resource)object);
+				}
+			} else {
+				heldSubjectStatementsMap.computeIfAbsent(subject, heldSubject -> new ArrayList<Statement>(4)).add(statement); //hold the statement until we know whether it is needed
+				if(projection.isTarget(subject, Collections.singletonList(statement))) {
+					project(subject);
+				}
+			}
+		}
+
+		/**
+		 * Marks a resource as reachable from the projection targets, retaining the held statements of it and of every resource newly reachable from it.
+		 * @param resource The resource that has been reached.
+		 */
+		private void project(final Resource resource) {
+			if(!projectedResources.add(resource)) { //if the resource has already been reached
+				return;
+			}
+			final Deque<Resource> resourceQueue = new ArrayDeque<Resource>();
+			resourceQueue.add(resource);
+			Resource reachedResource;
+			while((reachedResource = resourceQueue.poll()) != null) { //retain the held statements of each newly reachable resource
+				final List<Statement> heldStatements = heldSubjectStatementsMap.remove(reachedResource);
+				if(heldStatements != null) {
+					for(final Statement heldStatement : heldStatements) {
+						retainStatement(heldStatement);
+						final Object object = heldStatement.getObject();
+						if(object instanceof Resource && projectedResources.add((Resource)object)) { //if we haven't yet reached this object
+							resourceQueue.add((Resource)object);
+						}
+					}
+				}
+			}
+		}
+
+		/**
+		 * Retains a statement, applying it to the data model immediately if streaming and possible, and otherwise collecting it.
+		 * @param statement The statement to retain.
+		 */
+		protected void retainStatement(final Statement statement) {
+			locateModelResources(statement); //make sure the resources of the statement are in the data model
+			if(isStreaming() && applyStatement(statement)) { //if we're streaming and we were able to apply the statement immediately
+				return; //there's no need to keep the statement
+			}
+			if(statementSet.add(statement)) { //add the statement to the set; if this is a new statement
+				final Resource subject = statement.getSubject(); //get the statement subject
+				if(subject != null && TYPE_PROPERTY_REFERENCE_URI.equals(statement.getPredicate().getURI())) { //if this statement has a predicate of rdf:type
+					List<Statement> typeStatements = subjectTypeStatementsMap.get(subject); //get the type statements already indexed for this subject
+					if(typeStatements == null) { //if this is the first type statement for the subject
+						typeStatements = new ArrayList<Statement>(1); //most resources have a single type
+						subjectTypeStatementsMap.put(subject, typeStatements); //index the type statements by subject
+					}
+					typeStatements.add(statement); //index this type statement
+				}
+			}
+		}
+
+	}
+
 	/**
 	 * A class which represents a resource using either a reference URI or a node ID, but not both.
 	 * @author Garret Wilson
@@ -342,7 +1034,7 @@ public String getNodeID() {
 		 * Reference URI constructor.
 		 * @param referenceURI The reference URI of the resource.
 		 */
-		private ResourceProxy(final URI referenceURI) {
+		protected ResourceProxy(final URI referenceURI) {
 			this(referenceURI, null); //construct the proxy with only a reference URI
 		}
 
@@ -350,7 +1042,7 @@ private ResourceProxy(final URI referenceURI) {
 		 * Node ID constructor.
 		 * @param nodeID The node ID of the resource
 		 */
-		private ResourceProxy(final String nodeID) {
+		protected ResourceProxy(final String nodeID) {
 			this(null, nodeID); //construct the proxy with only a node ID
 		}
 
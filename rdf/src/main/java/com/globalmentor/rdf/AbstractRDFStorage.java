@@ -31,6 +31,8 @@
 import org.w3c.dom.*;
 import org.xml.sax.SAXException;
 
+import static java.util.Objects.*;
+
 /**
  * A modifiable object that knows how to store and retrieve itself as RDF.
  * <p>
@@ -57,6 +59,47 @@ public URI getStorageURI() {
 		return storageURI;
 	}
 
+	/** The serialization format to use instead of RDF+XML, or <code>null</code> if RDF+XML should be used. */
+	private volatile RDFFormat format = null;
+
+	/** @return The serialization format to use instead of RDF+XML, or <code>null</code> if RDF+XML is used. */
+	public RDFFormat getFormat() {
+		return format;
+	}
+
+	/**
+	 * Sets the serialization format to use for storing and retrieving the information instead of RDF+XML. A format such as {@link BinaryRDFFormat} avoids the
+	 * cost of generating and parsing XML altogether. Once a format has been set, stored information is always retrieved in that format; only if no format has
+	 * been set is information stored in another available format detected and retrieved in that format.
+	 * @param format The serialization format to use, or <code>null</code> if RDF+XML should be used.
+	 * @throws IllegalArgumentException if the given format cannot be read.
+	 * @see RDFFormat#isReadable()
+	 */
+	public void setFormat(final RDFFormat format) {
+		if(format != null && !format.isReadable()) { //the information stored must be able to be retrieved
+			throw new IllegalArgumentException("RDF format " + format.getClass().getSimpleName() + " cannot be read.");
+		}
+		this.format = format;
+	}
+
+	/** The bounds on the resources consumed while retrieving the information. */
+	private volatile RDFProcessingLimits limits = RDFProcessingLimits.UNLIMITED;
+
+	/** @return The bounds on the resources consumed while retrieving the information; by default {@link RDFProcessingLimits#UNLIMITED}. */
+	public RDFProcessingLimits getLimits() {
+		return limits;
+	}
+
+	/**
+	 * Sets the bounds on the resources consumed while retrieving the information, in whatever format. Retrieving information that exceeds the limits fails with
+	 * an {@link IOException} the cause of which is a {@link RDFLimitExceededException}.
+	 * @param limits The processing limits.
+	 * @throws NullPointerException if the given limits are <code>null</code>.
+	 */
+	public void setLimits(final RDFProcessingLimits limits) {
+		this.limits = requireNonNull(limits, "Processing limits cannot be null.");
+	}
+
 	/** The map of prefixes, keyed by namespace URIs. */
 	private final Map<URI, String> namespaceURIPrefixMap = new HashMap<URI, String>();
 
@@ -93,6 +136,7 @@ public void unregisterNamespacePrefix(final String namespaceURI, final String pr
 	 */
 	public void registerResourceFactory(final URI typeNamespaceURI, final RDFResourceFactory factory) {
 		resourceFactoryMap.put(typeNamespaceURI, factory);
+		invalidatePrototypeRDF(); //the prototype data model no longer has the correct resource factories
 	}
 
 	/**
@@ -102,6 +146,31 @@ public void registerResourceFactory(final URI typeNamespaceURI, final RDFResourc
 	 */
 	public void unregisterResourceFactory(final URI typeNamespaceURI) {
 		resourceFactoryMap.remove(typeNamespaceURI);
+		invalidatePrototypeRDF(); //the prototype data model no longer has the correct resource factories
+	}
+
+	/** An empty data model with the registered resource factories, from which new data models are created, or <code>null</code> if it must be recreated. */
+	private volatile RDFModel prototypeRDF = null;
+
+	/**
+	 * Returns an empty data model with the registered resource factories, creating it if needed. The prototype data model must not be modified.
+	 * @return A data model with the registered resource factories.
+	 */
+	private synchronized RDFModel getPrototypeRDF() {
+		RDFModel prototypeRDF = this.prototypeRDF;
+		if(prototypeRDF == null) { //if the resource factories have changed, create a new prototype
+			prototypeRDF = new RDFModel();
+			for(final Map.Entry<URI, RDFResourceFactory> resourceFactoryEntry : resourceFactoryMap.entrySet()) { //for each registered resource factory
+				prototypeRDF.registerResourceFactory(resourceFactoryEntry.getKey(), resourceFactoryEntry.getValue()); //register the factory with the prototype
+			}
+			this.prototypeRDF = prototypeRDF;
+		}
+		return prototypeRDF;
+	}
+
+	/** Indicates that the prototype data model must be recreated because the resource factories have changed. */
+	private synchronized void invalidatePrototypeRDF() {
+		prototypeRDF = null;
 	}
 
 	/**
@@ -136,9 +205,17 @@ protected XMLSerializer getXMLSerializer() {
 		return new XMLSerializer(true); //create a formatted XML serializer
 	}
 
-	/** @return An XML processor appropriately configured for parsing XML. */
+	/** The RDF+XML format used if no other format has been set, which reuses its XML factories and processors for each thread. */
+	private final RDFXMLFormat rdfXMLFormat = new RDFXMLFormat();
+
+	/** @return The RDF+XML format used if no other format has been set. */
+	protected RDFXMLFormat getRDFXMLFormat() {
+		return rdfXMLFormat;
+	}
+
+	/** @return An XML processor appropriately configured for parsing XML, reused and reset for each use by the current thread. */
 	protected DocumentBuilder getDocumentBuilder() {
-		return XmlDom.createDocumentBuilder(true); //create an XML processor
+		return getRDFXMLFormat().getDocumentBuilder();
 	}
 
 	/**
@@ -146,18 +223,24 @@ protected DocumentBuilder getDocumentBuilder() {
 	 *         <p>
 	 *         Registered resource factories are registered with the RDF data model.
 	 *         </p>
-	 * @see RDFModel#registerResourceFactory(URI, RDFResourceFactory)
+	 * @see #createRDF()
 	 */
 	protected RDFXMLProcessor getRDFXMLProcessor() {
-		final RDFModel rdf = new RDFModel(); //create a new RDF data model
-		final Iterator<Map.Entry<URI, RDFResourceFactory>> resourceFactoryEntryIterator = resourceFactoryMap.entrySet().iterator(); //get an iterator to look through all resource factories
-		while(resourceFactoryEntryIterator.hasNext()) { //while there are more resource factories
-			final Map.Entry<URI, RDFResourceFactory> resourceFactoryEntry = resourceFactoryEntryIterator.next(); //get the next entry
-			final URI typeNamespaceURI = resourceFactoryEntry.getKey(); //get the type namespace URI
-			final RDFResourceFactory resourceFactory = resourceFactoryEntry.getValue(); //get the resource factory associated with this type
-			rdf.registerResourceFactory(typeNamespaceURI, resourceFactory); //register this resource factory for this type namespace
-		}
-		return new RDFXMLProcessor(rdf); //create an RDF XML processor, using the RDF data model we created and configured
+		final RDFXMLProcessor rdfXMLProcessor = new RDFXMLProcessor(createRDF()); //create an RDF XML processor, using a new RDF data model with the registered resource factories
+		rdfXMLProcessor.setLimits(getLimits()); //guard against unexpectedly large or deep data
+		return rdfXMLProcessor;
+	}
+
+	/**
+	 * Creates an RDF data model into which retrieved information can be placed.
+	 * <p>
+	 * Registered resource factories are registered with the new RDF data model.
+	 * </p>
+	 * @return A new RDF data model.
+	 * @see RDFModel#registerResourceFactory(URI, RDFResourceFactory)
+	 */
+	protected RDFModel createRDF() {
+		return new RDFModel(getPrototypeRDF()); //create a data model with the registered resource factories
 	}
 
 	/** @return The RDF data model that represents the information to be stored. */
@@ -179,8 +262,13 @@ protected RDFXMLProcessor getRDFXMLProcessor() {
 	 */
 	public void store() throws IOException {
 		final RDFModel rdf = getRDF(); //get the RDF data model representing the data
+		if(getFormat() != null) { //if another format is being used, there is no XML document to create
+			store(rdf); //store the data model directly
+			setModified(false); //show that we are no longer modified
+			return;
+		}
 		//create an XML document from the RDF
-		final Document document = getRDFXMLGenerator().createDocument(rdf, XmlDom.createDocumentBuilder(true).getDOMImplementation()); //TODO try to make this XML parser agnostic
+		final Document document = getRDFXMLGenerator().createDocument(rdf, getDocumentBuilder().getDOMImplementation()); //TODO try to make this XML parser agnostic
 		//make sure all the registered namespaces are declared on the document element just to make things look nice in the serialization
 		final Element documentElement = document.getDocumentElement(); //get the XML document element
 		final Iterator<Map.Entry<URI, String>> namespaceURIPrefixEntryIterator = namespaceURIPrefixMap.entrySet().iterator(); //get an iterator to look through all namespace URIs and prefixes
@@ -219,6 +307,30 @@ protected synchronized void store(final Document document, final URI uri) throws
 		}
 	}
 
+	/**
+	 * Stores the RDF information at the storage URI using the serialization format.
+	 * @param rdf The RDF data model to store.
+	 * @throws IOException Thrown if there is a problem storing the information.
+	 * @see #getStorageURI()
+	 * @see #getFormat()
+	 */
+	protected void store(final RDFModel rdf) throws IOException {
+		store(rdf, getStorageURI()); //store the information at the storage URI
+	}
+
+	/**
+	 * Stores the RDF information at the given URI using the serialization format.
+	 * @param rdf The RDF data model to store.
+	 * @param uri The URI at which the information should be stored
+	 * @throws IOException Thrown if there is a problem storing the information.
+	 * @see #getFormat()
+	 */
+	protected synchronized void store(final RDFModel rdf, final URI uri) throws IOException {
+		try (final OutputStream outputStream = getOutputStream(uri)) { //the format buffers its own output
+			getFormat().write(outputStream, uri, rdf, namespaceURIPrefixMap); //write the data model in the serialization format
+		}
+	}
+
 	/**
 	 * Retrieves the information from RDF stored at the storage URI.
 	 * <p>
@@ -238,9 +350,8 @@ public void retrieve() throws IOException {
 	 * @throws IOException Thrown if there is a problem retrieving the information.
 	 */
 	public void retrieve(final URI uri) throws IOException {
-		final Document document = retrieveXML(uri); //retrieve an XML document from the storage
 		try {
-			final RDFModel rdf = retrieveRDF(document); //retrieve the RDF from the document
+			final RDFModel rdf = retrieveRDF(uri); //retrieve the RDF from the storage
 			setRDF(rdf); //set the RDF we retrieved
 		} catch(URISyntaxException uriSyntaxException) { //if there was a problem retrieving the RDF from the XML
 			final IOException ioException = new IOException(uriSyntaxException.getMessage()); //create an I/O exception from the URI syntax exception
@@ -249,6 +360,27 @@ public void retrieve(final URI uri) throws IOException {
 		}
 	}
 
+	/**
+	 * Retrieves an RDF data model from RDF stored at the given URI. If a serialization format has been set, that format is used. Otherwise the format of the
+	 * stored RDF is detected from its first bytes if possible, so that information stored in any available format can be retrieved. If the RDF is stored as XML,
+	 * the XML is processed as it is read without building an XML document tree.
+	 * @param uri The URI from which the information should be retrieved.
+	 * @return An RDF data model representing the RDF retrieved.
+	 * @throws IOException Thrown if there is a problem retrieving the information, or if the information exceeds the processing limits.
+	 * @throws URISyntaxException Thrown if a URI is syntactically incorrect.
+	 * @see RDFFormats#detectFormat(PushbackInputStream)
+	 * @see #getRDFXMLFormat()
+	 * @see #getFormat()
+	 * @see #getLimits()
+	 */
+	protected synchronized RDFModel retrieveRDF(final URI uri) throws IOException, URISyntaxException {
+		try (final PushbackInputStream inputStream = RDFFormats.createSignatureInputStream(new BufferedInputStream(getInputStream(uri)))) { //get a buffered input stream from the URI
+			final RDFFormat configuredFormat = getFormat();
+			final RDFFormat format = configuredFormat != null ? configuredFormat : RDFFormats.detectFormat(inputStream); //only detect the format if none has been configured
+			return (format != null ? format : getRDFXMLFormat()).read(createRDF(), inputStream, uri, null, getLimits()); //read the RDF+XML as a stream unless another format is being used
+		}
+	}
+
 	/**
 	 * Retrieves an RDF data model from the given XML document.
 	 * @param document The XML document containing RDF.
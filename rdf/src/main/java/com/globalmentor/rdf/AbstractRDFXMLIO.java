@@ -19,157 +19,218 @@
 import java.io.*;
 import java.net.*;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.*;
 
-import javax.xml.parsers.*;
-
-import org.w3c.dom.Document;
-import org.xml.sax.SAXException;
-
-import com.globalmentor.xml.XMLSerializer;
-import com.globalmentor.xml.XmlDom;
+import com.globalmentor.io.URIInputStreamable;
 
+import static java.util.Collections.*;
 import static java.util.Objects.*;
 
 /**
  * Base functionality for loading and saving information stored in RDF+XML.
+ * <p>
+ * Another serialization format may be used in place of RDF+XML by setting a format; the registered namespace prefixes are then used for that format instead.
+ * If no format has been set, data is read in whichever available format it is detected to be in.
+ * </p>
  * @param <T> The type to read and write.
  * @author Garret Wilson
  */
-public abstract class AbstractRDFXMLIO<T> implements RDFIO<T> {
-
-	/** The class representing the type of object being loaded and saved. */
-	private final Class<T> objectClass;
+public abstract class AbstractRDFXMLIO<T> extends AbstractRDFIO<T> {
 
-	/** @return The class representing the type of object being loaded and saved. */
-	public Class<T> getObjectClass() {
-		return objectClass;
+	/**
+	 * Class constructor.
+	 * @param objectClass The class representing the type of object being loaded and saved.
+	 * @throws NullPointerException if the given class is <code>null</code>.
+	 */
+	public AbstractRDFXMLIO(final Class<T> objectClass) {
+		super(objectClass);
 	}
 
-	/** A map of resource factories, keyed to namespace URI. */
-	private final Map<URI, RDFResourceFactory> resourceFactoryMap = new ConcurrentHashMap<URI, RDFResourceFactory>();
+	/** The serialization format to use instead of RDF+XML, or <code>null</code> if RDF+XML should be used. */
+	private RDFFormat format = null;
 
-	/**
-	 * Registers a resource factory to be used to create resources with a type from the specified namespace. If a resource factory is already registered for this
-	 * namespace, it will be replaced.
-	 * @param typeNamespaceURI The namespace of the resource type for which this factory should be used to create objects.
-	 * @param factory The resource factory that will be used to create resources of types from this namespace.
-	 */
-	public void registerResourceFactory(final URI typeNamespaceURI, final RDFResourceFactory factory) {
-		resourceFactoryMap.put(typeNamespaceURI, factory);
+	/** @return The serialization format to use instead of RDF+XML, or <code>null</code> if RDF+XML is used. */
+	public RDFFormat getFormat() {
+		return format;
 	}
 
 	/**
-	 * Removes the resource factory being used to create resources with a type from the specified namespace. If there is no resource factory registered for this
-	 * namespace, no action will be taken.
-	 * @param typeNamespaceURI The namespace of the resource type for which this factory should be used to create objects.
+	 * Sets the serialization format to use for reading and writing instead of RDF+XML. Once a format has been set, data is always read in that format; only if
+	 * no format has been set is data detected to be in another available format read in that format. Early termination of reading is only supported for
+	 * RDF+XML.
+	 * @param format The serialization format to use, or <code>null</code> if RDF+XML should be used.
+	 * @throws IllegalArgumentException if the given format cannot be read.
+	 * @see RDFFormat#isReadable()
+	 * @see TurtleFormat
+	 * @see RDFFormats
 	 */
-	public void unregisterResourceFactory(final URI typeNamespaceURI) {
-		resourceFactoryMap.remove(typeNamespaceURI);
+	public void setFormat(final RDFFormat format) {
+		if(format != null && !format.isReadable()) { //the data written must be able to be read back
+			throw new IllegalArgumentException("RDF format " + format.getClass().getSimpleName() + " cannot be read.");
+		}
+		this.format = format;
 	}
 
-	/** The map of XML serialization prefixes, keyed by namespace URIs. */
-	private final Map<URI, String> namespaceURIPrefixMap = new HashMap<URI, String>();
+	/** The pool for processing RDF+XML resources in parallel, or <code>null</code> if resources should be processed sequentially. */
+	private ForkJoinPool forkJoinPool = null;
 
-	/**
-	 * Registers the given XML serialization prefix to be used with the given namespace URI. If a prefix is already registered with the given namespace, it is
-	 * replaced with this prefix.
-	 * @param namespaceURI The namespace URI.
-	 * @param prefix The XML serialization prefix to use with the given namespace.
-	 */
-	public void registerNamespacePrefix(final URI namespaceURI, final String prefix) {
-		namespaceURIPrefixMap.put(namespaceURI, prefix); //store the prefix in the map, keyed to the URI
+	/** @return The pool for processing RDF+XML resources in parallel, or <code>null</code> if resources are processed sequentially. */
+	public ForkJoinPool getForkJoinPool() {
+		return forkJoinPool;
 	}
 
 	/**
-	 * Unregisters the XML serialization prefix for the given namespace URI. If no prefix is registered for the given namespace, no action occurs.
-	 * @param namespaceURI The namespace URI.
-	 * @param prefix The XML serialization prefix to use with the given namespace.
+	 * Sets the pool for processing the resources of RDF+XML data in parallel. Parallel processing is not used when reading with a projection.
+	 * @param forkJoinPool The pool for processing resources in parallel, or <code>null</code> if resources should be processed sequentially.
+	 * @see RDFXMLProcessor#setForkJoinPool(ForkJoinPool)
 	 */
-	public void unregisterNamespacePrefix(final String namespaceURI, final String prefix) {
-		namespaceURIPrefixMap.remove(namespaceURI); //remove whatever prefix is registered with this namespace, if any
+	public void setForkJoinPool(final ForkJoinPool forkJoinPool) {
+		this.forkJoinPool = forkJoinPool;
 	}
 
-	/**
-	 * Class constructor.
-	 * @param objectClass The class representing the type of object being loaded and saved.
-	 * @throws NullPointerException if the given class is <code>null</code>.
-	 */
-	public AbstractRDFXMLIO(final Class<T> objectClass) {
-		this.objectClass = requireNonNull(objectClass, "Object class must be provided.");
-	}
+	/** The RDF+XML format used if no other format has been set, which reuses its XML factories and processors for each thread. */
+	private final RDFXMLFormat rdfXMLFormat = new RDFXMLFormat();
 
-	/**
-	 * Creates an RDF instance for use in reading RDF data. This version creates a default RDF instance and then registers known resource factories.
-	 * @param baseURI The base URI of the RDF data model, or <code>null</code> if unknown.
-	 * @return An RDF instance appropriate for populating with data read from some source.
-	 */
-	protected RDFModel createRDF(final URI baseURI) {
-		final RDFModel rdf = new RDFModel(); //create a new RDF data model
-		for(final Map.Entry<URI, RDFResourceFactory> resourceFactoryEntry : resourceFactoryMap.entrySet()) { //for each registered resource factory
-			rdf.registerResourceFactory(resourceFactoryEntry.getKey(), resourceFactoryEntry.getValue()); //register the factory with the RDF instance				
-		}
-		return rdf; //return the RDF with registered resource factories
+	/** @return The RDF+XML format used if no other format has been set. */
+	protected RDFXMLFormat getRDFXMLFormat() {
+		return rdfXMLFormat;
 	}
 
 	/**
-	 * Creates a document builder appropriate for parsing XML storing RDF.
-	 * @return A new namespace-aware document builder.
-	 * @throws ParserConfigurationException if a document builder cannot be created which satisfies the configuration requested.
+	 * Reads a resource from an input stream using an existing RDF instance.
+	 * @param rdf The RDF instance to use in creating new resources.
+	 * @param inputStream The input stream from which to read the data.
+	 * @param baseURI The base URI of the data, or <code>null</code> if no base URI is available.
+	 * @return The resource read from the input stream.
+	 * @throws NullPointerException if the given RDF instance and/or input stream is <code>null</code>.
+	 * @throws IOException if there is an error reading the data.
+	 * @throws ClassCastException if no appropriate resource factory was installed, and the loaded resource is not of the correct Java class.
 	 */
-	protected DocumentBuilder createDocumentBuilder() throws ParserConfigurationException {
-		return XmlDom.createDocumentBuilder(true); //create a document builder that understands namespaces
-	}
+	public abstract T read(final RDFModel rdf, final InputStream inputStream, final URI baseURI) throws IOException;
 
 	/**
-	 * Reads a resource from an input stream. This version delegates to {@link #read(RDFModel, InputStream, URI)} using {@link #createRDF(URI)} to create a new RDF
-	 * instance.
+	 * Reads RDF data from an input stream.
+	 * @param rdf The RDF instance to use in creating new resources.
 	 * @param inputStream The input stream from which to read the data.
 	 * @param baseURI The base URI of the data, or <code>null</code> if no base URI is available.
-	 * @return The resource read from the input stream.
-	 * @throws NullPointerException if the given input stream is <code>null</code>.
+	 * @return The RDF instance representing the data read.
 	 * @throws IOException if there is an error reading the data.
-	 * @throws ClassCastException if no appropriate resource factory was installed, and the loaded resource is not of the correct Java class.
 	 */
-	public final T read(final InputStream inputStream, final URI baseURI) throws IOException {
-		return read(createRDF(baseURI), inputStream, baseURI); //create a new RDF data model, showing the base URI, and read and return the object
+	protected RDFModel readRDF(final RDFModel rdf, final InputStream inputStream, final URI baseURI) throws IOException {
+		return readRDF(rdf, inputStream, baseURI, null); //read all the data
 	}
 
 	/**
-	 * Reads a resource from an input stream using an existing RDF instance.
+	 * Reads RDF data from an input stream, only creating resources that are reachable from the targets of the given projection.
 	 * @param rdf The RDF instance to use in creating new resources.
 	 * @param inputStream The input stream from which to read the data.
 	 * @param baseURI The base URI of the data, or <code>null</code> if no base URI is available.
-	 * @return The resource read from the input stream.
-	 * @throws NullPointerException if the given RDF instance and/or input stream is <code>null</code>.
+	 * @param projection The projection identifying the resources to read, or <code>null</code> if all resources should be read.
+	 * @return The RDF instance representing the data read.
 	 * @throws IOException if there is an error reading the data.
-	 * @throws ClassCastException if no appropriate resource factory was installed, and the loaded resource is not of the correct Java class.
+	 * @see AbstractRDFProcessor#setProjection(RDFProjection)
 	 */
-	public abstract T read(final RDFModel rdf, final InputStream inputStream, final URI baseURI) throws IOException;
+	protected RDFModel readRDF(final RDFModel rdf, final InputStream inputStream, final URI baseURI, final RDFProjection projection) throws IOException {
+		return readRDF(rdf, inputStream, baseURI, projection, false); //read to the end of the input
+	}
 
 	/**
-	 * Reads RDF data from an input stream.
+	 * Reads RDF data from an input stream, only creating resources that are reachable from the targets of the given projection, and optionally reading no
+	 * further than needed to describe a single projected resource. If reading stops early, the rest of the input stream is left unread so that the caller may
+	 * close it without consuming it.
 	 * @param rdf The RDF instance to use in creating new resources.
 	 * @param inputStream The input stream from which to read the data.
 	 * @param baseURI The base URI of the data, or <code>null</code> if no base URI is available.
+	 * @param projection The projection identifying the resources to read, or <code>null</code> if all resources should be read.
+	 * @param earlyTermination Whether reading should stop as soon as the description of a resource projected by reference URI is complete; ignored if the data
+	 *          is read in another format.
 	 * @return The RDF instance representing the data read.
-	 * @throws IOException if there is an error reading the data.
+	 * @throws IOException if there is an error reading the data, or if the data exceeds the processing limits.
+	 * @see RDFXMLStreamProcessor#setEarlyTermination(boolean)
+	 * @see #getLimits()
+	 * @see #getFormat()
+	 * @see #getReadFormat(PushbackInputStream)
 	 */
-	protected RDFModel readRDF(final RDFModel rdf, final InputStream inputStream, final URI baseURI) throws IOException {
-		try {
-			final DocumentBuilder documentBuilder = createDocumentBuilder(); //create a new namespace-aware document builder
-			final Document document = documentBuilder.parse(inputStream); //parse the input stream
-			document.normalize(); //normalize the document
-			final RDFXMLProcessor rdfProcessor = new RDFXMLProcessor(rdf); //create a new RDF processor
-			rdfProcessor.processRDF(document, baseURI); //parse the RDF from the document
-			return rdf; //return the RDF we processed
-		} catch(final ParserConfigurationException parserConfigurationException) { //if we can't find an XML parser
-			throw (IOException)new IOException(parserConfigurationException.getMessage()).initCause(parserConfigurationException); //convert the exception into an IO exception
-		} catch(final SAXException saxException) {
-			throw (IOException)new IOException(saxException.getMessage()).initCause(saxException); //convert the exception into an IO exception
-		} catch(URISyntaxException uriSyntaxException) { //if any of the URIs were incorrect
-			throw (IOException)new IOException(uriSyntaxException.getMessage()).initCause(uriSyntaxException); //convert the exception into an IO exception
+	protected RDFModel readRDF(final RDFModel rdf, final InputStream inputStream, final URI baseURI, final RDFProjection projection,
+			final boolean earlyTermination) throws IOException {
+		final PushbackInputStream signatureInputStream = RDFFormats.createSignatureInputStream(inputStream); //allow the first bytes to be examined
+		final RDFFormat format = getReadFormat(signatureInputStream);
+		if(format == null || format instanceof RDFXMLFormat) { //if the data is RDF+XML, read it as a stream with all the options RDF+XML supports
+			final RDFXMLFormat rdfXMLFormat = format != null ? (RDFXMLFormat)format : getRDFXMLFormat();
+			return rdfXMLFormat.read(rdf, signatureInputStream, baseURI, projection, getLimits(), earlyTermination, getForkJoinPool());
+		}
+		return format.read(rdf, signatureInputStream, baseURI, projection, getLimits()); //let the other format read the data
+	}
+
+	/**
+	 * Determines the format in which to read data. If a format has been set, that format is used. Otherwise the format is detected from the first bytes of the
+	 * data if possible, so that data in any available format can be read.
+	 * @param inputStream The input stream containing the data, able to push back at least {@link RDFFormats#SIGNATURE_LENGTH} bytes.
+	 * @return The format of the data, or <code>null</code> if the data should be read as RDF+XML.
+	 * @throws IOException if there is an error reading the first bytes of the data.
+	 * @see RDFFormats#detectFormat(PushbackInputStream)
+	 */
+	protected RDFFormat getReadFormat(final PushbackInputStream inputStream) throws IOException {
+		final RDFFormat format = getFormat();
+		return format != null ? format : RDFFormats.detectFormat(inputStream); //only detect the format if none has been configured
+	}
+
+	/**
+	 * Reads RDF data from several documents into a single RDF instance.
+	 * <p>
+	 * The documents are parsed concurrently using the given executor, each into its own staging RDF instance created using {@link #createRDF(URI)} with the
+	 * document URI as the base URI. As reading a document may block on network or file access, the executor should be one suitable for blocking tasks rather
+	 * than the common fork/join pool. The staging instances are merged into the given RDF instance one at a time in the order of the given URIs as they become
+	 * available, as {@link RDFModel#merge(RDFModel)} would, so that resources appearing in more than one document are deduplicated by reference URI and the
+	 * result does not depend on the order in which parsing completes. References to resources replaced by more specific resources of later documents are
+	 * redirected in a single pass once all the documents have been merged, rather than after each document.
+	 * </p>
+	 * @param rdf The RDF instance into which the data should be merged.
+	 * @param uris The URIs of the documents to read, each of which is also used as the base URI of its document.
+	 * @param uriInputStreamable The source of input streams to the documents.
+	 * @param executor The executor on which to read the documents.
+	 * @return The RDF instance representing the data read.
+	 * @throws NullPointerException if the given RDF instance, URIs, input streamable, and/or executor is <code>null</code>.
+	 * @throws IOException if there is an error reading the data from any of the documents.
+	 */
+	public RDFModel readRDF(final RDFModel rdf, final Collection<URI> uris, final URIInputStreamable uriInputStreamable, final Executor executor)
+			throws IOException {
+		requireNonNull(rdf, "RDF cannot be null.");
+		requireNonNull(uriInputStreamable, "URI input streamable cannot be null.");
+		requireNonNull(executor, "Executor cannot be null.");
+		final List<CompletableFuture<RDFModel>> stagingRDFFutures = new ArrayList<CompletableFuture<RDFModel>>(uris.size()); //parse each document into its own data model, so that the parsers share no state
+		for(final URI uri : uris) {
+			stagingRDFFutures.add(CompletableFuture.supplyAsync(() -> {
+				try (final InputStream inputStream = new BufferedInputStream(uriInputStreamable.getInputStream(uri))) {
+					return readRDF(createRDF(uri), inputStream, uri); //read the document into a new data model
+				} catch(final IOException ioException) {
+					throw new UncheckedIOException(ioException); //wrap the exception so that it can escape the task
+				}
+			}, executor));
 		}
+		final Map<RDFResource, RDFResource> replacedResourceMap = new IdentityHashMap<RDFResource, RDFResource>(); //the resources replaced by more specific resources of later documents
+		for(final CompletableFuture<RDFModel> stagingRDFFuture : stagingRDFFutures) { //merge the staged data models in document order
+			final RDFModel stagingRDF;
+			try {
+				stagingRDF = stagingRDFFuture.join();
+			} catch(final CompletionException completionException) {
+				for(final CompletableFuture<RDFModel> remainingStagingRDFFuture : stagingRDFFutures) { //don't start reading documents that will not be merged
+					remainingStagingRDFFuture.cancel(false);
+				}
+				final Throwable cause = completionException.getCause();
+				if(cause instanceof UncheckedIOException) { //unwrap the original exception
+					throw ((UncheckedIOException)cause).getCause();
+				} else if(cause instanceof RuntimeException) {
+					throw (RuntimeException)cause;
+				} else if(cause instanceof Error) {
+					throw (Error)cause;
+				}
+				throw completionException;
+			}
+			replacedResourceMap.putAll(rdf.mergeWithoutRedirection(stagingRDF, emptyMap()));
+		}
+		rdf.redirectReferences(replacedResourceMap); //walk the merged data model only once
+		return rdf; //return the merged RDF
 	}
 
 	/**
@@ -193,21 +254,11 @@ protected Document generateXML(final RDFResource resource) throws ParserConfigur
 	 * @param baseURI The base URI of the data, or <code>null</code> if no base URI is available.
 	 * @param resource The resource to write to the given output stream.
 	 * @throws IOException Thrown if there is an error writing the data.
+	 * @see #getFormat()
 	 */
 	protected void writeRDFResource(final OutputStream outputStream, final URI baseURI, final RDFResource resource) throws IOException {
-		try {
-			final DocumentBuilder documentBuilder = createDocumentBuilder(); //create a new document builder appropriate for writing RDF
-			final RDFXMLGenerator rdfXMLGenerator = new RDFXMLGenerator(baseURI); //create a new RDF XML generator
-			for(Map.Entry<URI, String> namespaceURIPrefixEntry : namespaceURIPrefixMap.entrySet()) { //for each entry in our namespace URI prefix map
-				rdfXMLGenerator.registerNamespacePrefix(namespaceURIPrefixEntry.getKey(), namespaceURIPrefixEntry.getValue()); //transfer the namespace/prefix pair to the generator
-			}
-			final Document document = rdfXMLGenerator.createDocument(resource, documentBuilder.getDOMImplementation()); //create an XML document containing the resource
-			final XMLSerializer xmlSerializer = new XMLSerializer(true); //create a formatted serializer
-			//TODO del if not needed			xmlSerializer.setNamespacesDocumentElementDeclarations(true);	//declare namespaces on the document element
-			xmlSerializer.serialize(document, outputStream); //serialize the document to the output stream
-		} catch(final ParserConfigurationException parserConfigurationException) { //if we can't find an XML parser
-			throw (IOException)new IOException(parserConfigurationException.getMessage()).initCause(parserConfigurationException); //convert the exception into an IO exception
-		}
+		final RDFFormat format = getFormat();
+		(format != null ? format : getRDFXMLFormat()).write(outputStream, baseURI, resource, getNamespacePrefixMap()); //write the data in RDF+XML unless another format is being used
 	}
 
 }
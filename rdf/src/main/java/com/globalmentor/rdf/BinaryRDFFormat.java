@@ -0,0 +1,820 @@
+/*
+ * Copyright © 1996-2008 GlobalMentor, Inc. <https://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.globalmentor.rdf;
+
+import java.io.*;
+import java.net.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.util.*;
+
+import com.globalmentor.model.Locales;
+
+import static com.globalmentor.rdf.spec.RDF.*;
+import static java.nio.charset.StandardCharsets.*;
+import static java.util.Collections.*;
+import static java.util.Objects.*;
+
+/**
+ * A compact binary serialization of RDF, read and written directly from and into a data model without parsing or generating text.
+ * <p>
+ * The serialization consists of a header followed by a dictionary of terms and then the statements, grouped by subject. Each term—a resource, a literal, a
+ * datatype, or a language tag—appears once in the dictionary, and the statements refer to terms by their index in the dictionary. All counts, lengths, and
+ * indexes are written as unsigned variable-length integers, seven bits per byte with the high bit set on all but the last byte, and strings are written as
+ * UTF-8 preceded by their length in bytes. Each resource term records the first type of the resource, if any, so that resources can be created using the
+ * appropriate resource factory as soon as they are encountered.
+ * </p>
+ * <p>
+ * All resources reachable from the resources written are written, and every resource written is written as a subject, even if it has no properties, so
+ * that reading the serialization recreates the same set of resources. Reference URIs are always written in absolute form, so the base URI is not used, and
+ * as reading is inexpensive, projections are not applied; all resources are always read.
+ * </p>
+ * <p>
+ * This class is thread safe.
+ * </p>
+ * @author Garret Wilson
+ */
+public class BinaryRDFFormat implements RDFFormat {
+
+	/** The bytes identifying the serialization. */
+	private static final byte[] MAGIC = {'R', 'D', 'F', 'B'};
+
+	/** The version of the serialization. */
+	private static final int VERSION = 1;
+
+	/** The size of the buffer used in reading and writing. */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/** The number of dictionary terms for which room is made initially, regardless of the number of terms the data declares. */
+	private static final int INITIAL_TERM_CAPACITY = 1024;
+
+	/** The maximum number of dictionary terms a statement may bring: its subject, predicate, and object, and the datatype or language of a literal object. */
+	private static final int MAX_TERMS_PER_STATEMENT = 4;
+
+	/** The maximum number of bytes in the UTF-8 encoding of each UTF-16 character. */
+	private static final int MAX_UTF_8_BYTES_PER_CHAR = 3;
+
+	/** The term kind of a resource with a reference URI; followed by the URI and the index of the type term plus one, or zero if there is no type. */
+	private static final byte IRI_TERM = 0;
+	/** The term kind of a blank node; followed by the index of the type term plus one, or zero if there is no type. */
+	private static final byte BLANK_NODE_TERM = 1;
+	/** The term kind of a plain literal with no language; followed by the lexical form. */
+	private static final byte PLAIN_LITERAL_TERM = 2;
+	/** The term kind of a plain literal with a language; followed by the lexical form and the index of the language tag term. */
+	private static final byte LANGUAGE_LITERAL_TERM = 3;
+	/** The term kind of a typed literal; followed by the lexical form and the index of the datatype term. */
+	private static final byte TYPED_LITERAL_TERM = 4;
+	/** The term kind of a datatype URI, which is not a resource; followed by the URI. */
+	private static final byte DATATYPE_TERM = 5;
+	/** The term kind of a language tag; followed by the tag. */
+	private static final byte LANGUAGE_TERM = 6;
+
+	@Override
+	public boolean isReadable() {
+		return true;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The input stream is read as a channel using an internal buffer, so it need not be buffered. The buffer reads ahead, so bytes following the binary RDF
+	 * data may also be consumed from the stream; the stream should therefore contain only the binary RDF data, and is to be considered consumed to its end. The
+	 * base URI and the projection are not used.
+	 * </p>
+	 */
+	@Override
+	public RDFModel read(final RDFModel rdf, final InputStream inputStream, final URI baseURI, final RDFProjection projection,
+			final RDFProcessingLimits limits) throws IOException {
+		requireNonNull(inputStream, "Input stream cannot be null.");
+		try {
+			return read(rdf, Channels.newChannel(inputStream), limits);
+		} catch(final RDFLimitExceededException limitExceededException) { //if the data was too large
+			throw (IOException)new IOException(limitExceededException.getMessage()).initCause(limitExceededException); //convert the exception into an IO exception
+		}
+	}
+
+	/**
+	 * Reads RDF data from a channel into the given data model.
+	 * @param rdf The RDF instance to use in creating new resources.
+	 * @param channel The channel from which to read the data. The channel will not be closed, but bytes following the binary RDF data may be consumed from it.
+	 * @param limits The bounds on the resources consumed while reading.
+	 * @return The RDF instance representing the data read.
+	 * @throws NullPointerException if the given RDF instance, channel, and/or limits is <code>null</code>.
+	 * @throws IOException if there is an error reading the data or the data is not a valid binary RDF serialization.
+	 * @throws RDFLimitExceededException if the data exceeds the processing limits.
+	 */
+	public RDFModel read(final RDFModel rdf, final ReadableByteChannel channel, final RDFProcessingLimits limits) throws IOException {
+		requireNonNull(rdf, "RDF cannot be null.");
+		requireNonNull(limits, "Processing limits cannot be null.");
+		final Decoder decoder = new Decoder(channel);
+		for(final byte magicByte : MAGIC) {
+			if(decoder.readByte() != magicByte) {
+				throw new IOException("Data is not binary RDF.");
+			}
+		}
+		final int version = decoder.readVarInt();
+		if(version != VERSION) {
+			throw new IOException("Unsupported binary RDF version " + version + ".");
+		}
+		//read the dictionary
+		final int termCount = decoder.readVarInt();
+		if(termCount > MAX_TERMS_PER_STATEMENT * (long)limits.getMaxStatementCount() + 1) { //each statement brings at most a few terms, along with any resource written alone
+			throw new RDFLimitExceededException("statements", limits.getMaxStatementCount());
+		}
+		final int initialTermCapacity = Math.min(termCount, INITIAL_TERM_CAPACITY); //don't trust the declared number of terms until they are actually read
+		byte[] kinds = new byte[initialTermCapacity];
+		String[] strings = new String[initialTermCapacity]; //the URI, lexical form, or language tag of each term
+		int[] references = new int[initialTermCapacity]; //the type, datatype, or language tag term referenced by each term
+		int blankNodeCount = 0;
+		for(int i = 0; i < termCount; ++i) {
+			if(i == kinds.length) { //if the terms have filled the arrays, make more room
+				final int termCapacity = (int)Math.min(termCount, kinds.length * 2L);
+				kinds = Arrays.copyOf(kinds, termCapacity);
+				strings = Arrays.copyOf(strings, termCapacity);
+				references = Arrays.copyOf(references, termCapacity);
+			}
+			final byte kind = decoder.readByte();
+			kinds[i] = kind;
+			switch(kind) {
+				case IRI_TERM:
+					strings[i] = decoder.readString(RDFProcessingLimits.NO_LIMIT);
+					references[i] = decoder.readVarInt() - 1;
+					break;
+				case BLANK_NODE_TERM:
+					if(++blankNodeCount > limits.getMaxBlankNodeCount()) {
+						throw new RDFLimitExceededException("blank nodes", limits.getMaxBlankNodeCount());
+					}
+					references[i] = decoder.readVarInt() - 1;
+					break;
+				case PLAIN_LITERAL_TERM:
+					strings[i] = readLiteralLexicalForm(decoder, limits);
+					break;
+				case LANGUAGE_LITERAL_TERM:
+				case TYPED_LITERAL_TERM:
+					strings[i] = readLiteralLexicalForm(decoder, limits);
+					references[i] = decoder.readVarInt();
+					break;
+				case DATATYPE_TERM:
+				case LANGUAGE_TERM:
+					strings[i] = decoder.readString(RDFProcessingLimits.NO_LIMIT);
+					break;
+				default:
+					throw new IOException("Unknown binary RDF term kind " + kind + ".");
+			}
+		}
+		final Dictionary dictionary = new Dictionary(rdf, kinds, strings, references);
+		//read the statements, grouped by subject
+		final int subjectCount = decoder.readVarInt();
+		long statementCount = 0;
+		for(int i = 0; i < subjectCount; ++i) {
+			final RDFResource subject = dictionary.getResource(decoder.readVarInt());
+			final int propertyCount = decoder.readVarInt();
+			statementCount += propertyCount;
+			if(statementCount > limits.getMaxStatementCount()) {
+				throw new RDFLimitExceededException("statements", limits.getMaxStatementCount());
+			}
+			for(int j = 0; j < propertyCount; ++j) {
+				final RDFResource predicate = dictionary.getResource(decoder.readVarInt());
+				subject.addProperty(predicate, dictionary.getObject(decoder.readVarInt()));
+			}
+		}
+		return rdf;
+	}
+
+	/**
+	 * Reads the lexical form of a literal, making sure it does not exceed the maximum literal length.
+	 * @param decoder The decoder from which to read the lexical form.
+	 * @param limits The bounds on the resources consumed while reading.
+	 * @return The lexical form of the literal.
+	 * @throws IOException if there is an error reading the data.
+	 * @throws RDFLimitExceededException if the lexical form exceeds the maximum literal length.
+	 */
+	private static String readLiteralLexicalForm(final Decoder decoder, final RDFProcessingLimits limits) throws IOException {
+		final String lexicalForm = decoder.readString(limits.getMaxLiteralLength());
+		if(lexicalForm.length() > limits.getMaxLiteralLength()) {
+			throw new RDFLimitExceededException("characters in a literal", limits.getMaxLiteralLength());
+		}
+		return lexicalForm;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The output stream is written as a channel using an internal buffer, so it need not be buffered. The base URI and the namespace prefixes are not used.
+	 * </p>
+	 */
+	@Override
+	public void write(final OutputStream outputStream, final URI baseURI, final RDFResource resource, final Map<URI, String> namespacePrefixMap)
+			throws IOException {
+		write(Channels.newChannel(outputStream), singleton(resource));
+		outputStream.flush();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The output stream is written as a channel using an internal buffer, so it need not be buffered. The base URI and the namespace prefixes are not used.
+	 * </p>
+	 */
+	@Override
+	public void write(final OutputStream outputStream, final URI baseURI, final RDFModel rdf, final Map<URI, String> namespacePrefixMap) throws IOException {
+		write(Channels.newChannel(outputStream), rdf.getResources());
+		outputStream.flush();
+	}
+
+	/**
+	 * Writes the given resources, along with all resources reachable from them, to a channel.
+	 * @param channel The channel to which to write the data. The channel will not be closed.
+	 * @param resources The resources to write.
+	 * @throws IOException if there is an error writing the data.
+	 */
+	public void write(final WritableByteChannel channel, final Iterable<RDFResource> resources) throws IOException {
+		//assign a dictionary index to each term, gathering the subjects in the order encountered
+		final Map<URI, Integer> iriIndexMap = new HashMap<URI, Integer>(); //resources with the same reference URI are the same term
+		final Map<RDFResource, Integer> blankNodeIndexMap = new IdentityHashMap<RDFResource, Integer>(); //blank nodes are distinguished by identity
+		final Map<LiteralKey, Integer> literalIndexMap = new HashMap<LiteralKey, Integer>(); //equal literals share a single term
+		final Map<String, Integer> datatypeIndexMap = new HashMap<String, Integer>();
+		final Map<String, Integer> languageIndexMap = new HashMap<String, Integer>();
+		final List<Object> terms = new ArrayList<Object>(); //resources, literals, and string terms
+		final List<RDFResource> subjects = new ArrayList<RDFResource>();
+		final Set<RDFResource> subjectSet = newSetFromMap(new IdentityHashMap<RDFResource, Boolean>());
+		final Deque<RDFResource> resourceStack = new ArrayDeque<RDFResource>();
+		for(final RDFResource resource : resources) {
+			resourceStack.push(resource);
+			RDFResource subject;
+			while((subject = resourceStack.poll()) != null) {
+				if(!subjectSet.add(subject)) { //if we've already gathered this resource, skip it
+					continue;
+				}
+				addResourceTerm(subject, iriIndexMap, blankNodeIndexMap, terms); //the subject may have already been encountered as an object
+				subjects.add(subject);
+				for(final RDFPropertyValuePair propertyValuePair : subject.getProperties()) {
+					final RDFResource predicate = propertyValuePair.getProperty();
+					if(addResourceTerm(predicate, iriIndexMap, blankNodeIndexMap, terms)) {
+						resourceStack.push(predicate);
+					}
+					final RDFObject value = propertyValuePair.getPropertyValue();
+					if(value instanceof RDFResource) {
+						if(addResourceTerm((RDFResource)value, iriIndexMap, blankNodeIndexMap, terms)) {
+							resourceStack.push((RDFResource)value);
+						}
+					} else if(!literalIndexMap.containsKey(new LiteralKey((RDFLiteral)value))) {
+						final RDFLiteral literal = (RDFLiteral)value;
+						if(literal instanceof RDFTypedLiteral) {
+							final String datatype = ((RDFTypedLiteral<?>)literal).getDatatypeURI().toString();
+							if(!datatypeIndexMap.containsKey(datatype)) {
+								datatypeIndexMap.put(datatype, terms.size());
+								terms.add(new StringTerm(DATATYPE_TERM, datatype));
+							}
+						} else if(literal instanceof RDFPlainLiteral && ((RDFPlainLiteral)literal).getLanguage() != null) {
+							final String languageTag = Locales.getLanguageTag(((RDFPlainLiteral)literal).getLanguage());
+							if(!languageIndexMap.containsKey(languageTag)) {
+								languageIndexMap.put(languageTag, terms.size());
+								terms.add(new StringTerm(LANGUAGE_TERM, languageTag));
+							}
+						}
+						literalIndexMap.put(new LiteralKey(literal), terms.size());
+						terms.add(literal);
+					}
+				}
+			}
+		}
+		final Encoder encoder = new Encoder(channel);
+		for(final byte magicByte : MAGIC) {
+			encoder.writeByte(magicByte);
+		}
+		encoder.writeVarInt(VERSION);
+		//write the dictionary
+		encoder.writeVarInt(terms.size());
+		for(final Object term : terms) {
+			if(term instanceof RDFResource) {
+				final RDFResource resource = (RDFResource)term;
+				final URI referenceURI = resource.getURI();
+				if(referenceURI != null) {
+					encoder.writeByte(IRI_TERM);
+					encoder.writeString(referenceURI.toString());
+				} else {
+					encoder.writeByte(BLANK_NODE_TERM);
+				}
+				final RDFObject type = resource.getPropertyValue(TYPE_PROPERTY_REFERENCE_URI);
+				final Integer typeIndex = type instanceof RDFResource ? getResourceIndex((RDFResource)type, iriIndexMap, blankNodeIndexMap) : null;
+				encoder.writeVarInt(typeIndex != null ? typeIndex + 1 : 0);
+			} else if(term instanceof RDFLiteral) {
+				final RDFLiteral literal = (RDFLiteral)term;
+				if(literal instanceof RDFTypedLiteral) {
+					encoder.writeByte(TYPED_LITERAL_TERM);
+					encoder.writeString(literal.getLexicalForm());
+					encoder.writeVarInt(datatypeIndexMap.get(((RDFTypedLiteral<?>)literal).getDatatypeURI().toString()));
+				} else {
+					final Locale language = literal instanceof RDFPlainLiteral ? ((RDFPlainLiteral)literal).getLanguage() : null;
+					if(language != null) {
+						encoder.writeByte(LANGUAGE_LITERAL_TERM);
+						encoder.writeString(literal.getLexicalForm());
+						encoder.writeVarInt(languageIndexMap.get(Locales.getLanguageTag(language)));
+					} else {
+						encoder.writeByte(PLAIN_LITERAL_TERM);
+						encoder.writeString(literal.getLexicalForm());
+					}
+				}
+			} else { //datatype or language tag
+				final StringTerm stringTerm = (StringTerm)term;
+				encoder.writeByte(stringTerm.kind);
+				encoder.writeString(stringTerm.string);
+			}
+		}
+		//write the statements, grouped by subject
+		encoder.writeVarInt(subjects.size());
+		for(final RDFResource subject : subjects) {
+			encoder.writeVarInt(getResourceIndex(subject, iriIndexMap, blankNodeIndexMap));
+			encoder.writeVarInt(subject.getPropertyCount());
+			for(final RDFPropertyValuePair propertyValuePair : subject.getProperties()) {
+				encoder.writeVarInt(getResourceIndex(propertyValuePair.getProperty(), iriIndexMap, blankNodeIndexMap));
+				final RDFObject value = propertyValuePair.getPropertyValue();
+				encoder.writeVarInt(value instanceof RDFResource ? getResourceIndex((RDFResource)value, iriIndexMap, blankNodeIndexMap) : literalIndexMap.get(new LiteralKey((RDFLiteral)value)));
+			}
+		}
+		encoder.flush();
+	}
+
+	/**
+	 * Adds a resource to the dictionary if it is not already present. A resource with a reference URI is present if any resource with the same reference URI has
+	 * been added; a blank node is present only if the same instance has been added.
+	 * @param resource The resource to add.
+	 * @param iriIndexMap The indexes of the resources in the dictionary, keyed to reference URIs.
+	 * @param blankNodeIndexMap The indexes of the blank nodes in the dictionary.
+	 * @param terms The terms of the dictionary.
+	 * @return <code>true</code> if the resource was added, or <code>false</code> if it was already present.
+	 */
+	private static boolean addResourceTerm(final RDFResource resource, final Map<URI, Integer> iriIndexMap, final Map<RDFResource, Integer> blankNodeIndexMap,
+			final List<Object> terms) {
+		final URI referenceURI = resource.getURI();
+		final Integer oldIndex = referenceURI != null ? iriIndexMap.putIfAbsent(referenceURI, terms.size()) : blankNodeIndexMap.putIfAbsent(resource, terms.size());
+		if(oldIndex != null) {
+			return false;
+		}
+		terms.add(resource);
+		return true;
+	}
+
+	/**
+	 * Returns the dictionary index of a resource.
+	 * @param resource The resource.
+	 * @param iriIndexMap The indexes of the resources in the dictionary, keyed to reference URIs.
+	 * @param blankNodeIndexMap The indexes of the blank nodes in the dictionary.
+	 * @return The index of the resource, or <code>null</code> if the resource has not been added to the dictionary.
+	 */
+	private static Integer getResourceIndex(final RDFResource resource, final Map<URI, Integer> iriIndexMap, final Map<RDFResource, Integer> blankNodeIndexMap) {
+		final URI referenceURI = resource.getURI();
+		return referenceURI != null ? iriIndexMap.get(referenceURI) : blankNodeIndexMap.get(resource);
+	}
+
+	/**
+	 * A dictionary term that is a string but not a literal, such as a datatype URI or a language tag.
+	 * @author Garret Wilson
+	 */
+	private static class StringTerm {
+
+		/** The kind of term. */
+		final byte kind;
+		/** The string value of the term. */
+		final String string;
+
+		/**
+		 * Constructor.
+		 * @param kind The kind of term.
+		 * @param string The string value of the term.
+		 */
+		StringTerm(final byte kind, final String string) {
+			this.kind = kind;
+			this.string = string;
+		}
+	}
+
+	/**
+	 * The identity of a literal term in the dictionary being written. Literals with the same lexical form and the same datatype or language are written as a
+	 * single term. {@link RDFLiteral#equals(Object)} is not used, as plain literals are compared without regard to language and typed literals are compared by
+	 * value, either of which would lose information in the serialization.
+	 * @author Garret Wilson
+	 */
+	private static class LiteralKey {
+
+		/** The lexical form of the literal. */
+		private final String lexicalForm;
+		/** The datatype URI of a typed literal, the language tag of a plain literal with a language, or <code>null</code> for neither. */
+		private final String qualifier;
+		/** Whether the literal is typed. */
+		private final boolean typed;
+
+		/**
+		 * Literal constructor.
+		 * @param literal The literal the term represents.
+		 */
+		LiteralKey(final RDFLiteral literal) {
+			lexicalForm = literal.getLexicalForm();
+			typed = literal instanceof RDFTypedLiteral;
+			if(typed) {
+				qualifier = ((RDFTypedLiteral<?>)literal).getDatatypeURI().toString();
+			} else {
+				final Locale language = literal instanceof RDFPlainLiteral ? ((RDFPlainLiteral)literal).getLanguage() : null;
+				qualifier = language != null ? Locales.getLanguageTag(language) : null;
+			}
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(lexicalForm, qualifier, typed);
+		}
+
+		@Override
+		public boolean equals(final Object object) {
+			if(!(object instanceof LiteralKey)) {
+				return false;
+			}
+			final LiteralKey literalKey = (LiteralKey)object;
+			return typed == literalKey.typed && lexicalForm.equals(literalKey.lexicalForm) && Objects.equals(qualifier, literalKey.qualifier);
+		}
+	}
+
+	/**
+	 * The terms of a dictionary being read, creating resources and literals in the data model as they are first used.
+	 * @author Garret Wilson
+	 */
+	private static class Dictionary {
+
+		/** The data model in which to create resources. */
+		private final RDFModel rdf;
+		/** The kind of each term. */
+		private final byte[] kinds;
+		/** The URI, lexical form, or language tag of each term. */
+		private final String[] strings;
+		/** The type, datatype, or language tag term referenced by each term. */
+		private final int[] references;
+		/** The created value of each term, or <code>null</code> if the value has not yet been created. */
+		private final Object[] values;
+
+		/**
+		 * Constructor.
+		 * @param rdf The data model in which to create resources.
+		 * @param kinds The kind of each term.
+		 * @param strings The URI, lexical form, or language tag of each term.
+		 * @param references The type, datatype, or language tag term referenced by each term.
+		 */
+		public Dictionary(final RDFModel rdf, final byte[] kinds, final String[] strings, final int[] references) {
+			this.rdf = rdf;
+			this.kinds = kinds;
+			this.strings = strings;
+			this.references = references;
+			this.values = new Object[kinds.length];
+		}
+
+		/**
+		 * Returns the resource or literal at the given index.
+		 * @param index The index of the term.
+		 * @return The resource or literal.
+		 * @throws IOException if the index is not valid or does not refer to a resource or literal.
+		 */
+		public RDFObject getObject(final int index) throws IOException {
+			checkIndex(index);
+			Object value = values[index];
+			if(value == null) {
+				switch(kinds[index]) {
+					case IRI_TERM:
+					case BLANK_NODE_TERM:
+						return getResource(index);
+					case PLAIN_LITERAL_TERM:
+						value = new RDFPlainLiteral(strings[index]);
+						break;
+					case LANGUAGE_LITERAL_TERM:
+						value = new RDFPlainLiteral(strings[index], (Locale)getValue(references[index], LANGUAGE_TERM));
+						break;
+					case TYPED_LITERAL_TERM:
+						try {
+							value = rdf.createTypedLiteral(strings[index], (URI)getValue(references[index], DATATYPE_TERM));
+						} catch(final IllegalArgumentException illegalArgumentException) {
+							throw new IOException(illegalArgumentException.getMessage(), illegalArgumentException);
+						}
+						break;
+					default:
+						throw new IOException("Binary RDF term " + index + " is not a resource or literal.");
+				}
+				values[index] = value;
+			}
+			return (RDFObject)value;
+		}
+
+		/**
+		 * Returns the resource at the given index, creating it if needed. A resource with a reference URI already in the data model is reused; otherwise the
+		 * resource is created using the resource factory for its type, if any.
+		 * @param index The index of the term.
+		 * @return The resource.
+		 * @throws IOException if the index is not valid or does not refer to a resource.
+		 */
+		public RDFResource getResource(final int index) throws IOException {
+			checkIndex(index);
+			RDFResource resource = (RDFResource)values[index];
+			if(resource == null) {
+				final byte kind = kinds[index];
+				if(kind != IRI_TERM && kind != BLANK_NODE_TERM) {
+					throw new IOException("Binary RDF term " + index + " is not a resource.");
+				}
+				final URI referenceURI = kind == IRI_TERM ? toURI(strings[index]) : null;
+				if(referenceURI != null) {
+					resource = rdf.getResource(referenceURI);
+				}
+				if(resource == null) {
+					final int typeIndex = references[index];
+					if(typeIndex >= 0) { //use the type to create the resource from a factory; the type property itself is one of the statements
+						checkIndex(typeIndex);
+						if(kinds[typeIndex] == IRI_TERM) {
+							resource = rdf.createTypedResourceFromFactory(referenceURI, toURI(strings[typeIndex]));
+						}
+					}
+					if(resource == null) {
+						resource = rdf.createResource(referenceURI);
+					}
+				}
+				values[index] = resource;
+			}
+			return resource;
+		}
+
+		/**
+		 * Returns the datatype URI or language of a term, creating it if needed.
+		 * @param index The index of the term.
+		 * @param kind The expected kind of term.
+		 * @return The datatype URI or language locale.
+		 * @throws IOException if the index is not valid or does not refer to a term of the expected kind.
+		 */
+		private Object getValue(final int index, final byte kind) throws IOException {
+			checkIndex(index);
+			if(kinds[index] != kind) {
+				throw new IOException("Binary RDF term " + index + " is of the wrong kind.");
+			}
+			Object value = values[index];
+			if(value == null) {
+				value = kind == DATATYPE_TERM ? toURI(strings[index]) : Locales.createLocale(strings[index]);
+				values[index] = value;
+			}
+			return value;
+		}
+
+		/**
+		 * Ensures that the given index refers to a term in the dictionary.
+		 * @param index The index to check.
+		 * @throws IOException if the index is not valid.
+		 */
+		private void checkIndex(final int index) throws IOException {
+			if(index < 0 || index >= kinds.length) {
+				throw new IOException("Invalid binary RDF term index " + index + ".");
+			}
+		}
+
+		/**
+		 * Converts a string to a URI.
+		 * @param string The string form of the URI.
+		 * @return The URI.
+		 * @throws IOException if the string is not a valid URI.
+		 */
+		private static URI toURI(final String string) throws IOException {
+			try {
+				return new URI(string);
+			} catch(final URISyntaxException uriSyntaxException) {
+				throw (IOException)new IOException(uriSyntaxException.getMessage()).initCause(uriSyntaxException);
+			}
+		}
+	}
+
+	/**
+	 * Reads bytes, variable-length integers, and strings from a channel using a buffer.
+	 * @author Garret Wilson
+	 */
+	private static class Decoder {
+
+		/** The channel from which to read. */
+		private final ReadableByteChannel channel;
+
+		/** The buffer of bytes read, ready for reading. */
+		private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+		/**
+		 * Channel constructor.
+		 * @param channel The channel from which to read.
+		 */
+		public Decoder(final ReadableByteChannel channel) {
+			this.channel = requireNonNull(channel, "Channel cannot be null.");
+			buffer.flip(); //start with an empty buffer
+		}
+
+		/**
+		 * Ensures that the given number of bytes are available in the buffer.
+		 * @param count The number of bytes needed, which must not exceed the buffer size.
+		 * @throws EOFException if the end of the data is reached first.
+		 * @throws IOException if there is an error reading the data.
+		 */
+		private void require(final int count) throws IOException {
+			if(buffer.remaining() >= count) {
+				return;
+			}
+			buffer.compact();
+			while(buffer.position() < count) {
+				if(channel.read(buffer) < 0) {
+					throw new EOFException("Unexpected end of binary RDF data.");
+				}
+			}
+			buffer.flip();
+		}
+
+		/**
+		 * @return The next byte.
+		 * @throws IOException if there is an error reading the data.
+		 */
+		public byte readByte() throws IOException {
+			require(1);
+			return buffer.get();
+		}
+
+		/**
+		 * @return The next unsigned variable-length integer.
+		 * @throws IOException if there is an error reading the data or the integer is too large.
+		 */
+		public int readVarInt() throws IOException {
+			int value = 0;
+			for(int shift = 0; shift < 32; shift += 7) {
+				final byte b = readByte();
+				value |= (b & 0x7F) << shift;
+				if(b >= 0) { //if the high bit is not set, this is the last byte
+					if(value < 0) {
+						break;
+					}
+					return value;
+				}
+			}
+			throw new IOException("Invalid binary RDF variable-length integer.");
+		}
+
+		/**
+		 * Reads a string encoded in UTF-8 and preceded by its length in bytes. The length is checked before any room is made for the string, and room for a long
+		 * string is only made as its bytes are actually read, so that a corrupt or malicious length cannot cause a large allocation.
+		 * @param maxLength The maximum number of characters allowed in the string, or {@link RDFProcessingLimits#NO_LIMIT} if the length is not limited.
+		 * @return The next string.
+		 * @throws IOException if there is an error reading the data.
+		 * @throws RDFLimitExceededException if the encoded string is too long to have the maximum number of characters.
+		 */
+		public String readString(final int maxLength) throws IOException {
+			final int length = readVarInt();
+			if(length > (long)maxLength * MAX_UTF_8_BYTES_PER_CHAR) { //if the string could not possibly be short enough
+				throw new RDFLimitExceededException("characters in a literal", maxLength);
+			}
+			if(length <= buffer.capacity()) { //decode directly from the buffer if possible
+				require(length);
+				final String string = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, UTF_8);
+				buffer.position(buffer.position() + length);
+				return string;
+			}
+			byte[] bytes = new byte[buffer.capacity()];
+			int offset = 0;
+			while(offset < length) {
+				require(1);
+				if(offset == bytes.length) { //if the bytes read have filled the array, make more room
+					bytes = Arrays.copyOf(bytes, (int)Math.min(length, bytes.length * 2L));
+				}
+				final int count = Math.min(buffer.remaining(), bytes.length - offset);
+				buffer.get(bytes, offset, count);
+				offset += count;
+			}
+			return new String(bytes, UTF_8);
+		}
+	}
+
+	/**
+	 * Writes bytes, variable-length integers, and strings to a channel using a buffer.
+	 * @author Garret Wilson
+	 */
+	private static class Encoder {
+
+		/** The channel to which to write. */
+		private final WritableByteChannel channel;
+
+		/** The buffer of bytes to write. */
+		private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+		/**
+		 * Channel constructor.
+		 * @param channel The channel to which to write.
+		 */
+		public Encoder(final WritableByteChannel channel) {
+			this.channel = requireNonNull(channel, "Channel cannot be null.");
+		}
+
+		/**
+		 * Ensures that the given number of bytes can be added to the buffer, writing the buffered bytes if needed.
+		 * @param count The number of bytes to be added, which must not exceed the buffer size.
+		 * @throws IOException if there is an error writing the data.
+		 */
+		private void reserve(final int count) throws IOException {
+			if(buffer.remaining() < count) {
+				flush();
+			}
+		}
+
+		/**
+		 * Writes a byte.
+		 * @param b The byte to write.
+		 * @throws IOException if there is an error writing the data.
+		 */
+		public void writeByte(final byte b) throws IOException {
+			reserve(1);
+			buffer.put(b);
+		}
+
+		/**
+		 * Writes an unsigned variable-length integer.
+		 * @param value The non-negative value to write.
+		 * @throws IOException if there is an error writing the data.
+		 */
+		public void writeVarInt(int value) throws IOException {
+			reserve(5);
+			while((value & ~0x7F) != 0) {
+				buffer.put((byte)((value & 0x7F) | 0x80));
+				value >>>= 7;
+			}
+			buffer.put((byte)value);
+		}
+
+		/**
+		 * Writes a string encoded in UTF-8, preceded by its length in bytes.
+		 * @param string The string to write.
+		 * @throws IOException if there is an error writing the data.
+		 */
+		public void writeString(final String string) throws IOException {
+			final byte[] bytes = string.getBytes(UTF_8);
+			writeVarInt(bytes.length);
+			int offset = 0;
+			while(offset < bytes.length) {
+				reserve(1);
+				final int count = Math.min(buffer.remaining(), bytes.length - offset);
+				buffer.put(bytes, offset, count);
+				offset += count;
+			}
+		}
+
+		/**
+		 * Writes all buffered bytes to the channel.
+		 * @throws IOException if there is an error writing the data.
+		 */
+		public void flush() throws IOException {
+			buffer.flip();
+			while(buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			buffer.clear();
+		}
+	}
+
+	/**
+	 * The provider of the binary format. Content is recognized by the bytes identifying the serialization.
+	 * @author Garret Wilson
+	 */
+	public static class Provider implements RDFFormatProvider {
+
+		/** The shared format instance. */
+		private final RDFFormat format = new BinaryRDFFormat();
+
+		@Override
+		public String getMediaType() {
+			return "application/x-rdf-binary";
+		}
+
+		@Override
+		public Set<String> getFilenameExtensions() {
+			return singleton("rdfb");
+		}
+
+		@Override
+		public boolean isFormat(final byte[] bytes, final int length) {
+			return RDFFormats.startsWith(bytes, length, 0, MAGIC);
+		}
+
+		@Override
+		public RDFFormat getFormat() {
+			return format;
+		}
+
+	}
+
+}
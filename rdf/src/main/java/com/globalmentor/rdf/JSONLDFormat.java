@@ -0,0 +1,114 @@
+/*
+ * Copyright © 1996-2008 GlobalMentor, Inc. <https://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.globalmentor.rdf;
+
+import java.io.*;
+import java.net.URI;
+import java.util.*;
+
+import static java.nio.charset.StandardCharsets.*;
+import static java.util.Collections.*;
+
+/**
+ * The JSON-LD serialization format of RDF, written as UTF-8 compacted JSON-LD using the namespace prefixes as the context. Reading JSON-LD is not supported.
+ * @author Garret Wilson
+ * @see JSONLDGenerator
+ */
+public class JSONLDFormat implements RDFFormat {
+
+	/** {@inheritDoc} This version returns <code>false</code>, as JSON-LD cannot be read. */
+	@Override
+	public boolean isReadable() {
+		return false;
+	}
+
+	/**
+	 * {@inheritDoc} This version does not support reading JSON-LD.
+	 * @throws IOException always, because JSON-LD cannot be read.
+	 * @see #isReadable()
+	 */
+	@Override
+	public RDFModel read(final RDFModel rdf, final InputStream inputStream, final URI baseURI, final RDFProjection projection,
+			final RDFProcessingLimits limits) throws IOException {
+		throw new IOException("Reading JSON-LD is not supported.");
+	}
+
+	/** {@inheritDoc} The JSON-LD is written as it is generated, without being buffered in its entirety. */
+	@Override
+	public void write(final OutputStream outputStream, final URI baseURI, final RDFResource resource, final Map<URI, String> namespacePrefixMap)
+			throws IOException {
+		final Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, UTF_8));
+		createJSONLDGenerator(namespacePrefixMap).generate(resource, writer);
+		writer.flush();
+	}
+
+	/** {@inheritDoc} The JSON-LD is written as it is generated, without being buffered in its entirety. */
+	@Override
+	public void write(final OutputStream outputStream, final URI baseURI, final RDFModel rdf, final Map<URI, String> namespacePrefixMap) throws IOException {
+		final Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, UTF_8));
+		createJSONLDGenerator(namespacePrefixMap).generate(rdf, writer);
+		writer.flush();
+	}
+
+	/**
+	 * Creates a generator for writing JSON-LD.
+	 * @param namespacePrefixMap The serialization prefixes to use, keyed by namespace URIs.
+	 * @return A new JSON-LD generator with the given prefixes registered.
+	 */
+	protected JSONLDGenerator createJSONLDGenerator(final Map<URI, String> namespacePrefixMap) {
+		final JSONLDGenerator jsonldGenerator = new JSONLDGenerator();
+		for(final Map.Entry<URI, String> namespaceURIPrefixEntry : namespacePrefixMap.entrySet()) { //transfer the namespace/prefix pairs to the generator
+			jsonldGenerator.registerNamespacePrefix(namespaceURIPrefixEntry.getKey(), namespaceURIPrefixEntry.getValue());
+		}
+		return jsonldGenerator;
+	}
+
+	/**
+	 * The provider of the JSON-LD format. As JSON-LD cannot be read, content is never recognized as JSON-LD, so that it is not detected in place of a format
+	 * that could read it.
+	 * @author Garret Wilson
+	 */
+	public static class Provider implements RDFFormatProvider {
+
+		/** The shared format instance. */
+		private final RDFFormat format = new JSONLDFormat();
+
+		@Override
+		public String getMediaType() {
+			return "application/ld+json";
+		}
+
+		@Override
+		public Set<String> getFilenameExtensions() {
+			return singleton("jsonld");
+		}
+
+		/** {@inheritDoc} This version always returns <code>false</code>, as JSON-LD cannot be read. */
+		@Override
+		public boolean isFormat(final byte[] bytes, final int length) {
+			return false;
+		}
+
+		@Override
+		public RDFFormat getFormat() {
+			return format;
+		}
+
+	}
+
+}
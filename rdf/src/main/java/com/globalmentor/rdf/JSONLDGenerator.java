@@ -0,0 +1,458 @@
+/*
+ * Copyright © 1996-2008 GlobalMentor, Inc. <https://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.globalmentor.rdf;
+
+import java.io.*;
+import java.net.URI;
+import java.util.*;
+
+import com.globalmentor.model.Locales;
+
+import static com.globalmentor.rdf.spec.RDF.*;
+import static com.globalmentor.xml.spec.XMLSchema.*;
+import static java.util.Collections.*;
+
+/**
+ * Class that writes RDF as compacted JSON-LD, using the registered namespace prefixes as the context.
+ * <p>
+ * The output is written in a single pass as a JSON-LD document with a <code>@context</code> and a <code>@graph</code> containing a node object for each
+ * resource with properties. The properties of each resource are grouped by predicate, with any resource types listed as <code>@type</code>. A blank node is
+ * written in place the first time it is referenced; as it is not known whether it will be referenced again, it is always given a label. Plain literals
+ * without a language are written as strings, and integers and booleans are written as JSON numbers and booleans if their lexical forms allow.
+ * </p>
+ * <p>
+ * Only namespaces ending in a URI general delimiter such as <code>/</code> or <code>#</code> are used as prefixes, as other namespaces cannot serve as
+ * prefixes in JSON-LD 1.1.
+ * </p>
+ * <p>
+ * This class is not thread safe.
+ * </p>
+ * @author Garret Wilson
+ * @see <a href="https://www.w3.org/TR/json-ld11/">JSON-LD 1.1</a>
+ */
+public class JSONLDGenerator {
+
+	/** The prefix of generated blank node labels. */
+	private static final String BLANK_NODE_LABEL_PREFIX = "_:b";
+
+	/** The string used for each level of indention. */
+	private static final String INDENT = "\t";
+
+	/** The maximum level of indention at which blank nodes are written in place; deeper blank nodes are written later in the graph. */
+	private static final int MAX_NESTING_DEPTH = 32;
+
+	/** The URI general delimiters, one of which must end a namespace for it to be used as a prefix. */
+	private static final String GENERAL_DELIMITERS = ":/?#[]@";
+
+	/** The map of serialization prefixes, keyed by namespace URIs. */
+	private final Map<URI, String> namespacePrefixMap = new HashMap<URI, String>();
+
+	/**
+	 * Registers the given serialization prefix to be used with the given namespace URI. If a prefix is already registered with the given namespace, it is
+	 * replaced with this prefix. The <code>rdf</code> and <code>xsd</code> prefixes are registered by default.
+	 * @param namespaceURI The namespace URI.
+	 * @param prefix The serialization prefix to use with the given namespace.
+	 */
+	public void registerNamespacePrefix(final URI namespaceURI, final String prefix) {
+		namespacePrefixMap.put(namespaceURI, prefix);
+	}
+
+	/**
+	 * Unregisters the serialization prefix for the given namespace URI. If no prefix is registered for the given namespace, no action occurs.
+	 * @param namespaceURI The namespace URI.
+	 */
+	public void unregisterNamespacePrefix(final URI namespaceURI) {
+		namespacePrefixMap.remove(namespaceURI);
+	}
+
+	/** The namespace URIs usable as prefixes in the context, keyed to their prefixes. */
+	private final SortedMap<String, String> contextPrefixNamespaceMap = new TreeMap<String, String>();
+
+	/** The compacted forms of predicate and type URIs, which recur throughout the output. */
+	private final Map<URI, String> vocabularyCompactIRIMap = new HashMap<URI, String>();
+
+	/** The labels of the blank nodes encountered, using identity rather than equality for equivalence. */
+	private final Map<RDFResource, String> blankNodeLabelMap = new IdentityHashMap<RDFResource, String>();
+
+	/** The resources the node objects of which have been written, using identity rather than equality for equivalence. */
+	private final Set<RDFResource> writtenResourceSet = newSetFromMap(new IdentityHashMap<RDFResource, Boolean>());
+
+	/** The blank nodes referenced but not written in place, to be written later in the graph. */
+	private final Deque<RDFResource> pendingBlankNodes = new ArrayDeque<RDFResource>();
+
+	/** Default constructor. */
+	public JSONLDGenerator() {
+		registerNamespacePrefix(NAMESPACE_URI, NAMESPACE_PREFIX);
+		registerNamespacePrefix(XML_SCHEMA_NAMESPACE_URI, "xsd");
+	}
+
+	/** Resets the generator, forgetting any blank node labels and written resources. */
+	public void reset() {
+		contextPrefixNamespaceMap.clear();
+		vocabularyCompactIRIMap.clear();
+		blankNodeLabelMap.clear();
+		writtenResourceSet.clear();
+		pendingBlankNodes.clear();
+	}
+
+	/**
+	 * Writes all the resources in the given data model, along with any blank nodes they reference.
+	 * @param rdf The data model to write.
+	 * @param writer The writer to which the JSON-LD should be written.
+	 * @throws IOException if there is an error writing the JSON-LD.
+	 */
+	public void generate(final RDFModel rdf, final Writer writer) throws IOException {
+		generate(rdf.getResources(), writer);
+	}
+
+	/**
+	 * Writes the given resource, along with any blank nodes it references.
+	 * @param resource The resource to write.
+	 * @param writer The writer to which the JSON-LD should be written.
+	 * @throws IOException if there is an error writing the JSON-LD.
+	 */
+	public void generate(final RDFResource resource, final Writer writer) throws IOException {
+		generate(singleton(resource), writer);
+	}
+
+	/**
+	 * Writes the given resources, along with any blank nodes they reference. Resources without properties are only written where they are referenced.
+	 * @param resources The resources to write.
+	 * @param writer The writer to which the JSON-LD should be written.
+	 * @throws IOException if there is an error writing the JSON-LD.
+	 */
+	protected void generate(final Iterable<RDFResource> resources, final Writer writer) throws IOException {
+		reset();
+		for(final Map.Entry<URI, String> namespacePrefixEntry : namespacePrefixMap.entrySet()) { //determine which prefixes can be used
+			final String namespace = namespacePrefixEntry.getKey().toString();
+			final String prefix = namespacePrefixEntry.getValue();
+			if(!namespace.isEmpty() && GENERAL_DELIMITERS.indexOf(namespace.charAt(namespace.length() - 1)) >= 0 && !prefix.isEmpty() && prefix.indexOf(':') < 0
+					&& !prefix.startsWith("@")) {
+				contextPrefixNamespaceMap.put(prefix, namespace);
+			}
+		}
+		writer.write("{\n");
+		writeIndent(1, writer);
+		writer.write("\"@context\": {");
+		boolean isFirst = true;
+		for(final Map.Entry<String, String> prefixNamespaceEntry : contextPrefixNamespaceMap.entrySet()) {
+			writer.write(isFirst ? "\n" : ",\n");
+			writeIndent(2, writer);
+			writeString(prefixNamespaceEntry.getKey(), writer);
+			writer.write(": ");
+			writeString(prefixNamespaceEntry.getValue(), writer);
+			isFirst = false;
+		}
+		if(!isFirst) {
+			writer.write('\n');
+			writeIndent(1, writer);
+		}
+		writer.write("},\n");
+		writeIndent(1, writer);
+		writer.write("\"@graph\": [");
+		isFirst = true;
+		for(final RDFResource resource : resources) {
+			if(writeGraphNode(resource, isFirst, writer)) {
+				isFirst = false;
+			}
+		}
+		RDFResource blankNode;
+		while((blankNode = pendingBlankNodes.poll()) != null) { //write any blank nodes not written in place
+			if(writeGraphNode(blankNode, isFirst, writer)) {
+				isFirst = false;
+			}
+		}
+		if(!isFirst) {
+			writer.write('\n');
+			writeIndent(1, writer);
+		}
+		writer.write("]\n}\n");
+	}
+
+	/**
+	 * Writes a resource as a node object in the graph, unless it has already been written or has no properties.
+	 * @param resource The resource to write.
+	 * @param isFirst Whether no node objects have yet been written in the graph.
+	 * @param writer The writer to which the node object should be written.
+	 * @return <code>true</code> if the node object was written.
+	 * @throws IOException if there is an error writing the node object.
+	 */
+	private boolean writeGraphNode(final RDFResource resource, final boolean isFirst, final Writer writer) throws IOException {
+		if(resource.getPropertyCount() == 0 || writtenResourceSet.contains(resource)) {
+			return false;
+		}
+		writer.write(isFirst ? "\n" : ",\n");
+		writeIndent(2, writer);
+		writeNode(resource, 2, writer);
+		return true;
+	}
+
+	/**
+	 * Writes a resource and its properties as a node object. The properties are grouped by predicate, with any resource types written first as
+	 * <code>@type</code>.
+	 * @param subject The resource to write.
+	 * @param depth The level of indention of the node object.
+	 * @param writer The writer to which the node object should be written.
+	 * @throws IOException if there is an error writing the node object.
+	 */
+	protected void writeNode(final RDFResource subject, final int depth, final Writer writer) throws IOException {
+		writtenResourceSet.add(subject);
+		final List<RDFResource> types = new ArrayList<RDFResource>();
+		final Map<URI, List<RDFObject>> predicateObjectsMap = new LinkedHashMap<URI, List<RDFObject>>();
+		final Iterator<RDFPropertyValuePair> propertyIterator = subject.getPropertyIterator(); //iterate the properties in place rather than copying them
+		while(propertyIterator.hasNext()) {
+			final RDFPropertyValuePair propertyValuePair = propertyIterator.next();
+			final URI predicateURI = propertyValuePair.getProperty().getURI();
+			final RDFObject value = propertyValuePair.getPropertyValue();
+			if(TYPE_PROPERTY_REFERENCE_URI.equals(predicateURI) && value instanceof RDFResource) {
+				types.add((RDFResource)value);
+			} else {
+				predicateObjectsMap.computeIfAbsent(predicateURI, uri -> new ArrayList<RDFObject>()).add(value);
+			}
+		}
+		writer.write("{\n");
+		writeIndent(depth + 1, writer);
+		writer.write("\"@id\": ");
+		writeString(getID(subject), writer);
+		if(!types.isEmpty()) {
+			writer.write(",\n");
+			writeIndent(depth + 1, writer);
+			writer.write("\"@type\": ");
+			if(types.size() > 1) {
+				writer.write('[');
+			}
+			boolean isFirstType = true;
+			for(final RDFResource type : types) {
+				if(!isFirstType) {
+					writer.write(", ");
+				}
+				final URI typeURI = type.getURI();
+				if(typeURI != null) {
+					writeString(compactVocabularyIRI(typeURI), writer);
+				} else { //a blank node type is written later in the graph
+					writeString(getID(type), writer);
+					addPendingBlankNode(type);
+				}
+				isFirstType = false;
+			}
+			if(types.size() > 1) {
+				writer.write(']');
+			}
+		}
+		for(final Map.Entry<URI, List<RDFObject>> predicateObjectsEntry : predicateObjectsMap.entrySet()) {
+			writer.write(",\n");
+			writeIndent(depth + 1, writer);
+			writeString(compactVocabularyIRI(predicateObjectsEntry.getKey()), writer);
+			writer.write(": ");
+			final List<RDFObject> objects = predicateObjectsEntry.getValue();
+			if(objects.size() == 1) {
+				writeValue(objects.get(0), depth + 1, writer);
+			} else {
+				writer.write('[');
+				boolean isFirstObject = true;
+				for(final RDFObject object : objects) {
+					writer.write(isFirstObject ? "\n" : ",\n");
+					writeIndent(depth + 2, writer);
+					writeValue(object, depth + 2, writer);
+					isFirstObject = false;
+				}
+				writer.write('\n');
+				writeIndent(depth + 1, writer);
+				writer.write(']');
+			}
+		}
+		writer.write('\n');
+		writeIndent(depth, writer);
+		writer.write('}');
+	}
+
+	/**
+	 * Writes the value of a property. A blank node with properties that has not yet been written is written in place, unless it is nested too deeply.
+	 * @param object The property value to write.
+	 * @param depth The level of indention of the value.
+	 * @param writer The writer to which the value should be written.
+	 * @throws IOException if there is an error writing the value.
+	 */
+	protected void writeValue(final RDFObject object, final int depth, final Writer writer) throws IOException {
+		if(!(object instanceof RDFResource)) {
+			writeLiteral((RDFLiteral)object, writer);
+			return;
+		}
+		final RDFResource resource = (RDFResource)object;
+		if(resource.getURI() == null && resource.getPropertyCount() > 0 && !writtenResourceSet.contains(resource)) {
+			if(depth < MAX_NESTING_DEPTH) {
+				writeNode(resource, depth, writer);
+				return;
+			}
+			addPendingBlankNode(resource);
+		}
+		writer.write("{\"@id\": ");
+		writeString(getID(resource), writer);
+		writer.write('}');
+	}
+
+	/**
+	 * Schedules a blank node to be written later in the graph if it has properties and has not yet been written.
+	 * @param blankNode The blank node.
+	 */
+	private void addPendingBlankNode(final RDFResource blankNode) {
+		if(blankNode.getPropertyCount() > 0 && !writtenResourceSet.contains(blankNode)) {
+			pendingBlankNodes.add(blankNode);
+		}
+	}
+
+	/**
+	 * Returns the identifier of a resource: a compact IRI or absolute IRI, or a blank node label if the resource has no reference URI.
+	 * @param resource The resource to identify.
+	 * @return The identifier of the resource.
+	 */
+	protected String getID(final RDFResource resource) {
+		final URI referenceURI = resource.getURI();
+		if(referenceURI != null) {
+			return compactIRI(referenceURI);
+		}
+		String label = blankNodeLabelMap.get(resource);
+		if(label == null) {
+			label = BLANK_NODE_LABEL_PREFIX + (blankNodeLabelMap.size() + 1);
+			blankNodeLabelMap.put(resource, label);
+		}
+		return label;
+	}
+
+	/**
+	 * Compacts a predicate, type, or datatype URI, remembering the compacted form as such URIs are few but recur often.
+	 * @param uri The URI to compact.
+	 * @return The compact IRI, or the absolute IRI if the URI cannot be compacted.
+	 */
+	private String compactVocabularyIRI(final URI uri) {
+		return vocabularyCompactIRIMap.computeIfAbsent(uri, this::compactIRI);
+	}
+
+	/**
+	 * Compacts a URI to a compact IRI if it is in a namespace with a prefix in the context. If more than one namespace applies, the longest is used.
+	 * @param uri The URI to compact.
+	 * @return The compact IRI, or the absolute IRI if the URI cannot be compacted.
+	 */
+	protected String compactIRI(final URI uri) {
+		final String iri = uri.toString();
+		String bestPrefix = null;
+		int bestLength = -1;
+		for(final Map.Entry<String, String> prefixNamespaceEntry : contextPrefixNamespaceMap.entrySet()) {
+			final String namespace = prefixNamespaceEntry.getValue();
+			//the suffix of a compact IRI must not be empty or begin with "//", or the compact IRI would be taken as an absolute IRI
+			if(namespace.length() > bestLength && iri.length() > namespace.length() && iri.startsWith(namespace) && !iri.startsWith("//", namespace.length())) {
+				bestPrefix = prefixNamespaceEntry.getKey();
+				bestLength = namespace.length();
+			}
+		}
+		return bestPrefix != null ? bestPrefix + ':' + iri.substring(bestLength) : iri;
+	}
+
+	/**
+	 * Writes a literal as a value. A plain literal without a language is written as a string; integers and booleans are written as JSON numbers and booleans if
+	 * their lexical forms are canonical; other literals are written as value objects.
+	 * @param literal The literal to write.
+	 * @param writer The writer to which the literal should be written.
+	 * @throws IOException if there is an error writing the literal.
+	 */
+	protected void writeLiteral(final RDFLiteral literal, final Writer writer) throws IOException {
+		final String lexicalForm = literal.getLexicalForm();
+		if(literal instanceof RDFTypedLiteral) {
+			final URI datatypeURI = ((RDFTypedLiteral<?>)literal).getDatatypeURI();
+			//only integers that fit in a double without loss of precision are written as numbers
+			if((INTEGER_DATATYPE_URI.equals(datatypeURI) && lexicalForm.length() <= 15 && lexicalForm.matches("-?(0|[1-9][0-9]*)"))
+					|| (BOOLEAN_DATATYPE_URI.equals(datatypeURI) && (lexicalForm.equals("true") || lexicalForm.equals("false")))) {
+				writer.write(lexicalForm);
+				return;
+			}
+			writer.write("{\"@value\": ");
+			writeString(lexicalForm, writer);
+			writer.write(", \"@type\": ");
+			writeString(compactVocabularyIRI(datatypeURI), writer);
+			writer.write('}');
+			return;
+		}
+		final Locale language = literal instanceof RDFPlainLiteral ? ((RDFPlainLiteral)literal).getLanguage() : null;
+		if(language != null) {
+			writer.write("{\"@value\": ");
+			writeString(lexicalForm, writer);
+			writer.write(", \"@language\": ");
+			writeString(Locales.getLanguageTag(language), writer);
+			writer.write('}');
+		} else {
+			writeString(lexicalForm, writer);
+		}
+	}
+
+	/**
+	 * Writes a JSON string, escaping quotation marks, reverse solidi, control characters, and the line and paragraph separators, which are not allowed in
+	 * JavaScript strings.
+	 * @param string The string to write.
+	 * @param writer The writer to which the string should be written.
+	 * @throws IOException if there is an error writing the string.
+	 */
+	protected void writeString(final String string, final Writer writer) throws IOException {
+		writer.write('"');
+		final int length = string.length();
+		int start = 0; //write unescaped runs of characters at once
+		for(int i = 0; i < length; ++i) {
+			final char c = string.charAt(i);
+			final String escape;
+			switch(c) {
+				case '"':
+					escape = "\\\"";
+					break;
+				case '\\':
+					escape = "\\\\";
+					break;
+				case '\n':
+					escape = "\\n";
+					break;
+				case '\r':
+					escape = "\\r";
+					break;
+				case '\t':
+					escape = "\\t";
+					break;
+				default:
+					if(c >= ' ' && c != '\u2028' && c != '\u2029') {
+						continue;
+					}
+					escape = String.format("\\u%04x", (int)c);
+			}
+			writer.write(string, start, i - start);
+			writer.write(escape);
+			start = i + 1;
+		}
+		writer.write(string, start, length - start);
+		writer.write('"');
+	}
+
+	/**
+	 * Writes indention for the given level.
+	 * @param depth The level of indention.
+	 * @param writer The writer to which the indention should be written.
+	 * @throws IOException if there is an error writing the indention.
+	 */
+	private static void writeIndent(final int depth, final Writer writer) throws IOException {
+		for(int i = 0; i < depth; ++i) {
+			writer.write(INDENT);
+		}
+	}
+
+}
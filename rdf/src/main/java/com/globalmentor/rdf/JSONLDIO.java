@@ -0,0 +1,62 @@
+/*
+ * Copyright © 1996-2008 GlobalMentor, Inc. <https://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.globalmentor.rdf;
+
+import java.io.*;
+import java.net.URI;
+
+/**
+ * Class for saving an entire RDF data model as compacted JSON-LD, using the registered namespace prefixes as the context. Reading JSON-LD is not supported.
+ * @author Garret Wilson
+ * @see JSONLDFormat
+ */
+public class JSONLDIO extends AbstractRDFIO<RDFModel> {
+
+	/** The JSON-LD format used for writing. */
+	private final RDFFormat format = new JSONLDFormat();
+
+	/** Default constructor. */
+	public JSONLDIO() {
+		super(RDFModel.class);
+	}
+
+	/**
+	 * Reading JSON-LD is not supported.
+	 * @param rdf The RDF instance to use in creating new resources.
+	 * @param inputStream The input stream from which to read the data.
+	 * @param baseURI The base URI of the data, or <code>null</code> if no base URI is available.
+	 * @return Nothing; this method always throws an exception.
+	 * @throws UnsupportedOperationException because JSON-LD cannot be read.
+	 */
+	public RDFModel read(final RDFModel rdf, final InputStream inputStream, final URI baseURI) throws IOException {
+		return format.read(rdf, inputStream, baseURI, null, getLimits());
+	}
+
+	/**
+	 * Writes an RDF data model to an output stream as UTF-8 encoded JSON-LD. The output is written as it is generated, and the output stream is flushed but not
+	 * closed.
+	 * @param outputStream The output stream to which to write the data.
+	 * @param baseURI The base URI of the data, or <code>null</code> if no base URI is available.
+	 * @param rdf The data model to write to the given output stream.
+	 * @throws IOException Thrown if there is an error writing the data.
+	 */
+	public void write(final OutputStream outputStream, final URI baseURI, final RDFModel rdf) throws IOException {
+		format.write(outputStream, baseURI, rdf, getNamespacePrefixMap());
+	}
+
+}
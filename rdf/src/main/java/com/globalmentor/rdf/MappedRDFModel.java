@@ -0,0 +1,977 @@
+/*
+ * Copyright © 1996-2008 GlobalMentor, Inc. <https://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.globalmentor.rdf;
+
+import java.io.*;
+import java.lang.ref.*;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.*;
+
+import com.globalmentor.model.Locales;
+
+import static java.nio.charset.StandardCharsets.*;
+import static java.nio.file.StandardOpenOption.*;
+import static java.util.Collections.*;
+import static java.util.Objects.*;
+
+/**
+ * A read-only RDF data model backed by a memory-mapped file, allowing large data sets that never change, such as vocabularies, to be queried in place without
+ * being loaded into memory.
+ * <p>
+ * The file, created using {@link #write(RDFModel, File)}, is laid out in the manner of Header Dictionary Triples (HDT): a dictionary of terms followed by the
+ * statements, which refer to terms by their index in the dictionary. The reference URIs of named resources come first in the dictionary, sorted and front
+ * coded in blocks so that each URI stores only the part it does not share with the previous URI in the block; a resource is found by a binary search over the
+ * first URI of each block. Blank nodes, literals, datatypes, and language tags follow. The statements are stored as arrays of predicates and objects, sorted
+ * by subject and then by predicate, along with an array indicating where the statements of each subject start, so that the properties of a resource, or the
+ * values of a single property, are found without reading any other statements.
+ * </p>
+ * <p>
+ * Resources are lightweight views, and their properties are read from the mapped file each time they are requested. A resource retrieved more than once is
+ * the same instance for as long as it remains referenced. Resource factories are not used. Neither the data model nor its resources may be modified; any
+ * attempt to add resources or to change properties results in an {@link UnsupportedOperationException}. Locating a resource that is not in the data model
+ * results in an {@link IllegalArgumentException} rather than creating the resource.
+ * </p>
+ * <p>
+ * This class is thread safe.
+ * </p>
+ * @author Garret Wilson
+ */
+public class MappedRDFModel extends RDFModel {
+
+	/** The bytes identifying the file format. */
+	private static final byte[] MAGIC = {'R', 'D', 'F', 'M'};
+
+	/** The version of the file format. */
+	private static final int VERSION = 1;
+
+	/** The number of reference URIs in each front-coded block of the dictionary. */
+	private static final int BLOCK_SIZE = 16;
+
+	/** The size of the header: the magic bytes, the version, four counts, and nine section positions. */
+	private static final int HEADER_SIZE = MAGIC.length + 14 * Integer.BYTES;
+
+	/** The term kind of a plain literal with no language; stored as the lexical form. */
+	private static final byte PLAIN_LITERAL_TERM = 0;
+	/** The term kind of a plain literal with a language; stored as the lexical form, referencing a language tag term. */
+	private static final byte LANGUAGE_LITERAL_TERM = 1;
+	/** The term kind of a typed literal; stored as the lexical form, referencing a datatype term. */
+	private static final byte TYPED_LITERAL_TERM = 2;
+	/** The term kind of a datatype URI; stored as the URI. */
+	private static final byte DATATYPE_TERM = 3;
+	/** The term kind of a language tag; stored as the tag. */
+	private static final byte LANGUAGE_TERM = 4;
+
+	/** The mapped file; only absolute access or duplicates are used, so that the buffer may be shared among threads. */
+	private final ByteBuffer buffer;
+
+	/** The number of named resources, which are the first terms in the dictionary. */
+	private final int iriCount;
+	/** The number of resources, named resources followed by blank nodes, which are the first terms in the dictionary. */
+	private final int resourceCount;
+	/** The number of terms in the dictionary. */
+	private final int termCount;
+	/** The number of statements. */
+	private final int statementCount;
+
+	/** The position of the index of the first statement of each resource, followed by the total number of statements. */
+	private final int subjectStartsPosition;
+	/** The position of the predicate index of each statement. */
+	private final int predicatesPosition;
+	/** The position of the object index of each statement. */
+	private final int objectsPosition;
+	/** The position of the offset of each block of reference URIs within the reference URI heap. */
+	private final int iriBlocksPosition;
+	/** The position of the index of the datatype or language tag term of each term following the resources, or -1 if none. */
+	private final int referencesPosition;
+	/** The position of the offset of the string of each term following the resources within the string heap. */
+	private final int stringOffsetsPosition;
+	/** The position of the kind of each term following the resources. */
+	private final int kindsPosition;
+	/** The position of the front-coded reference URIs. */
+	private final int iriHeapPosition;
+	/** The position of the strings of the terms following the resources. */
+	private final int stringHeapPosition;
+
+	/** The resources that have been retrieved, keyed to their term indexes, so that each resource is retrieved as the same instance while it is referenced. */
+	private final Map<Integer, ResourceReference> resourceReferenceMap = new HashMap<Integer, ResourceReference>();
+
+	/** The queue of references to resources that are no longer referenced. */
+	private final ReferenceQueue<MappedResource> resourceReferenceQueue = new ReferenceQueue<MappedResource>();
+
+	/**
+	 * File constructor. The file is mapped into memory and does not need to remain open.
+	 * @param file The file, created by {@link #write(RDFModel, File)}, containing the data.
+	 * @throws NullPointerException if the given file is <code>null</code>.
+	 * @throws IOException if there is an error mapping the file or the file is not a valid mapped RDF file.
+	 */
+	public MappedRDFModel(final File file) throws IOException {
+		try (final FileChannel channel = FileChannel.open(file.toPath(), READ)) {
+			final long size = channel.size();
+			if(size > Integer.MAX_VALUE) {
+				throw new IOException("Mapped RDF file " + file + " is too large to be mapped.");
+			}
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+		}
+		if(buffer.limit() < HEADER_SIZE) {
+			throw new IOException("File " + file + " is not a mapped RDF file.");
+		}
+		for(int i = 0; i < MAGIC.length; ++i) {
+			if(buffer.get(i) != MAGIC[i]) {
+				throw new IOException("File " + file + " is not a mapped RDF file.");
+			}
+		}
+		int position = MAGIC.length;
+		final int version = buffer.getInt(position);
+		if(version != VERSION) {
+			throw new IOException("Unsupported mapped RDF version " + version + ".");
+		}
+		iriCount = buffer.getInt(position += Integer.BYTES);
+		resourceCount = buffer.getInt(position += Integer.BYTES);
+		termCount = buffer.getInt(position += Integer.BYTES);
+		statementCount = buffer.getInt(position += Integer.BYTES);
+		if(iriCount < 0 || resourceCount < iriCount || termCount < resourceCount || statementCount < 0) {
+			throw new IOException("Invalid mapped RDF file " + file + ".");
+		}
+		final int otherCount = termCount - resourceCount;
+		subjectStartsPosition = checkSection(buffer.getInt(position += Integer.BYTES), (resourceCount + 1L) * Integer.BYTES);
+		predicatesPosition = checkSection(buffer.getInt(position += Integer.BYTES), (long)statementCount * Integer.BYTES);
+		objectsPosition = checkSection(buffer.getInt(position += Integer.BYTES), (long)statementCount * Integer.BYTES);
+		iriBlocksPosition = checkSection(buffer.getInt(position += Integer.BYTES), (long)getBlockCount(iriCount) * Integer.BYTES);
+		referencesPosition = checkSection(buffer.getInt(position += Integer.BYTES), (long)otherCount * Integer.BYTES);
+		stringOffsetsPosition = checkSection(buffer.getInt(position += Integer.BYTES), (long)otherCount * Integer.BYTES);
+		kindsPosition = checkSection(buffer.getInt(position += Integer.BYTES), otherCount);
+		iriHeapPosition = checkSection(buffer.getInt(position += Integer.BYTES), 0);
+		stringHeapPosition = checkSection(buffer.getInt(position += Integer.BYTES), 0);
+	}
+
+	/**
+	 * Ensures that a section of the given length at the given position lies within the file.
+	 * @param position The position of the section.
+	 * @param length The length of the section in bytes.
+	 * @return The position of the section.
+	 * @throws IOException if the section does not lie within the file.
+	 */
+	private int checkSection(final int position, final long length) throws IOException {
+		if(position < HEADER_SIZE || position + length > buffer.limit()) {
+			throw new IOException("Invalid mapped RDF section at position " + position + ".");
+		}
+		return position;
+	}
+
+	/**
+	 * Returns the number of front-coded blocks needed to hold the given number of reference URIs.
+	 * @param iriCount The number of reference URIs.
+	 * @return The number of blocks.
+	 */
+	private static int getBlockCount(final int iriCount) {
+		return (iriCount + BLOCK_SIZE - 1) / BLOCK_SIZE;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * This version finds the resource in the mapped dictionary.
+	 * </p>
+	 */
+	@Override
+	public RDFResource getResource(final URI resourceURI) {
+		if(resourceURI == null) {
+			return null;
+		}
+		final int index = getIRIIndex(resourceURI);
+		return index >= 0 ? getResource(index) : null;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * This data model is read-only, so this version only finds a resource already in the mapped dictionary; no resource is created, and the type is ignored.
+	 * </p>
+	 * @throws IllegalArgumentException if there is no resource with the given reference URI in the mapped dictionary, or the reference URI is <code>null</code>.
+	 */
+	@Override
+	public RDFResource locateTypedResource(final URI referenceURI, final URI typeNamespaceURI, final String typeLocalName) {
+		final RDFResource resource = getResource(referenceURI);
+		if(resource == null) {
+			throw new IllegalArgumentException("Mapped RDF data model has no resource " + referenceURI + ".");
+		}
+		return resource;
+	}
+
+	/** {@inheritDoc} This version returns the number of resources in the mapped dictionary. */
+	@Override
+	public int getResourceCount() {
+		return resourceCount;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * This version retrieves each resource from the mapped dictionary as it is iterated.
+	 * </p>
+	 */
+	@Override
+	public Iterable<RDFResource> getResources() {
+		return new AbstractList<RDFResource>() {
+			@Override
+			public RDFResource get(final int index) {
+				checkIndex(index, resourceCount);
+				return getResource(index);
+			}
+
+			@Override
+			public int size() {
+				return resourceCount;
+			}
+		};
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * This data model is read-only, so this version always throws an exception. All methods that create resources in the data model do so by way of this method.
+	 * </p>
+	 * @throws UnsupportedOperationException because this data model cannot be modified.
+	 */
+	@Override
+	public void addResource(final RDFResource resource) {
+		throw new UnsupportedOperationException("Mapped RDF data model is read-only.");
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * This data model is read-only, so this version always throws an exception.
+	 * </p>
+	 * @throws UnsupportedOperationException because this data model cannot be modified.
+	 */
+	@Override
+	public Map<RDFResource, RDFResource> merge(final RDFModel rdf, final Map<RDFResource, RDFResource> resourceMap) {
+		throw new UnsupportedOperationException("Mapped RDF data model is read-only.");
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * This data model is read-only, so this version always throws an exception.
+	 * </p>
+	 * @throws UnsupportedOperationException because this data model cannot be modified.
+	 */
+	@Override
+	public Map<RDFResource, RDFResource> mergeWithoutRedirection(final RDFModel rdf, final Map<RDFResource, RDFResource> resourceMap) {
+		throw new UnsupportedOperationException("Mapped RDF data model is read-only.");
+	}
+
+	/**
+	 * Finds the dictionary index of the named resource with the given reference URI.
+	 * @param referenceURI The reference URI of the resource.
+	 * @return The index of the resource, or -1 if there is no resource with the given reference URI.
+	 */
+	private int getIRIIndex(final URI referenceURI) {
+		final byte[] target = referenceURI.toString().getBytes(UTF_8);
+		//find the last block starting with a reference URI not greater than the one requested
+		int low = 0;
+		int high = getBlockCount(iriCount) - 1;
+		while(low <= high) {
+			final int middle = (low + high) >>> 1;
+			final ByteBuffer cursor = getBlockCursor(middle);
+			final int comparison = Arrays.compareUnsigned(readFrontCoded(cursor, NO_BYTES), target);
+			if(comparison < 0) {
+				low = middle + 1;
+			} else if(comparison > 0) {
+				high = middle - 1;
+			} else {
+				return middle * BLOCK_SIZE;
+			}
+		}
+		if(high < 0) { //if the reference URI comes before all others
+			return -1;
+		}
+		//search the block, the reference URIs of which are in order
+		final ByteBuffer cursor = getBlockCursor(high);
+		byte[] bytes = NO_BYTES;
+		for(int index = high * BLOCK_SIZE, end = Math.min(index + BLOCK_SIZE, iriCount); index < end; ++index) {
+			bytes = readFrontCoded(cursor, bytes);
+			final int comparison = Arrays.compareUnsigned(bytes, target);
+			if(comparison == 0) {
+				return index;
+			} else if(comparison > 0) {
+				break;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the reference URI of the named resource with the given dictionary index.
+	 * @param index The index of a named resource.
+	 * @return The reference URI of the resource.
+	 */
+	private URI getIRI(final int index) {
+		final int block = index / BLOCK_SIZE;
+		final ByteBuffer cursor = getBlockCursor(block);
+		byte[] bytes = NO_BYTES;
+		for(int i = block * BLOCK_SIZE; i <= index; ++i) {
+			bytes = readFrontCoded(cursor, bytes);
+		}
+		return URI.create(new String(bytes, UTF_8));
+	}
+
+	/**
+	 * Returns a cursor positioned at the start of a block of front-coded reference URIs.
+	 * @param block The index of the block.
+	 * @return A new cursor for reading the block.
+	 */
+	private ByteBuffer getBlockCursor(final int block) {
+		final ByteBuffer cursor = buffer.duplicate();
+		cursor.position(iriHeapPosition + buffer.getInt(iriBlocksPosition + block * Integer.BYTES));
+		return cursor;
+	}
+
+	/**
+	 * Returns the string of a term following the resources in the dictionary.
+	 * @param index The index of the term.
+	 * @return The lexical form, datatype URI, or language tag of the term.
+	 */
+	private String getString(final int index) {
+		final ByteBuffer cursor = buffer.duplicate();
+		cursor.position(stringHeapPosition + buffer.getInt(stringOffsetsPosition + (index - resourceCount) * Integer.BYTES));
+		final byte[] bytes = new byte[readVarInt(cursor)];
+		cursor.get(bytes);
+		return new String(bytes, UTF_8);
+	}
+
+	/**
+	 * Returns the resource with the given dictionary index. If the resource has already been retrieved and is still referenced, the same instance is returned.
+	 * @param index The index of the resource.
+	 * @return The resource.
+	 */
+	private RDFResource getResource(final int index) {
+		synchronized(resourceReferenceMap) {
+			ResourceReference staleReference;
+			while((staleReference = (ResourceReference)resourceReferenceQueue.poll()) != null) { //remove the entries of resources no longer referenced
+				resourceReferenceMap.remove(staleReference.index, staleReference);
+			}
+			final ResourceReference reference = resourceReferenceMap.get(index);
+			MappedResource resource = reference != null ? reference.get() : null;
+			if(resource == null) {
+				resource = new MappedResource(index < iriCount ? getIRI(index) : null, index);
+				resourceReferenceMap.put(index, new ResourceReference(resource, resourceReferenceQueue));
+			}
+			return resource;
+		}
+	}
+
+	/**
+	 * Returns the resource or literal with the given dictionary index. Literals are created anew each time.
+	 * @param index The index of the term.
+	 * @return The resource or literal.
+	 * @throws IllegalStateException if the term is not a resource or literal.
+	 */
+	private RDFObject getObject(final int index) {
+		if(index < resourceCount) {
+			return getResource(index);
+		}
+		final int otherIndex = index - resourceCount;
+		final String lexicalForm = getString(index);
+		switch(buffer.get(kindsPosition + otherIndex)) {
+			case PLAIN_LITERAL_TERM:
+				return new RDFPlainLiteral(lexicalForm);
+			case LANGUAGE_LITERAL_TERM:
+				return new RDFPlainLiteral(lexicalForm, Locales.createLocale(getString(buffer.getInt(referencesPosition + otherIndex * Integer.BYTES))));
+			case TYPED_LITERAL_TERM:
+				return createTypedLiteral(lexicalForm, URI.create(getString(buffer.getInt(referencesPosition + otherIndex * Integer.BYTES))));
+			default:
+				throw new IllegalStateException("Mapped RDF term " + index + " is not a resource or literal.");
+		}
+	}
+
+	/**
+	 * Returns the index of the first statement of a resource.
+	 * @param index The index of the resource, or the number of resources for the total number of statements.
+	 * @return The index of the first statement of the resource.
+	 */
+	private int getSubjectStart(final int index) {
+		return buffer.getInt(subjectStartsPosition + index * Integer.BYTES);
+	}
+
+	/**
+	 * Returns the predicate of a statement.
+	 * @param statement The index of the statement.
+	 * @return The dictionary index of the predicate.
+	 */
+	private int getStatementPredicate(final int statement) {
+		return buffer.getInt(predicatesPosition + statement * Integer.BYTES);
+	}
+
+	/**
+	 * Returns the object of a statement.
+	 * @param statement The index of the statement.
+	 * @return The dictionary index of the object.
+	 */
+	private int getStatementObject(final int statement) {
+		return buffer.getInt(objectsPosition + statement * Integer.BYTES);
+	}
+
+	/**
+	 * Finds the first of the statements of a subject with the given predicate, which are grouped together.
+	 * @param subject The dictionary index of the subject.
+	 * @param predicate The dictionary index of the predicate.
+	 * @return The index of the first statement with the given predicate, or the index of the last statement of the subject plus one if there are none.
+	 */
+	private int findPredicate(final int subject, final int predicate) {
+		int low = getSubjectStart(subject);
+		int high = getSubjectStart(subject + 1);
+		while(low < high) {
+			final int middle = (low + high) >>> 1;
+			if(getStatementPredicate(middle) < predicate) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/** An empty byte array. */
+	private static final byte[] NO_BYTES = new byte[0];
+
+	/**
+	 * Reads a front-coded string: the number of bytes shared with the previous string, followed by the number of remaining bytes and those bytes.
+	 * @param cursor The buffer from which to read.
+	 * @param previous The bytes of the previous string in the block.
+	 * @return The bytes of the string.
+	 */
+	private static byte[] readFrontCoded(final ByteBuffer cursor, final byte[] previous) {
+		final int sharedLength = readVarInt(cursor);
+		final int suffixLength = readVarInt(cursor);
+		if(sharedLength > previous.length) {
+			throw new IllegalStateException("Invalid mapped RDF front coding.");
+		}
+		final byte[] bytes = Arrays.copyOf(previous, sharedLength + suffixLength);
+		cursor.get(bytes, sharedLength, suffixLength);
+		return bytes;
+	}
+
+	/**
+	 * Reads an unsigned variable-length integer, seven bits per byte with the high bit set on all but the last byte.
+	 * @param cursor The buffer from which to read.
+	 * @return The integer read.
+	 */
+	private static int readVarInt(final ByteBuffer cursor) {
+		int value = 0;
+		for(int shift = 0; shift < 32; shift += 7) {
+			final byte b = cursor.get();
+			value |= (b & 0x7F) << shift;
+			if(b >= 0) { //if the high bit is not set, this is the last byte
+				return value;
+			}
+		}
+		throw new IllegalStateException("Invalid mapped RDF variable-length integer.");
+	}
+
+	/**
+	 * Writes an unsigned variable-length integer, seven bits per byte with the high bit set on all but the last byte.
+	 * @param outputStream The stream to which to write.
+	 * @param value The non-negative value to write.
+	 */
+	private static void writeVarInt(final ByteArrayOutputStream outputStream, int value) {
+		while((value & ~0x7F) != 0) {
+			outputStream.write((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		outputStream.write(value);
+	}
+
+	/**
+	 * Writes the resources of a data model, along with all resources reachable from them, to a file that can be mapped.
+	 * <p>
+	 * Resources with the same reference URI are written as a single resource, and duplicate statements are written once.
+	 * </p>
+	 * @param rdf The data model to write.
+	 * @param file The file to which to write the data.
+	 * @throws NullPointerException if the given data model and/or file is <code>null</code>.
+	 * @throws IOException if there is an error writing the data, or the data is too large to be mapped.
+	 * @see #MappedRDFModel(File)
+	 */
+	public static void write(final RDFModel rdf, final File file) throws IOException {
+		requireNonNull(file, "File cannot be null.");
+		//gather the terms and statements of all resources reachable from the data model
+		final Set<String> iriSet = new HashSet<String>();
+		final Map<RDFResource, Integer> blankNodeIndexMap = new IdentityHashMap<RDFResource, Integer>(); //blank nodes are distinguished by identity
+		final Map<StringTerm, Integer> stringTermIndexMap = new LinkedHashMap<StringTerm, Integer>(); //literals, datatypes, and language tags
+		final List<RDFResource> subjects = new ArrayList<RDFResource>();
+		final List<RDFResource> predicates = new ArrayList<RDFResource>();
+		final List<Object> objects = new ArrayList<Object>(); //resources and string terms
+		final Set<RDFResource> subjectSet = newSetFromMap(new IdentityHashMap<RDFResource, Boolean>());
+		final Deque<RDFResource> resourceStack = new ArrayDeque<RDFResource>();
+		for(final RDFResource resource : rdf.getResources()) {
+			resourceStack.push(resource);
+			RDFResource subject;
+			while((subject = resourceStack.poll()) != null) {
+				if(!subjectSet.add(subject)) { //if we've already gathered this resource, skip it
+					continue;
+				}
+				final URI referenceURI = subject.getURI();
+				if(referenceURI != null) {
+					iriSet.add(referenceURI.toString());
+				} else {
+					blankNodeIndexMap.put(subject, blankNodeIndexMap.size());
+				}
+				for(final RDFPropertyValuePair propertyValuePair : subject.getProperties()) {
+					final RDFResource predicate = propertyValuePair.getProperty();
+					resourceStack.push(predicate);
+					final RDFObject value = propertyValuePair.getPropertyValue();
+					final Object object;
+					if(value instanceof RDFResource) {
+						resourceStack.push((RDFResource)value);
+						object = value;
+					} else {
+						final RDFLiteral literal = (RDFLiteral)value;
+						if(literal instanceof RDFTypedLiteral) {
+							final StringTerm datatype = addStringTerm(new StringTerm(DATATYPE_TERM, ((RDFTypedLiteral<?>)literal).getDatatypeURI().toString(), null),
+									stringTermIndexMap);
+							object = addStringTerm(new StringTerm(TYPED_LITERAL_TERM, literal.getLexicalForm(), datatype), stringTermIndexMap);
+						} else {
+							final Locale language = literal instanceof RDFPlainLiteral ? ((RDFPlainLiteral)literal).getLanguage() : null;
+							if(language != null) {
+								final StringTerm languageTag = addStringTerm(new StringTerm(LANGUAGE_TERM, Locales.getLanguageTag(language), null), stringTermIndexMap);
+								object = addStringTerm(new StringTerm(LANGUAGE_LITERAL_TERM, literal.getLexicalForm(), languageTag), stringTermIndexMap);
+							} else {
+								object = addStringTerm(new StringTerm(PLAIN_LITERAL_TERM, literal.getLexicalForm(), null), stringTermIndexMap);
+							}
+						}
+					}
+					subjects.add(subject);
+					predicates.add(predicate);
+					objects.add(object);
+				}
+			}
+		}
+		//sort the reference URIs by their UTF-8 bytes, the order used when searching
+		final byte[][] iris = new byte[iriSet.size()][];
+		int iriCount = 0;
+		for(final String iri : iriSet) {
+			iris[iriCount++] = iri.getBytes(UTF_8);
+		}
+		Arrays.sort(iris, Arrays::compareUnsigned);
+		final Map<String, Integer> iriIndexMap = new HashMap<String, Integer>(iriCount * 4 / 3 + 1);
+		for(int i = 0; i < iriCount; ++i) {
+			iriIndexMap.put(new String(iris[i], UTF_8), i);
+		}
+		final int resourceCount = iriCount + blankNodeIndexMap.size();
+		final int otherCount = stringTermIndexMap.size();
+		//group the statements by subject
+		final int statementCount = subjects.size();
+		final int[] subjectIndexes = new int[statementCount];
+		final int[] predicateIndexes = new int[statementCount];
+		final int[] objectIndexes = new int[statementCount];
+		for(int i = 0; i < statementCount; ++i) {
+			subjectIndexes[i] = getTermIndex(subjects.get(i), iriIndexMap, blankNodeIndexMap, stringTermIndexMap, resourceCount);
+			predicateIndexes[i] = getTermIndex(predicates.get(i), iriIndexMap, blankNodeIndexMap, stringTermIndexMap, resourceCount);
+			objectIndexes[i] = getTermIndex(objects.get(i), iriIndexMap, blankNodeIndexMap, stringTermIndexMap, resourceCount);
+		}
+		final int[] subjectStarts = new int[resourceCount + 1];
+		for(final int subjectIndex : subjectIndexes) {
+			++subjectStarts[subjectIndex + 1];
+		}
+		for(int i = 0; i < resourceCount; ++i) {
+			subjectStarts[i + 1] += subjectStarts[i];
+		}
+		final int[] order = new int[statementCount]; //the statements, grouped by subject in their original order
+		final int[] nextPositions = Arrays.copyOf(subjectStarts, resourceCount);
+		for(int i = 0; i < statementCount; ++i) {
+			order[nextPositions[subjectIndexes[i]]++] = i;
+		}
+		//sort the statements of each subject by predicate, removing duplicate statements such as those from separate resources with the same reference URI
+		int uniqueStatementCount = 0;
+		final Set<Integer> groupObjectIndexes = new HashSet<Integer>(); //the objects of the statements with the current predicate
+		for(int subject = 0; subject < resourceCount; ++subject) {
+			final int start = subjectStarts[subject];
+			final int end = subjectStarts[subject + 1];
+			subjectStarts[subject] = uniqueStatementCount;
+			if(start == end) {
+				continue;
+			}
+			final long[] keys = new long[end - start]; //the predicate followed by the original position, so that the values of each property retain their order
+			for(int i = start; i < end; ++i) {
+				keys[i - start] = (long)predicateIndexes[order[i]] << 32 | order[i];
+			}
+			Arrays.sort(keys);
+			groupObjectIndexes.clear();
+			for(int i = 0; i < keys.length; ++i) {
+				final int statement = (int)keys[i];
+				if(i > 0 && keys[i] >>> 32 != keys[i - 1] >>> 32) { //if this statement starts a new predicate
+					groupObjectIndexes.clear();
+				}
+				if(groupObjectIndexes.add(objectIndexes[statement])) { //if this statement isn't a duplicate of one already kept
+					order[uniqueStatementCount++] = statement; //this never overwrites statements not yet sorted
+				}
+			}
+		}
+		subjectStarts[resourceCount] = uniqueStatementCount;
+		//front-code the reference URIs
+		final int blockCount = getBlockCount(iriCount);
+		final int[] blockOffsets = new int[blockCount];
+		final ByteArrayOutputStream iriHeap = new ByteArrayOutputStream();
+		for(int i = 0; i < iriCount; ++i) {
+			final byte[] iri = iris[i];
+			int sharedLength = 0;
+			if(i % BLOCK_SIZE == 0) { //the first reference URI of each block is stored whole
+				blockOffsets[i / BLOCK_SIZE] = iriHeap.size();
+			} else {
+				final byte[] previous = iris[i - 1];
+				final int maxSharedLength = Math.min(previous.length, iri.length);
+				while(sharedLength < maxSharedLength && previous[sharedLength] == iri[sharedLength]) {
+					++sharedLength;
+				}
+			}
+			writeVarInt(iriHeap, sharedLength);
+			writeVarInt(iriHeap, iri.length - sharedLength);
+			iriHeap.write(iri, sharedLength, iri.length - sharedLength);
+		}
+		//store the strings of the other terms
+		final byte[] kinds = new byte[otherCount];
+		final int[] references = new int[otherCount];
+		final int[] stringOffsets = new int[otherCount];
+		final ByteArrayOutputStream stringHeap = new ByteArrayOutputStream();
+		int otherIndex = 0;
+		for(final StringTerm stringTerm : stringTermIndexMap.keySet()) {
+			kinds[otherIndex] = stringTerm.kind;
+			references[otherIndex] = stringTerm.reference != null ? resourceCount + stringTermIndexMap.get(stringTerm.reference) : -1;
+			stringOffsets[otherIndex] = stringHeap.size();
+			final byte[] bytes = stringTerm.string.getBytes(UTF_8);
+			writeVarInt(stringHeap, bytes.length);
+			stringHeap.write(bytes, 0, bytes.length);
+			++otherIndex;
+		}
+		//determine the section positions
+		long position = HEADER_SIZE;
+		final long subjectStartsPosition = position;
+		position += (resourceCount + 1L) * Integer.BYTES;
+		final long predicatesPosition = position;
+		position += (long)uniqueStatementCount * Integer.BYTES;
+		final long objectsPosition = position;
+		position += (long)uniqueStatementCount * Integer.BYTES;
+		final long iriBlocksPosition = position;
+		position += (long)blockCount * Integer.BYTES;
+		final long referencesPosition = position;
+		position += (long)otherCount * Integer.BYTES;
+		final long stringOffsetsPosition = position;
+		position += (long)otherCount * Integer.BYTES;
+		final long kindsPosition = position;
+		position += otherCount;
+		final long iriHeapPosition = position;
+		position += iriHeap.size();
+		final long stringHeapPosition = position;
+		position += stringHeap.size();
+		if(position > Integer.MAX_VALUE) {
+			throw new IOException("RDF data is too large to be mapped.");
+		}
+		try (final DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+			outputStream.write(MAGIC);
+			outputStream.writeInt(VERSION);
+			outputStream.writeInt(iriCount);
+			outputStream.writeInt(resourceCount);
+			outputStream.writeInt(resourceCount + otherCount);
+			outputStream.writeInt(uniqueStatementCount);
+			for(final long sectionPosition : new long[] {subjectStartsPosition, predicatesPosition, objectsPosition, iriBlocksPosition, referencesPosition,
+					stringOffsetsPosition, kindsPosition, iriHeapPosition, stringHeapPosition}) {
+				outputStream.writeInt((int)sectionPosition);
+			}
+			for(final int subjectStart : subjectStarts) {
+				outputStream.writeInt(subjectStart);
+			}
+			for(int i = 0; i < uniqueStatementCount; ++i) {
+				outputStream.writeInt(predicateIndexes[order[i]]);
+			}
+			for(int i = 0; i < uniqueStatementCount; ++i) {
+				outputStream.writeInt(objectIndexes[order[i]]);
+			}
+			for(final int blockOffset : blockOffsets) {
+				outputStream.writeInt(blockOffset);
+			}
+			for(final int reference : references) {
+				outputStream.writeInt(reference);
+			}
+			for(final int stringOffset : stringOffsets) {
+				outputStream.writeInt(stringOffset);
+			}
+			outputStream.write(kinds);
+			iriHeap.writeTo(outputStream);
+			stringHeap.writeTo(outputStream);
+		}
+	}
+
+	/**
+	 * Adds a string term to the dictionary being written if an equal term is not already present.
+	 * @param stringTerm The term to add.
+	 * @param stringTermIndexMap The string terms of the dictionary, mapped to their order.
+	 * @return The term in the dictionary.
+	 */
+	private static StringTerm addStringTerm(final StringTerm stringTerm, final Map<StringTerm, Integer> stringTermIndexMap) {
+		stringTermIndexMap.putIfAbsent(stringTerm, stringTermIndexMap.size());
+		return stringTerm;
+	}
+
+	/**
+	 * Returns the dictionary index of a term being written.
+	 * @param term The resource or string term.
+	 * @param iriIndexMap The indexes of the named resources, keyed to reference URIs.
+	 * @param blankNodeIndexMap The blank nodes, mapped to their order.
+	 * @param stringTermIndexMap The string terms, mapped to their order.
+	 * @param resourceCount The number of resources, which precede the string terms.
+	 * @return The index of the term in the dictionary.
+	 */
+	private static int getTermIndex(final Object term, final Map<String, Integer> iriIndexMap, final Map<RDFResource, Integer> blankNodeIndexMap,
+			final Map<StringTerm, Integer> stringTermIndexMap, final int resourceCount) {
+		if(term instanceof RDFResource) {
+			final URI referenceURI = ((RDFResource)term).getURI();
+			return referenceURI != null ? iriIndexMap.get(referenceURI.toString()) : iriIndexMap.size() + blankNodeIndexMap.get(term);
+		}
+		return resourceCount + stringTermIndexMap.get(term);
+	}
+
+	/**
+	 * A dictionary term that is not a resource: a literal, a datatype URI, or a language tag. Equal terms are stored once.
+	 * @author Garret Wilson
+	 */
+	private static class StringTerm {
+
+		/** The kind of term. */
+		final byte kind;
+		/** The lexical form, datatype URI, or language tag. */
+		final String string;
+		/** The datatype or language tag term of a literal, or <code>null</code> if there is none. */
+		final StringTerm reference;
+		/** The hash code, calculated once as each term is looked up several times. */
+		private final int hashCode;
+
+		/**
+		 * Constructor.
+		 * @param kind The kind of term.
+		 * @param string The lexical form, datatype URI, or language tag.
+		 * @param reference The datatype or language tag term of a literal, or <code>null</code> if there is none.
+		 */
+		StringTerm(final byte kind, final String string, final StringTerm reference) {
+			this.kind = kind;
+			this.string = string;
+			this.reference = reference;
+			this.hashCode = Objects.hash(kind, string, reference);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(final Object object) {
+			if(this == object) {
+				return true;
+			}
+			if(!(object instanceof StringTerm)) {
+				return false;
+			}
+			final StringTerm stringTerm = (StringTerm)object;
+			return kind == stringTerm.kind && string.equals(stringTerm.string) && Objects.equals(reference, stringTerm.reference);
+		}
+	}
+
+	/**
+	 * A weak reference to a retrieved resource, recording the index of the resource so that its entry can be removed once the resource is no longer referenced.
+	 * @author Garret Wilson
+	 */
+	private static class ResourceReference extends WeakReference<MappedResource> {
+
+		/** The dictionary index of the resource. */
+		final int index;
+
+		/**
+		 * Constructor.
+		 * @param resource The resource to reference.
+		 * @param queue The queue with which the reference is registered.
+		 */
+		ResourceReference(final MappedResource resource, final ReferenceQueue<? super MappedResource> queue) {
+			super(resource, queue);
+			this.index = resource.index;
+		}
+	}
+
+	/**
+	 * A read-only resource the properties of which are read from the mapped file as they are requested.
+	 * @author Garret Wilson
+	 */
+	private class MappedResource extends DefaultRDFResource {
+
+		/** The dictionary index of the resource. */
+		final int index;
+
+		/**
+		 * Constructor.
+		 * @param referenceURI The reference URI of the resource, or <code>null</code> if the resource is a blank node.
+		 * @param index The dictionary index of the resource.
+		 */
+		MappedResource(final URI referenceURI, final int index) {
+			super(MappedRDFModel.this, referenceURI);
+			this.index = index;
+		}
+
+		/** @return A read-only list of the properties of this resource, read from the mapped file. */
+		private List<RDFPropertyValuePair> getPropertyList() {
+			final int start = getSubjectStart(index);
+			final int end = getSubjectStart(index + 1);
+			final List<RDFPropertyValuePair> properties = new ArrayList<RDFPropertyValuePair>(end - start);
+			for(int statement = start; statement < end; ++statement) {
+				properties.add(new RDFPropertyValuePair(MappedRDFModel.this.getResource(getStatementPredicate(statement)), getObject(getStatementObject(statement))));
+			}
+			return unmodifiableList(properties);
+		}
+
+		@Override
+		public int getPropertyCount() {
+			return getSubjectStart(index + 1) - getSubjectStart(index);
+		}
+
+		@Override
+		public Iterable<RDFPropertyValuePair> getProperties() {
+			return getPropertyList();
+		}
+
+		@Override
+		public ListIterator<RDFPropertyValuePair> getPropertyIterator() {
+			return getPropertyList().listIterator();
+		}
+
+		@Override
+		public RDFObject getPropertyValue(final RDFResource propertyResource) {
+			final URI propertyURI = propertyResource.getURI();
+			return propertyURI != null ? getPropertyValue(propertyURI) : null;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 * <p>
+		 * This version searches the statements of this resource in the mapped file without reading the other properties.
+		 * </p>
+		 */
+		@Override
+		public RDFObject getPropertyValue(final URI propertyURI) {
+			final int predicate = getIRIIndex(propertyURI);
+			if(predicate < 0) {
+				return null;
+			}
+			final int statement = findPredicate(index, predicate);
+			return statement < getSubjectStart(index + 1) && getStatementPredicate(statement) == predicate ? getObject(getStatementObject(statement)) : null;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 * <p>
+		 * This version searches the statements of this resource in the mapped file without reading the other properties.
+		 * </p>
+		 */
+		@Override
+		public <T> Iterable<T> getPropertyValues(final URI propertyURI, final Class<T> valueType) {
+			final int predicate = getIRIIndex(propertyURI);
+			if(predicate < 0) {
+				return emptyList();
+			}
+			final List<T> propertyValueList = new ArrayList<T>();
+			for(int statement = findPredicate(index, predicate), end = getSubjectStart(index + 1); statement < end && getStatementPredicate(statement) == predicate; ++statement) {
+				final RDFObject propertyValue = getObject(getStatementObject(statement));
+				if(valueType.isInstance(propertyValue)) {
+					propertyValueList.add(valueType.cast(propertyValue));
+				}
+			}
+			return unmodifiableList(propertyValueList);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 * <p>
+		 * This version compares dictionary indexes in the mapped file without creating any property values.
+		 * </p>
+		 */
+		@Override
+		public boolean hasPropertyResourceValue(final URI propertyURI, final URI propertyValueURI) {
+			final int predicate = getIRIIndex(propertyURI);
+			final int object = getIRIIndex(propertyValueURI);
+			if(predicate < 0 || object < 0) {
+				return false;
+			}
+			for(int statement = findPredicate(index, predicate), end = getSubjectStart(index + 1); statement < end && getStatementPredicate(statement) == predicate; ++statement) {
+				if(getStatementObject(statement) == object) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/** @throws UnsupportedOperationException because the resource cannot be modified. */
+		@Override
+		public void setReferenceURI(final URI uri) {
+			throw new UnsupportedOperationException("Mapped RDF resource is read-only.");
+		}
+
+		/** @throws UnsupportedOperationException because the resource cannot be modified. */
+		@Override
+		public <T extends RDFObject> T addProperty(final RDFResource property, final T value) {
+			throw new UnsupportedOperationException("Mapped RDF resource is read-only.");
+		}
+
+		/** @throws UnsupportedOperationException because the resource cannot be modified. */
+		@Override
+		public <T extends RDFObject> T addProperty(final URI propertyURI, final T value) {
+			throw new UnsupportedOperationException("Mapped RDF resource is read-only."); //don't try to locate the property resource first
+		}
+
+		/** @throws UnsupportedOperationException because the resource cannot be modified. */
+		@Override
+		public RDFResource addProperty(final URI propertyURI, final URI valueURI) {
+			throw new UnsupportedOperationException("Mapped RDF resource is read-only."); //don't try to locate the value resource first
+		}
+
+		/** @throws UnsupportedOperationException because the resource cannot be modified. */
+		@Override
+		public RDFResource setProperty(final URI propertyURI, final URI valueURI) {
+			throw new UnsupportedOperationException("Mapped RDF resource is read-only."); //don't try to locate the value resource first
+		}
+
+		/** @throws UnsupportedOperationException because the resource cannot be modified. */
+		@Override
+		public void removeProperty(final URI propertyURI, final RDFObject propertyValue) {
+			throw new UnsupportedOperationException("Mapped RDF resource is read-only.");
+		}
+
+		/** @throws UnsupportedOperationException because the resource cannot be modified. */
+		@Override
+		public int removeProperties(final URI propertyURI) {
+			throw new UnsupportedOperationException("Mapped RDF resource is read-only.");
+		}
+
+		/** @throws UnsupportedOperationException because the resource cannot be modified. */
+		@Override
+		public int removeNamespaceProperties(final URI... propertyNamespaceURIs) {
+			throw new UnsupportedOperationException("Mapped RDF resource is read-only.");
+		}
+	}
+
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright © 1996-2008 GlobalMentor, Inc. <https://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.globalmentor.rdf;
+
+import java.io.*;
+import java.net.URI;
+import java.util.*;
+
+import static java.nio.charset.StandardCharsets.*;
+import static java.util.Collections.*;
+import static java.util.Objects.*;
+
+/**
+ * The N-Triples serialization format of RDF, read and written as UTF-8. N-Triples always uses absolute IRIs, so the base URI is not used in writing.
+ * @author Garret Wilson
+ * @see NTriplesProcessor
+ * @see NTriplesGenerator
+ */
+public class NTriplesFormat implements RDFFormat {
+
+	@Override
+	public boolean isReadable() {
+		return true;
+	}
+
+	/**
+	 * {@inheritDoc} Statements are applied to the data model as they are parsed.
+	 */
+	@Override
+	public RDFModel read(final RDFModel rdf, final InputStream inputStream, final URI baseURI, final RDFProjection projection,
+			final RDFProcessingLimits limits) throws IOException {
+		requireNonNull(inputStream, "Input stream cannot be null.");
+		final NTriplesProcessor ntriplesProcessor = new NTriplesProcessor(requireNonNull(rdf, "RDF cannot be null."));
+		ntriplesProcessor.setStreaming(true); //apply statements to the data model as they are parsed, as we have no need for the statements themselves
+		ntriplesProcessor.setProjection(projection); //only create the resources needed
+		ntriplesProcessor.setLimits(limits); //guard against unexpectedly large data
+		try {
+			return ntriplesProcessor.processRDF(inputStream, baseURI);
+		} catch(final RDFLimitExceededException limitExceededException) { //if the data was too large
+			throw (IOException)new IOException(limitExceededException.getMessage()).initCause(limitExceededException); //convert the exception into an IO exception
+		}
+	}
+
+	@Override
+	public void write(final OutputStream outputStream, final URI baseURI, final RDFResource resource, final Map<URI, String> namespacePrefixMap)
+			throws IOException {
+		final Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, UTF_8));
+		new NTriplesGenerator().generate(resource, writer);
+		writer.flush();
+	}
+
+	@Override
+	public void write(final OutputStream outputStream, final URI baseURI, final RDFModel rdf, final Map<URI, String> namespacePrefixMap) throws IOException {
+		final Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, UTF_8));
+		new NTriplesGenerator().generate(rdf, writer);
+		writer.flush();
+	}
+
+	/**
+	 * The provider of the N-Triples format. Content is recognized if, after any comments, its first line is a complete N-Triples statement: a subject IRI or blank
+	 * node label, a predicate IRI, and an object IRI, blank node label, or literal, followed by a period. Content that is only partly visible in the first bytes,
+	 * or that uses any other Turtle syntax, is not claimed, as N-Triples is a subset of Turtle and such content can be read as Turtle.
+	 * @author Garret Wilson
+	 */
+	public static class Provider implements RDFFormatProvider {
+
+		/** The shared format instance. */
+		private final RDFFormat format = new NTriplesFormat();
+
+		@Override
+		public String getMediaType() {
+			return "application/n-triples";
+		}
+
+		@Override
+		public Set<String> getFilenameExtensions() {
+			return singleton("nt");
+		}
+
+		@Override
+		public boolean isFormat(final byte[] bytes, final int length) {
+			int index = RDFFormats.skipInsignificant(bytes, length, true);
+			index = RDFFormats.startsWith(bytes, length, index, "_:", false) ? skipBlankNodeLabel(bytes, length, index) : RDFFormats.skipIRI(bytes, length, index, true); //subject
+			if(index < 0) {
+				return false;
+			}
+			index = RDFFormats.skipIRI(bytes, length, skipSpaces(bytes, length, index), true); //predicate
+			if(index < 0) {
+				return false;
+			}
+			index = skipSpaces(bytes, length, index);
+			if(index >= length) {
+				return false;
+			}
+			if(bytes[index] == '"') { //object
+				index = skipLiteral(bytes, length, index);
+			} else if(RDFFormats.startsWith(bytes, length, index, "_:", false)) {
+				index = skipBlankNodeLabel(bytes, length, index);
+			} else {
+				index = RDFFormats.skipIRI(bytes, length, index, true);
+			}
+			if(index < 0) {
+				return false;
+			}
+			index = skipSpaces(bytes, length, index);
+			if(index >= length || bytes[index] != '.') { //the statement must be terminated, rather than continued as in Turtle
+				return false;
+			}
+			index = skipSpaces(bytes, length, index + 1);
+			return index < length && (bytes[index] == '\r' || bytes[index] == '\n' || bytes[index] == '#') || index == length && length < RDFFormats.SIGNATURE_LENGTH; //nothing else may appear on the line
+		}
+
+		/**
+		 * Skips spaces and tabs, which may separate the terms of a statement on a line.
+		 * @param bytes The first bytes of the content.
+		 * @param length The number of bytes available.
+		 * @param index The index at which to start skipping.
+		 * @return The index of the first byte that is not a space or tab, which will be equal to the length if there are no other bytes.
+		 */
+		private static int skipSpaces(final byte[] bytes, final int length, int index) {
+			while(index < length && (bytes[index] == ' ' || bytes[index] == '\t')) {
+				++index;
+			}
+			return index;
+		}
+
+		/**
+		 * Skips a blank node label such as <code>_:b1</code>. A label may not end with a period, so a trailing period is left to terminate the statement.
+		 * @param bytes The first bytes of the content.
+		 * @param length The number of bytes available.
+		 * @param index The index of the label prefix.
+		 * @return The index after the label, or <code>-1</code> if there is no complete label at the given index.
+		 */
+		private static int skipBlankNodeLabel(final byte[] bytes, final int length, int index) {
+			index += 2; //skip the label prefix
+			final int labelIndex = index;
+			while(index < length && bytes[index] != ' ' && bytes[index] != '\t' && bytes[index] != '\r' && bytes[index] != '\n') {
+				++index;
+			}
+			if(index == length) { //we can't see the end of the label
+				return -1;
+			}
+			while(index > labelIndex && bytes[index - 1] == '.') { //a label cannot end with a period
+				--index;
+			}
+			return index > labelIndex ? index : -1;
+		}
+
+		/**
+		 * Skips a literal, including any language tag or datatype IRI. Within a literal any character may be escaped, but an N-Triples literal may not span lines.
+		 * @param bytes The first bytes of the content.
+		 * @param length The number of bytes available.
+		 * @param index The index of the opening quotation mark.
+		 * @return The index after the literal, or <code>-1</code> if there is no complete literal at the given index.
+		 */
+		private static int skipLiteral(final byte[] bytes, final int length, int index) {
+			while(++index < length) {
+				final byte b = bytes[index];
+				if(b == '\\') { //skip the escaped character
+					++index;
+				} else if(b == '\r' || b == '\n') {
+					return -1;
+				} else if(b == '"') {
+					break;
+				}
+			}
+			if(index >= length) { //if the literal isn't closed in the bytes we have
+				return -1;
+			}
+			++index; //skip the closing quotation mark
+			if(index < length && bytes[index] == '@') { //language tag
+				final int languageTagIndex = ++index;
+				while(index < length && (Character.isLetterOrDigit(bytes[index]) || bytes[index] == '-')) {
+					++index;
+				}
+				return index > languageTagIndex ? index : -1;
+			}
+			if(RDFFormats.startsWith(bytes, length, index, "^^", false)) { //datatype
+				return RDFFormats.skipIRI(bytes, length, index + 2, true);
+			}
+			return index;
+		}
+
+		@Override
+		public RDFFormat getFormat() {
+			return format;
+		}
+
+	}
+
+}
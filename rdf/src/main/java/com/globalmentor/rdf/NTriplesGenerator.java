@@ -0,0 +1,217 @@
+/*
+ * Copyright © 1996-2008 GlobalMentor, Inc. <https://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.globalmentor.rdf;
+
+import java.io.*;
+import java.net.URI;
+import java.util.*;
+
+import com.globalmentor.model.Locales;
+
+import static java.util.Collections.*;
+
+/**
+ * Class that writes RDF as N-Triples, one statement per line, directly to a writer as the properties of each resource are visited, without building any
+ * intermediate representation of the statements.
+ * <p>
+ * Blank nodes are given labels in the order in which they are encountered. The labels are retained until the generator is reset, so that a single generator
+ * may write statements about the same blank nodes in several calls.
+ * </p>
+ * <p>
+ * This class is not thread safe.
+ * </p>
+ * @author Garret Wilson
+ * @see <a href="https://www.w3.org/TR/n-triples/">RDF 1.1 N-Triples</a>
+ */
+public class NTriplesGenerator {
+
+	/** The prefix of generated blank node labels. */
+	private static final String BLANK_NODE_LABEL_PREFIX = "_:b";
+
+	/** The labels of the blank nodes encountered, using identity rather than equality for equivalence. */
+	private final Map<RDFResource, String> blankNodeLabelMap = new IdentityHashMap<RDFResource, String>();
+
+	/** The resources the statements of which have been written, using identity rather than equality for equivalence. */
+	private final Set<RDFResource> writtenResourceSet = newSetFromMap(new IdentityHashMap<RDFResource, Boolean>());
+
+	/** Resets the generator, forgetting any blank node labels and written resources. */
+	public void reset() {
+		blankNodeLabelMap.clear();
+		writtenResourceSet.clear();
+	}
+
+	/**
+	 * Writes all the statements of the resources in the given data model, along with those of any blank nodes they reference.
+	 * @param rdf The data model to write.
+	 * @param writer The writer to which the statements should be written.
+	 * @throws IOException if there is an error writing the statements.
+	 */
+	public void generate(final RDFModel rdf, final Writer writer) throws IOException {
+		for(final RDFResource resource : rdf.getResources()) {
+			generate(resource, writer);
+		}
+	}
+
+	/**
+	 * Writes the statements of the given resource, along with those of any blank nodes it references, unless they have already been written.
+	 * @param resource The resource to write.
+	 * @param writer The writer to which the statements should be written.
+	 * @throws IOException if there is an error writing the statements.
+	 */
+	public void generate(final RDFResource resource, final Writer writer) throws IOException {
+		final Deque<RDFResource> resourceStack = new ArrayDeque<RDFResource>(); //blank nodes are not necessarily in the data model, so they are followed as they are referenced
+		resourceStack.push(resource);
+		RDFResource subject;
+		while((subject = resourceStack.poll()) != null) {
+			if(!writtenResourceSet.add(subject)) { //if we've already written this resource, skip it
+				continue;
+			}
+			final Iterator<RDFPropertyValuePair> propertyIterator = subject.getPropertyIterator();
+			while(propertyIterator.hasNext()) {
+				final RDFPropertyValuePair propertyValuePair = propertyIterator.next();
+				final RDFObject value = propertyValuePair.getPropertyValue();
+				writeResource(subject, writer);
+				writer.write(' ');
+				writeResource(propertyValuePair.getProperty(), writer);
+				writer.write(' ');
+				if(value instanceof RDFResource) {
+					final RDFResource valueResource = (RDFResource)value;
+					writeResource(valueResource, writer);
+					if(valueResource.getURI() == null && !writtenResourceSet.contains(valueResource)) { //make sure referenced blank nodes are written
+						resourceStack.push(valueResource);
+					}
+				} else {
+					writeLiteral((RDFLiteral)value, writer);
+				}
+				writer.write(" .\n");
+			}
+		}
+	}
+
+	/**
+	 * Writes the term identifying a resource: an IRI reference, or a blank node label if the resource has no reference URI.
+	 * @param resource The resource to identify.
+	 * @param writer The writer to which the term should be written.
+	 * @throws IOException if there is an error writing the term.
+	 */
+	protected void writeResource(final RDFResource resource, final Writer writer) throws IOException {
+		final URI referenceURI = resource.getURI();
+		if(referenceURI != null) {
+			writeIRI(referenceURI, writer);
+		} else {
+			String label = blankNodeLabelMap.get(resource);
+			if(label == null) {
+				label = BLANK_NODE_LABEL_PREFIX + (blankNodeLabelMap.size() + 1);
+				blankNodeLabelMap.put(resource, label);
+			}
+			writer.write(label);
+		}
+	}
+
+	/**
+	 * Writes an IRI reference, escaping any characters not allowed in an N-Triples IRI reference.
+	 * @param uri The URI to write.
+	 * @param writer The writer to which the IRI reference should be written.
+	 * @throws IOException if there is an error writing the IRI reference.
+	 */
+	protected void writeIRI(final URI uri, final Writer writer) throws IOException {
+		final String iri = uri.toString();
+		writer.write('<');
+		final int length = iri.length();
+		for(int i = 0; i < length; ++i) {
+			final char c = iri.charAt(i);
+			if(c <= ' ' || c == '<' || c == '>' || c == '"' || c == '{' || c == '}' || c == '|' || c == '^' || c == '`' || c == '\\') {
+				writeUnicodeEscape(c, writer);
+			} else {
+				writer.write(c);
+			}
+		}
+		writer.write('>');
+	}
+
+	/**
+	 * Writes a literal, including any language tag or datatype.
+	 * @param literal The literal to write.
+	 * @param writer The writer to which the literal should be written.
+	 * @throws IOException if there is an error writing the literal.
+	 */
+	protected void writeLiteral(final RDFLiteral literal, final Writer writer) throws IOException {
+		writeString(literal.getLexicalForm(), writer);
+		if(literal instanceof RDFPlainLiteral) {
+			final Locale language = ((RDFPlainLiteral)literal).getLanguage();
+			if(language != null) {
+				writer.write('@');
+				writer.write(Locales.getLanguageTag(language));
+			}
+		} else if(literal instanceof RDFTypedLiteral) {
+			writer.write("^^");
+			writeIRI(((RDFTypedLiteral<?>)literal).getDatatypeURI(), writer);
+		}
+	}
+
+	/**
+	 * Writes a quoted string, escaping the characters that must be escaped.
+	 * @param string The string to write.
+	 * @param writer The writer to which the string should be written.
+	 * @throws IOException if there is an error writing the string.
+	 */
+	protected void writeString(final String string, final Writer writer) throws IOException {
+		writer.write('"');
+		final int length = string.length();
+		int start = 0; //write unescaped runs of characters at once
+		for(int i = 0; i < length; ++i) {
+			final String escape;
+			switch(string.charAt(i)) {
+				case '"':
+					escape = "\\\"";
+					break;
+				case '\\':
+					escape = "\\\\";
+					break;
+				case '\n':
+					escape = "\\n";
+					break;
+				case '\r':
+					escape = "\\r";
+					break;
+				default:
+					continue;
+			}
+			writer.write(string, start, i - start);
+			writer.write(escape);
+			start = i + 1;
+		}
+		writer.write(string, start, length - start);
+		writer.write('"');
+	}
+
+	/**
+	 * Writes a character as a four-digit Unicode escape sequence.
+	 * @param c The character to write.
+	 * @param writer The writer to which the escape sequence should be written.
+	 * @throws IOException if there is an error writing the escape sequence.
+	 */
+	private static void writeUnicodeEscape(final char c, final Writer writer) throws IOException {
+		writer.write("\\u");
+		final String hex = Integer.toHexString(c).toUpperCase();
+		for(int i = hex.length(); i < 4; ++i) {
+			writer.write('0');
+		}
+		writer.write(hex);
+	}
+
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright © 1996-2008 GlobalMentor, Inc. <https://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.globalmentor.rdf;
+
+import java.io.*;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+import static java.nio.charset.StandardCharsets.*;
+import static java.util.Objects.*;
+
+/**
+ * Class for loading and saving an entire RDF data model as N-Triples. Input is read one statement at a time, and output is written directly from the data
+ * model, so that data of any size may be read and written.
+ * @author Garret Wilson
+ * @see NTriplesProcessor
+ * @see NTriplesGenerator
+ */
+public class NTriplesIO extends AbstractRDFIO<RDFModel> {
+
+	/** Default constructor. */
+	public NTriplesIO() {
+		super(RDFModel.class);
+	}
+
+	/**
+	 * Creates a processor for reading N-Triples.
+	 * @param rdf The RDF data model to populate.
+	 * @return A new processor that applies statements to the data model as they are parsed, using the limits of this instance.
+	 */
+	protected NTriplesProcessor createNTriplesProcessor(final RDFModel rdf) {
+		final NTriplesProcessor ntriplesProcessor = new NTriplesProcessor(rdf);
+		ntriplesProcessor.setStreaming(true); //apply statements to the data model as they are parsed, as we have no need for the statements themselves
+		ntriplesProcessor.setLimits(getLimits()); //guard against unexpectedly large data
+		return ntriplesProcessor;
+	}
+
+	/**
+	 * Reads RDF data from an input stream using an existing RDF instance.
+	 * @param rdf The RDF instance to use in creating new resources.
+	 * @param inputStream The input stream containing UTF-8 encoded N-Triples.
+	 * @param baseURI The base URI of the data, or <code>null</code> if no base URI is available.
+	 * @return The RDF instance representing the data read.
+	 * @throws NullPointerException if the given RDF instance and/or input stream is <code>null</code>.
+	 * @throws IOException if there is an error reading the data, or if the data exceeds the processing limits.
+	 */
+	public RDFModel read(final RDFModel rdf, final InputStream inputStream, final URI baseURI) throws IOException {
+		requireNonNull(inputStream, "Input stream cannot be null.");
+		try {
+			return createNTriplesProcessor(requireNonNull(rdf, "RDF cannot be null.")).processRDF(inputStream, baseURI);
+		} catch(final RDFLimitExceededException limitExceededException) { //if the data was too large
+			throw (IOException)new IOException(limitExceededException.getMessage()).initCause(limitExceededException); //convert the exception into an IO exception
+		}
+	}
+
+	/**
+	 * Reads RDF data from an input stream, reporting each statement to the given handler as it is read rather than populating a data model. Other than the
+	 * predicates and types encountered, no resources are retained, so the memory used does not depend on the size of the data.
+	 * @param inputStream The input stream containing UTF-8 encoded N-Triples.
+	 * @param baseURI The base URI of the data, or <code>null</code> if no base URI is available.
+	 * @param statementHandler The handler to receive the statements.
+	 * @throws NullPointerException if the given input stream and/or statement handler is <code>null</code>.
+	 * @throws IOException if there is an error reading the data, or if the data exceeds the processing limits.
+	 */
+	public void read(final InputStream inputStream, final URI baseURI, final StatementHandler statementHandler) throws IOException {
+		requireNonNull(inputStream, "Input stream cannot be null.");
+		final NTriplesProcessor ntriplesProcessor = createNTriplesProcessor(createRDF(baseURI));
+		ntriplesProcessor.setStatementHandler(statementHandler);
+		try {
+			ntriplesProcessor.processRDF(inputStream, baseURI);
+		} catch(final RDFLimitExceededException limitExceededException) { //if the data was too large
+			throw (IOException)new IOException(limitExceededException.getMessage()).initCause(limitExceededException); //convert the exception into an IO exception
+		}
+	}
+
+	/**
+	 * Reads RDF data from a file, parsing byte ranges of the file concurrently.
+	 * @param rdf The RDF instance to use in creating new resources.
+	 * @param file The file containing UTF-8 encoded N-Triples.
+	 * @param baseURI The base URI of the data, or <code>null</code> if no base URI is available.
+	 * @param forkJoinPool The pool on which to parse the file.
+	 * @return The RDF instance representing the data read.
+	 * @throws NullPointerException if the given RDF instance, file, and/or pool is <code>null</code>.
+	 * @throws IOException if there is an error reading the data, or if the data exceeds the processing limits.
+	 * @see NTriplesProcessor#processRDF(Path, URI, ForkJoinPool)
+	 */
+	public RDFModel readRDF(final RDFModel rdf, final Path file, final URI baseURI, final ForkJoinPool forkJoinPool) throws IOException {
+		requireNonNull(file, "File cannot be null.");
+		requireNonNull(forkJoinPool, "Fork/join pool cannot be null.");
+		try {
+			return createNTriplesProcessor(requireNonNull(rdf, "RDF cannot be null.")).processRDF(file, baseURI, forkJoinPool);
+		} catch(final RDFLimitExceededException limitExceededException) { //if the data was too large
+			throw (IOException)new IOException(limitExceededException.getMessage()).initCause(limitExceededException); //convert the exception into an IO exception
+		}
+	}
+
+	/**
+	 * Writes an RDF data model to an output stream as UTF-8 encoded N-Triples. The output stream is flushed but not closed.
+	 * @param outputStream The output stream to which to write the data.
+	 * @param baseURI The base URI of the data, or <code>null</code> if no base URI is available; N-Triples always uses absolute IRIs, so this is not used.
+	 * @param rdf The data model to write to the given output stream.
+	 * @throws IOException Thrown if there is an error writing the data.
+	 */
+	public void write(final OutputStream outputStream, final URI baseURI, final RDFModel rdf) throws IOException {
+		final Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, UTF_8));
+		new NTriplesGenerator().generate(rdf, writer);
+		writer.flush();
+	}
+
+}
@@ -0,0 +1,668 @@
+/*
+ * Copyright © 1996-2008 GlobalMentor, Inc. <https://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.globalmentor.rdf;
+
+import java.io.*;
+import java.net.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import com.globalmentor.io.ParseIOException;
+import com.globalmentor.model.Locales;
+import com.globalmentor.net.Resource;
+
+import static com.globalmentor.rdf.spec.RDF.*;
+import static java.nio.charset.StandardCharsets.*;
+
+/**
+ * Class that is able to construct an RDF data model from an N-Triples serialization, or report its statements to a statement handler, reading one line at a
+ * time.
+ * <p>
+ * Each line is parsed into a statement as soon as it is read, and no other part of the input is retained, so that the memory used in reading does not depend
+ * on the size of the input. If a statement handler other than the handler that populates the RDF data model is set, resource proxies are not retained either;
+ * as blank nodes are then not tracked, the blank node limit does not apply. Otherwise the data model is populated as for other RDF serializations, and
+ * streaming mode can be used to apply statements to the data model as soon as their resources are known.
+ * </p>
+ * <p>
+ * Because each statement occupies a single line, a file can be split into byte ranges that are processed concurrently; see
+ * {@link #processRDF(Path, URI, ForkJoinPool)}.
+ * </p>
+ * <p>
+ * Although N-Triples only allows absolute IRIs, relative references are resolved against the base URI, if there is one.
+ * </p>
+ * @author Garret Wilson
+ * @see <a href="https://www.w3.org/TR/n-triples/">RDF 1.1 N-Triples</a>
+ */
+public class NTriplesProcessor extends AbstractRDFProcessor {
+
+	/** The default number of bytes processed together when processing in parallel. */
+	public static final int DEFAULT_PARALLEL_CHUNK_SIZE = 16 * 1024 * 1024;
+
+	/** The character beginning a comment. */
+	protected static final char COMMENT_BEGIN = '#';
+	/** The character beginning an IRI reference. */
+	protected static final char IRI_BEGIN = '<';
+	/** The character ending an IRI reference. */
+	protected static final char IRI_END = '>';
+	/** The prefix of a blank node label. */
+	protected static final String BLANK_NODE_LABEL_PREFIX = "_:";
+	/** The character delimiting a literal string. */
+	protected static final char STRING_DELIMITER = '"';
+	/** The character beginning a language tag. */
+	protected static final char LANGUAGE_TAG_BEGIN = '@';
+	/** The delimiter preceding a datatype IRI. */
+	protected static final String DATATYPE_DELIMITER = "^^";
+	/** The escape character in strings and IRIs. */
+	protected static final char ESCAPE = '\\';
+	/** The character ending a statement. */
+	protected static final char STATEMENT_END = '.';
+
+	/** The number of bytes processed together when processing in parallel. */
+	private int parallelChunkSize = DEFAULT_PARALLEL_CHUNK_SIZE;
+
+	/** @return The number of bytes processed together when processing in parallel. */
+	public int getParallelChunkSize() {
+		return parallelChunkSize;
+	}
+
+	/**
+	 * Sets the number of bytes processed together when processing in parallel. Each chunk is extended to end at a line boundary.
+	 * @param parallelChunkSize The number of bytes in each chunk.
+	 * @throws IllegalArgumentException if the given chunk size is not positive.
+	 * @see #processRDF(Path, URI, ForkJoinPool)
+	 */
+	public void setParallelChunkSize(final int parallelChunkSize) {
+		if(parallelChunkSize < 1) {
+			throw new IllegalArgumentException("Invalid parallel chunk size " + parallelChunkSize + ".");
+		}
+		this.parallelChunkSize = parallelChunkSize;
+	}
+
+	/** The resources representing predicates and types, keyed to their IRIs as they appear in the serialization, until the processor is reset. */
+	private final Map<String, RDFResource> iriResourceMap = new HashMap<String, RDFResource>();
+
+	/** The line being parsed. */
+	private String line = null;
+
+	/** The index of the line being parsed. */
+	private long lineIndex = 0;
+
+	/** The index of the next character to parse in the current line. */
+	private int charIndex = 0;
+
+	/** Default constructor. */
+	public NTriplesProcessor() {
+		super(); //construct parent base class
+	}
+
+	/**
+	 * Constructor that specifies an existing data model to continue filling.
+	 * @param newRDF The RDF data model to use.
+	 */
+	public NTriplesProcessor(final RDFModel newRDF) {
+		super(newRDF); //construct the parent class
+	}
+
+	@Override
+	public void reset() {
+		super.reset();
+		iriResourceMap.clear(); //the data model may change before the next processing
+		line = null; //release the last line
+	}
+
+	/**
+	 * Processes RDF serialized as N-Triples.
+	 * @param inputStream The input stream containing UTF-8 encoded N-Triples. The stream will not be closed.
+	 * @param baseURI The base URI, or <code>null</code> if the base URI is not known.
+	 * @return The RDF data model resulting from this processing and any previous processing.
+	 * @throws IOException if there is an error reading the data or the data is not valid N-Triples.
+	 */
+	public RDFModel processRDF(final InputStream inputStream, final URI baseURI) throws IOException {
+		setBaseURI(baseURI); //set the base URI
+		reset(); //make sure we don't have temporary data left over from last time
+		processLines(new LineInputStream(inputStream, 0), Long.MAX_VALUE); //process all the lines
+		createResources(); //create all proxied resources in the statements we gathered
+		processStatements(); //process all the statements and assign resources to properties
+		reset(); //release all our references temporary resource proxies
+		return getRDF(); //return the RDF data collected
+	}
+
+	/**
+	 * Processes RDF serialized as N-Triples in a file, splitting the file into byte ranges of the parallel chunk size which are processed concurrently.
+	 * <p>
+	 * Each chunk is processed on the given pool by a separate processor into a separate data model; a line belongs to the chunk in which it begins. The chunk
+	 * data models are then merged in order into the data model of this processor, reconciling resources by reference URI and blank nodes by label. If another
+	 * statement handler has been set, or if there is only one chunk, the file is processed sequentially.
+	 * </p>
+	 * @param file The file containing UTF-8 encoded N-Triples.
+	 * @param baseURI The base URI, or <code>null</code> if the base URI is not known.
+	 * @param forkJoinPool The pool on which to process the chunks.
+	 * @return The RDF data model resulting from this processing and any previous processing.
+	 * @throws IOException if there is an error reading the data or the data is not valid N-Triples.
+	 * @see #setParallelChunkSize(int)
+	 * @see #createChunkProcessor(RDFModel)
+	 * @see RDFModel#merge(RDFModel, Map)
+	 */
+	public RDFModel processRDF(final Path file, final URI baseURI, final ForkJoinPool forkJoinPool) throws IOException {
+		final long size = Files.size(file);
+		final int chunkSize = getParallelChunkSize();
+		if(size <= chunkSize || getStatementHandler() != getRDFModelStatementHandler()) { //if there is nothing to be gained, or statements must be reported in order
+			try (final InputStream inputStream = Files.newInputStream(file)) {
+				return processRDF(inputStream, baseURI);
+			}
+		}
+		setBaseURI(baseURI); //set the base URI
+		reset(); //make sure we don't have temporary data left over from last time
+		final List<Callable<NTriplesProcessor>> chunkTasks = new ArrayList<Callable<NTriplesProcessor>>();
+		for(long start = 0; start < size; start += chunkSize) { //split the file into byte ranges
+			final long chunkStart = start;
+			final long chunkEnd = Math.min(start + chunkSize, size);
+			final NTriplesProcessor chunkProcessor = createChunkProcessor(new RDFModel(getRDF())); //process the chunk into its own data model with the same factories
+			chunkTasks.add(() -> {
+				try (final SeekableByteChannel channel = Files.newByteChannel(file)) {
+					chunkProcessor.processChunk(channel, chunkStart, chunkEnd);
+				}
+				return chunkProcessor; //the processor still knows which resources were created for which blank node labels
+			});
+		}
+		final Map<String, RDFResource> nodeIDRDFResourceMap = new HashMap<String, RDFResource>(); //the resources in our data model representing each blank node label
+		final Map<RDFResource, RDFResource> replacedResourceMap = new IdentityHashMap<RDFResource, RDFResource>(); //the resources replaced by more specific resources of later chunks
+		for(final Future<NTriplesProcessor> chunkFuture : forkJoinPool.invokeAll(chunkTasks)) { //process the chunks and merge them in order
+			final NTriplesProcessor chunkProcessor;
+			try {
+				chunkProcessor = chunkFuture.get();
+			} catch(final InterruptedException interruptedException) {
+				Thread.currentThread().interrupt(); //restore the interrupted status
+				throw (IOException)new InterruptedIOException("Interrupted while processing RDF.").initCause(interruptedException);
+			} catch(final ExecutionException executionException) {
+				final Throwable cause = executionException.getCause();
+				if(cause instanceof IOException) { //rethrow the original exception
+					throw (IOException)cause;
+				} else if(cause instanceof RuntimeException) {
+					throw (RuntimeException)cause;
+				} else if(cause instanceof Error) {
+					throw (Error)cause;
+				}
+				throw new IllegalStateException(cause);
+			}
+			mergeChunk(chunkProcessor, nodeIDRDFResourceMap, replacedResourceMap); //merge the resources of the chunk
+		}
+		completeChunkMerge(nodeIDRDFResourceMap, replacedResourceMap); //redirect references to replaced resources in a single pass
+		reset(); //release all our references temporary resource proxies
+		return getRDF(); //return the RDF data collected
+	}
+
+	/**
+	 * Processes the lines of a chunk of a file, and then creates the resources and processes the statements of the chunk. The processor is not reset first, so
+	 * that it continues to share any counts used for enforcing the processing limits; this method should be called on a newly created processor.
+	 * @param channel The channel to the file.
+	 * @param start The position of the first byte of the chunk.
+	 * @param end The position after the last byte of the chunk; lines that begin before this position are processed in their entirety.
+	 * @throws ParseIOException if the data is not valid N-Triples; the line index reported is relative to the start of the chunk.
+	 * @throws IOException if there is an error reading the data or the data is not valid N-Triples.
+	 */
+	protected void processChunk(final SeekableByteChannel channel, final long start, final long end) throws IOException {
+		final LineInputStream lineInputStream;
+		if(start > 0) { //unless the chunk is at the start of the file, skip the partial line belonging to the previous chunk
+			channel.position(start - 1); //if the previous byte ends a line, the chunk starts with a complete line
+			lineInputStream = new LineInputStream(Channels.newInputStream(channel), start - 1);
+			lineInputStream.readLine();
+		} else {
+			channel.position(0);
+			lineInputStream = new LineInputStream(Channels.newInputStream(channel), 0);
+		}
+		processLines(lineInputStream, end);
+		createResources(); //create all proxied resources in the statements of the chunk
+		processStatements(); //process all the statements of the chunk
+	}
+
+	/**
+	 * Creates a processor for processing a chunk of a file in parallel. This version creates a new N-Triples processor with the same base URI and configuration
+	 * as this processor, sharing the counts used for enforcing the processing limits.
+	 * @param rdf The data model into which the chunk should be processed.
+	 * @return A new processor for processing a chunk of a file.
+	 * @see #processRDF(Path, URI, ForkJoinPool)
+	 */
+	protected NTriplesProcessor createChunkProcessor(final RDFModel rdf) {
+		final NTriplesProcessor chunkProcessor = new NTriplesProcessor(rdf);
+		chunkProcessor.setBaseURI(getBaseURI());
+		chunkProcessor.setStreaming(isStreaming());
+		chunkProcessor.setLimits(getLimits());
+		shareCounts(chunkProcessor); //all the chunks together are held to the limits on statements and blank nodes
+		return chunkProcessor;
+	}
+
+	/**
+	 * Processes lines until the end of the input, or until a line begins at or after the given position.
+	 * @param lineInputStream The source of lines.
+	 * @param end The position at or after which lines should not be processed.
+	 * @throws IOException if there is an error reading the data or the data is not valid N-Triples.
+	 */
+	protected void processLines(final LineInputStream lineInputStream, final long end) throws IOException {
+		long lineIndex = 0;
+		while(lineInputStream.getPosition() < end) {
+			final String line = lineInputStream.readLine();
+			if(line == null) { //if we reached the end of the data
+				break;
+			}
+			processLine(line, lineIndex++);
+		}
+	}
+
+	/**
+	 * Processes a single line of N-Triples, which may contain a statement, a comment, or nothing.
+	 * @param line The line to process, not including the line ending.
+	 * @param lineIndex The index of the line, for reporting errors.
+	 * @throws ParseIOException if the line is not valid N-Triples.
+	 */
+	public void processLine(final String line, final long lineIndex) throws ParseIOException {
+		this.line = line;
+		this.lineIndex = lineIndex;
+		charIndex = 0;
+		if(!skipWhitespace() || line.charAt(charIndex) == COMMENT_BEGIN) { //ignore blank lines and comments
+			return;
+		}
+		final Resource subject = line.charAt(charIndex) == IRI_BEGIN ? getResource(parseIRI()) : getBlankNode(parseBlankNodeLabel());
+		skipWhitespace();
+		final RDFResource predicate = locateResource(parseIRIReference()); //predicates are never proxied
+		skipWhitespace();
+		final Statement statement;
+		switch(peek()) {
+			case IRI_BEGIN:
+				if(TYPE_PROPERTY_REFERENCE_URI.equals(predicate.getURI())) { //types are located directly, so that resources may be created as soon as their type is known
+					statement = new DefaultStatement(subject, predicate, locateResource(parseIRIReference()));
+				} else {
+					statement = new DefaultStatement(subject, predicate, getResource(parseIRI()));
+				}
+				break;
+			case STRING_DELIMITER:
+				statement = new DefaultStatement(subject, predicate, parseLiteral());
+				break;
+			default:
+				statement = new DefaultStatement(subject, predicate, getBlankNode(parseBlankNodeLabel()));
+				break;
+		}
+		skipWhitespace();
+		if(peek() != STATEMENT_END) {
+			throw createParseIOException("Expected '" + STATEMENT_END + "'.");
+		}
+		++charIndex;
+		if(skipWhitespace() && line.charAt(charIndex) != COMMENT_BEGIN) { //only a comment may follow the statement
+			throw createParseIOException("Unexpected content after statement.");
+		}
+		addStatement(statement);
+	}
+
+	/**
+	 * Retrieves a resource or a resource proxy for the given reference URI. Proxies are only retained if statements are being used to populate the data model.
+	 * @param referenceURI The reference URI of the resource.
+	 * @return The resource proxy representing the resource.
+	 */
+	protected Resource getResource(final URI referenceURI) {
+		return getStatementHandler() == getRDFModelStatementHandler() ? getResourceProxy(referenceURI) : new ResourceProxy(referenceURI);
+	}
+
+	/**
+	 * Retrieves a resource proxy for the blank node with the given label. Proxies are only retained if statements are being used to populate the data model.
+	 * @param label The blank node label.
+	 * @return The resource proxy representing the blank node.
+	 */
+	protected Resource getBlankNode(final String label) {
+		return getStatementHandler() == getRDFModelStatementHandler() ? getResourceProxy(label) : new ResourceProxy(label);
+	}
+
+	/**
+	 * Locates a resource in the data model, such as a predicate or a type, caching it until the processor is reset.
+	 * @param iri The IRI of the resource as it appears in the serialization.
+	 * @return The resource in the data model.
+	 * @throws ParseIOException if the IRI is not a valid URI.
+	 */
+	protected RDFResource locateResource(final String iri) throws ParseIOException {
+		RDFResource resource = iriResourceMap.get(iri);
+		if(resource == null) {
+			resource = locateModelResource(toURI(iri));
+			iriResourceMap.put(iri, resource);
+		}
+		return resource;
+	}
+
+	/**
+	 * Converts an IRI as it appears in the serialization to a URI, resolving it against the base URI if it is relative.
+	 * @param iri The unescaped IRI.
+	 * @return The URI.
+	 * @throws ParseIOException if the IRI is not a valid URI.
+	 */
+	protected URI toURI(final String iri) throws ParseIOException {
+		try {
+			final URI uri = new URI(iri);
+			final URI baseURI = getBaseURI();
+			return uri.isAbsolute() || baseURI == null ? uri : baseURI.resolve(uri);
+		} catch(final URISyntaxException uriSyntaxException) {
+			throw new ParseIOException(uriSyntaxException.getMessage(), uriSyntaxException, lineIndex, charIndex);
+		}
+	}
+
+	/**
+	 * Skips whitespace in the current line.
+	 * @return <code>true</code> if there are characters remaining in the line.
+	 */
+	protected boolean skipWhitespace() {
+		final int length = line.length();
+		while(charIndex < length) {
+			final char c = line.charAt(charIndex);
+			if(c != ' ' && c != '\t') {
+				return true;
+			}
+			++charIndex;
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the next character in the current line without consuming it.
+	 * @return The next character.
+	 * @throws ParseIOException if there are no more characters in the line.
+	 */
+	protected char peek() throws ParseIOException {
+		if(charIndex >= line.length()) {
+			throw createParseIOException("Unexpected end of line.");
+		}
+		return line.charAt(charIndex);
+	}
+
+	/**
+	 * Parses an IRI reference such as <code>&lt;http://example.com/&gt;</code> and converts it to a URI.
+	 * @return The URI.
+	 * @throws ParseIOException if there is no valid IRI reference at the current position.
+	 */
+	protected URI parseIRI() throws ParseIOException {
+		return toURI(parseIRIReference());
+	}
+
+	/**
+	 * Parses an IRI reference such as <code>&lt;http://example.com/&gt;</code>, unescaping any escaped characters.
+	 * @return The IRI, not including the delimiters.
+	 * @throws ParseIOException if there is no IRI reference at the current position.
+	 */
+	protected String parseIRIReference() throws ParseIOException {
+		if(peek() != IRI_BEGIN) {
+			throw createParseIOException("Expected '" + IRI_BEGIN + "'.");
+		}
+		final int begin = ++charIndex;
+		final int end = line.indexOf(IRI_END, begin);
+		if(end < 0) {
+			throw createParseIOException("Unterminated IRI reference.");
+		}
+		charIndex = end + 1;
+		final String iri = line.substring(begin, end);
+		return iri.indexOf(ESCAPE) < 0 ? iri : unescape(iri, begin);
+	}
+
+	/**
+	 * Parses a blank node label such as <code>_:b1</code>.
+	 * @return The label, not including the <code>_:</code> prefix.
+	 * @throws ParseIOException if there is no blank node label at the current position.
+	 */
+	protected String parseBlankNodeLabel() throws ParseIOException {
+		if(!line.startsWith(BLANK_NODE_LABEL_PREFIX, charIndex)) {
+			throw createParseIOException("Expected IRI reference, blank node, or literal.");
+		}
+		final int begin = charIndex + BLANK_NODE_LABEL_PREFIX.length();
+		int end = begin;
+		final int length = line.length();
+		while(end < length) {
+			final char c = line.charAt(end);
+			if(c == ' ' || c == '\t' || c == IRI_BEGIN || c == STRING_DELIMITER || c == COMMENT_BEGIN) {
+				break;
+			}
+			++end;
+		}
+		while(end > begin && line.charAt(end - 1) == STATEMENT_END) { //a label cannot end in a period, which instead ends the statement
+			--end;
+		}
+		if(end == begin) {
+			throw createParseIOException("Missing blank node label.");
+		}
+		charIndex = end;
+		return line.substring(begin, end);
+	}
+
+	/**
+	 * Parses a literal, including any language tag or datatype.
+	 * @return The literal.
+	 * @throws ParseIOException if there is no valid literal at the current position.
+	 * @throws RDFLimitExceededException if the lexical form exceeds the maximum literal length.
+	 */
+	protected RDFLiteral parseLiteral() throws ParseIOException {
+		final int begin = ++charIndex; //skip the opening delimiter
+		final int length = line.length();
+		boolean isEscaped = false;
+		int end = begin;
+		while(true) { //find the closing delimiter
+			if(end >= length) {
+				throw createParseIOException("Unterminated string.");
+			}
+			final char c = line.charAt(end);
+			if(c == STRING_DELIMITER) {
+				break;
+			} else if(c == ESCAPE) {
+				isEscaped = true;
+				++end; //skip the escaped character
+			}
+			++end;
+		}
+		checkLiteralLength(end - begin); //make sure the literal is within our limits
+		charIndex = end + 1;
+		final String lexicalForm = isEscaped ? unescape(line.substring(begin, end), begin) : line.substring(begin, end);
+		if(charIndex < length && line.charAt(charIndex) == LANGUAGE_TAG_BEGIN) { //language tag
+			final int languageTagBegin = ++charIndex;
+			while(charIndex < length && (Character.isLetterOrDigit(line.charAt(charIndex)) || line.charAt(charIndex) == '-')) {
+				++charIndex;
+			}
+			if(charIndex == languageTagBegin) {
+				throw createParseIOException("Missing language tag.");
+			}
+			return new RDFPlainLiteral(lexicalForm, Locales.createLocale(line.substring(languageTagBegin, charIndex)));
+		} else if(line.startsWith(DATATYPE_DELIMITER, charIndex)) { //datatype
+			charIndex += DATATYPE_DELIMITER.length();
+			return getRDF().createTypedLiteral(lexicalForm, parseIRI());
+		}
+		return new RDFPlainLiteral(lexicalForm);
+	}
+
+	/**
+	 * Replaces the escape sequences in a string or IRI with the characters they represent.
+	 * @param string The string containing escape sequences.
+	 * @param offset The index in the line at which the string begins, for reporting errors.
+	 * @return The unescaped string.
+	 * @throws ParseIOException if the string contains an invalid escape sequence.
+	 */
+	protected String unescape(final String string, final int offset) throws ParseIOException {
+		final int length = string.length();
+		final StringBuilder stringBuilder = new StringBuilder(length);
+		for(int i = 0; i < length; ++i) {
+			final char c = string.charAt(i);
+			if(c != ESCAPE) {
+				stringBuilder.append(c);
+				continue;
+			}
+			if(++i >= length) {
+				throw new ParseIOException("Incomplete escape sequence.", lineIndex, offset + i);
+			}
+			final char escaped = string.charAt(i);
+			switch(escaped) {
+				case 't':
+					stringBuilder.append('\t');
+					break;
+				case 'b':
+					stringBuilder.append('\b');
+					break;
+				case 'n':
+					stringBuilder.append('\n');
+					break;
+				case 'r':
+					stringBuilder.append('\r');
+					break;
+				case 'f':
+					stringBuilder.append('\f');
+					break;
+				case '"':
+				case '\'':
+				case ESCAPE:
+					stringBuilder.append(escaped);
+					break;
+				case 'u':
+				case 'U': {
+					final int digitCount = escaped == 'u' ? 4 : 8;
+					if(i + digitCount >= length) {
+						throw new ParseIOException("Incomplete Unicode escape sequence.", lineIndex, offset + i);
+					}
+					try {
+						stringBuilder.appendCodePoint(Integer.parseInt(string.substring(i + 1, i + 1 + digitCount), 16));
+					} catch(final IllegalArgumentException illegalArgumentException) { //NumberFormatException or an invalid code point
+						throw new ParseIOException("Invalid Unicode escape sequence.", illegalArgumentException, lineIndex, offset + i);
+					}
+					i += digitCount;
+				}
+					break;
+				default:
+					throw new ParseIOException("Invalid escape sequence \\" + escaped + ".", lineIndex, offset + i);
+			}
+		}
+		return stringBuilder.toString();
+	}
+
+	/**
+	 * Creates an exception indicating a syntax error at the current position.
+	 * @param message The description of the error.
+	 * @return A new exception.
+	 */
+	protected ParseIOException createParseIOException(final String message) {
+		return new ParseIOException(message, lineIndex, charIndex);
+	}
+
+	/**
+	 * A reader of UTF-8 encoded lines from an input stream that keeps track of its position in bytes. Lines are decoded directly from the internal buffer.
+	 * @author Garret Wilson
+	 */
+	protected static class LineInputStream {
+
+		/** The input stream from which to read. */
+		private final InputStream in;
+
+		/** The buffer of bytes read. */
+		private byte[] buffer = new byte[64 * 1024];
+
+		/** The index of the next byte to read in the buffer. */
+		private int index = 0;
+
+		/** The number of valid bytes in the buffer. */
+		private int count = 0;
+
+		/** The position in the underlying data of the next byte to read. */
+		private long position;
+
+		/** @return The position in the underlying data of the next byte to read. */
+		public long getPosition() {
+			return position;
+		}
+
+		/**
+		 * Input stream and position constructor.
+		 * @param inputStream The input stream to read from.
+		 * @param position The position in the underlying data of the next byte of the input stream.
+		 */
+		public LineInputStream(final InputStream inputStream, final long position) {
+			this.in = inputStream;
+			this.position = position;
+		}
+
+		/**
+		 * Reads the next line, which may end in a line feed, a carriage return, a carriage return followed by a line feed, or the end of the data.
+		 * @return The next line, not including the line ending, or <code>null</code> if the end of the data has been reached.
+		 * @throws IOException if there is an error reading the data.
+		 */
+		public String readLine() throws IOException {
+			if(index == count && !fill()) { //if there is no more data
+				return null;
+			}
+			int lineEnd = index;
+			while(true) {
+				if(lineEnd == count) { //if we reached the end of the buffered data, keep the line at the start of the buffer and read more
+					final int lineLength = lineEnd - index;
+					if(index > 0) {
+						System.arraycopy(buffer, index, buffer, 0, lineLength);
+					} else if(lineLength == buffer.length) { //if the line fills the buffer, enlarge the buffer
+						buffer = Arrays.copyOf(buffer, buffer.length * 2);
+					}
+					index = 0;
+					count = lineLength;
+					lineEnd = lineLength;
+					final int readCount = in.read(buffer, count, buffer.length - count);
+					if(readCount < 0) { //if there is no more data, the line ends with the data
+						position += lineLength;
+						index = count;
+						return new String(buffer, 0, lineLength, UTF_8);
+					}
+					count += readCount;
+				}
+				final byte b = buffer[lineEnd];
+				if(b == '\n' || b == '\r') {
+					final String line = new String(buffer, index, lineEnd - index, UTF_8);
+					int next = lineEnd + 1;
+					if(b == '\r') { //check for a following line feed
+						if(next == count) { //make sure the next byte is buffered
+							position += next - index;
+							index = next;
+							if(fill() && buffer[index] == '\n') {
+								++index;
+								++position;
+							}
+							return line;
+						}
+						if(buffer[next] == '\n') {
+							++next;
+						}
+					}
+					position += next - index;
+					index = next;
+					return line;
+				}
+				++lineEnd;
+			}
+		}
+
+		/**
+		 * Refills the buffer if all buffered bytes have been read.
+		 * @return <code>true</code> if there are bytes available in the buffer.
+		 * @throws IOException if there is an error reading the data.
+		 */
+		private boolean fill() throws IOException {
+			if(index < count) {
+				return true;
+			}
+			final int readCount = in.read(buffer, 0, buffer.length);
+			index = 0;
+			count = Math.max(readCount, 0);
+			return readCount > 0;
+		}
+
+	}
+
+}
@@ -39,6 +39,44 @@ public URI getResourceURI() {
 		return resourceURI;
 	}
 
+	/** Whether only the resource, and the resources reachable from it, are read, rather than every resource in the input. */
+	private boolean projecting = false;
+
+	/** @return Whether only the resource, and the resources reachable from it, are read, rather than every resource in the input. */
+	public boolean isProjecting() {
+		return projecting;
+	}
+
+	/**
+	 * Sets whether only the resource, and the resources reachable from it, are read. This avoids creating resources unrelated to the one needed, but any such
+	 * resources will then be missing from the data model being populated.
+	 * @param projecting <code>true</code> if descriptions of resources not reachable from the resource should be skipped.
+	 * @see RDFProjection#ofResource(URI)
+	 */
+	public void setProjecting(final boolean projecting) {
+		this.projecting = projecting;
+	}
+
+	/** Whether reading stops as soon as the description of the resource is complete, rather than reading to the end of the input. */
+	private boolean earlyTermination = false;
+
+	/** @return Whether reading stops as soon as the description of the resource is complete, rather than reading to the end of the input. */
+	public boolean isEarlyTermination() {
+		return earlyTermination;
+	}
+
+	/**
+	 * Sets whether reading stops as soon as the description of the resource is complete. This is appropriate for retrieving information such as header
+	 * metadata that is described near the start of large documents, but assumes that the resource and any blank nodes it references are not described again
+	 * later in the document. Early termination implies projecting, as the resources described after the resource would not be read anyway.
+	 * @param earlyTermination <code>true</code> if the rest of the input should not be read once the resource is complete.
+	 * @see #setProjecting(boolean)
+	 * @see RDFXMLStreamProcessor#setEarlyTermination(boolean)
+	 */
+	public void setEarlyTermination(final boolean earlyTermination) {
+		this.earlyTermination = earlyTermination;
+	}
+
 	/**
 	 * Class and resource URI constructor.
 	 * @param resourceClass The class representing the type of resource expected from the RDF instance.
@@ -52,7 +90,8 @@ public NamedRDFResourceIO(final Class<T> resourceClass, final URI resourceURI) {
 
 	/**
 	 * Reads a resource from an input stream using an existing RDF instance. If a base URI is given, the resource URI will be resolved against the base URI before
-	 * it is used to determine the resource to return.
+	 * it is used to determine the resource to return. If projecting or terminating early, only the resource, and the resources reachable from it, are created;
+	 * otherwise all resources in the input are created.
 	 * @param rdf The RDF instance to use in creating new resources.
 	 * @param inputStream The input stream from which to read the data.
 	 * @param baseURI The base URI of the data, or <code>null</code> if no base URI is available.
@@ -62,9 +101,13 @@ public NamedRDFResourceIO(final Class<T> resourceClass, final URI resourceURI) {
 	 * @throws ClassCastException if no appropriate resource factory was installed, and the loaded resource is not of the correct Java class.
 	 */
 	public T read(final RDFModel rdf, final InputStream inputStream, final URI baseURI) throws IOException {
-		readRDF(rdf, inputStream, baseURI); //read RDF from the input stream
 		final URI resourceURI = getResourceURI(); //get the URI of the resource to return
 		final URI resolvedResourceURI = baseURI != null ? RDFXMLProcessor.resolveURI(baseURI, resourceURI) : resourceURI; //resolve the resource URI if possible
+		if(isProjecting() || isEarlyTermination()) { //if we only need the resource itself
+			readRDF(rdf, inputStream, baseURI, RDFProjection.ofResource(resolvedResourceURI), isEarlyTermination()); //read RDF from the input stream, skipping resources unrelated to the one we need
+		} else {
+			readRDF(rdf, inputStream, baseURI); //read all the RDF from the input stream
+		}
 		final RDFResource resource = rdf.getResource(resolvedResourceURI); //look for a resource with the given URI
 		if(resource == null) { //if there is no resource
 			throw new IOException("No resource found with URI " + resolvedResourceURI + ".");
@@ -17,15 +17,37 @@
 package com.globalmentor.rdf;
 
 import java.net.URI;
+import java.util.*;
+
+import com.globalmentor.model.Count;
 
 import static com.globalmentor.rdf.spec.RDF.*;
 
 /**
  * Represents an RDF bag resource.
+ * <p>
+ * Bag members are kept as <code>rdf:_X</code> properties so that they are serialized normally, but the member values are also indexed in a hash multiset so
+ * that testing for membership, counting occurrences, and adding members do not require scanning every member property. Members are compared using
+ * {@link Object#equals(Object)}, just as when checking for an equivalent property. Only resources with reference URIs and plain literals are found by their
+ * hash codes, however; the hash code of a blank node may change as its properties change, and typed literals are compared by value but hashed by lexical
+ * form, so other members are kept by identity and compared with each one in turn.
+ * </p>
  * @author Garret Wilson
  */
 public class RDFBagResource extends RDFContainerResource {
 
+	/** The multiset of member values with hash codes consistent with equality, with their number of occurrences. */
+	private Map<RDFObject, Count> itemCountMap = new HashMap<>();
+
+	/** The multiset of other member values, such as blank nodes and typed literals, with their number of occurrences, using identity as the key. */
+	private Map<RDFObject, Count> otherItemCountMap = new IdentityHashMap<>();
+
+	/** The total number of members in the bag. */
+	private int itemCount = 0;
+
+	/** The highest member number that has been used in an <code>rdf:_X</code> property. */
+	private int highestItemNumber = 0;
+
 	/** @return The namespace URI of the ontology defining the default type of this resource. */
 	public URI getDefaultTypeNamespaceURI() {
 		return NAMESPACE_URI;
@@ -53,4 +75,247 @@ public RDFBagResource(final URI newReferenceURI) {
 		super(rdf, newReferenceURI); //construct the parent class
 	}
 
+	/**
+	 * Determines whether a member value can be found by its hash code.
+	 * @param item The member value.
+	 * @return <code>true</code> if the item is a resource with a reference URI or a plain literal.
+	 */
+	private static boolean isHashable(final RDFObject item) {
+		return item instanceof RDFResource ? ((RDFResource)item).getURI() != null : !(item instanceof RDFTypedLiteral);
+	}
+
+	/**
+	 * Returns the multiset in which the given member value is counted.
+	 * @param item The member value.
+	 * @return The map of equality-based counts if the item is hashable, or the map of identity-based counts otherwise.
+	 * @see #isHashable(RDFObject)
+	 */
+	private Map<RDFObject, Count> getItemCountMap(final RDFObject item) {
+		return isHashable(item) ? itemCountMap : otherItemCountMap;
+	}
+
+	/**
+	 * Determines whether the given item is a member of the bag.
+	 * @param item The member value to check.
+	 * @return <code>true</code> if the bag has at least one <code>rdf:_X</code> property with a value equal to the given value.
+	 */
+	public boolean containsItem(final RDFObject item) {
+		return getItemCount(item) > 0;
+	}
+
+	/**
+	 * Determines the number of times the given item appears as a member of the bag.
+	 * @param item The member value to count.
+	 * @return The number of <code>rdf:_X</code> properties with a value equal to the given value.
+	 */
+	public int getItemCount(final RDFObject item) {
+		long count = 0;
+		if(isHashable(item)) {
+			count += Count.getCount(itemCountMap, item);
+			if(item instanceof RDFResource) { //a resource with a reference URI can only equal a resource with the same reference URI
+				return (int)count;
+			}
+		} else if(item instanceof RDFResource) { //a blank node may equal any resource with the same rdf:value
+			for(final Map.Entry<RDFObject, Count> itemCountEntry : itemCountMap.entrySet()) {
+				if(item.equals(itemCountEntry.getKey())) {
+					count += itemCountEntry.getValue().getCount();
+				}
+			}
+		}
+		for(final Map.Entry<RDFObject, Count> itemCountEntry : otherItemCountMap.entrySet()) { //compare with each member that can't be found by hash code
+			if(item.equals(itemCountEntry.getKey())) {
+				count += itemCountEntry.getValue().getCount();
+			}
+		}
+		return (int)count;
+	}
+
+	/** @return The total number of members in the bag, counting each occurrence of a repeated member. */
+	public int getItemCount() {
+		return itemCount;
+	}
+
+	/**
+	 * Indexes a property if it is a member property.
+	 * @param propertyValuePair The property that was added to the resource.
+	 */
+	private void indexItemProperty(final RDFPropertyValuePair propertyValuePair) {
+		final int number = getMemberNumber(propertyValuePair.getProperty().getURI()); //see if this is a member property
+		if(number >= 0) { //if this is an rdf:_X property
+			final RDFObject item = propertyValuePair.getPropertyValue();
+			Count.incrementCounterMapCount(getItemCountMap(item), item); //count another occurrence of the item
+			++itemCount;
+			if(number > highestItemNumber) {
+				highestItemNumber = number; //keep track of the highest number so new members can be added without scanning
+			}
+		}
+	}
+
+	/**
+	 * Removes a property from the index if it is a member property.
+	 * @param propertyValuePair The property that was removed from the resource.
+	 */
+	private void unindexItemProperty(final RDFPropertyValuePair propertyValuePair) {
+		if(getMemberNumber(propertyValuePair.getProperty().getURI()) >= 0) { //if this is an rdf:_X property
+			final RDFObject item = propertyValuePair.getPropertyValue();
+			Count.decrementCounterMapCount(getItemCountMap(item), item); //count one less occurrence of the item
+			--itemCount;
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * This version uses the highest member number known to the bag rather than scanning the properties. Because the order of bag members is not significant, the
+	 * number may be higher than strictly necessary if members have been removed.
+	 * </p>
+	 */
+	@Override
+	protected int getNextItemNumber() {
+		return highestItemNumber + 1;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * This version adds the member directly without checking for an equivalent property, as the new member number has never been used.
+	 * </p>
+	 */
+	@Override
+	public <T extends RDFObject> T add(final T propertyValue) {
+		final RDFResource property = RDFResources.locateResource(this, getMemberPropertyURI(getNextItemNumber())); //get the next member property
+		final RDFPropertyValuePair propertyValuePair = new RDFPropertyValuePair(property, propertyValue);
+		propertyList.add(propertyValuePair); //add the property and value to the list
+		indexItemProperty(propertyValuePair);
+		firePropertyChange(property.getURI().toString(), null, propertyValue); //fire a property change event with the new property value
+		return propertyValue;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * This version indexes added member properties. The check for an equivalent property is skipped for a member property if the member number has never been
+	 * used or no member is equal to the value, as neither case could result in a duplicate.
+	 * </p>
+	 */
+	@Override
+	public <T extends RDFObject> T addProperty(final RDFResource property, final T value) {
+		final int number = getMemberNumber(property.getURI());
+		if(number < 0) { //if this isn't a member property, add it normally
+			return super.addProperty(property, value);
+		}
+		final RDFPropertyValuePair propertyValuePair = new RDFPropertyValuePair(property, value);
+		if(number > highestItemNumber || !containsItem(value)) { //if this property can't already exist
+			propertyList.add(propertyValuePair); //add the property and value to the list
+			indexItemProperty(propertyValuePair);
+			firePropertyChange(property.getURI().toString(), null, value); //fire a property change event with the new property value
+		} else { //if this might be a duplicate, let the parent class check
+			final int oldPropertyCount = getPropertyCount();
+			super.addProperty(property, value);
+			if(getPropertyCount() != oldPropertyCount) { //if the property was actually added
+				indexItemProperty(propertyValuePair);
+			}
+		}
+		return value;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * This version returns an iterator that keeps the member index updated as properties are removed or replaced.
+	 * </p>
+	 */
+	@Override
+	public ListIterator<RDFPropertyValuePair> getPropertyIterator() {
+		return new ItemIndexingListIterator(super.getPropertyIterator());
+	}
+
+	/** @return A copy of this bag with the same URI, identical properties, and its own member index. */
+	@Override
+	public Object clone() {
+		final RDFBagResource bag = (RDFBagResource)super.clone(); //clone the resource and its property list
+		bag.itemCountMap = new HashMap<>();
+		bag.otherItemCountMap = new IdentityHashMap<>();
+		bag.itemCount = 0;
+		bag.highestItemNumber = 0;
+		for(final RDFPropertyValuePair propertyValuePair : bag.propertyList) { //rebuild the index for the cloned property list
+			bag.indexItemProperty(propertyValuePair);
+		}
+		return bag;
+	}
+
+	/**
+	 * A list iterator that updates the member index of the bag as properties are modified.
+	 * @author Garret Wilson
+	 */
+	private class ItemIndexingListIterator implements ListIterator<RDFPropertyValuePair> {
+
+		/** The decorated property iterator. */
+		private final ListIterator<RDFPropertyValuePair> listIterator;
+
+		/** The property most recently returned, or <code>null</code> if there is no current property. */
+		private RDFPropertyValuePair lastPropertyValuePair = null;
+
+		/**
+		 * Decorated list iterator constructor.
+		 * @param listIterator The property iterator to decorate.
+		 */
+		public ItemIndexingListIterator(final ListIterator<RDFPropertyValuePair> listIterator) {
+			this.listIterator = listIterator;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return listIterator.hasNext();
+		}
+
+		@Override
+		public RDFPropertyValuePair next() {
+			return lastPropertyValuePair = listIterator.next();
+		}
+
+		@Override
+		public boolean hasPrevious() {
+			return listIterator.hasPrevious();
+		}
+
+		@Override
+		public RDFPropertyValuePair previous() {
+			return lastPropertyValuePair = listIterator.previous();
+		}
+
+		@Override
+		public int nextIndex() {
+			return listIterator.nextIndex();
+		}
+
+		@Override
+		public int previousIndex() {
+			return listIterator.previousIndex();
+		}
+
+		@Override
+		public void remove() {
+			listIterator.remove();
+			unindexItemProperty(lastPropertyValuePair);
+			lastPropertyValuePair = null;
+		}
+
+		@Override
+		public void set(final RDFPropertyValuePair propertyValuePair) {
+			listIterator.set(propertyValuePair);
+			unindexItemProperty(lastPropertyValuePair);
+			indexItemProperty(propertyValuePair);
+			lastPropertyValuePair = propertyValuePair;
+		}
+
+		@Override
+		public void add(final RDFPropertyValuePair propertyValuePair) {
+			listIterator.add(propertyValuePair);
+			indexItemProperty(propertyValuePair);
+			lastPropertyValuePair = null;
+		}
+
+	}
+
 }
\ No newline at end of file
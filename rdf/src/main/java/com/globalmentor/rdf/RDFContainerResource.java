@@ -18,6 +18,7 @@
 
 import java.net.URI;
 import java.util.*;
+import java.util.stream.*;
 
 import static java.util.Collections.*;
 
@@ -80,6 +81,26 @@ public Iterator<RDFObject> getItemIterator() {
 		return getItemCollection().iterator(); //return an iterator to the collection
 	}
 
+	/**
+	 * Returns a spliterator over a snapshot of the items (specified by <code>rdf:li_</code> properties). The spliterator knows its exact size and splits evenly,
+	 * so that the items may be processed efficiently by parallel streams. This version reports items in an undefined order, and should be overridden in a child
+	 * class if order is important.
+	 * @return A spliterator to the items, in an order determined by this type of container.
+	 * @see #getItemCollection
+	 */
+	public Spliterator<RDFObject> getItemSpliterator() {
+		return Spliterators.spliterator(getItemCollection().toArray(), Spliterator.NONNULL | Spliterator.IMMUTABLE); //the array spliterator is sized and subsized
+	}
+
+	/**
+	 * Returns a sequential stream of the items (specified by <code>rdf:li_</code> properties). The stream may be made parallel using {@link Stream#parallel()}.
+	 * @return A stream of the items, in an order determined by this type of container.
+	 * @see #getItemSpliterator()
+	 */
+	public Stream<RDFObject> getItemStream() {
+		return StreamSupport.stream(getItemSpliterator(), false);
+	}
+
 	/**
 	 * Creates a list of item property values from the name/value pairs stored in the given list. The list will maintain the order of the item values.
 	 * @param itemPropertyList A list of name/value pairs, with the name holding the property resource and the value holding the property value.
@@ -167,6 +188,24 @@ public <T extends RDFObject> T add(final T propertyValue, final int number) {
 		return addProperty(getMemberPropertyURI(number), propertyValue); //add the property and value to the resource
 	}
 
+	/**
+	 * Determines the number of the member represented by the given property URI.
+	 * @param propertyReferenceURI The reference URI of a property.
+	 * @return The number of the member represented by the <code>rdf:_X</code> property, or <code>-1</code> if the property is not a container member property or
+	 *         does not contain a valid number.
+	 */
+	protected static int getMemberNumber(final URI propertyReferenceURI) {
+		if(isContainerMemberPropertyReference(propertyReferenceURI)) { //if this property name begins with rdf:_
+			//get the current number by removing the start of the URI up to and including "#_"
+			final String numberString = propertyReferenceURI.toString().substring(RDF_LI_REFERENCE_PREFIX.length());
+			try {
+				return Integer.parseInt(numberString); //parse the integer from the string
+			} catch(final NumberFormatException numberFormatException) { //if the string does not contain a valid number, this isn't a member we recognize
+			}
+		}
+		return -1; //show that there is no member number
+	}
+
 	/**
 	 * Determines the property URI to use for a member with the given number.
 	 * @param number The number of a member.
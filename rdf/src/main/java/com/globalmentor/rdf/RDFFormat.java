@@ -0,0 +1,73 @@
+/*
+ * Copyright © 1996-2008 GlobalMentor, Inc. <https://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.globalmentor.rdf;
+
+import java.io.*;
+import java.net.URI;
+import java.util.Map;
+
+/**
+ * A serialization format of RDF, able to read RDF into a data model and write RDF from a data model.
+ * @author Garret Wilson
+ * @see AbstractRDFXMLIO#setFormat(RDFFormat)
+ */
+public interface RDFFormat {
+
+	/**
+	 * Indicates whether RDF data can be read in this format. A format that cannot be read is only used for writing, and is never detected from content.
+	 * @return <code>true</code> if {@link #read(RDFModel, InputStream, URI, RDFProjection, RDFProcessingLimits)} is supported.
+	 */
+	public boolean isReadable();
+
+	/**
+	 * Reads RDF data from an input stream, only creating resources that are reachable from the targets of the given projection.
+	 * @param rdf The RDF instance to use in creating new resources.
+	 * @param inputStream The input stream from which to read the data. The stream will not be closed.
+	 * @param baseURI The base URI of the data, or <code>null</code> if no base URI is available.
+	 * @param projection The projection identifying the resources to read, or <code>null</code> if all resources should be read.
+	 * @param limits The bounds on the resources consumed while reading.
+	 * @return The RDF instance representing the data read.
+	 * @throws NullPointerException if the given RDF instance, input stream, and/or limits is <code>null</code>.
+	 * @throws IOException if there is an error reading the data, if the data exceeds the processing limits, or if the format is not readable.
+	 * @see #isReadable()
+	 */
+	public RDFModel read(final RDFModel rdf, final InputStream inputStream, final URI baseURI, final RDFProjection projection,
+			final RDFProcessingLimits limits) throws IOException;
+
+	/**
+	 * Writes an RDF resource, along with any resources it describes in place, to an output stream. The output stream is flushed but not closed.
+	 * @param outputStream The output stream to which to write the data.
+	 * @param baseURI The base URI of the data, or <code>null</code> if no base URI is available.
+	 * @param resource The resource to write to the given output stream.
+	 * @param namespacePrefixMap The serialization prefixes to use, keyed by namespace URIs.
+	 * @throws IOException Thrown if there is an error writing the data.
+	 */
+	public void write(final OutputStream outputStream, final URI baseURI, final RDFResource resource, final Map<URI, String> namespacePrefixMap)
+			throws IOException;
+
+	/**
+	 * Writes all the resources of an RDF data model to an output stream. The output stream is flushed but not closed.
+	 * @param outputStream The output stream to which to write the data.
+	 * @param baseURI The base URI of the data, or <code>null</code> if no base URI is available.
+	 * @param rdf The data model to write to the given output stream.
+	 * @param namespacePrefixMap The serialization prefixes to use, keyed by namespace URIs.
+	 * @throws IOException Thrown if there is an error writing the data.
+	 */
+	public void write(final OutputStream outputStream, final URI baseURI, final RDFModel rdf, final Map<URI, String> namespacePrefixMap) throws IOException;
+
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright © 1996-2008 GlobalMentor, Inc. <https://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.globalmentor.rdf;
+
+import java.util.Set;
+
+/**
+ * A provider of an RDF serialization format, describing the format so that it can be found by media type, filename extension, or content.
+ * <p>
+ * Providers are discovered using {@link java.util.ServiceLoader}, and must therefore have a public default constructor.
+ * </p>
+ * @author Garret Wilson
+ * @see RDFFormats
+ */
+public interface RDFFormatProvider {
+
+	/** @return The media type of the format, such as <code>text/turtle</code>, without parameters. */
+	public String getMediaType();
+
+	/** @return The filename extensions of the format, without the leading period, such as <code>ttl</code>. */
+	public Set<String> getFilenameExtensions();
+
+	/**
+	 * Determines whether some content appears to be in this format by examining its first bytes. The determination should be cheap, and should not claim content
+	 * that is likely to be in some other format.
+	 * @param bytes The first bytes of the content.
+	 * @param length The number of bytes available, which may be less than the length of the array and less than {@link RDFFormats#SIGNATURE_LENGTH} if the
+	 *          content is shorter.
+	 * @return <code>true</code> if the content appears to be in this format.
+	 */
+	public boolean isFormat(final byte[] bytes, final int length);
+
+	/** @return The format, which must be safe to use by multiple threads. */
+	public RDFFormat getFormat();
+
+}
@@ -0,0 +1,263 @@
+/*
+ * Copyright © 1996-2008 GlobalMentor, Inc. <https://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.globalmentor.rdf;
+
+import java.io.*;
+import java.util.*;
+
+import static java.util.Collections.*;
+import static java.util.Objects.*;
+
+/**
+ * The registry of available RDF serialization formats, discovered using {@link ServiceLoader} from the providers available to the class loader of this
+ * class. Formats may be looked up by media type or filename extension, or detected from the first bytes of some content.
+ * <p>
+ * Where more than one provider claims a media type or filename extension, the first provider discovered is used. Content is detected by asking each provider
+ * in the order discovered; the built-in providers are listed so that the more specific signatures are checked first.
+ * </p>
+ * <p>
+ * This class is thread safe.
+ * </p>
+ * @author Garret Wilson
+ * @see RDFFormatProvider
+ */
+public class RDFFormats {
+
+	/** The maximum number of bytes examined when detecting the format of content. */
+	public static final int SIGNATURE_LENGTH = 256;
+
+	/** The UTF-8 byte order mark, which is ignored when examining text content. */
+	private static final byte[] UTF_8_BOM = {(byte)0xEF, (byte)0xBB, (byte)0xBF};
+
+	/** This class cannot be publicly instantiated. */
+	private RDFFormats() {
+	}
+
+	/** The registry of providers, loaded the first time it is needed. */
+	private static class Registry {
+
+		/** The providers in the order discovered. */
+		static final List<RDFFormatProvider> providers;
+
+		/** The providers keyed by lowercase media type. */
+		static final Map<String, RDFFormatProvider> mediaTypeProviderMap = new HashMap<String, RDFFormatProvider>();
+
+		/** The providers keyed by lowercase filename extension. */
+		static final Map<String, RDFFormatProvider> filenameExtensionProviderMap = new HashMap<String, RDFFormatProvider>();
+
+		static {
+			final List<RDFFormatProvider> discoveredProviders = new ArrayList<RDFFormatProvider>();
+			for(final RDFFormatProvider provider : ServiceLoader.load(RDFFormatProvider.class, RDFFormats.class.getClassLoader())) {
+				discoveredProviders.add(provider);
+				mediaTypeProviderMap.putIfAbsent(provider.getMediaType().toLowerCase(Locale.ROOT), provider); //the first provider discovered takes precedence
+				for(final String filenameExtension : provider.getFilenameExtensions()) {
+					filenameExtensionProviderMap.putIfAbsent(filenameExtension.toLowerCase(Locale.ROOT), provider);
+				}
+			}
+			providers = unmodifiableList(discoveredProviders);
+		}
+	}
+
+	/** @return The providers of the available formats, in the order discovered. */
+	public static List<RDFFormatProvider> getProviders() {
+		return Registry.providers;
+	}
+
+	/**
+	 * Returns the format for the given media type. Any parameters, such as those in a <code>Content-Type</code> header, are ignored, and the comparison is not
+	 * case sensitive.
+	 * @param mediaType The media type, such as <code>text/turtle; charset=UTF-8</code>.
+	 * @return The format for the given media type, or <code>null</code> if no available format has the given media type.
+	 * @throws NullPointerException if the given media type is <code>null</code>.
+	 */
+	public static RDFFormat getFormatByMediaType(final String mediaType) {
+		final int parametersIndex = mediaType.indexOf(';');
+		final String baseMediaType = (parametersIndex >= 0 ? mediaType.substring(0, parametersIndex) : mediaType).trim().toLowerCase(Locale.ROOT);
+		final RDFFormatProvider provider = Registry.mediaTypeProviderMap.get(baseMediaType);
+		return provider != null ? provider.getFormat() : null;
+	}
+
+	/**
+	 * Returns the format for the given filename extension. The comparison is not case sensitive.
+	 * @param filenameExtension The filename extension, without the leading period.
+	 * @return The format for the given filename extension, or <code>null</code> if no available format has the given filename extension.
+	 * @throws NullPointerException if the given filename extension is <code>null</code>.
+	 */
+	public static RDFFormat getFormatByFilenameExtension(final String filenameExtension) {
+		final RDFFormatProvider provider = Registry.filenameExtensionProviderMap.get(filenameExtension.toLowerCase(Locale.ROOT));
+		return provider != null ? provider.getFormat() : null;
+	}
+
+	/**
+	 * Returns the format for the extension of the given filename or path, such as the path of a URI.
+	 * @param filename The filename or path, the last extension of which will be used.
+	 * @return The format for the extension of the given filename, or <code>null</code> if the filename has no extension or no available format has its
+	 *         extension.
+	 * @throws NullPointerException if the given filename is <code>null</code>.
+	 */
+	public static RDFFormat getFormatByFilename(final String filename) {
+		final int extensionIndex = filename.lastIndexOf('.');
+		if(extensionIndex < 0 || filename.indexOf('/', extensionIndex) >= 0) { //ignore periods in parent directories
+			return null;
+		}
+		return getFormatByFilenameExtension(filename.substring(extensionIndex + 1));
+	}
+
+	/**
+	 * Detects the format of content from its first bytes.
+	 * @param bytes The first bytes of the content; at most {@link #SIGNATURE_LENGTH} bytes are examined.
+	 * @param length The number of bytes available.
+	 * @return The first readable format the provider of which recognizes the content, or <code>null</code> if the format could not be determined.
+	 */
+	public static RDFFormat detectFormat(final byte[] bytes, final int length) {
+		final int signatureLength = Math.min(length, SIGNATURE_LENGTH);
+		for(final RDFFormatProvider provider : Registry.providers) {
+			if(provider.getFormat().isReadable() && provider.isFormat(bytes, signatureLength)) { //content is only detected as being in a format that can read it
+				return provider.getFormat();
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Detects the format of content from its first bytes, which are read from the given input stream and then pushed back so that the content may be read from
+	 * the beginning. No more than {@link #SIGNATURE_LENGTH} bytes are read from the underlying stream.
+	 * @param inputStream The input stream containing the content, which must be able to push back at least {@link #SIGNATURE_LENGTH} bytes.
+	 * @return The first format the provider of which recognizes the content, or <code>null</code> if the format could not be determined.
+	 * @throws NullPointerException if the given input stream is <code>null</code>.
+	 * @throws IOException if there is an error reading from the input stream.
+	 * @see #createSignatureInputStream(InputStream)
+	 */
+	public static RDFFormat detectFormat(final PushbackInputStream inputStream) throws IOException {
+		final byte[] bytes = new byte[SIGNATURE_LENGTH];
+		int length = 0;
+		int count;
+		while(length < bytes.length && (count = inputStream.read(bytes, length, bytes.length - length)) >= 0) { //fill the signature unless the content is shorter
+			length += count;
+		}
+		inputStream.unread(bytes, 0, length); //put back what we read
+		return detectFormat(bytes, length);
+	}
+
+	/**
+	 * Wraps an input stream so that it can be used with {@link #detectFormat(PushbackInputStream)}.
+	 * @param inputStream The input stream containing the content.
+	 * @return An input stream that can push back the bytes examined when detecting the format.
+	 * @throws NullPointerException if the given input stream is <code>null</code>.
+	 */
+	public static PushbackInputStream createSignatureInputStream(final InputStream inputStream) {
+		return new PushbackInputStream(requireNonNull(inputStream, "Input stream cannot be null."), SIGNATURE_LENGTH);
+	}
+
+	/**
+	 * Determines the index of the first significant byte of text content, skipping any UTF-8 byte order mark and whitespace, and optionally any comments that
+	 * begin with <code>#</code> and continue to the end of the line.
+	 * @param bytes The first bytes of the content.
+	 * @param length The number of bytes available.
+	 * @param skipComments Whether comments should be skipped.
+	 * @return The index of the first significant byte, which will be equal to the length if there are no significant bytes.
+	 */
+	static int skipInsignificant(final byte[] bytes, final int length, final boolean skipComments) {
+		int index = startsWith(bytes, length, 0, UTF_8_BOM) ? UTF_8_BOM.length : 0;
+		while(index < length) {
+			final byte b = bytes[index];
+			if(b == ' ' || b == '\t' || b == '\r' || b == '\n') {
+				++index;
+			} else if(skipComments && b == '#') {
+				while(index < length && bytes[index] != '\n' && bytes[index] != '\r') {
+					++index;
+				}
+			} else {
+				break;
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * Skips an IRI enclosed in angle brackets.
+	 * @param bytes The first bytes of the content.
+	 * @param length The number of bytes available.
+	 * @param index The index of the opening angle bracket.
+	 * @param absolute Whether the IRI must be absolute, that is, have a scheme.
+	 * @return The index after the closing angle bracket, or <code>-1</code> if there is no complete IRI at the given index.
+	 */
+	static int skipIRI(final byte[] bytes, final int length, int index, final boolean absolute) {
+		if(index >= length || bytes[index] != '<') {
+			return -1;
+		}
+		boolean hasScheme = false;
+		while(++index < length) {
+			final byte b = bytes[index];
+			if(b == '>') {
+				return hasScheme || !absolute ? index + 1 : -1;
+			}
+			if(b == ' ' || b == '\t' || b == '\r' || b == '\n' || b == '<' || b == '"') { //characters not allowed in an IRI
+				return -1;
+			}
+			if(b == ':') {
+				hasScheme = true;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Determines whether content has the given bytes at the given index.
+	 * @param bytes The first bytes of the content.
+	 * @param length The number of bytes available.
+	 * @param index The index at which to look for the signature.
+	 * @param signature The bytes to look for.
+	 * @return <code>true</code> if all the bytes of the signature are present at the given index.
+	 */
+	static boolean startsWith(final byte[] bytes, final int length, final int index, final byte[] signature) {
+		if(index + signature.length > length) {
+			return false;
+		}
+		for(int i = 0; i < signature.length; ++i) {
+			if(bytes[index + i] != signature[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Determines whether content has the given ASCII characters at the given index.
+	 * @param bytes The first bytes of the content.
+	 * @param length The number of bytes available.
+	 * @param index The index at which to look for the characters.
+	 * @param signature The ASCII characters to look for.
+	 * @param ignoreCase Whether the comparison of letters should not be case sensitive.
+	 * @return <code>true</code> if all the characters of the signature are present at the given index.
+	 */
+	static boolean startsWith(final byte[] bytes, final int length, final int index, final String signature, final boolean ignoreCase) {
+		if(index + signature.length() > length) {
+			return false;
+		}
+		for(int i = 0; i < signature.length(); ++i) {
+			final char c = (char)bytes[index + i];
+			final char expected = signature.charAt(i);
+			if(c != expected && (!ignoreCase || Character.toLowerCase(c) != Character.toLowerCase(expected))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+}
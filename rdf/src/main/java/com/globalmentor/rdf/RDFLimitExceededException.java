@@ -0,0 +1,59 @@
+/*
+ * Copyright © 1996-2008 GlobalMentor, Inc. <https://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.globalmentor.rdf;
+
+/**
+ * Indicates that processing of an RDF serialization was aborted because the serialization exceeded one of the configured resource limits.
+ * <p>
+ * This exception is unchecked so that it may be thrown from deep within processing without changing the signatures of the processing methods; it is thrown
+ * as soon as the limit is crossed, before the offending construct is added to the data model.
+ * </p>
+ * @author Garret Wilson
+ * @see RDFProcessingLimits
+ */
+public class RDFLimitExceededException extends IllegalStateException {
+
+	private static final long serialVersionUID = 1L;
+
+	/** The description of the quantity that was limited, such as "statements". */
+	private final String limitName;
+
+	/** @return The description of the quantity that was limited, such as "statements". */
+	public String getLimitName() {
+		return limitName;
+	}
+
+	/** The maximum that was exceeded. */
+	private final long limit;
+
+	/** @return The maximum that was exceeded. */
+	public long getLimit() {
+		return limit;
+	}
+
+	/**
+	 * Limit name and limit constructor.
+	 * @param limitName The description of the quantity that was limited, such as "statements".
+	 * @param limit The maximum that was exceeded.
+	 */
+	public RDFLimitExceededException(final String limitName, final long limit) {
+		super("RDF processing limit exceeded: more than " + limit + " " + limitName + ".");
+		this.limitName = limitName;
+		this.limit = limit;
+	}
+
+}
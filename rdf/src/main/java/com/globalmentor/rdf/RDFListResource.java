@@ -301,6 +301,22 @@ public Iterator<E> iterator() {
 		return new RDFListIterator(); //create a new iterator over all the list elements
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * @implSpec This implementation walks the list once to take a snapshot of its elements, producing a spliterator that knows its exact size and splits evenly,
+	 *           so that the elements may be processed efficiently by parallel streams. Changes to the list after this method is called are not reflected in the
+	 *           spliterator.
+	 */
+	@Override
+	public Spliterator<E> spliterator() {
+		final List<E> elements = new ArrayList<>(); //gather the elements in a single pass, as walking the list is expensive
+		final Iterator<E> iterator = iterator(); //get an iterator to the elements
+		while(iterator.hasNext()) { //while there are more elements
+			elements.add(iterator.next()); //add the next element to our snapshot
+		}
+		return Spliterators.spliterator(elements.toArray(), Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE); //the array spliterator is sized and subsized
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * @implSpec This method is currently unsupported.
@@ -166,6 +166,237 @@ public Iterable<RDFResource> getResources() {
 		return unmodifiableCollection(resourceSet); //return an unmodifiable iterable to the set of all resources
 	}
 
+	/**
+	 * Merges the resources of another data model into this data model.
+	 * <p>
+	 * Named resources are deduplicated by reference URI: if this data model already contains a resource with the same reference URI as a resource in the other
+	 * data model, the properties of the other resource are added to the existing resource, and all references to the other resource, whether as a property or
+	 * as a property value, are redirected to the existing resource. All other resources, including blank nodes, are moved to this data model as they are.
+	 * </p>
+	 * <p>
+	 * If the existing resource is only a general resource but the other resource was created as a more specific class, such as by a resource factory for its
+	 * type, the other resource is kept instead, so that the result is the same as if both data models had been read together.
+	 * </p>
+	 * <p>
+	 * The resources of the other data model are modified and reused, so the other data model should not be used after merging. The merge is not thread-safe;
+	 * data models to be merged may be populated concurrently, but must be merged one at a time.
+	 * </p>
+	 * @param rdf The data model the resources of which should be merged into this data model.
+	 * @see #merge(RDFModel, Map)
+	 */
+	public void merge(final RDFModel rdf) {
+		merge(rdf, emptyMap()); //merge without any explicit resource correspondences
+	}
+
+	/**
+	 * Merges the resources of another data model into this data model, explicitly merging certain resources into resources of this data model.
+	 * <p>
+	 * Each resource of the other data model is merged into the resource to which it is mapped, if any, regardless of its reference URI; this allows blank nodes
+	 * known to be the same to be reconciled. Otherwise named resources are deduplicated by reference URI: if this data model already contains a resource with the
+	 * same reference URI as a resource in the other data model, the properties of the other resource are added to the existing resource. All references to a
+	 * merged resource, whether as a property or as a property value, are redirected to the resource into which it was merged. All other resources are moved to
+	 * this data model as they are.
+	 * </p>
+	 * <p>
+	 * If the existing resource is only a {@link DefaultRDFResource} but the resource of the other data model was created as a more specific class, such as by a
+	 * resource factory for its type, the existing resource is instead replaced: its properties are added to the other resource, and all references to it within
+	 * this data model are redirected to the other resource. This ensures that merging data models gives the same resources as reading their data together, in
+	 * which a resource is only created once its type is known. References to replaced resources held outside this data model are not updated; the replaced
+	 * resources are therefore returned.
+	 * </p>
+	 * <p>
+	 * The resources of the other data model are modified and reused, so the other data model should not be used after merging. The merge is not thread-safe;
+	 * data models to be merged may be populated concurrently, but must be merged one at a time.
+	 * </p>
+	 * @param rdf The data model the resources of which should be merged into this data model.
+	 * @param resourceMap The resources of the other data model to merge into resources of this data model, mapped to the resources of this data model into which
+	 *          they should be merged. The map should use identity rather than equality to identify resources of the other data model.
+	 * @return The resources of this data model that were replaced, mapped to the resources that replaced them, using identity rather than equality to identify
+	 *         the replaced resources.
+	 * @see #mergeWithoutRedirection(RDFModel, Map)
+	 */
+	public Map<RDFResource, RDFResource> merge(final RDFModel rdf, final Map<RDFResource, RDFResource> resourceMap) {
+		final Map<RDFResource, RDFResource> replacedResourceMap = mergeWithoutRedirection(rdf, resourceMap);
+		redirectReferences(replacedResourceMap); //no resource of this data model may refer to the replaced resources any longer
+		return replacedResourceMap;
+	}
+
+	/**
+	 * Merges the resources of another data model into this data model as {@link #merge(RDFModel, Map)} does, except that references within this data model to
+	 * the resources that were replaced are not redirected to their replacements.
+	 * <p>
+	 * Redirecting references requires walking the entire data model, so merging many data models one after another using {@link #merge(RDFModel, Map)} takes
+	 * time proportional to the number of data models multiplied by the size of this data model. Instead the replaced resources of all the merges may be
+	 * collected and passed to {@link #redirectReferences(Map)} once, after the last merge. Until then, resources of this data model may still refer to replaced
+	 * resources, which are no longer in the data model; named resources are nonetheless located by reference URI correctly, as each replacement takes the place
+	 * of the resource it replaced. A replacement is never itself replaced by a later merge, as only a {@link DefaultRDFResource} is ever replaced.
+	 * </p>
+	 * @param rdf The data model the resources of which should be merged into this data model.
+	 * @param resourceMap The resources of the other data model to merge into resources of this data model, mapped to the resources of this data model into which
+	 *          they should be merged. The map should use identity rather than equality to identify resources of the other data model, and the resources of this
+	 *          data model should not be ones replaced by an earlier merge.
+	 * @return The resources of this data model that were replaced, mapped to the resources that replaced them, using identity rather than equality to identify
+	 *         the replaced resources.
+	 */
+	public Map<RDFResource, RDFResource> mergeWithoutRedirection(final RDFModel rdf, final Map<RDFResource, RDFResource> resourceMap) {
+		final Map<RDFResource, RDFResource> mergedResourceMap = new IdentityHashMap<RDFResource, RDFResource>(); //the resources to be replaced, mapped to their replacements in this data model
+		final Map<RDFResource, RDFResource> replacedResourceMap = new IdentityHashMap<RDFResource, RDFResource>(); //the resources of this data model to be replaced by more specific resources of the other data model
+		for(final Map.Entry<RDFResource, RDFResource> resourceEntry : resourceMap.entrySet()) { //decide which resources will be merged before changing anything
+			planMerge(resourceEntry.getKey(), resourceEntry.getValue(), mergedResourceMap, replacedResourceMap);
+		}
+		final Map<URI, RDFResource> addedResourceMap = new HashMap<URI, RDFResource>(); //the named resources of the other data model that will be added, in case the other data model has several resources with the same URI
+		for(final RDFResource resource : rdf.getResources()) {
+			if(!resourceMap.containsKey(resource)) { //if we don't already know where to merge this resource, see if we already have a resource with this URI
+				final URI referenceURI = resource.getURI(); //get the resource reference URI
+				if(referenceURI == null) { //blank nodes are never deduplicated
+					continue;
+				}
+				final RDFResource existingResource = getResource(referenceURI);
+				if(existingResource != null && existingResource != resource) { //if we already have a different resource with this URI
+					planMerge(resource, existingResource, mergedResourceMap, replacedResourceMap);
+				} else if(existingResource == null) { //if this is a new resource, merge any later resource with the same URI into it
+					final RDFResource addedResource = addedResourceMap.putIfAbsent(referenceURI, resource);
+					if(addedResource != null && addedResource != resource) {
+						mergedResourceMap.put(resource, addedResource);
+					}
+				}
+			}
+		}
+		if(!replacedResourceMap.isEmpty()) { //the replacements will take the places of the replaced resources when they are added
+			resourceSet.removeAll(replacedResourceMap.keySet());
+		}
+		for(final RDFResource resource : rdf.getResources()) { //add the resources that aren't being merged
+			if(!mergedResourceMap.containsKey(resource)) {
+				addResource(resource); //add the resource as is
+			}
+		}
+		for(final RDFResource replacementResource : replacedResourceMap.values()) { //make sure the replacements are added, even if the other data model didn't list them
+			addResource(replacementResource);
+		}
+		final Set<RDFResource> visitedResourceSet = newSetFromMap(new IdentityHashMap<>()); //keep track of the resources we've processed, in case of circular references
+		final Deque<RDFResource> resourceStack = new ArrayDeque<RDFResource>(); //the resources the properties of which still need to be processed
+		for(final RDFResource resource : rdf.getResources()) { //start with all the resources of the other data model
+			resourceStack.push(resource);
+		}
+		while(!resourceStack.isEmpty()) { //while there are resources to process; referenced resources are processed as well, as blank nodes are not necessarily in the data model
+			final RDFResource resource = resourceStack.pop(); //get the next resource
+			if(!visitedResourceSet.add(resource)) { //if we've already processed this resource, skip it
+				continue;
+			}
+			final RDFResource mergedResource = mergedResourceMap.get(resource); //see if this resource is being merged into another resource
+			if(mergedResource == null && resource.getRDF() != this) { //if the resource is being kept, it now belongs to this data model
+				resource.setRDF(this);
+			}
+			final ListIterator<RDFPropertyValuePair> propertyIterator = resource.getPropertyIterator(); //get an iterator to this resource's properties
+			while(propertyIterator.hasNext()) { //while there are more properties
+				final RDFPropertyValuePair propertyValuePair = propertyIterator.next(); //get the next property
+				final RDFResource property = propertyValuePair.getProperty();
+				final RDFObject value = propertyValuePair.getPropertyValue();
+				if(!visitedResourceSet.contains(property)) { //make sure the property gets processed
+					resourceStack.push(property);
+				}
+				final RDFResource mergedProperty = mergedResourceMap.getOrDefault(property, property); //redirect the property if needed
+				RDFObject mergedValue = value;
+				if(value instanceof RDFResource) { //if the value is a resource
+					final RDFResource valueResource = (RDFResource)value;
+					if(!visitedResourceSet.contains(valueResource)) { //make sure the value gets processed
+						resourceStack.push(valueResource);
+					}
+					mergedValue = mergedResourceMap.getOrDefault(valueResource, valueResource); //redirect the value if needed
+				}
+				if(mergedResource != null) { //if this resource is being merged, transfer the property to the existing resource
+					mergedResource.addProperty(mergedProperty, mergedValue);
+				} else if(mergedProperty != property || mergedValue != value) { //if the property or its value was redirected, update the property in place
+					propertyIterator.set(new RDFPropertyValuePair(mergedProperty, mergedValue));
+				}
+			}
+		}
+		//transfer the properties of replaced resources only now, so that the resources of this data model they refer to aren't processed as part of the other data model
+		for(final Map.Entry<RDFResource, RDFResource> replacedResourceEntry : replacedResourceMap.entrySet()) {
+			final RDFResource replacementResource = replacedResourceEntry.getValue();
+			for(final RDFPropertyValuePair propertyValuePair : replacedResourceEntry.getKey().getProperties()) { //any references to replaced resources will be redirected along with the others
+				replacementResource.addProperty(propertyValuePair.getProperty(), propertyValuePair.getPropertyValue());
+			}
+		}
+		return replacedResourceMap;
+	}
+
+	/**
+	 * Determines how a resource of another data model will be merged with an equivalent resource of this data model: either by merging it into the existing
+	 * resource, or by replacing the existing resource with it.
+	 * @param resource The resource of the other data model.
+	 * @param existingResource The equivalent resource of this data model.
+	 * @param mergedResourceMap The resources of the other data model to be merged, mapped to the resources into which they will be merged.
+	 * @param replacedResourceMap The resources of this data model to be replaced, mapped to their replacements.
+	 * @see #isReplaceable(RDFResource, RDFResource)
+	 */
+	private void planMerge(final RDFResource resource, final RDFResource existingResource, final Map<RDFResource, RDFResource> mergedResourceMap,
+			final Map<RDFResource, RDFResource> replacedResourceMap) {
+		final RDFResource replacementResource = replacedResourceMap.get(existingResource);
+		if(replacementResource != null) { //if the existing resource is already being replaced, merge into its replacement
+			if(replacementResource != resource) {
+				mergedResourceMap.put(resource, replacementResource);
+			}
+		} else if(isReplaceable(existingResource, resource)) { //if the resource is more specific than the existing resource, replace the existing resource
+			replacedResourceMap.put(existingResource, resource);
+		} else { //merge the resource into the existing resource
+			mergedResourceMap.put(resource, existingResource);
+		}
+	}
+
+	/**
+	 * Determines whether a resource of this data model should be replaced by an equivalent resource being merged into this data model. This version replaces a
+	 * resource that is only a {@link DefaultRDFResource} with a resource of some more specific class.
+	 * @param existingResource The resource of this data model.
+	 * @param resource The equivalent resource being merged.
+	 * @return <code>true</code> if the existing resource should be replaced by the resource being merged.
+	 */
+	protected boolean isReplaceable(final RDFResource existingResource, final RDFResource resource) {
+		return existingResource.getClass() == DefaultRDFResource.class && resource.getClass() != DefaultRDFResource.class;
+	}
+
+	/**
+	 * Redirects all references to certain resources, whether as properties or as property values, of the resources of this data model and any blank nodes they
+	 * refer to. This walks the entire data model, unless there are no resources to replace.
+	 * @param replacedResourceMap The resources to be replaced, mapped to their replacements, using identity rather than equality to identify the replaced
+	 *          resources.
+	 * @see #mergeWithoutRedirection(RDFModel, Map)
+	 */
+	public void redirectReferences(final Map<RDFResource, RDFResource> replacedResourceMap) {
+		if(replacedResourceMap.isEmpty()) { //if there is nothing to redirect, don't bother walking the data model
+			return;
+		}
+		final Set<RDFResource> visitedResourceSet = newSetFromMap(new IdentityHashMap<>()); //keep track of the resources we've processed, in case of circular references
+		final Deque<RDFResource> resourceStack = new ArrayDeque<RDFResource>(resourceSet); //blank nodes are not necessarily in the data model, so they are followed as they are referenced
+		while(!resourceStack.isEmpty()) {
+			final RDFResource resource = resourceStack.pop();
+			if(!visitedResourceSet.add(resource)) { //if we've already processed this resource, skip it
+				continue;
+			}
+			final ListIterator<RDFPropertyValuePair> propertyIterator = resource.getPropertyIterator();
+			while(propertyIterator.hasNext()) {
+				final RDFPropertyValuePair propertyValuePair = propertyIterator.next();
+				final RDFResource property = propertyValuePair.getProperty();
+				final RDFObject value = propertyValuePair.getPropertyValue();
+				if(!visitedResourceSet.contains(property)) {
+					resourceStack.push(property);
+				}
+				final RDFResource redirectedProperty = replacedResourceMap.getOrDefault(property, property);
+				RDFObject redirectedValue = value;
+				if(value instanceof RDFResource) {
+					final RDFResource valueResource = (RDFResource)value;
+					if(!visitedResourceSet.contains(valueResource)) {
+						resourceStack.push(valueResource);
+					}
+					redirectedValue = replacedResourceMap.getOrDefault(valueResource, valueResource);
+				}
+				if(redirectedProperty != property || redirectedValue != value) {
+					propertyIterator.set(new RDFPropertyValuePair(redirectedProperty, redirectedValue));
+				}
+			}
+		}
+	}
+
 	/**
 	 * @return A read-only iterable of resources appropriate for appearing at the root of a hierarchy, such as an RDF tree or an RDF+XML serialization.
 	 */
@@ -467,6 +698,16 @@ public RDFModel() {
 		registerTypedLiteralFactory(XMLSchema.XML_SCHEMA_NAMESPACE_URI, new XMLSchemaRDFTypedLiteralFactory()); //XML Schema
 	}
 
+	/**
+	 * Factory configuration constructor. Creates an empty data model that uses the same resource factories and typed literal factories as the given data model.
+	 * The resources of the given data model are not copied.
+	 * @param rdf The data model the factories of which should be used.
+	 */
+	public RDFModel(final RDFModel rdf) {
+		resourceFactoryMap.putAll(rdf.resourceFactoryMap); //use the same resource factories
+		typedLiteralFactoryMap.putAll(rdf.typedLiteralFactoryMap); //use the same typed literal factories, which include the defaults
+	}
+
 	/**
 	 * Looks at all the resources in the RDF data model and recursively gathers which resources reference which other resources.
 	 * <p>
@@ -0,0 +1,85 @@
+/*
+ * Copyright © 1996-2008 GlobalMentor, Inc. <https://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.globalmentor.rdf;
+
+/**
+ * Immutable bounds on the resources an RDF processor may consume while processing a single serialization, allowing untrusted input to be processed with
+ * predictable memory use. Each limit is checked with a single comparison as the corresponding construct is encountered, so limits add no appreciable cost to
+ * processing.
+ * @author Garret Wilson
+ * @see AbstractRDFProcessor#setLimits(RDFProcessingLimits)
+ * @see RDFLimitExceededException
+ */
+public class RDFProcessingLimits {
+
+	/** The value indicating that a quantity is not limited. */
+	public static final int NO_LIMIT = Integer.MAX_VALUE;
+
+	/** Limits that place no bounds on processing. */
+	public static final RDFProcessingLimits UNLIMITED = new RDFProcessingLimits(NO_LIMIT, NO_LIMIT, NO_LIMIT, NO_LIMIT);
+
+	/** The maximum number of statements that may be produced. */
+	private final int maxStatementCount;
+
+	/** @return The maximum number of statements that may be produced. */
+	public int getMaxStatementCount() {
+		return maxStatementCount;
+	}
+
+	/** The maximum number of distinct blank nodes, whether explicitly identified or anonymous, that may be produced. */
+	private final int maxBlankNodeCount;
+
+	/** @return The maximum number of distinct blank nodes, whether explicitly identified or anonymous, that may be produced. */
+	public int getMaxBlankNodeCount() {
+		return maxBlankNodeCount;
+	}
+
+	/** The maximum nesting depth of the elements of the serialization. */
+	private final int maxDepth;
+
+	/** @return The maximum nesting depth of the elements of the serialization. */
+	public int getMaxDepth() {
+		return maxDepth;
+	}
+
+	/** The maximum length, in characters, of the lexical form of a literal. */
+	private final int maxLiteralLength;
+
+	/** @return The maximum length, in characters, of the lexical form of a literal. */
+	public int getMaxLiteralLength() {
+		return maxLiteralLength;
+	}
+
+	/**
+	 * Constructor specifying all limits. Use {@link #NO_LIMIT} for any quantity that should not be limited.
+	 * @param maxStatementCount The maximum number of statements that may be produced.
+	 * @param maxBlankNodeCount The maximum number of distinct blank nodes that may be produced.
+	 * @param maxDepth The maximum nesting depth of the elements of the serialization.
+	 * @param maxLiteralLength The maximum length, in characters, of the lexical form of a literal.
+	 * @throws IllegalArgumentException if any of the limits is negative.
+	 */
+	public RDFProcessingLimits(final int maxStatementCount, final int maxBlankNodeCount, final int maxDepth, final int maxLiteralLength) {
+		if(maxStatementCount < 0 || maxBlankNodeCount < 0 || maxDepth < 0 || maxLiteralLength < 0) {
+			throw new IllegalArgumentException("Processing limits cannot be negative.");
+		}
+		this.maxStatementCount = maxStatementCount;
+		this.maxBlankNodeCount = maxBlankNodeCount;
+		this.maxDepth = maxDepth;
+		this.maxLiteralLength = maxLiteralLength;
+	}
+
+}
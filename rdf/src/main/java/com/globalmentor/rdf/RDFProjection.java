@@ -0,0 +1,128 @@
+/*
+ * Copyright © 1996-2008 GlobalMentor, Inc. <https://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.globalmentor.rdf;
+
+import java.net.URI;
+import java.util.*;
+import java.util.function.Predicate;
+
+import com.globalmentor.net.Resource;
+
+import static com.globalmentor.rdf.spec.RDF.*;
+import static java.util.Objects.*;
+
+/**
+ * Identifies the target resources of an RDF processing, so that only the statements describing the targets and the resources reachable from them are used to
+ * populate the RDF data model.
+ * <p>
+ * A resource is reachable from a target if it is the target itself or the object of a statement the subject of which is reachable. Statements about resources
+ * that are not reachable are discarded before any resources are created for them, so that the cost of creating and populating resources is proportional to
+ * the projected data rather than to the entire serialization.
+ * </p>
+ * <p>
+ * Targets are recognized as statements are produced, so a test of the statements of a resource is given the statements as they arrive rather than all at
+ * once; a resource is a target if any one of its statements identifies it as such.
+ * </p>
+ * @author Garret Wilson
+ * @see AbstractRDFProcessor#setProjection(RDFProjection)
+ */
+public class RDFProjection {
+
+	/** The test of a resource, along with the statements of which it is the subject, for determining whether the resource is a target. */
+	private final Predicate<? super Collection<Statement>> subjectStatementsTest;
+
+	/** The reference URI of the target resource, or <code>null</code> if targets are not identified by reference URI. */
+	private final URI resourceURI;
+
+	/** @return The reference URI of the target resource, or <code>null</code> if targets are not identified by reference URI. */
+	public URI getResourceURI() {
+		return resourceURI;
+	}
+
+	/**
+	 * Constructor.
+	 * @param resourceURI The reference URI of the target resource, or <code>null</code> if targets are not identified by reference URI.
+	 * @param subjectStatementsTest The test of the statements of a resource, or <code>null</code> if targets are not identified by their statements.
+	 */
+	protected RDFProjection(final URI resourceURI, final Predicate<? super Collection<Statement>> subjectStatementsTest) {
+		this.resourceURI = resourceURI;
+		this.subjectStatementsTest = subjectStatementsTest;
+	}
+
+	/**
+	 * Determines whether the given resource is a target of the projection.
+	 * @param resource The resource, which may be an RDF resource or a stand-in for one.
+	 * @param subjectStatements Statements of which the resource is the subject, which may be only some of them, or empty if the resource only appears as an
+	 *          object.
+	 * @return <code>true</code> if the resource and everything reachable from it should be retained.
+	 */
+	public boolean isTarget(final Resource resource, final Collection<Statement> subjectStatements) {
+		if(resourceURI != null && resourceURI.equals(resource.getURI())) { //if the resource has the target reference URI
+			return true;
+		}
+		return subjectStatementsTest != null && !subjectStatements.isEmpty() && subjectStatementsTest.test(subjectStatements);
+	}
+
+	/**
+	 * Creates a projection targeting the resource with the given reference URI.
+	 * @param resourceURI The reference URI of the target resource.
+	 * @return A projection of the identified resource.
+	 * @throws NullPointerException if the given resource URI is <code>null</code>.
+	 */
+	public static RDFProjection ofResource(final URI resourceURI) {
+		return new RDFProjection(requireNonNull(resourceURI, "Resource URI cannot be null."), null);
+	}
+
+	/**
+	 * Creates a projection targeting all resources with an <code>rdf:type</code> of the given type.
+	 * @param typeURI The reference URI of the type of the target resources.
+	 * @return A projection of resources of the given type.
+	 * @throws NullPointerException if the given type URI is <code>null</code>.
+	 */
+	public static RDFProjection ofType(final URI typeURI) {
+		requireNonNull(typeURI, "Type URI cannot be null.");
+		return new RDFProjection(null, subjectStatements -> {
+			for(final Statement statement : subjectStatements) {
+				final Object object = statement.getObject();
+				if(TYPE_PROPERTY_REFERENCE_URI.equals(statement.getPredicate().getURI()) && object instanceof Resource && typeURI.equals(((Resource)object).getURI())) {
+					return true;
+				}
+			}
+			return false;
+		});
+	}
+
+	/**
+	 * Creates a projection targeting all resources that have at least one property the predicate of which is accepted by the given filter.
+	 * @param predicateFilter The test of the reference URI of each property predicate.
+	 * @return A projection of resources with an accepted property.
+	 * @throws NullPointerException if the given predicate filter is <code>null</code>.
+	 */
+	public static RDFProjection ofPredicate(final Predicate<? super URI> predicateFilter) {
+		requireNonNull(predicateFilter, "Predicate filter cannot be null.");
+		return new RDFProjection(null, subjectStatements -> {
+			for(final Statement statement : subjectStatements) {
+				final URI predicateURI = statement.getPredicate().getURI();
+				if(predicateURI != null && predicateFilter.test(predicateURI)) {
+					return true;
+				}
+			}
+			return false;
+		});
+	}
+
+}
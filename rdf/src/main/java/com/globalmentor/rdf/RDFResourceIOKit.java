@@ -17,20 +17,20 @@
 package com.globalmentor.rdf;
 
 import static com.globalmentor.rdf.spec.RDF.*;
+import static java.util.Objects.*;
 
 import java.io.*;
 import java.net.*;
 import java.util.*;
 
 import javax.xml.parsers.DocumentBuilder;
+import javax.xml.stream.*;
 
 import com.globalmentor.io.*;
 import com.globalmentor.xml.URIInputStreamableXMLEntityResolver;
 import com.globalmentor.xml.XMLSerializer;
-import com.globalmentor.xml.XmlDom;
 
 import org.w3c.dom.Document;
-import org.xml.sax.SAXException;
 
 /**
  * Class for loading and saving an RDF resource from an RDF+XML serialization.
@@ -161,6 +161,47 @@ public RDFResourceIOKit(final URIInputStreamable uriInputStreamable, final URIOu
 		}
 	}
 
+	/** The serialization format to use instead of RDF+XML, or <code>null</code> if RDF+XML should be used. */
+	private volatile RDFFormat format = null;
+
+	/** @return The serialization format to use instead of RDF+XML, or <code>null</code> if RDF+XML is used. */
+	public RDFFormat getFormat() {
+		return format;
+	}
+
+	/**
+	 * Sets the serialization format to use for loading and saving instead of RDF+XML. Once a format has been set, content is always loaded in that format; only
+	 * if no format has been set is content detected to be in another available format loaded in that format.
+	 * @param format The serialization format to use, or <code>null</code> if RDF+XML should be used.
+	 * @throws IllegalArgumentException if the given format cannot be read.
+	 * @see RDFFormat#isReadable()
+	 * @see RDFFormats
+	 */
+	public void setFormat(final RDFFormat format) {
+		if(format != null && !format.isReadable()) { //the content saved must be able to be loaded
+			throw new IllegalArgumentException("RDF format " + format.getClass().getSimpleName() + " cannot be read.");
+		}
+		this.format = format;
+	}
+
+	/** The bounds on the resources consumed while loading a single resource. */
+	private volatile RDFProcessingLimits limits = RDFProcessingLimits.UNLIMITED;
+
+	/** @return The bounds on the resources consumed while loading a single resource; by default {@link RDFProcessingLimits#UNLIMITED}. */
+	public RDFProcessingLimits getLimits() {
+		return limits;
+	}
+
+	/**
+	 * Sets the bounds on the resources consumed while loading a single resource, in whatever format. Loading content that exceeds the limits fails with an
+	 * {@link IOException} the cause of which is a {@link RDFLimitExceededException}.
+	 * @param limits The processing limits.
+	 * @throws NullPointerException if the given limits are <code>null</code>.
+	 */
+	public void setLimits(final RDFProcessingLimits limits) {
+		this.limits = requireNonNull(limits, "Processing limits cannot be null.");
+	}
+
 	/**
 	 * @return An XML serializer appropriately configured for storing the RDF XML.
 	 *         <p>
@@ -183,45 +224,70 @@ protected XMLSerializer getXMLSerializer() {
 		return new XMLSerializer(true); //create a formatted XML serializer
 	}
 
-	/** @return An XML processor appropriately configured for parsing XML. */
+	/** The RDF+XML format used if no other format has been set, resolving external entities using this kit's input stream locator. */
+	private final RDFXMLFormat rdfXMLFormat = new RDFXMLFormat() {
+		@Override
+		protected XMLInputFactory createXMLInputFactory() {
+			final XMLInputFactory xmlInputFactory = super.createXMLInputFactory();
+			xmlInputFactory.setXMLResolver((publicID, systemID, baseURI, namespace) -> { //resolve external entities using the correct input stream locator
+				try {
+					return getInputStream(baseURI != null ? new URI(baseURI).resolve(systemID) : new URI(systemID));
+				} catch(final IOException | URISyntaxException exception) {
+					throw new XMLStreamException(exception);
+				}
+			});
+			return xmlInputFactory;
+		}
+	};
+
+	/** @return The RDF+XML format used if no other format has been set, which reuses its XML factories and processors for each thread. */
+	protected RDFXMLFormat getRDFXMLFormat() {
+		return rdfXMLFormat;
+	}
+
+	/** @return An XML processor appropriately configured for parsing XML, reused and reset for each use by the current thread. */
 	protected DocumentBuilder getDocumentBuilder() {
-		return XmlDom.createDocumentBuilder(true, new URIInputStreamableXMLEntityResolver(this)); //create an XML processor using the correct input stream locator
+		final DocumentBuilder documentBuilder = getRDFXMLFormat().getDocumentBuilder();
+		documentBuilder.setEntityResolver(new URIInputStreamableXMLEntityResolver(this)); //use the correct input stream locator
+		return documentBuilder;
 	}
 
 	/**
-	 * Loads an RDF resource from an input stream.
+	 * Loads an RDF resource from an input stream. If a serialization format has been set, that format is used; otherwise the format of the content is detected
+	 * from its first bytes if possible.
 	 * @param inputStream The input stream from which to read the data.
 	 * @param baseURI The base URI of the content, or <code>null</code> if no base URI is available.
 	 * @return The RDF resource loaded from the input stream.
-	 * @throws IOException Thrown if there is an error reading the data.
+	 * @throws IOException Thrown if there is an error reading the data, or if the data exceeds the processing limits.
+	 * @see RDFFormats#detectFormat(PushbackInputStream)
+	 * @see #getFormat()
+	 * @see #getLimits()
 	 */
 	@SuppressWarnings("unchecked")
 	public R load(final InputStream inputStream, final URI baseURI) throws IOException {
-		try {
-			final RDFModel rdf = new RDFModel(); //create a new RDF data model
-			final Iterator<Map.Entry<URI, RDFResourceFactory>> resourceFactoryEntryIterator = resourceFactoryMap.entrySet().iterator(); //get an iterator to look through all resource factories
-			while(resourceFactoryEntryIterator.hasNext()) { //while there are more resource factories
-				final Map.Entry<URI, RDFResourceFactory> resourceFactoryEntry = resourceFactoryEntryIterator.next(); //get the next entry
-				final URI typeNamespaceURI = resourceFactoryEntry.getKey(); //get the type namespace URI
-				final RDFResourceFactory resourceFactory = resourceFactoryEntry.getValue(); //get the resource factory associated with this type
-				rdf.registerResourceFactory(typeNamespaceURI, resourceFactory); //register this resource factory for this type namespace
-			}
-			final DocumentBuilder documentBuilder = getDocumentBuilder(); //get the XML processor
-			final Document document = documentBuilder.parse(inputStream, baseURI.toString()); //parse the activity file
-			document.normalize(); //normalize the package description document
-			final RDFXMLProcessor rdfProcessor = new RDFXMLProcessor(rdf); //create a new RDF processor
-			rdfProcessor.processRDF(document, baseURI); //parse the RDF from the document
-			//get the designated resource from the data model
-			final RDFResource resource = RDFResources.getResourceByType(rdf, getNamespaceURI(), getClassName());
-			if(resource == null) { //if there is no such type of resource
-				throw new IOException("No resource found of type " + createReferenceURI(getNamespaceURI(), getClassName())); //TODO i18n
+		final RDFModel rdf = new RDFModel(); //create a new RDF data model
+		final Iterator<Map.Entry<URI, RDFResourceFactory>> resourceFactoryEntryIterator = resourceFactoryMap.entrySet().iterator(); //get an iterator to look through all resource factories
+		while(resourceFactoryEntryIterator.hasNext()) { //while there are more resource factories
+			final Map.Entry<URI, RDFResourceFactory> resourceFactoryEntry = resourceFactoryEntryIterator.next(); //get the next entry
+			final URI typeNamespaceURI = resourceFactoryEntry.getKey(); //get the type namespace URI
+			final RDFResourceFactory resourceFactory = resourceFactoryEntry.getValue(); //get the resource factory associated with this type
+			rdf.registerResourceFactory(typeNamespaceURI, resourceFactory); //register this resource factory for this type namespace
+		}
+		final PushbackInputStream signatureInputStream = RDFFormats.createSignatureInputStream(inputStream); //allow the first bytes to be examined
+		RDFFormat format = getFormat();
+		if(format == null) { //only detect the format if none has been configured
+			format = RDFFormats.detectFormat(signatureInputStream);
+			if(format == null || format instanceof RDFXMLFormat) { //read RDF+XML resolving external entities using this kit
+				format = getRDFXMLFormat();
 			}
-			return (R)resource; //return the resource we read TODO make sure the resource is of the correct type somehow 
-		} catch(URISyntaxException uriSyntaxException) { //if any of the URIs were incorrect
-			throw (IOException)new IOException(uriSyntaxException.getMessage()).initCause(uriSyntaxException); //convert the exception into an IO exception
-		} catch(final SAXException saxException) {
-			throw new IOException(saxException.getMessage(), saxException);
 		}
+		format.read(rdf, signatureInputStream, baseURI, null, getLimits()); //read the content in whatever format it is in
+		//get the designated resource from the data model
+		final RDFResource resource = RDFResources.getResourceByType(rdf, getNamespaceURI(), getClassName());
+		if(resource == null) { //if there is no such type of resource
+			throw new IOException("No resource found of type " + createReferenceURI(getNamespaceURI(), getClassName())); //TODO i18n
+		}
+		return (R)resource; //return the resource we read TODO make sure the resource is of the correct type somehow 
 	}
 
 	/**
@@ -229,10 +295,16 @@ public R load(final InputStream inputStream, final URI baseURI) throws IOExcepti
 	 * @param resource The resource which will be written to the given output stream.
 	 * @param outputStream The output stream to which to write the model content.
 	 * @throws IOException Thrown if there is an error writing the model.
+	 * @see #getFormat()
 	 */
 	public void save(final R resource, final OutputStream outputStream) throws IOException {
+		final RDFFormat format = getFormat();
+		if(format != null) { //if another format is being used, let it write the data
+			format.write(outputStream, null, resource, getNamespacePrefixMap());
+			return;
+		}
 		//create an XML document containing the resource
-		final Document document = getRDFXMLGenerator().createDocument((RDFResource)resource, XmlDom.createDocumentBuilder(true).getDOMImplementation()); //TODO get the XMLDOMImplementation from some common source
+		final Document document = getRDFXMLGenerator().createDocument((RDFResource)resource, getDocumentBuilder().getDOMImplementation()); //TODO get the XMLDOMImplementation from some common source
 		getXMLSerializer().serialize(document, outputStream); //serialize the document to the output stream
 	}
 
@@ -85,6 +85,17 @@ public List<RDFObject> getItemList() {
 		return Collections.unmodifiableList(getItemList(itemPropertyList)); //return the values of the item properties as an unmodifiable list
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * This version reports the items in the order specified by their <code>rdf:li_</code> properties.
+	 * </p>
+	 */
+	@Override
+	public Spliterator<RDFObject> getItemSpliterator() {
+		return Spliterators.spliterator(getItemList().toArray(), Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * <p>
@@ -18,6 +18,7 @@
 
 import java.net.URI;
 
+import static com.globalmentor.rdf.spec.RDF.*;
 import static java.util.Objects.*;
 
 /**
@@ -64,16 +65,31 @@ public RDFTypedLiteral(final T literalValue, final URI literalDatatypeURI) {
 	}
 
 	/**
-	 * If <code>object</code> is another {@link RDFTypedLiteral}, compares the datatype URI and value objects.
+	 * Constructs a typed literal the value of which is determined later by the subclass, which must override {@link #getValue()}.
+	 * @param literalDatatypeURI The reference URI identifying the datatype of this literal.
+	 * @throws NullPointerException if the datatype URI is <code>null</code>.
+	 */
+	protected RDFTypedLiteral(final URI literalDatatypeURI) {
+		value = null; //the subclass will provide the value
+		datatypeURI = requireNonNull(literalDatatypeURI, "Literal datatype cannot be null."); //save the datatype URI
+	}
+
+	/**
+	 * If <code>object</code> is another {@link RDFTypedLiteral}, compares the datatype URI and value objects. Literals of datatype
+	 * <code>rdf:XMLLiteral</code> are compared by their lexical forms instead, as document fragments have no value equality.
 	 * @param object The object with which to compare this typed literal.
 	 * @return <code>true</code> if this literal equals that specified in <code>object</code>.
 	 * @see #getValue()
+	 * @see RDFXMLLiteral#equals(Object)
 	 */
 	public boolean equals(final Object object) {
 		if(object instanceof RDFTypedLiteral) { //if we're being compared with another typed literal
 			final RDFTypedLiteral<?> typedLiteral = (RDFTypedLiteral<?>)object; //cast the object to a typed literal
-			return getDatatypeURI().equals(typedLiteral.getDatatypeURI()) //compare datatype URIs
-					&& getValue().equals(typedLiteral.getValue()); //compare values
+			if(!getDatatypeURI().equals(typedLiteral.getDatatypeURI())) { //compare datatype URIs
+				return false;
+			}
+			return XML_LITERAL_DATATYPE_URI.equals(getDatatypeURI()) ? getLexicalForm().equals(typedLiteral.getLexicalForm()) //compare XML literals by lexical form
+					: getValue().equals(typedLiteral.getValue()); //compare values
 		} else { //if we're being compared with anything else
 			return false; //the objects aren't equal
 		}
@@ -0,0 +1,390 @@
+/*
+ * Copyright © 1996-2008 GlobalMentor, Inc. <https://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.globalmentor.rdf;
+
+import java.io.*;
+import java.net.*;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import javax.xml.stream.*;
+
+import static java.util.Objects.*;
+import static javax.xml.stream.XMLStreamConstants.*;
+
+/**
+ * Processes RDF serialized as XML incrementally as chunks of bytes are received, without blocking while waiting for more data. This allows RDF to be read
+ * from an asynchronous source such as a non-blocking network connection without dedicating a thread to each document.
+ * <p>
+ * Bytes are provided using {@link #feed(ByteBuffer)} as they become available. The bytes are scanned for the boundaries of the children of the document
+ * element; as soon as a child element has been received in its entirety, it is processed using an {@link RDFXMLStreamProcessor}, in the context of the
+ * document prolog and the document element start tag so that the encoding, namespace declarations, and base URI of the document are honored. Statements are thus reported to the statement handler of the processor as each child element arrives, and in streaming mode resources are added
+ * to the data model as they arrive as well. Only the bytes of the child element currently being received are retained. When the end of the document element
+ * has been received, the document is complete, and {@link #end()} finishes the data model.
+ * </p>
+ * <p>
+ * The serialization must use an encoding in which markup characters are represented by their ASCII values, such as UTF-8 or ISO-8859-1; UTF-16 is not
+ * supported.
+ * </p>
+ * <p>
+ * As the serialization typically comes from the network, by default document type declarations are not processed and external entities are not resolved, so
+ * that a document cannot make the processor retrieve other resources or expand entities without bound. A document that refers to entities other than those
+ * predefined by XML cannot then be read; such a document from a trusted source may be read by providing an XML input factory to
+ * {@link #RDFXMLFeedProcessor(RDFXMLStreamProcessor, URI, XMLInputFactory)}.
+ * </p>
+ * <p>
+ * This class is not thread-safe; chunks must be provided one at a time in order.
+ * </p>
+ * @author Garret Wilson
+ */
+public class RDFXMLFeedProcessor {
+
+	/** The states of scanning the document. */
+	private enum State {
+		/** Scanning the prolog before the document element start tag. */
+		PROLOG,
+		/** Scanning the content of the document element. */
+		CONTENT,
+		/** Scanning the content after the document element end tag. */
+		EPILOG
+	};
+
+	/** The RDF processor used to process the children of the document element. */
+	private final RDFXMLStreamProcessor rdfProcessor;
+
+	/** @return The RDF processor used to process the children of the document element. */
+	public RDFXMLStreamProcessor getRDFProcessor() {
+		return rdfProcessor;
+	}
+
+	/** The factory for creating readers of the children of the document element. */
+	private final XMLInputFactory xmlInputFactory;
+
+	/** The bytes received but not yet discarded, starting with the prolog and document element start tag. */
+	private byte[] buffer = new byte[8 * 1024];
+
+	/** The number of valid bytes in the buffer. */
+	private int length = 0;
+
+	/** The index of the next byte in the buffer to scan. */
+	private int scanIndex = 0;
+
+	/** The current scanning state. */
+	private State state = State.PROLOG;
+
+	/** The number of bytes at the start of the buffer containing the prolog and the document element start tag. */
+	private int prefixLength = 0;
+
+	/** The bytes of the qualified name of the document element, or <code>null</code> if the document element has not been received. */
+	private byte[] documentElementName = null;
+
+	/** The depth of the element being received, relative to the document element. */
+	private int depth = 0;
+
+	/** The index in the buffer of the start of the child element being received. */
+	private int childStart = -1;
+
+	/** @return <code>true</code> if the end of the document element has been received. */
+	public boolean isComplete() {
+		return state == State.EPILOG;
+	}
+
+	/** The RDF+XML format providing the XML input factories for reading untrusted serializations, with document type declarations and external entities disabled. */
+	private static final RDFXMLFormat RDF_XML_FORMAT = new RDFXMLFormat() {
+		@Override
+		protected XMLInputFactory createXMLInputFactory() {
+			final XMLInputFactory xmlInputFactory = super.createXMLInputFactory();
+			xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE); //don't process document type declarations, which may declare entities
+			xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE); //don't retrieve external entities
+			return xmlInputFactory;
+		}
+	};
+
+	/**
+	 * Data model constructor. A new RDF processor in streaming mode is used, along with the XML input factory of the current thread configured as for
+	 * {@link RDFXMLFormat}, with document type declarations and external entities disabled.
+	 * @param rdf The data model to fill.
+	 * @param baseURI The base URI, or <code>null</code> if the base URI is not known.
+	 * @throws NullPointerException if the given data model is <code>null</code>.
+	 */
+	public RDFXMLFeedProcessor(final RDFModel rdf, final URI baseURI) {
+		this(createStreamingRDFProcessor(requireNonNull(rdf, "RDF cannot be null.")), baseURI, RDF_XML_FORMAT.getXMLInputFactory());
+	}
+
+	/**
+	 * Processor constructor. The processor is reset, and its base URI is set to that given.
+	 * @param rdfProcessor The RDF processor to use in processing the children of the document element.
+	 * @param baseURI The base URI, or <code>null</code> if the base URI is not known.
+	 * @param xmlInputFactory The namespace-aware factory for creating readers of the children of the document element.
+	 * @throws NullPointerException if the given RDF processor and/or XML input factory is <code>null</code>.
+	 */
+	public RDFXMLFeedProcessor(final RDFXMLStreamProcessor rdfProcessor, final URI baseURI, final XMLInputFactory xmlInputFactory) {
+		this.rdfProcessor = requireNonNull(rdfProcessor, "RDF processor cannot be null.");
+		this.xmlInputFactory = requireNonNull(xmlInputFactory, "XML input factory cannot be null.");
+		rdfProcessor.reset(); //make sure we don't have temporary data left over from last time
+		rdfProcessor.setBaseURI(baseURI);
+	}
+
+	/**
+	 * Creates an RDF processor that applies statements to the data model as they are parsed.
+	 * @param rdf The data model to fill.
+	 * @return A new RDF processor in streaming mode.
+	 */
+	private static RDFXMLStreamProcessor createStreamingRDFProcessor(final RDFModel rdf) {
+		final RDFXMLStreamProcessor rdfProcessor = new RDFXMLStreamProcessor(rdf);
+		rdfProcessor.setStreaming(true); //add resources to the data model as soon as possible
+		return rdfProcessor;
+	}
+
+	/**
+	 * Provides the next chunk of the serialization. All children of the document element received in their entirety are processed before this method returns;
+	 * this method never waits for more data.
+	 * @param byteBuffer The buffer containing the next bytes of the serialization, which will be consumed.
+	 * @throws IOException if the serialization cannot be read or processed.
+	 */
+	public void feed(final ByteBuffer byteBuffer) throws IOException {
+		final int byteCount = byteBuffer.remaining();
+		if(length + byteCount > buffer.length) { //grow the buffer if needed
+			buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + byteCount));
+		}
+		byteBuffer.get(buffer, length, byteCount); //append the bytes
+		length += byteCount;
+		if(state == State.PROLOG && length >= 2 && (buffer[0] == 0 || buffer[1] == 0 || (buffer[0] & 0xFF) == 0xFE || (buffer[0] & 0xFF) == 0xFF)) {
+			throw new IOException("UTF-16 RDF/XML serializations cannot be processed incrementally.");
+		}
+		scan();
+	}
+
+	/**
+	 * Scans the received bytes for markup, processing each child of the document element that has been received in its entirety.
+	 * @throws IOException if a child element cannot be processed.
+	 */
+	private void scan() throws IOException {
+		while(scanIndex < length && state != State.EPILOG) {
+			int markupStart = scanIndex;
+			while(markupStart < length && buffer[markupStart] != '<') { //skip text
+				++markupStart;
+			}
+			if(markupStart == length) { //if there is no more markup yet
+				scanIndex = length;
+				break;
+			}
+			final int markupEnd = getMarkupEnd(markupStart); //see if we have all the markup
+			if(markupEnd < 0) { //if the markup is incomplete, wait for more data
+				scanIndex = markupStart;
+				break;
+			}
+			scanIndex = markupEnd;
+			final byte markupType = buffer[markupStart + 1];
+			if(markupType == '?' || markupType == '!') { //processing instructions, comments, CDATA sections, and document type declarations don't affect the structure
+				continue;
+			}
+			final boolean isEndTag = markupType == '/';
+			final boolean isEmptyElement = !isEndTag && buffer[markupEnd - 2] == '/';
+			switch(state) {
+				case PROLOG: //the first tag is the document element start tag
+					int nameEnd = markupStart + 1;
+					while(nameEnd < markupEnd - 1 && !isNameEnd(buffer[nameEnd])) {
+						++nameEnd;
+					}
+					documentElementName = Arrays.copyOfRange(buffer, markupStart + 1, nameEnd);
+					prefixLength = markupEnd; //keep the prolog and document element start tag for processing children
+					state = isEmptyElement ? State.EPILOG : State.CONTENT;
+					break;
+				case CONTENT:
+					if(isEndTag) {
+						if(depth == 0) { //if this is the end of the document element
+							state = State.EPILOG;
+						} else if(--depth == 0) { //if this is the end of a child element
+							processChild(childStart, markupEnd);
+						}
+					} else {
+						if(depth == 0) { //if this is the start of a child element
+							childStart = markupStart;
+							if(isEmptyElement) {
+								processChild(childStart, markupEnd);
+							}
+						}
+						if(!isEmptyElement) {
+							++depth;
+						}
+					}
+					break;
+				default:
+					throw new AssertionError(state);
+			}
+		}
+		if(state != State.PROLOG && depth == 0) { //if we're between children, discard everything after the prefix
+			discard(scanIndex);
+		}
+	}
+
+	/**
+	 * Determines the end of the markup starting at the given index.
+	 * @param markupStart The index of the markup start character.
+	 * @return The index after the end of the markup, or <code>-1</code> if the markup has not been received in its entirety.
+	 */
+	private int getMarkupEnd(final int markupStart) {
+		if(markupStart + 1 >= length) { //if we don't know what type of markup this is
+			return -1;
+		}
+		final byte markupType = buffer[markupStart + 1];
+		if(markupType == '?') { //processing instruction or XML declaration
+			return indexAfter(markupStart + 2, "?>");
+		}
+		if(markupType == '!') {
+			if(startsWith(markupStart, "<!--")) { //comment
+				return indexAfter(markupStart + 4, "-->");
+			}
+			if(startsWith(markupStart, "<![CDATA[")) { //CDATA section
+				return indexAfter(markupStart + 9, "]]>");
+			}
+			if(markupStart + 9 > length) { //if we can't yet tell what this is
+				return -1;
+			}
+		}
+		int bracketDepth = 0; //document type declarations may have an internal subset
+		byte quote = 0;
+		for(int i = markupStart + 1; i < length; ++i) { //find the end of the tag or declaration, skipping quoted values
+			final byte b = buffer[i];
+			if(quote != 0) {
+				if(b == quote) {
+					quote = 0;
+				}
+			} else if(b == '"' || b == '\'') {
+				quote = b;
+			} else if(b == '[') {
+				++bracketDepth;
+			} else if(b == ']') {
+				--bracketDepth;
+			} else if(b == '>' && bracketDepth <= 0) {
+				return i + 1;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Determines whether the buffer contains the given ASCII string at the given index. If not enough bytes have been received, the received bytes are compared.
+	 * @param index The index at which to compare.
+	 * @param string The ASCII string to compare.
+	 * @return <code>true</code> if the received bytes at the given index match the string, or match the beginning of the string if not all bytes have been
+	 *         received.
+	 */
+	private boolean startsWith(final int index, final String string) {
+		for(int i = 0; i < string.length() && index + i < length; ++i) {
+			if(buffer[index + i] != string.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Finds the index after the given ASCII delimiter.
+	 * @param fromIndex The index at which to start searching.
+	 * @param delimiter The ASCII delimiter to find.
+	 * @return The index after the delimiter, or <code>-1</code> if the delimiter has not been received.
+	 */
+	private int indexAfter(final int fromIndex, final String delimiter) {
+		final int delimiterLength = delimiter.length();
+		for(int i = fromIndex; i + delimiterLength <= length; ++i) {
+			if(buffer[i] == delimiter.charAt(0)) {
+				int j = 1;
+				while(j < delimiterLength && buffer[i + j] == delimiter.charAt(j)) {
+					++j;
+				}
+				if(j == delimiterLength) {
+					return i + delimiterLength;
+				}
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Determines whether the given byte ends a tag name.
+	 * @param b The byte to check.
+	 * @return <code>true</code> if the byte is whitespace, a slash, or a tag end character.
+	 */
+	private static boolean isNameEnd(final byte b) {
+		return b == ' ' || b == '\t' || b == '\r' || b == '\n' || b == '/' || b == '>';
+	}
+
+	/**
+	 * Processes a child of the document element that has been received in its entirety, and then discards the bytes of the child. The child is processed as if
+	 * it were the only child of the document element.
+	 * @param start The index of the start of the child element.
+	 * @param end The index after the end of the child element.
+	 * @throws IOException if the child element cannot be read or processed.
+	 */
+	private void processChild(final int start, final int end) throws IOException {
+		final byte[] documentElementEndTag = new byte[documentElementName.length + 3];
+		documentElementEndTag[0] = '<';
+		documentElementEndTag[1] = '/';
+		System.arraycopy(documentElementName, 0, documentElementEndTag, 2, documentElementName.length);
+		documentElementEndTag[documentElementEndTag.length - 1] = '>';
+		final InputStream inputStream = new SequenceInputStream(new SequenceInputStream(new ByteArrayInputStream(buffer, 0, prefixLength),
+				new ByteArrayInputStream(buffer, start, end - start)), new ByteArrayInputStream(documentElementEndTag)); //the prolog, the document element start tag, the child, and the document element end tag
+		try {
+			final XMLStreamReader reader = xmlInputFactory.createXMLStreamReader(inputStream);
+			try {
+				while(reader.getEventType() != START_ELEMENT) { //find the document element
+					reader.next();
+				}
+				getRDFProcessor().processRDFIslands(reader); //process the child in the context of the document element
+			} finally {
+				reader.close();
+			}
+		} catch(final XMLStreamException xmlStreamException) {
+			throw (IOException)new IOException(xmlStreamException.getMessage()).initCause(xmlStreamException); //convert the exception into an IO exception
+		} catch(final URISyntaxException uriSyntaxException) {
+			throw (IOException)new IOException(uriSyntaxException.getMessage()).initCause(uriSyntaxException); //convert the exception into an IO exception
+		}
+		discard(end);
+		childStart = -1;
+	}
+
+	/**
+	 * Discards the bytes after the prefix up to the given index, which is adjusted along with the scan index.
+	 * @param end The index after the last byte to discard.
+	 */
+	private void discard(final int end) {
+		if(end > prefixLength) {
+			System.arraycopy(buffer, end, buffer, prefixLength, length - end);
+			length -= end - prefixLength;
+			scanIndex -= end - prefixLength;
+		}
+	}
+
+	/**
+	 * Indicates that the entire serialization has been provided. All proxied resources are created and all remaining statements are processed.
+	 * @return The RDF data model resulting from this processing and any previous processing.
+	 * @throws IOException if the end of the document element was not received.
+	 */
+	public RDFModel end() throws IOException {
+		if(!isComplete()) {
+			throw new EOFException("RDF/XML serialization ended before the end of the document element.");
+		}
+		final RDFXMLStreamProcessor rdfProcessor = getRDFProcessor();
+		rdfProcessor.createResources(); //create all proxied resources in the statements we gathered
+		rdfProcessor.processStatements(); //process all the statements and assign resources to properties
+		rdfProcessor.reset(); //release all our references temporary resource proxies
+		return rdfProcessor.getRDF(); //return the RDF data collected
+	}
+
+}
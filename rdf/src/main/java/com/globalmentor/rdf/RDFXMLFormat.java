@@ -0,0 +1,240 @@
+/*
+ * Copyright © 1996-2008 GlobalMentor, Inc. <https://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.globalmentor.rdf;
+
+import java.io.*;
+import java.net.*;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.stream.*;
+
+import org.w3c.dom.*;
+
+import com.globalmentor.xml.XMLSerializer;
+import com.globalmentor.xml.XmlDom;
+
+import static java.util.Collections.*;
+import static java.util.Objects.*;
+
+/**
+ * The RDF+XML serialization format of RDF. The XML is read as a stream of events without building a document tree; it is written by generating an XML
+ * document and serializing it.
+ * @author Garret Wilson
+ * @see RDFXMLStreamProcessor
+ * @see RDFXMLGenerator
+ */
+public class RDFXMLFormat implements RDFFormat {
+
+	/**
+	 * Creates an XML input factory appropriate for reading XML storing RDF as a stream.
+	 * @return A new namespace-aware XML input factory that coalesces adjacent text.
+	 * @throws FactoryConfigurationError if an XML input factory cannot be created.
+	 */
+	protected XMLInputFactory createXMLInputFactory() {
+		final XMLInputFactory xmlInputFactory = XMLInputFactory.newInstance(); //create a new XML input factory
+		xmlInputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.TRUE); //make sure the factory understands namespaces
+		xmlInputFactory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE); //combine adjacent text, as would be found in a normalized document
+		return xmlInputFactory;
+	}
+
+	/** The XML input factory of each thread, created when first needed. */
+	private final ThreadLocal<XMLInputFactory> threadXMLInputFactory = ThreadLocal.withInitial(this::createXMLInputFactory);
+
+	/**
+	 * Returns an XML input factory appropriate for reading XML storing RDF as a stream. Each thread reuses its own factory, as locating and configuring a factory
+	 * is expensive.
+	 * @return A namespace-aware XML input factory for use by the current thread.
+	 * @throws FactoryConfigurationError if an XML input factory cannot be created.
+	 * @see #createXMLInputFactory()
+	 */
+	public XMLInputFactory getXMLInputFactory() {
+		return threadXMLInputFactory.get();
+	}
+
+	/**
+	 * Creates a document builder appropriate for parsing and creating XML storing RDF.
+	 * @return A new namespace-aware document builder.
+	 */
+	protected DocumentBuilder createDocumentBuilder() {
+		return XmlDom.createDocumentBuilder(true); //create a document builder that understands namespaces
+	}
+
+	/** The document builder of each thread, created when first needed. */
+	private final ThreadLocal<DocumentBuilder> threadDocumentBuilder = ThreadLocal.withInitial(this::createDocumentBuilder);
+
+	/**
+	 * Returns a document builder appropriate for parsing and creating XML storing RDF. Each thread reuses its own document builder, which is reset before being
+	 * returned.
+	 * @return A namespace-aware document builder for use by the current thread.
+	 * @see #createDocumentBuilder()
+	 */
+	public DocumentBuilder getDocumentBuilder() {
+		final DocumentBuilder documentBuilder = threadDocumentBuilder.get();
+		documentBuilder.reset(); //make sure no configuration remains from the last use
+		return documentBuilder;
+	}
+
+	/** The RDF processor of each thread, created when first needed, and removed while in use so that nested reads will use another processor. */
+	private final ThreadLocal<RDFXMLStreamProcessor> threadRDFProcessor = ThreadLocal.withInitial(this::createRDFProcessor);
+
+	/**
+	 * Creates a processor for reading RDF from XML streams.
+	 * @return A new RDF processor that applies statements to the data model as they are parsed.
+	 */
+	protected RDFXMLStreamProcessor createRDFProcessor() {
+		final RDFXMLStreamProcessor rdfProcessor = new RDFXMLStreamProcessor(new RDFModel()); //the data model will be replaced for each read
+		rdfProcessor.setStreaming(true); //apply statements to the data model as they are parsed, as we have no need for the statements themselves
+		return rdfProcessor;
+	}
+
+	@Override
+	public boolean isReadable() {
+		return true;
+	}
+
+	/**
+	 * {@inheritDoc} Statements are applied to the data model as they are parsed. Each thread reuses its own processor.
+	 * @see #read(RDFModel, InputStream, URI, RDFProjection, RDFProcessingLimits, boolean, ForkJoinPool)
+	 */
+	@Override
+	public RDFModel read(final RDFModel rdf, final InputStream inputStream, final URI baseURI, final RDFProjection projection,
+			final RDFProcessingLimits limits) throws IOException {
+		return read(rdf, inputStream, baseURI, projection, limits, false, null); //read to the end of the input sequentially
+	}
+
+	/**
+	 * Reads RDF data from an input stream, only creating resources that are reachable from the targets of the given projection, optionally reading no further
+	 * than needed to describe a single projected resource, and optionally processing the resources in parallel. Statements are applied to the data model as they
+	 * are parsed. Each thread reuses its own processor, which is taken while in use so that a nested read on the same thread uses another processor. If reading
+	 * stops early, the rest of the input stream is left unread.
+	 * @param rdf The RDF instance to use in creating new resources.
+	 * @param inputStream The input stream from which to read the data. The stream will not be closed.
+	 * @param baseURI The base URI of the data, or <code>null</code> if no base URI is available.
+	 * @param projection The projection identifying the resources to read, or <code>null</code> if all resources should be read.
+	 * @param limits The bounds on the resources consumed while reading.
+	 * @param earlyTermination Whether reading should stop as soon as the description of a resource projected by reference URI is complete.
+	 * @param forkJoinPool The pool for processing the resources in parallel, or <code>null</code> if resources should be processed sequentially.
+	 * @return The RDF instance representing the data read.
+	 * @throws NullPointerException if the given RDF instance, input stream, and/or limits is <code>null</code>.
+	 * @throws IOException if there is an error reading the data, or if the data exceeds the processing limits.
+	 * @see RDFXMLStreamProcessor#setEarlyTermination(boolean)
+	 * @see RDFXMLProcessor#setForkJoinPool(ForkJoinPool)
+	 */
+	public RDFModel read(final RDFModel rdf, final InputStream inputStream, final URI baseURI, final RDFProjection projection, final RDFProcessingLimits limits,
+			final boolean earlyTermination, final ForkJoinPool forkJoinPool) throws IOException {
+		requireNonNull(rdf, "RDF cannot be null.");
+		requireNonNull(inputStream, "Input stream cannot be null.");
+		requireNonNull(limits, "Processing limits cannot be null.");
+		try {
+			final XMLInputFactory xmlInputFactory = getXMLInputFactory();
+			final XMLStreamReader xmlStreamReader = baseURI != null ? xmlInputFactory.createXMLStreamReader(baseURI.toString(), inputStream)
+					: xmlInputFactory.createXMLStreamReader(inputStream); //read the input stream as a stream of XML events, without building a document tree
+			final RDFXMLStreamProcessor rdfProcessor = threadRDFProcessor.get(); //reuse this thread's RDF processor
+			threadRDFProcessor.remove(); //take the processor while we use it
+			try {
+				rdfProcessor.setRDF(rdf); //process into the given data model
+				rdfProcessor.setProjection(projection); //only create the resources needed
+				rdfProcessor.setEarlyTermination(earlyTermination);
+				rdfProcessor.setLimits(limits); //guard against unexpectedly large or deep data
+				rdfProcessor.setForkJoinPool(forkJoinPool);
+				rdfProcessor.processRDF(xmlStreamReader, baseURI); //parse the RDF from the XML stream; this resets the processor before and after
+			} finally {
+				rdfProcessor.setRDF(null); //don't keep a reference to the data model
+				rdfProcessor.setProjection(null);
+				rdfProcessor.setEarlyTermination(false);
+				rdfProcessor.setLimits(RDFProcessingLimits.UNLIMITED);
+				rdfProcessor.setForkJoinPool(null);
+				threadRDFProcessor.set(rdfProcessor); //make the processor available again
+				xmlStreamReader.close(); //release the reader resources; this does not close the underlying input stream
+			}
+			return rdf;
+		} catch(final XMLStreamException xmlStreamException) {
+			throw (IOException)new IOException(xmlStreamException.getMessage()).initCause(xmlStreamException); //convert the exception into an IO exception
+		} catch(final URISyntaxException uriSyntaxException) { //if any of the URIs were incorrect
+			throw (IOException)new IOException(uriSyntaxException.getMessage()).initCause(uriSyntaxException); //convert the exception into an IO exception
+		} catch(final RDFLimitExceededException limitExceededException) { //if the data was too large
+			throw (IOException)new IOException(limitExceededException.getMessage()).initCause(limitExceededException); //convert the exception into an IO exception
+		}
+	}
+
+	@Override
+	public void write(final OutputStream outputStream, final URI baseURI, final RDFResource resource, final Map<URI, String> namespacePrefixMap)
+			throws IOException {
+		final Document document = createRDFXMLGenerator(baseURI, namespacePrefixMap).createDocument(resource, threadDocumentBuilder.get().getDOMImplementation()); //create an XML document containing the resource
+		new XMLSerializer(true).serialize(document, outputStream); //serialize the document to the output stream
+		outputStream.flush();
+	}
+
+	@Override
+	public void write(final OutputStream outputStream, final URI baseURI, final RDFModel rdf, final Map<URI, String> namespacePrefixMap) throws IOException {
+		final Document document = createRDFXMLGenerator(baseURI, namespacePrefixMap).createDocument(rdf, threadDocumentBuilder.get().getDOMImplementation()); //create an XML document containing the data model
+		new XMLSerializer(true).serialize(document, outputStream); //serialize the document to the output stream
+		outputStream.flush();
+	}
+
+	/**
+	 * Creates a generator for writing RDF+XML.
+	 * @param baseURI The base URI of the data, or <code>null</code> if no base URI is available.
+	 * @param namespacePrefixMap The serialization prefixes to use, keyed by namespace URIs.
+	 * @return A new RDF+XML generator with the given prefixes registered.
+	 */
+	protected RDFXMLGenerator createRDFXMLGenerator(final URI baseURI, final Map<URI, String> namespacePrefixMap) {
+		final RDFXMLGenerator rdfXMLGenerator = new RDFXMLGenerator(baseURI);
+		for(final Map.Entry<URI, String> namespaceURIPrefixEntry : namespacePrefixMap.entrySet()) { //transfer the namespace/prefix pairs to the generator
+			rdfXMLGenerator.registerNamespacePrefix(namespaceURIPrefixEntry.getKey(), namespaceURIPrefixEntry.getValue());
+		}
+		return rdfXMLGenerator;
+	}
+
+	/**
+	 * The provider of the RDF+XML format. Content is recognized if it begins with an XML declaration, a comment or document type declaration, or an
+	 * <code>rdf:RDF</code> element.
+	 * @author Garret Wilson
+	 */
+	public static class Provider implements RDFFormatProvider {
+
+		/** The shared format instance. */
+		private final RDFFormat format = new RDFXMLFormat();
+
+		@Override
+		public String getMediaType() {
+			return "application/rdf+xml";
+		}
+
+		@Override
+		public Set<String> getFilenameExtensions() {
+			return singleton("rdf");
+		}
+
+		@Override
+		public boolean isFormat(final byte[] bytes, final int length) {
+			final int index = RDFFormats.skipInsignificant(bytes, length, false);
+			return RDFFormats.startsWith(bytes, length, index, "<?xml", false) || RDFFormats.startsWith(bytes, length, index, "<!", false)
+					|| RDFFormats.startsWith(bytes, length, index, "<rdf:RDF", false);
+		}
+
+		@Override
+		public RDFFormat getFormat() {
+			return format;
+		}
+
+	}
+
+}
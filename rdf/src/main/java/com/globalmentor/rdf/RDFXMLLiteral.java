@@ -17,31 +17,119 @@
 package com.globalmentor.rdf;
 
 import java.io.*;
+import java.util.*;
 
 import static com.globalmentor.rdf.spec.RDF.*;
 import static com.globalmentor.xml.XmlDom.*;
 import static java.nio.charset.StandardCharsets.*;
+import static java.util.Objects.*;
+
+import javax.xml.XMLConstants;
 
 import org.w3c.dom.*;
 import org.xml.sax.SAXException;
 
-import com.globalmentor.xml.*;
-
 /**
  * An encapsulation of <code>rdf:XMLLiteral</code> that holds a <code>DocumentFragment</code> containing the literal value.
+ * <p>
+ * An XML literal may be created from its lexical form alone, in which case the document fragment is not parsed until {@link #getValue()} is first called.
+ * Processors use this to capture <code>rdf:parseType="Literal"</code> content as text, so that literals that are only stored, compared or written back out
+ * never incur the cost of building a DOM tree. Equality and hash codes are based on the lexical form and therefore never require parsing.
+ * </p>
+ * <p>
+ * An XML literal is immutable. The document fragment it holds is never exposed; {@link #getValue()} returns a copy, so that changes to the returned document
+ * fragment do not affect the literal. The lexical form is canonical, in the manner of exclusive XML canonicalization, whether it is serialized from a
+ * document fragment or given to the constructor; it is cached along with its hash code.
+ * </p>
+ * <p>
+ * This class is thread safe.
+ * </p>
  * @author Garret Wilson
  * @see DocumentFragment
  */
 public class RDFXMLLiteral extends RDFTypedLiteral<DocumentFragment> {
 
+	/** The canonical lexical form of the literal, or <code>null</code> if the lexical form has not yet been serialized from the document fragment. */
+	private volatile String lexicalForm;
+
+	/** The cached hash code of the lexical form, or <code>0</code> if the hash code has not yet been calculated. */
+	private volatile int lexicalFormHashCode = 0;
+
+	/**
+	 * The document fragment representing the value of the literal, or <code>null</code> if the lexical form has not yet been parsed. Once set, the document
+	 * fragment is only read, and only while synchronized on it, as DOM implementations are not required to be thread safe even for reading.
+	 */
+	private volatile DocumentFragment documentFragment;
+
+	/**
+	 * {@inheritDoc} This version parses the lexical form into a document fragment the first time it is called, if the literal was created from its lexical
+	 * form.
+	 * <p>
+	 * A new copy of the document fragment is returned each time, so the returned document fragment may be modified without affecting this literal.
+	 * </p>
+	 * @throws IllegalArgumentException If there is a problem parsing the lexical form as an XML document fragment.
+	 */
+	@Override
+	public DocumentFragment getValue() {
+		DocumentFragment documentFragment = this.documentFragment;
+		if(documentFragment == null) { //if we haven't parsed the lexical form yet
+			documentFragment = createDocumentFragment(lexicalForm); //parse the lexical form now that the value is actually needed; parsing twice in a race is harmless
+			this.documentFragment = documentFragment;
+		}
+		synchronized(documentFragment) {
+			return (DocumentFragment)documentFragment.cloneNode(true); //don't allow the caller to modify our document fragment
+		}
+	}
+
 	/**
-	 * Returns the lexical form of the literal. This version returns a serialized version of the contents of the stored XML document fragment.
+	 * Returns the lexical form of the literal. This version returns the canonical lexical form the literal was created with, if any; otherwise it returns the
+	 * canonical serialization of the contents of the stored XML document fragment, which is cached.
 	 * @return The lexical form, a Unicode string in Normal Form C.
 	 * @see #getValue()
+	 * @see #createLexicalForm(Node)
 	 */
+	@Override
 	public String getLexicalForm() {
-		final XMLSerializer xmlSerializer = new XMLSerializer(false); //create an unformatted XML serializer
-		return xmlSerializer.serialize(getValue()); //serialize the document fragment into a string and return that string
+		String lexicalForm = this.lexicalForm;
+		if(lexicalForm == null) { //if we haven't serialized the document fragment yet
+			final DocumentFragment documentFragment = this.documentFragment; //if there is no lexical form, the literal was created from a document fragment
+			synchronized(documentFragment) {
+				lexicalForm = createLexicalForm(documentFragment);
+			}
+			this.lexicalForm = lexicalForm;
+		}
+		return lexicalForm;
+	}
+
+	/** @return A hash code for this literal, calculated from the lexical form and cached. */
+	@Override
+	public int hashCode() {
+		int hashCode = lexicalFormHashCode;
+		if(hashCode == 0) { //if we haven't calculated the hash code yet (or it happens to be zero)
+			hashCode = getLexicalForm().hashCode();
+			lexicalFormHashCode = hashCode;
+		}
+		return hashCode;
+	}
+
+	/**
+	 * Determines whether the given object is another literal of datatype <code>rdf:XMLLiteral</code> with the same lexical form. XML literals are compared by
+	 * their lexical forms so that comparison never requires the lexical form to be parsed. This is consistent with {@link RDFTypedLiteral#equals(Object)} for
+	 * other typed literals of the same datatype.
+	 * @param object The object with which to compare this literal.
+	 * @return <code>true</code> if this literal equals that specified in <code>object</code>.
+	 * @see #getLexicalForm()
+	 */
+	@Override
+	public boolean equals(final Object object) {
+		if(object == this) {
+			return true;
+		}
+		if(object instanceof RDFXMLLiteral) { //if we're being compared with another XML literal
+			final RDFXMLLiteral xmlLiteral = (RDFXMLLiteral)object;
+			return hashCode() == xmlLiteral.hashCode() && getLexicalForm().equals(xmlLiteral.getLexicalForm()); //compare the cached hash codes before comparing lexical forms
+		}
+		return super.equals(object); //other typed literals of the same datatype are also compared by lexical form
 	}
 
 	/** @return A locale-aware representation of the literal's lexical form, indicating any locale information available. */
@@ -53,20 +141,51 @@ public LocaleText toLocaleText()
 	*/
 
 	/**
-	 * Constructs an XML literal using the datatype <code>http://www.w3.org/1999/02/22-rdf-syntax-ns#XMLLiteral</code>.
+	 * Constructs an XML literal using the datatype <code>http://www.w3.org/1999/02/22-rdf-syntax-ns#XMLLiteral</code>. The given document fragment is copied.
 	 * @param documentFragment The document fragment representing the value of the XML literal.
+	 * @throws NullPointerException if the given document fragment is <code>null</code>.
 	 */
 	public RDFXMLLiteral(final DocumentFragment documentFragment) {
-		super(documentFragment, XML_LITERAL_DATATYPE_URI); //save the document fragment as the value, specifying the XML literal datatype URI
+		super(XML_LITERAL_DATATYPE_URI); //specify the XML literal datatype URI
+		this.documentFragment = (DocumentFragment)requireNonNull(documentFragment, "Document fragment cannot be null.").cloneNode(true); //save a copy of the document fragment, so that later changes by the caller won't affect the literal
+		this.lexicalForm = null; //the lexical form will be serialized from the document fragment when first needed
 	}
 
 	/**
-	 * Constructs an XML literal from the given lexical from of an XML document fragment.
-	 * @param text The lexical form of the XML document fragment.
-	 * @throws IllegalArgumentException If there is a problem parsing the given string as an XML document fragment.
+	 * Constructs an XML literal from the given lexical from of an XML document fragment. The text is parsed and serialized again so that the lexical form of the
+	 * literal is canonical, and the parsed document fragment is kept as the value.
+	 * @param text The lexical form of the XML document fragment, which need not be canonical.
+	 * @throws NullPointerException if the given text is <code>null</code>.
+	 * @throws IllegalArgumentException If there is a problem parsing the given text as an XML document fragment.
 	 */
 	public RDFXMLLiteral(final String text) {
-		super(createDocumentFragment(text), XML_LITERAL_DATATYPE_URI); //save a document fragment constructed from the text as the value, specifying the XML literal datatype URI
+		super(XML_LITERAL_DATATYPE_URI); //specify the XML literal datatype URI
+		this.documentFragment = createDocumentFragment(requireNonNull(text, "Lexical form cannot be null."));
+		this.lexicalForm = createLexicalForm(documentFragment); //canonicalize the lexical form
+	}
+
+	/**
+	 * Constructs an XML literal from the canonical lexical form of an XML document fragment, such as produced by {@link LexicalFormBuilder}. The lexical form is
+	 * not parsed until the value is requested. The lexical form is not checked; if it is not canonical, the literal will not be equal to other literals with
+	 * the same value.
+	 * @param canonicalLexicalForm The canonical lexical form of the XML document fragment.
+	 * @return A new XML literal with the given lexical form.
+	 * @throws NullPointerException if the given lexical form is <code>null</code>.
+	 * @see #getValue()
+	 */
+	static RDFXMLLiteral fromCanonicalLexicalForm(final String canonicalLexicalForm) {
+		return new RDFXMLLiteral(requireNonNull(canonicalLexicalForm, "Lexical form cannot be null."), null);
+	}
+
+	/**
+	 * Canonical lexical form constructor.
+	 * @param canonicalLexicalForm The canonical lexical form of the XML document fragment.
+	 * @param documentFragment The document fragment representing the value of the literal, or <code>null</code> if it should be parsed when needed.
+	 */
+	private RDFXMLLiteral(final String canonicalLexicalForm, final DocumentFragment documentFragment) {
+		super(XML_LITERAL_DATATYPE_URI); //specify the XML literal datatype URI
+		this.lexicalForm = canonicalLexicalForm; //the document fragment will be created when needed
+		this.documentFragment = documentFragment;
 	}
 
 	/**
@@ -114,4 +233,300 @@ protected static DocumentFragment createDocumentFragment(final String lexicalFor
 		}
 	}
 
-}
\ No newline at end of file
+	/**
+	 * Creates the lexical form of the children of the given node. Namespace declarations are placed on the outermost elements that use them, and redundant
+	 * declarations are omitted, in the manner of exclusive XML canonicalization.
+	 * @param parentNode The node, such as a document fragment or the property element of an <code>rdf:parseType="Literal"</code> property, the content of
+	 *          which should be serialized.
+	 * @return The lexical form of the content of the given node.
+	 * @see LexicalFormBuilder
+	 */
+	public static String createLexicalForm(final Node parentNode) {
+		final LexicalFormBuilder lexicalFormBuilder = new LexicalFormBuilder();
+		appendChildren(lexicalFormBuilder, parentNode);
+		return lexicalFormBuilder.toString();
+	}
+
+	/**
+	 * Appends the children of the given node to a lexical form.
+	 * @param lexicalFormBuilder The builder of the lexical form.
+	 * @param parentNode The node the children of which should be appended.
+	 */
+	private static void appendChildren(final LexicalFormBuilder lexicalFormBuilder, final Node parentNode) {
+		for(Node childNode = parentNode.getFirstChild(); childNode != null; childNode = childNode.getNextSibling()) {
+			switch(childNode.getNodeType()) {
+				case Node.ELEMENT_NODE: {
+					final String localName = childNode.getLocalName();
+					lexicalFormBuilder.startElement(childNode.getNamespaceURI(), childNode.getPrefix(), localName != null ? localName : childNode.getNodeName());
+					final NamedNodeMap attributes = childNode.getAttributes();
+					for(int i = 0; i < attributes.getLength(); ++i) {
+						final Node attribute = attributes.item(i);
+						final String attributeLocalName = attribute.getLocalName() != null ? attribute.getLocalName() : attribute.getNodeName();
+						if(XMLConstants.XMLNS_ATTRIBUTE_NS_URI.equals(attribute.getNamespaceURI()) || (attribute.getNamespaceURI() == null
+								&& (attributeLocalName.equals(XMLConstants.XMLNS_ATTRIBUTE) || attributeLocalName.startsWith(XMLConstants.XMLNS_ATTRIBUTE + ':')))) {
+							continue; //namespace declarations are generated as needed
+						}
+						lexicalFormBuilder.attribute(attribute.getNamespaceURI(), attribute.getPrefix(), attributeLocalName, attribute.getNodeValue());
+					}
+					appendChildren(lexicalFormBuilder, childNode);
+					lexicalFormBuilder.endElement();
+				}
+					break;
+				case Node.TEXT_NODE:
+				case Node.CDATA_SECTION_NODE:
+					lexicalFormBuilder.text(childNode.getNodeValue());
+					break;
+				case Node.COMMENT_NODE:
+					lexicalFormBuilder.comment(childNode.getNodeValue());
+					break;
+				case Node.PROCESSING_INSTRUCTION_NODE:
+					lexicalFormBuilder.processingInstruction(childNode.getNodeName(), childNode.getNodeValue());
+					break;
+				case Node.ENTITY_REFERENCE_NODE:
+					appendChildren(lexicalFormBuilder, childNode); //include the entity replacement text
+					break;
+			}
+		}
+	}
+
+	/**
+	 * Builds the lexical form of XML content from a series of events, so that the lexical form of an XML literal can be captured directly from a parser
+	 * without building a document fragment. Namespace declarations are generated on the outermost elements that visibly use them, attributes are sorted, empty
+	 * elements are written as start-tag/end-tag pairs, CDATA sections are written as text, and special characters are escaped, in the manner of exclusive XML
+	 * canonicalization.
+	 * <p>
+	 * This class is not thread safe.
+	 * </p>
+	 * @author Garret Wilson
+	 */
+	public static class LexicalFormBuilder {
+
+		/** The lexical form being built. */
+		private final StringBuilder stringBuilder = new StringBuilder();
+
+		/** The stack of namespace declarations, mapped from prefix (the empty string for the default namespace) to namespace URI, in scope in the output. */
+		private final Deque<Map<String, String>> namespaceStack = new ArrayDeque<Map<String, String>>();
+
+		/** The qualified names of the open elements. */
+		private final Deque<String> qualifiedNameStack = new ArrayDeque<String>();
+
+		/** The namespace URI of the element the start tag of which has not yet been written, or <code>null</code> if there is no such element or no namespace. */
+		private String pendingNamespaceURI = null;
+
+		/** The prefix of the element the start tag of which has not yet been written, or <code>null</code> if there is no prefix. */
+		private String pendingPrefix = null;
+
+		/** The local name of the element the start tag of which has not yet been written, or <code>null</code> if all start tags have been written. */
+		private String pendingLocalName = null;
+
+		/** The attributes, each in the form {namespace URI, prefix, local name, value}, of the element the start tag of which has not yet been written. */
+		private final List<String[]> pendingAttributes = new ArrayList<String[]>();
+
+		/** Default constructor. */
+		public LexicalFormBuilder() {
+			namespaceStack.push(Collections.<String, String>emptyMap()); //nothing has been declared at the top level
+		}
+
+		/**
+		 * Starts an element. Attributes may be added using {@link #attribute(String, String, String, String)} until content is added.
+		 * @param namespaceURI The namespace URI of the element, or <code>null</code> if the element has no namespace.
+		 * @param prefix The prefix of the element, or <code>null</code> if the element has no prefix.
+		 * @param localName The local name of the element.
+		 * @throws NullPointerException if the given local name is <code>null</code>.
+		 */
+		public void startElement(final String namespaceURI, final String prefix, final String localName) {
+			writePendingStartTag(); //the parent start tag is complete
+			pendingNamespaceURI = namespaceURI != null && !namespaceURI.isEmpty() ? namespaceURI : null;
+			pendingPrefix = prefix != null && !prefix.isEmpty() ? prefix : null;
+			pendingLocalName = requireNonNull(localName, "Local name cannot be null.");
+		}
+
+		/**
+		 * Adds an attribute to the element most recently started.
+		 * @param namespaceURI The namespace URI of the attribute, or <code>null</code> if the attribute has no namespace.
+		 * @param prefix The prefix of the attribute, or <code>null</code> if the attribute has no prefix.
+		 * @param localName The local name of the attribute.
+		 * @param value The value of the attribute.
+		 * @throws NullPointerException if the given local name and/or value is <code>null</code>.
+		 * @throws IllegalStateException if content has been added since an element was last started.
+		 */
+		public void attribute(final String namespaceURI, final String prefix, final String localName, final String value) {
+			if(pendingLocalName == null) {
+				throw new IllegalStateException("Attributes can only be added to an element before its content.");
+			}
+			pendingAttributes.add(new String[] {namespaceURI != null && !namespaceURI.isEmpty() ? namespaceURI : null, prefix != null && !prefix.isEmpty() ? prefix : null,
+					requireNonNull(localName, "Local name cannot be null."), requireNonNull(value, "Value cannot be null.")});
+		}
+
+		/**
+		 * Ends the element most recently started.
+		 * @throws IllegalStateException if there is no open element.
+		 */
+		public void endElement() {
+			writePendingStartTag(); //make sure the start tag has been written, even if the element is empty
+			if(qualifiedNameStack.isEmpty()) {
+				throw new IllegalStateException("There is no open element to end.");
+			}
+			stringBuilder.append("</").append(qualifiedNameStack.pop()).append('>');
+			namespaceStack.pop(); //the element's namespace declarations go out of scope
+		}
+
+		/**
+		 * Adds text content.
+		 * @param text The text to add.
+		 */
+		public void text(final String text) {
+			writePendingStartTag();
+			for(int i = 0; i < text.length(); ++i) {
+				final char c = text.charAt(i);
+				switch(c) {
+					case '&':
+						stringBuilder.append("&amp;");
+						break;
+					case '<':
+						stringBuilder.append("&lt;");
+						break;
+					case '>':
+						stringBuilder.append("&gt;");
+						break;
+					case '\r':
+						stringBuilder.append("&#xD;");
+						break;
+					default:
+						stringBuilder.append(c);
+						break;
+				}
+			}
+		}
+
+		/**
+		 * Adds a comment.
+		 * @param comment The text of the comment.
+		 */
+		public void comment(final String comment) {
+			writePendingStartTag();
+			stringBuilder.append("<!--").append(comment).append("-->");
+		}
+
+		/**
+		 * Adds a processing instruction.
+		 * @param target The target of the processing instruction.
+		 * @param data The data of the processing instruction, or <code>null</code> if there is no data.
+		 */
+		public void processingInstruction(final String target, final String data) {
+			writePendingStartTag();
+			stringBuilder.append("<?").append(target);
+			if(data != null && !data.isEmpty()) {
+				stringBuilder.append(' ').append(data);
+			}
+			stringBuilder.append("?>");
+		}
+
+		/** Writes the start tag of the element most recently started, if it has not yet been written, along with the namespace declarations it needs. */
+		private void writePendingStartTag() {
+			if(pendingLocalName == null) { //if there is no pending start tag
+				return;
+			}
+			final Map<String, String> inScopeNamespaces = namespaceStack.peek();
+			final SortedMap<String, String> namespaceDeclarations = new TreeMap<String, String>(); //sort declarations by prefix, with the default namespace first
+			final String elementPrefix = pendingPrefix != null ? pendingPrefix : ""; //the element always visibly uses its prefix or the default namespace
+			final String elementNamespaceURI = pendingNamespaceURI != null ? pendingNamespaceURI : "";
+			if(!elementNamespaceURI.equals(inScopeNamespaces.getOrDefault(elementPrefix, ""))) {
+				namespaceDeclarations.put(elementPrefix, elementNamespaceURI);
+			}
+			for(final String[] attribute : pendingAttributes) {
+				final String attributePrefix = attribute[1];
+				if(attributePrefix != null && attribute[0] != null && !XMLConstants.XML_NS_PREFIX.equals(attributePrefix)
+						&& !attribute[0].equals(inScopeNamespaces.get(attributePrefix))) { //the xml prefix is never declared
+					namespaceDeclarations.put(attributePrefix, attribute[0]);
+				}
+			}
+			final Map<String, String> namespaces;
+			if(namespaceDeclarations.isEmpty()) { //if nothing new is being declared
+				namespaces = inScopeNamespaces; //share the parent's namespaces
+			} else {
+				namespaces = new HashMap<String, String>(inScopeNamespaces);
+				namespaces.putAll(namespaceDeclarations);
+			}
+			namespaceStack.push(namespaces);
+			final String qualifiedName = pendingPrefix != null ? pendingPrefix + ':' + pendingLocalName : pendingLocalName;
+			qualifiedNameStack.push(qualifiedName);
+			stringBuilder.append('<').append(qualifiedName);
+			for(final Map.Entry<String, String> namespaceDeclaration : namespaceDeclarations.entrySet()) {
+				final String prefix = namespaceDeclaration.getKey();
+				stringBuilder.append(' ').append(XMLConstants.XMLNS_ATTRIBUTE);
+				if(!prefix.isEmpty()) {
+					stringBuilder.append(':').append(prefix);
+				}
+				appendAttributeValue(namespaceDeclaration.getValue());
+			}
+			pendingAttributes.sort(ATTRIBUTE_COMPARATOR);
+			for(final String[] attribute : pendingAttributes) {
+				stringBuilder.append(' ');
+				if(attribute[1] != null) {
+					stringBuilder.append(attribute[1]).append(':');
+				}
+				stringBuilder.append(attribute[2]);
+				appendAttributeValue(attribute[3]);
+			}
+			stringBuilder.append('>');
+			pendingAttributes.clear();
+			pendingNamespaceURI = null;
+			pendingPrefix = null;
+			pendingLocalName = null;
+		}
+
+		/**
+		 * Appends an equals sign and the quoted, escaped value of an attribute.
+		 * @param value The attribute value.
+		 */
+		private void appendAttributeValue(final String value) {
+			stringBuilder.append("=\"");
+			for(int i = 0; i < value.length(); ++i) {
+				final char c = value.charAt(i);
+				switch(c) {
+					case '&':
+						stringBuilder.append("&amp;");
+						break;
+					case '<':
+						stringBuilder.append("&lt;");
+						break;
+					case '"':
+						stringBuilder.append("&quot;");
+						break;
+					case '\t':
+						stringBuilder.append("&#x9;");
+						break;
+					case '\n':
+						stringBuilder.append("&#xA;");
+						break;
+					case '\r':
+						stringBuilder.append("&#xD;");
+						break;
+					default:
+						stringBuilder.append(c);
+						break;
+				}
+			}
+			stringBuilder.append('"');
+		}
+
+		/** @return The number of characters of the lexical form written so far, not including any pending start tag. */
+		public int length() {
+			return stringBuilder.length();
+		}
+
+		/** @return The lexical form built so far, writing any pending start tag. */
+		@Override
+		public String toString() {
+			writePendingStartTag();
+			return stringBuilder.toString();
+		}
+
+		/** Sorts attributes by namespace URI, with attributes with no namespace first, and then by local name. */
+		private static final Comparator<String[]> ATTRIBUTE_COMPARATOR = Comparator.<String[], String>comparing(attribute -> attribute[0],
+				Comparator.nullsFirst(Comparator.naturalOrder())).thenComparing(attribute -> attribute[2]);
+
+	}
+
+}
@@ -18,11 +18,12 @@
 
 import java.net.*;
 import java.util.*;
+import java.util.concurrent.*;
+
+import javax.xml.XMLConstants;
 
-import com.globalmentor.model.Locales;
 import com.globalmentor.net.*;
 import com.globalmentor.rdf.spec.RDF;
-import com.globalmentor.xml.XmlBaseDom;
 import com.globalmentor.xml.spec.XML;
 
 import static com.globalmentor.net.URIs.*;
@@ -85,6 +86,50 @@ protected enum AttributePropertyContext {
 		PROPERTY_AND_NODE;
 	}
 
+	/**
+	 * The roles an attribute may play in a node or property element.
+	 * @author Garret Wilson
+	 * @see RDFXMLProcessor#getAttributeRole(URI, URI, String, String)
+	 */
+	protected enum AttributeRole {
+		/** A namespace declaration, which is ignored. */
+		NAMESPACE_DECLARATION,
+		/** An attribute in the XML namespace, such as <code>xml:lang</code>, which is ignored as a property. */
+		XML,
+		/** The <code>rdf:about</code> attribute. */
+		ABOUT,
+		/** The <code>rdf:ID</code> attribute. */
+		ID,
+		/** The <code>rdf:nodeID</code> attribute. */
+		NODE_ID,
+		/** The <code>rdf:parseType</code> attribute. */
+		PARSE_TYPE,
+		/** The <code>rdf:resource</code> attribute. */
+		RESOURCE,
+		/** Any other attribute, representing a property. */
+		PROPERTY;
+	}
+
+	/** The roles of attributes determined solely by their namespace, keyed to the namespace URIs. */
+	private static final Map<URI, AttributeRole> NAMESPACE_ATTRIBUTE_ROLES;
+
+	/** The roles of RDF syntax attributes, keyed to their local names; an attribute only plays the role if its namespace is acceptable as an RDF attribute. */
+	private static final Map<String, AttributeRole> RDF_ATTRIBUTE_ROLES;
+
+	static {
+		final Map<URI, AttributeRole> namespaceAttributeRoles = new HashMap<URI, AttributeRole>();
+		namespaceAttributeRoles.put(XML.XMLNS_NAMESPACE_URI, AttributeRole.NAMESPACE_DECLARATION);
+		namespaceAttributeRoles.put(XML.XML_NAMESPACE_URI, AttributeRole.XML);
+		NAMESPACE_ATTRIBUTE_ROLES = Collections.unmodifiableMap(namespaceAttributeRoles);
+		final Map<String, AttributeRole> rdfAttributeRoles = new HashMap<String, AttributeRole>();
+		rdfAttributeRoles.put(ATTRIBUTE_ABOUT, AttributeRole.ABOUT);
+		rdfAttributeRoles.put(ATTRIBUTE_ID, AttributeRole.ID);
+		rdfAttributeRoles.put(ATTRIBUTE_NODE_ID, AttributeRole.NODE_ID);
+		rdfAttributeRoles.put(ATTRIBUTE_PARSE_TYPE, AttributeRole.PARSE_TYPE);
+		rdfAttributeRoles.put(ATTRIBUTE_RESOURCE, AttributeRole.RESOURCE);
+		RDF_ATTRIBUTE_ROLES = Collections.unmodifiableMap(rdfAttributeRoles);
+	}
+
 	/** Whether and which namespace is required for an RDF attribute to be recognized as such. */
 	private NamespaceRequirement rdfAttributeNamespaceRequirement = NamespaceRequirement.RDF_OR_NULL;
 
@@ -102,6 +147,71 @@ public void setRDFAttributeNamespaceRequirement(final NamespaceRequirement names
 		this.rdfAttributeNamespaceRequirement = requireNonNull(namespaceRequirement, "Namespace requirement cannot be null.");
 	}
 
+	/** The default number of top-level resource elements processed together when processing in parallel. */
+	public static final int DEFAULT_PARALLEL_CHUNK_SIZE = 1024;
+
+	/** The pool for processing top-level resource elements in parallel, or <code>null</code> if resources should be processed sequentially. */
+	private ForkJoinPool forkJoinPool = null;
+
+	/** @return The pool for processing top-level resource elements in parallel, or <code>null</code> if resources are processed sequentially. */
+	public ForkJoinPool getForkJoinPool() {
+		return forkJoinPool;
+	}
+
+	/**
+	 * Sets the pool for processing top-level resource elements in parallel.
+	 * <p>
+	 * If a pool is set, the top-level children of an <code>&lt;rdf:RDF&gt;</code> element that has more children than the parallel chunk size are split into
+	 * chunks that are processed concurrently, each into its own data model, which are then merged into the data model of this processor. Resources are
+	 * reconciled by reference URI, and blank nodes by node ID. Parallel processing is only used if statements are being used to populate the data model; if
+	 * another statement handler has been set, resources are always processed sequentially so that statements are reported in order. As DOM implementations are
+	 * not safe for concurrent access, even for reading, the resource elements of each chunk are first copied into a separate document by the processing thread,
+	 * so that each chunk is processed from its own document tree.
+	 * </p>
+	 * @param forkJoinPool The pool for processing resources in parallel, or <code>null</code> if resources should be processed sequentially.
+	 * @see #setParallelChunkSize(int)
+	 * @see RDFModel#merge(RDFModel, Map)
+	 */
+	public void setForkJoinPool(final ForkJoinPool forkJoinPool) {
+		this.forkJoinPool = forkJoinPool;
+	}
+
+	/** The number of top-level resource elements processed together when processing in parallel. */
+	private int parallelChunkSize = DEFAULT_PARALLEL_CHUNK_SIZE;
+
+	/** @return The number of top-level resource elements processed together when processing in parallel. */
+	public int getParallelChunkSize() {
+		return parallelChunkSize;
+	}
+
+	/**
+	 * Sets the number of top-level resource elements processed together when processing in parallel.
+	 * @param parallelChunkSize The number of resource elements in each chunk.
+	 * @throws IllegalArgumentException if the given chunk size is not positive.
+	 * @see #setForkJoinPool(ForkJoinPool)
+	 */
+	public void setParallelChunkSize(final int parallelChunkSize) {
+		if(parallelChunkSize < 1) {
+			throw new IllegalArgumentException("Invalid parallel chunk size " + parallelChunkSize + ".");
+		}
+		this.parallelChunkSize = parallelChunkSize;
+	}
+
+	/** The local name of the <code>xml:base</code> attribute. */
+	protected static final String XML_BASE_ATTRIBUTE_NAME = "base";
+
+	/** The in-scope base URIs of the elements that have been processed, keyed to the elements. */
+	private final Map<Element, URI> elementBaseURIMap = new IdentityHashMap<Element, URI>();
+
+	/** The maximum number of reference resolutions to memoize before the memoized resolutions are discarded. */
+	protected static final int MAX_RESOLVED_REFERENCE_COUNT = 4096;
+
+	/** The memoized resolutions of reference strings, keyed to the base URIs against which they were resolved. */
+	private final Map<URI, Map<String, URI>> baseResolvedReferenceMap = new HashMap<URI, Map<String, URI>>();
+
+	/** The number of reference resolutions currently memoized. */
+	private int resolvedReferenceCount = 0;
+
 	/** Default constructor. */
 	public RDFXMLProcessor() {
 		super(); //construct parent base class
@@ -115,6 +225,20 @@ public RDFXMLProcessor(final RDFModel newRDF) {
 		super(newRDF); //construct the parent class
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * This version clears the cached element base URIs and the memoized reference resolutions.
+	 * </p>
+	 */
+	@Override
+	public void reset() {
+		super.reset(); //reset the parent class
+		elementBaseURIMap.clear();
+		baseResolvedReferenceMap.clear();
+		resolvedReferenceCount = 0;
+	}
+
 	/**
 	 * Processes RDF serialized in an XML document. Processes data contained in every <code>&lt;rdf:RDF&gt;</code> data island.
 	 * @param document The XML document that might contain RDF data.
@@ -169,15 +293,26 @@ public RDFModel processRDF(final Element element) throws URISyntaxException {
 
 	/**
 	 * Processes an RDF resource serialized in the provided XML document. Whatever base URI has been set is unchanged.
+	 * <p>
+	 * If a statement handler other than the one populating the data model has been installed, no resources are created for the statements, and no RDF resource
+	 * will be returned unless the element itself was processed into one.
+	 * </p>
 	 * @param element The XML element that might contain RDF data.
-	 * @return The RDF data model resulting from this processing and any previous processing.
+	 * @return The RDF resource the element represents, or <code>null</code> if the statements were sent to another statement handler and no resource was
+	 *         created.
 	 * @throws URISyntaxException Thrown if a URI is syntactically incorrect.
+	 * @see #getStatementHandler()
 	 */
 	public RDFResource processRDFResource(final Element element) throws URISyntaxException {
 		reset(); //make sure we don't have temporary data left over from last time
 		final Resource resource = processResource(element); //process the given RDF resource
-		final RDFResource rdfResource = createResources(resource); //create all proxied resources in the statements we gathered, and get the RDF resource the element represents
-		processStatements(); //process all the statements and assign resources to properties
+		final RDFResource rdfResource;
+		if(getStatementHandler() == getRDFModelStatementHandler()) { //if the statements were gathered to populate the data model
+			rdfResource = createResources(resource); //create all proxied resources in the statements we gathered, and get the RDF resource the element represents
+			processStatements(); //process all the statements and assign resources to properties
+		} else { //if the statements went to another handler, there are no statements from which to create resources
+			rdfResource = resource instanceof RDFResource ? (RDFResource)resource : null;
+		}
 		reset(); //release all our references temporary resource proxies
 		return rdfResource; //return the RDF resource the element represents
 	}
@@ -192,11 +327,22 @@ public RDFResource processRDFResource(final Element element) throws URISyntaxExc
 	protected RDFModel processRDFIslands(final Element element) throws URISyntaxException {
 		if(RDF.NAMESPACE_URI.toString().equals(element.getNamespaceURI()) //if this element is in the RDF namespace TODO fix better
 				&& ELEMENT_RDF.equals(element.getLocalName())) { //if this element indicates that the children are RDF
+			final List<Element> resourceElements = new ArrayList<Element>(); //gather the resource elements so that we know how many there are
 			final NodeList childNodeList = element.getChildNodes(); //get a list of child nodes
 			for(int i = 0; i < childNodeList.getLength(); ++i) { //look at each child node
 				final Node childNode = childNodeList.item(i); //get a reference to this child node
 				if(childNode.getNodeType() == Node.ELEMENT_NODE) { //if this is an element
-					processResource((Element)childNode); //parse the contents of the RDF container element
+					resourceElements.add((Element)childNode);
+				}
+			}
+			final ForkJoinPool forkJoinPool = getForkJoinPool();
+			//if we have a pool, enough resources to make parallel processing worthwhile, and we're just populating the data model with all the data
+			if(forkJoinPool != null && resourceElements.size() > getParallelChunkSize() && getStatementHandler() == getRDFModelStatementHandler()
+					&& getProjection() == null) {
+				processResources(resourceElements, getElementBaseURI(element), forkJoinPool); //process the resources in parallel
+			} else {
+				for(final Element resourceElement : resourceElements) {
+					processResource(resourceElement); //parse the contents of the RDF container element
 				}
 			}
 		} else { //if this is a normal, non-RDF node
@@ -204,13 +350,126 @@ protected RDFModel processRDFIslands(final Element element) throws URISyntaxExce
 			for(int i = 0; i < childNodeList.getLength(); ++i) { //look at each child node
 				final Node childNode = childNodeList.item(i); //get a reference to this child node
 				if(childNode.getNodeType() == Node.ELEMENT_NODE) { //if this is an element
+					increaseDepth(); //host documents may be nested just as deeply as RDF
 					processRDFIslands((Element)childNode); //parse the contents of the element, not knowing if this is an RDF element or not
+					decreaseDepth();
 				}
 			}
 		}
 		return getRDF(); //return the RDF data collected
 	}
 
+	/**
+	 * Processes the given elements as representing RDF resources in parallel.
+	 * <p>
+	 * The elements are split into chunks of the parallel chunk size. The elements of each chunk are copied into a new document on this thread, and each chunk is
+	 * then processed from its copy on the given pool by a separate processor into a separate data model; the resources of each chunk are created and their
+	 * statements processed. The chunk data models are then merged in order into the data model of this processor, reconciling resources by reference URI and
+	 * blank nodes by node ID. Any remaining references to the node IDs in statements of this processor will resolve to the reconciled resources.
+	 * </p>
+	 * @param elements The XML elements that represent RDF resources, all with the same parent element.
+	 * @param baseURI The in-scope base URI of the parent element of the elements.
+	 * @param forkJoinPool The pool on which to process the resources.
+	 * @throws URISyntaxException Thrown if a URI is syntactically incorrect.
+	 * @see #forkChunk(List, URI, ForkJoinPool)
+	 * @see #joinChunks(List)
+	 */
+	protected void processResources(final List<Element> elements, final URI baseURI, final ForkJoinPool forkJoinPool) throws URISyntaxException {
+		final int chunkSize = getParallelChunkSize();
+		final List<ForkJoinTask<RDFXMLProcessor>> chunkTasks = new ArrayList<ForkJoinTask<RDFXMLProcessor>>();
+		for(int start = 0; start < elements.size(); start += chunkSize) { //split the elements into chunks
+			final List<Element> chunkElements = elements.subList(start, Math.min(start + chunkSize, elements.size()));
+			final Document chunkDocument = chunkElements.get(0).getOwnerDocument().getImplementation().createDocument(null, null, null); //the chunk gets its own document
+			final List<Element> chunkElementCopies = new ArrayList<Element>(chunkElements.size());
+			for(final Element chunkElement : chunkElements) {
+				chunkElementCopies.add((Element)chunkDocument.importNode(chunkElement, true)); //copy the element so that no other thread reads the original document
+			}
+			chunkTasks.add(forkChunk(chunkElementCopies, baseURI, forkJoinPool));
+		}
+		joinChunks(chunkTasks);
+	}
+
+	/**
+	 * Starts processing a chunk of elements representing RDF resources on the given pool. The elements are processed by a new processor into a separate data
+	 * model; the resources of the chunk are created and their statements processed.
+	 * <p>
+	 * The elements must not be accessed by any other thread once processing has started. The elements should not have a parent element, as they will be
+	 * considered to have the given in-scope base URI.
+	 * </p>
+	 * @param elements The XML elements that represent RDF resources.
+	 * @param baseURI The in-scope base URI of the elements, before considering any <code>xml:base</code> attributes of the elements themselves.
+	 * @param forkJoinPool The pool on which to process the resources.
+	 * @return The task processing the chunk, the result of which will be the processor of the chunk.
+	 * @see #createChunkProcessor(RDFModel)
+	 */
+	protected ForkJoinTask<RDFXMLProcessor> forkChunk(final List<Element> elements, final URI baseURI, final ForkJoinPool forkJoinPool) {
+		final RDFXMLProcessor chunkProcessor = createChunkProcessor(new RDFModel(getRDF())); //process the chunk into its own data model with the same factories
+		chunkProcessor.setBaseURI(baseURI); //the elements have no parent from which to inherit a base URI
+		return forkJoinPool.submit(() -> {
+			for(final Element element : elements) {
+				chunkProcessor.processResource(element);
+			}
+			chunkProcessor.createResources(); //create all proxied resources in the statements of the chunk
+			chunkProcessor.processStatements(); //process all the statements of the chunk
+			return chunkProcessor; //the processor still knows which resources were created for which node IDs
+		});
+	}
+
+	/**
+	 * Waits for chunks of RDF resources being processed in parallel and merges their data models in order into the data model of this processor, reconciling
+	 * resources by reference URI and blank nodes by node ID. Any remaining references to the node IDs in statements of this processor will resolve to the
+	 * reconciled resources. If processing of any chunk fails, the remaining chunks are cancelled.
+	 * @param chunkTasks The tasks processing the chunks, in serialization order.
+	 * @throws URISyntaxException Thrown if a URI is syntactically incorrect.
+	 * @see #forkChunk(List, URI, ForkJoinPool)
+	 */
+	protected void joinChunks(final List<ForkJoinTask<RDFXMLProcessor>> chunkTasks) throws URISyntaxException {
+		final Map<String, RDFResource> nodeIDRDFResourceMap = new HashMap<String, RDFResource>(); //the resources in our data model representing each node ID
+		final Map<RDFResource, RDFResource> replacedResourceMap = new IdentityHashMap<RDFResource, RDFResource>(); //the resources replaced by more specific resources of later chunks
+		for(final ForkJoinTask<RDFXMLProcessor> chunkTask : chunkTasks) { //merge the chunks in order
+			final RDFXMLProcessor chunkProcessor;
+			try {
+				chunkProcessor = chunkTask.get();
+			} catch(final InterruptedException | ExecutionException exception) {
+				for(final ForkJoinTask<RDFXMLProcessor> remainingChunkTask : chunkTasks) { //don't keep processing chunks that will not be merged
+					remainingChunkTask.cancel(false);
+				}
+				if(exception instanceof InterruptedException) {
+					Thread.currentThread().interrupt(); //restore the interrupted status
+					throw new IllegalStateException("Interrupted while processing RDF.", exception);
+				}
+				final Throwable cause = exception.getCause();
+				if(cause instanceof URISyntaxException) { //rethrow the original exception
+					throw (URISyntaxException)cause;
+				} else if(cause instanceof RuntimeException) {
+					throw (RuntimeException)cause;
+				} else if(cause instanceof Error) {
+					throw (Error)cause;
+				}
+				throw new IllegalStateException(cause);
+			}
+			mergeChunk(chunkProcessor, nodeIDRDFResourceMap, replacedResourceMap); //merge the resources of the chunk
+		}
+		completeChunkMerge(nodeIDRDFResourceMap, replacedResourceMap); //redirect references to replaced resources, and associate the node IDs with their resources in case they are referenced elsewhere
+	}
+
+	/**
+	 * Creates a processor for processing a chunk of resources in parallel. This version creates a new RDF XML processor with the same base URI and
+	 * configuration as this processor, sharing the counts used for enforcing the processing limits.
+	 * @param rdf The data model into which the chunk should be processed.
+	 * @return A new processor for processing a chunk of resources.
+	 * @see #forkChunk(List, URI, ForkJoinPool)
+	 */
+	protected RDFXMLProcessor createChunkProcessor(final RDFModel rdf) {
+		final RDFXMLProcessor chunkProcessor = new RDFXMLProcessor(rdf);
+		chunkProcessor.setBaseURI(getBaseURI());
+		chunkProcessor.setRDFAttributeNamespaceRequirement(getRDFAttributeNamespaceRequirement());
+		chunkProcessor.setStreaming(isStreaming());
+		chunkProcessor.setLimits(getLimits());
+		shareCounts(chunkProcessor); //all the chunks together are held to the limits on statements and blank nodes
+		return chunkProcessor;
+	}
+
 	/**
 	 * Processes the given element as representing an RDF resource.
 	 * @param element The XML element that represents the RDF resource.
@@ -218,42 +477,21 @@ protected RDFModel processRDFIslands(final Element element) throws URISyntaxExce
 	 * @throws URISyntaxException Thrown if a URI is syntactically incorrect.
 	 */
 	protected Resource processResource(final Element element) throws URISyntaxException {
-		final URI elementNamespaceURI = element.getNamespaceURI() != null ? new URI(element.getNamespaceURI()) : null; //get the element's namespace, or null if the element has no namespace
+		increaseDepth(); //guard against runaway nesting of resources and properties
+		final URI elementNamespaceURI = toNamespaceURI(element.getNamespaceURI()); //get the element's namespace, or null if the element has no namespace
 		final String elementLocalName = element.getLocalName(); //get the element's local name
 		//TODO what do we do if <rdf:RDF> occurs inside <rdf:RDF>?
 		final String referenceURIValue = getRDFAttribute(element, ATTRIBUTE_ABOUT); //get the reference URI attribute value, if there is one
 		final String nodeIDValue = getRDFAttribute(element, ATTRIBUTE_NODE_ID); //get the node ID attribute value, if there is one
 		final String anchorID = getRDFAttribute(element, ATTRIBUTE_ID); //get the anchor ID if there is one
-		assert referenceURIValue == null || anchorID == null : "Resource cannot have both reference URI " + referenceURIValue + " and anchor ID " + anchorID + "."; //TODO change to an actual RDF error
-		assert referenceURIValue == null || nodeIDValue == null : "Resource cannot have both reference URI " + referenceURIValue + " and node ID " + nodeIDValue
-				+ "."; //TODO change to an actual RDF error
-		final URI referenceURI; //we'll determine the reference URI from the rdf:about or rdf:ID attribute
-		if(referenceURIValue != null) { //if there is a reference URI
-			referenceURI = resolveURI(element, new URI(referenceURIValue)); //resolve the reference URI to the base URI
-		} else if(anchorID != null) { //if there is an anchor ID
-			referenceURI = new URI(XmlBaseDom.getBaseURI(element, getBaseURI()).toString() + FRAGMENT_SEPARATOR + anchorID); //create a reference URI from the document base URI and the anchor ID	//TODO make better with new URI methods
-		} else { //if there is neither a resource ID nor an anchor ID
-			referenceURI = null; //this is a blank node
-		}
-		final Resource resource; //we'll create either an RDF resource, if we know the type, or a proxy for the resource
-		if(referenceURI != null) { //if we have a reference URI for the resource
-			resource = getResourceProxy(referenceURI); //create a resource proxy from the reference URI, or use one already available for the reference URI
-		} else { //if there is no reference URI
-			//TODO del Log.trace("there is no reference URI; getting proxy");
-			resource = getResourceProxy(nodeIDValue != null ? nodeIDValue : generateNodeID()); //retrieve or create a resource proxy from the node ID, generating our own node ID if there was none given
-		}
-		//if this is not an <rdf:Description> element, the element name gives its type, so add that type to the resource
-		if(!RDF.NAMESPACE_URI.equals(elementNamespaceURI) || !ELEMENT_DESCRIPTION.equals(elementLocalName)) {
-			final RDFResource typeProperty = getRDF().locateResource(RDF.NAMESPACE_URI, TYPE_PROPERTY_NAME); //get an rdf:type resource
-			final RDFResource typePropertyValue = getRDF().locateResource(elementNamespaceURI, elementLocalName); //locate the resource representing the type value
-			//TODO del Log.trace("adding type statement for the resource, with type property", typeProperty, "and type property value", typePropertyValue);
-			//add a statement in the form, {resource proxy, rdf:type resource, type value resource}
-			addStatement(new DefaultStatement(resource, typeProperty, typePropertyValue));
-		}
+		final URI elementBaseURI = referenceURIValue != null || anchorID != null ? getElementBaseURI(element) : null; //only a resource with a reference URI needs the base URI
+		final Resource resource = getNodeResource(elementBaseURI, referenceURIValue, anchorID, nodeIDValue); //get a proxy for the resource
+		addNodeElementType(resource, elementNamespaceURI, elementLocalName); //the element name may give the type of the resource
 		processAttributeProperties(resource, element, AttributePropertyContext.DESCRIPTION); //parse the attributes for the resource description
 		//TODO del Log.trace("ready to process child element properties");
 		processChildElementProperties(resource, element); //parse the child elements as properties
 		//TODO del Log.trace("ready to return property value resource", resource, "type", resource.getClass());
+		decreaseDepth();
 		return resource; //return the resource or resource proxy we created
 	}
 
@@ -289,25 +527,43 @@ protected void processChildElementProperties(final Resource resource, final Elem
 	 */
 	protected void processAttributeProperties(final Resource resource, final Element element, final AttributePropertyContext context) throws URISyntaxException {
 		//TODO make sure we make sure there is no reference or node ID attributes for AttributePropertyContext.EMPTY_PROPERTY
-		final URI elementNamespaceURI = element.getNamespaceURI() != null ? new URI(element.getNamespaceURI()) : null; //get the element's namespace, or null if there is no namespace URI
+		final URI elementNamespaceURI = toNamespaceURI(element.getNamespaceURI()); //get the element's namespace, or null if there is no namespace URI
 		final NamedNodeMap attributeNodeMap = element.getAttributes(); //get a map of the attributes
 		for(int i = attributeNodeMap.getLength() - 1; i >= 0; --i) { //look at each of the attributes
 			final Attr attribute = (Attr)attributeNodeMap.item(i); //get a reference to this attribute
-			final URI attributeNamespaceURI = attribute.getNamespaceURI() != null ? new URI(attribute.getNamespaceURI()) : null; //get the attribute's namespace URI, or null if it has no namespace URI
-			final String attributePrefix = attribute.getPrefix(); //get the attribute's prefix
-			final String attributeLocalName = attribute.getLocalName(); //get the attribute's local name
-			final String attributeValue = attribute.getValue(); //get the attribute's value
+			final URI attributeNamespaceURI = toNamespaceURI(attribute.getNamespaceURI()); //get the attribute's namespace URI, or null if it has no namespace URI
+			processAttributeProperty(resource, elementNamespaceURI, attributeNamespaceURI, attribute.getPrefix(), attribute.getLocalName(), attribute.getName(),
+					attribute.getValue(), context); //process this attribute
+		}
+	}
+
+	/**
+	 * Processes a single attribute of an element, assigning it as a property to the given resource if it is not a special attribute. Special RDF attributes such
+	 * as <code>rdf:about</code> are ignored, or cause an error if they are not allowed in the given context.
+	 * @param resource The object that represents the resource to which the attribute property should be added.
+	 * @param elementNamespaceURI The namespace of the element to which the attribute belongs, or <code>null</code> if the element has no namespace.
+	 * @param attributeNamespaceURI The namespace of the attribute, or <code>null</code> if the attribute has no namespace.
+	 * @param attributePrefix The prefix of the attribute, or <code>null</code> if the attribute has no prefix.
+	 * @param attributeLocalName The local name of the attribute.
+	 * @param attributeName The qualified name of the attribute, used for reporting errors.
+	 * @param attributeValue The value of the attribute.
+	 * @param context Whether the attribute is part of a resource description, a resource reference, a reference to a blank node resource in short form, or the
+	 *          creation of a blank node from an empty property element.
+	 * @throws URISyntaxException Thrown if an RDF URI is syntactically incorrect.
+	 */
+	protected void processAttributeProperty(final Resource resource, final URI elementNamespaceURI, final URI attributeNamespaceURI, final String attributePrefix,
+			final String attributeLocalName, final String attributeName, final String attributeValue, final AttributePropertyContext context)
+			throws URISyntaxException {
+		switch(getAttributeRole(elementNamespaceURI, attributeNamespaceURI, attributePrefix, attributeLocalName)) { //classify the attribute with a single lookup
 			//ignore attributes with the "xmlns" prefix or in the xmlns namespace
-			if(XML.XMLNS_NAMESPACE_PREFIX.equals(attributePrefix) || XML.XMLNS_NAMESPACE_URI.equals(attributeNamespaceURI)) {
-				continue;
-			}
+			case NAMESPACE_DECLARATION:
+				return;
 			//process attributes with the "xml" prefix (or in the xml namespace) specially
-			else if(XML.XML_NAMESPACE_PREFIX.equals(attributePrefix) || XML.XML_NAMESPACE_URI.equals(attributeNamespaceURI)) {
+			case XML:
 				//TODO add support for xml:lang
-				continue;
-			}
+				return;
 			//ignore the rdf:about attribute in descriptions, disallow it in references
-			else if(isRDFAttribute(ATTRIBUTE_ABOUT, elementNamespaceURI, attributeNamespaceURI, attributeLocalName)) {
+			case ABOUT:
 				switch(context) { //only allow this attribute in certain contexts
 					case REFERENCE: //rdf:about isn't allowed in a reference
 					case EMPTY_PROPERTY: //rdf:about isn't allowed in an empty property element
@@ -315,11 +571,10 @@ else if(isRDFAttribute(ATTRIBUTE_ABOUT, elementNamespaceURI, attributeNamespaceU
 						throw new IllegalStateException("rdf:about attribute is not allowed in a resource reference."); //TODO fix with real exceptions
 					case DESCRIPTION: //ignore rdf:about in descriptions
 					default:
-						continue;
+						return;
 				}
-			}
 			//ignore the rdf:ID attribute in descriptions, disallow it in references
-			else if(isRDFAttribute(ATTRIBUTE_ID, elementNamespaceURI, attributeNamespaceURI, attributeLocalName)) {
+			case ID:
 				switch(context) { //only allow this attribute in certain contexts
 					case REFERENCE: //rdf:ID isn't allowed in a reference
 					case EMPTY_PROPERTY: //rdf:ID isn't allowed in an empty property element
@@ -327,11 +582,10 @@ else if(isRDFAttribute(ATTRIBUTE_ID, elementNamespaceURI, attributeNamespaceURI,
 						throw new IllegalStateException("rdf:ID attribute is not allowed in a resource reference."); //TODO fix with real exceptions
 					case DESCRIPTION: //ignore rdf:ID in descriptions
 					default:
-						continue;
+						return;
 				}
-			}
 			//ignore the rdf:nodeID attribute in descriptions and references
-			else if(isRDFAttribute(ATTRIBUTE_NODE_ID, elementNamespaceURI, attributeNamespaceURI, attributeLocalName)) {
+			case NODE_ID:
 				switch(context) { //only allow this attribute in certain contexts
 					case PROPERTY_AND_NODE: //rdf:nodeID isn't allowed in parseType="Resource" TODO make sure this is correct
 						throw new IllegalStateException("rdf:nodeID attribute is not allowed in blank node reference short form."); //TODO fix with real exceptions
@@ -339,11 +593,10 @@ else if(isRDFAttribute(ATTRIBUTE_NODE_ID, elementNamespaceURI, attributeNamespac
 					case EMPTY_PROPERTY: //ignore rdf:nodeID in empty property elements TODO make sure this is correct
 					case DESCRIPTION: //ignore rdf:nodeID in descriptions
 					default:
-						continue;
+						return;
 				}
-			}
 			//ignore the rdf:parseType attribute in references, disallow it in descriptions
-			else if(isRDFAttribute(ATTRIBUTE_PARSE_TYPE, elementNamespaceURI, attributeNamespaceURI, attributeLocalName)) {
+			case PARSE_TYPE:
 				switch(context) { //only allow this attribute in certain contexts
 					case DESCRIPTION: //rdf:parseType isn't allowed in a description
 					case REFERENCE: //rdf:parseType isn't allowed in references
@@ -351,11 +604,10 @@ else if(isRDFAttribute(ATTRIBUTE_PARSE_TYPE, elementNamespaceURI, attributeNames
 						throw new IllegalStateException("rdf:parseType attribute is not allowed in a resource description."); //TODO fix with real exceptions
 					case PROPERTY_AND_NODE: //ignore rdf:parseType in the property-and-node context (that's the attribute that defined this context, after all)
 					default:
-						continue;
+						return;
 				}
-			}
 			//ignore the rdf:resource attribute in reference, disallow it in descriptions
-			else if(isRDFAttribute(ATTRIBUTE_RESOURCE, elementNamespaceURI, attributeNamespaceURI, attributeLocalName)) {
+			case RESOURCE:
 				switch(context) { //only allow this attribute in certain contexts
 					case DESCRIPTION: //rdf:resource isn't allowed in descriptions
 					case EMPTY_PROPERTY: //rdf:resource isn't allowed in an empty property element
@@ -363,23 +615,107 @@ else if(isRDFAttribute(ATTRIBUTE_RESOURCE, elementNamespaceURI, attributeNamespa
 						throw new IllegalStateException("rdf:resource attribute is not allowed in a resource reference."); //TODO fix with real exceptions
 					case REFERENCE: //rdf:resource isn't allowed in a reference
 					default:
-						continue;
+						return;
 				}
-			} else { //for all other attributes
+			//process all other attributes as properties
+			case PROPERTY:
+			default:
 				switch(context) { //only allow this attribute in certain contexts
 					case REFERENCE: //normal attributes are allowed for a normal reference
 					case PROPERTY_AND_NODE: //normal attributes isn't allowed in the parseType="Resource" context
-						throw new IllegalStateException(attribute.getName() + " attribute is not allowed in a property-and-node context."); //TODO fix with real exceptions
+						throw new IllegalStateException(attributeName + " attribute is not allowed in a property-and-node context."); //TODO fix with real exceptions
 					default: {
-						final RDFResource property = getRDF().locateResource(attributeNamespaceURI, attributeLocalName); //locate a resource for this attribute property
+						checkLiteralLength(attributeValue.length()); //make sure the literal is within our limits
+						final RDFResource property = locateQualifiedResource(attributeNamespaceURI, attributeLocalName); //locate a resource for this attribute property
 						final RDFLiteral objectLiteral = new RDFPlainLiteral(attributeValue); //create a literal for the object
 						//add a statement in the form, {resource, property, object literal}
 						addStatement(new DefaultStatement(resource, property, objectLiteral));
 					}
 						break;
 				}
+				break;
+		}
+	}
+
+	/**
+	 * Determines the resource described by a node element from its <code>rdf:about</code>, <code>rdf:ID</code>, or <code>rdf:nodeID</code> attribute.
+	 * @param baseURI The in-scope base URI of the node element, which is only needed if an <code>rdf:about</code> or <code>rdf:ID</code> attribute is present.
+	 * @param referenceURIValue The value of the <code>rdf:about</code> attribute, or <code>null</code> if there is none.
+	 * @param anchorID The value of the <code>rdf:ID</code> attribute, or <code>null</code> if there is none.
+	 * @param nodeIDValue The value of the <code>rdf:nodeID</code> attribute, or <code>null</code> if there is none.
+	 * @return A proxy for the described resource; a blank node with a generated node ID if none of the attributes are present.
+	 * @throws IllegalStateException if more than one of the attributes are present.
+	 * @throws URISyntaxException Thrown if the reference URI is syntactically incorrect.
+	 */
+	protected Resource getNodeResource(final URI baseURI, final String referenceURIValue, final String anchorID, final String nodeIDValue)
+			throws URISyntaxException {
+		if(referenceURIValue != null) { //if there is a reference URI
+			if(anchorID != null || nodeIDValue != null) {
+				throw new IllegalStateException("Resource with reference URI " + referenceURIValue + " cannot also have an rdf:ID or rdf:nodeID attribute.");
+			}
+			return getResourceProxy(resolveReference(baseURI, referenceURIValue)); //resolve the reference URI to the base URI and use its resource proxy
+		} else if(anchorID != null) { //if there is an anchor ID
+			if(nodeIDValue != null) {
+				throw new IllegalStateException("Resource with anchor ID " + anchorID + " cannot also have an rdf:nodeID attribute.");
+			}
+			return getResourceProxy(new URI(baseURI.toString() + FRAGMENT_SEPARATOR + anchorID)); //create a reference URI from the element base URI and the anchor ID
+		}
+		//if there is neither a reference URI nor an anchor ID, this is a blank node
+		return getResourceProxy(nodeIDValue != null ? nodeIDValue : generateNodeID()); //retrieve or create a resource proxy from the node ID, generating our own node ID if there was none given
+	}
+
+	/**
+	 * Adds the type given by the name of a node element to the resource it describes. No type is added for an <code>&lt;rdf:Description&gt;</code> element.
+	 * @param resource The resource described by the node element.
+	 * @param elementNamespaceURI The namespace of the node element, or <code>null</code> if the element has no namespace.
+	 * @param elementLocalName The local name of the node element.
+	 */
+	protected void addNodeElementType(final Resource resource, final URI elementNamespaceURI, final String elementLocalName) {
+		//if this is not an <rdf:Description> element, the element name gives its type, so add that type to the resource
+		if(!RDF.NAMESPACE_URI.equals(elementNamespaceURI) || !ELEMENT_DESCRIPTION.equals(elementLocalName)) {
+			final RDFResource typePropertyValue = locateQualifiedResource(elementNamespaceURI, elementLocalName); //locate the resource representing the type value
+			//add a statement in the form, {resource proxy, rdf:type resource, type value resource}
+			addStatement(new DefaultStatement(resource, getTypeProperty(), typePropertyValue));
+		}
+	}
+
+	/**
+	 * Determines the property represented by a property element. An <code>rdf:li</code> element represents the next container membership property, in the form
+	 * <code>rdf:_<var>n</var></code>.
+	 * @param elementNamespaceURI The namespace of the property element, or <code>null</code> if the element has no namespace.
+	 * @param elementLocalName The local name of the property element.
+	 * @param memberCount The number of container member items (represented by <code>rdf:li</code>) the resource already contains.
+	 * @return The resource representing the property.
+	 */
+	protected RDFResource getPropertyElementResource(final URI elementNamespaceURI, final String elementLocalName, final int memberCount) {
+		final String propertyLocalName; //if this is an rdf:li property, we'll convert it to rdf_X, where X represents the member count plus one
+		if(RDF.NAMESPACE_URI.equals(elementNamespaceURI) && LI_PROPERTY_NAME.equals(elementLocalName)) { //if this is an rdf:li property
+			propertyLocalName = CONTAINER_MEMBER_PREFIX + (memberCount + 1); //create a local name in the form "_X", where X is the member count plus one
+		} else { //if this is *not* an rdf:li property, it's a normal property
+			propertyLocalName = elementLocalName; //use the element's local name normally in forming the property reference URI
+		}
+		return locateQualifiedResource(elementNamespaceURI, propertyLocalName); //get a resource from the element name
+	}
+
+	/**
+	 * Determines the resource referenced by a property element from its <code>rdf:resource</code> or <code>rdf:nodeID</code> attribute.
+	 * @param baseURI The in-scope base URI of the property element, which is only needed if an <code>rdf:resource</code> attribute is present.
+	 * @param referenceURIValue The value of the <code>rdf:resource</code> attribute, or <code>null</code> if there is none.
+	 * @param nodeIDValue The value of the <code>rdf:nodeID</code> attribute, or <code>null</code> if there is none.
+	 * @return A proxy for the referenced resource.
+	 * @throws IllegalStateException if both or neither of the attributes are present.
+	 * @throws URISyntaxException Thrown if the reference URI is syntactically incorrect.
+	 */
+	protected Resource getReferencedResource(final URI baseURI, final String referenceURIValue, final String nodeIDValue) throws URISyntaxException {
+		if(referenceURIValue != null) { //if we have a reference URI for the resource
+			if(nodeIDValue != null) {
+				throw new IllegalStateException("Resource reference " + referenceURIValue + " cannot also have an rdf:nodeID attribute.");
 			}
+			return getResourceProxy(resolveReference(baseURI, referenceURIValue)); //resolve the reference URI to the base URI and use its resource proxy
+		} else if(nodeIDValue != null) { //if we have a node ID for the resource
+			return getResourceProxy(nodeIDValue); //retrieve or create a resource proxy from the node ID
 		}
+		throw new IllegalStateException("Resource reference has neither an rdf:resource nor an rdf:nodeID attribute.");
 	}
 
 	/**
@@ -391,83 +727,44 @@ else if(isRDFAttribute(ATTRIBUTE_RESOURCE, elementNamespaceURI, attributeNamespa
 	 * @throws URISyntaxException Thrown if an RDF URI is syntactically incorrect.
 	 */
 	public Resource processProperty(final Resource resource, final Element element, final int memberCount) throws URISyntaxException {
-		final URI elementNamespaceURI = element.getNamespaceURI() != null ? new URI(element.getNamespaceURI()) : null; //get the element's namespace, or null if there is no namespace URI
+		increaseDepth(); //guard against runaway nesting of resources and properties
+		final URI elementNamespaceURI = toNamespaceURI(element.getNamespaceURI()); //get the element's namespace, or null if there is no namespace URI
 		final String elementLocalName = element.getLocalName(); //get the element's local name
-		//Log.trace("processing property with XML element namespace: ", elementNamespaceURI, "local name", elementLocalName);
-		final String propertyLocalName; //if this is an rdf:li property, we'll convert it to rdf_X, where X represents the member count plus one
-		if(RDF.NAMESPACE_URI.equals(elementNamespaceURI) && LI_PROPERTY_NAME.equals(elementLocalName)) { //if this is an rdf:li property
-			propertyLocalName = CONTAINER_MEMBER_PREFIX + (memberCount + 1); //create a local name in the form "_X", where X is the member count plus one
-		} else { //if this is *not* an rdf:li property, it's a normal property
-			propertyLocalName = elementLocalName; //use the element's local name normally in forming the property reference URI
-		}
-		final RDFResource propertyResource = getRDF().locateResource(elementNamespaceURI, propertyLocalName); //get a resource from the element name
+		final RDFResource propertyResource = getPropertyElementResource(elementNamespaceURI, elementLocalName, memberCount); //get a resource from the element name
 		final Object propertyValue; //we'll assign the property value to this variable---either a resource or a literal
 		final String parseType = getRDFAttribute(element, ATTRIBUTE_PARSE_TYPE); //get the parse type, if there is one
 		if(COLLECTION_PARSE_TYPE.equals(parseType)) { //if this is a collection
 			//TODO we should make sure there are no other attributes
 			Resource firstItemListResource = null; //we haven't created the first item list resource, yet
 			Resource lastItemListResource = null; //we haven't created the last item list resource, yet
-			final RDFResource typeProperty = getRDF().locateResource(RDF.NAMESPACE_URI, TYPE_PROPERTY_NAME); //get an rdf:type resource
-			final RDFResource listClassResource = getRDF().locateResource(RDF.NAMESPACE_URI, LIST_CLASS_NAME); //locate the resource representing the rdf:list class
 			//parse the child elements
 			final NodeList childNodeList = element.getChildNodes(); //get a list of child nodes
 			for(int i = 0; i < childNodeList.getLength(); ++i) { //look at each child node
 				final Node childNode = childNodeList.item(i); //get a reference to this child node
 				if(childNode.getNodeType() == Node.ELEMENT_NODE) { //if this is an element
 					final Resource elementValue = processResource((Element)childNode); //process the child element as an RDF resource
-					final Resource listResource = getResourceProxy(generateNodeID()); //create a new list resource proxy to represent this item in the collection
-					//add a statement in the form, {list, rdf:type, rdf:list}
-					addStatement(new DefaultStatement(listResource, typeProperty, listClassResource));
-					final Resource firstProperty = getRDF().locateResource(RDF.NAMESPACE_URI, FIRST_PROPERTY_NAME); //get a resource representing the rdf:first property
-					//add a statement setting the list's rdf:first property to the new element
-					addStatement(new DefaultStatement(listResource, firstProperty, elementValue));
+					lastItemListResource = addListNode(lastItemListResource, elementValue); //add a list node for the resource, linking it to the previous node
 					if(firstItemListResource == null) { //if this is the first list item
-						firstItemListResource = listResource; //show that we just created a list resource
-					} else if(lastItemListResource != null) { //if this is not the first item, there should have been a previous list item (this check is redundant)
-						final Resource restProperty = getRDF().locateResource(RDF.NAMESPACE_URI, REST_PROPERTY_NAME); //get a resource representing the rdf:rest property
-						//add a statement setting the previous list's rdf:rest property to the new list
-						addStatement(new DefaultStatement(lastItemListResource, restProperty, listResource));
+						firstItemListResource = lastItemListResource;
 					}
-					lastItemListResource = listResource; //save this list resource for the next time around, in case there are other list items
 				}
 			}
-			final RDFListResource<RDFObject> nilListResource = new RDFListResource<RDFObject>(NIL_RESOURCE_URI); //create a list resource representing the rdf:nil resource; don't use an existing rdf:nil list resource, because the reference URI may need to change when the list is modified
-			//add a statement in the form, {nil list, rdf:type, rdf:list}
-			addStatement(new DefaultStatement(nilListResource, typeProperty, listClassResource));
-			if(lastItemListResource != null) { //if there was a last item
-				final Resource restProperty = getRDF().locateResource(RDF.NAMESPACE_URI, REST_PROPERTY_NAME); //get a resource representing the rdf:rest property
-				//add a statement setting the last list's rdf:rest property to the the rdf:nil list
-				addStatement(new DefaultStatement(lastItemListResource, restProperty, nilListResource));
-			} else if(firstItemListResource == null) { //if we didn't create any list items (logically this check is redundant, because if there is no last resource there is also no first resource)
-				firstItemListResource = nilListResource; //the first list item is the rdf:nil list, because there list contained no items
-			}
-			propertyValue = firstItemListResource; //the first list item will be the first list item, whether it is a node representing a resource or the rdf:nil list we created for an empty list
+			propertyValue = endList(firstItemListResource, lastItemListResource); //the first list node, or the rdf:nil list we created for an empty list
 		} else if(RESOURCE_PARSE_TYPE.equals(parseType)) { //if this is a resource as a property-and-node
 			propertyValue = getResourceProxy(generateNodeID()); //retrieve or create a new resource proxy with our own generated node ID, as the node is completely anonymous
 			processAttributeProperties((Resource)propertyValue, element, AttributePropertyContext.PROPERTY_AND_NODE); //parse the property attributes, which will simply create errors if there are any unexpected attributes
 			processChildElementProperties((Resource)propertyValue, element); //parse the child elements as properties
 		} else if(LITERAL_PARSE_TYPE.equals(parseType)) { //if this is an XMLLiteral
 			//TODO process the attributes to make sure there are no unexpected attributes
-			final Document document = createDocument(element); //create a new document from a copy of the given element
-			//TODO do we want to ensure namespace declarations?
-			final Element documentElement = document.getDocumentElement(); //get a reference to the document element
-			final DocumentFragment documentFragment = extractChildren(documentElement); //extract the children of the document element to a document fragment TODO important probably reset the owner document, so that this won't keep the entire original document tree around
-			propertyValue = new RDFXMLLiteral(documentFragment); //create an XML literal containing the document fragment, which now contains a copy of the information of the XML tree below the given element
+			final String lexicalForm = RDFXMLLiteral.createLexicalForm(element); //capture the lexical form of the content of the element
+			checkLiteralLength(lexicalForm.length()); //make sure the literal is within our limits
+			propertyValue = RDFXMLLiteral.fromCanonicalLexicalForm(lexicalForm); //the document fragment will only be created if needed
 		} else { //by default assume that we're parsing a resource as the property value
-			//Log.trace("we must be parsing a resource as the property value");
 			final String referenceURIValue = getRDFAttribute(element, ATTRIBUTE_RESOURCE); //get the reference URI of the referenced resource, if there is one
 			final String nodeIDValue = getRDFAttribute(element, ATTRIBUTE_NODE_ID); //get the node ID attribute value, if there is one
-			assert referenceURIValue == null || nodeIDValue == null : "Resource cannot have both reference URI " + referenceURIValue + " and node ID " + nodeIDValue
-					+ "."; //TODO change to an actual RDF error
 			if(referenceURIValue != null || nodeIDValue != null) { //if there is a reference URI or a node ID, this is a reference to another node
-				final ResourceProxy resourceProxy; //we'll create a stand-in object for the resource
-				if(referenceURIValue != null) { //if we have a reference URI for the resource
-					final URI referenceURI = resolveURI(element, new URI(referenceURIValue)); //resolve the reference URI to the base URI
-					propertyValue = getResourceProxy(referenceURI); //create a resource proxy from the reference URI, or use one already available for the reference URI
-				} else { //if there is no reference URI
-					propertyValue = getResourceProxy(nodeIDValue != null ? nodeIDValue : generateNodeID()); //retrieve or create a resource proxy from the node ID, generating our own node ID if there was none given
-				}
-				//Log.trace("ready to process attributes");
+				final URI elementBaseURI = referenceURIValue != null ? getElementBaseURI(element) : null; //only a reference URI needs the base URI
+				propertyValue = getReferencedResource(elementBaseURI, referenceURIValue, nodeIDValue); //get a proxy for the referenced resource
 				processAttributeProperties((Resource)propertyValue, element, AttributePropertyContext.REFERENCE); //parse the property attributes, assigning them to the property value
 			} else if(element.getChildNodes().getLength() == 0 && element.getAttributes().getLength() != 0) { //if there are no child elements but there are attributes, this is a blank node
 				propertyValue = getResourceProxy(generateNodeID()); //retrieve or create a new resource proxy with our own generated node ID, as the node is completely anonymous
@@ -478,16 +775,9 @@ public Resource processProperty(final Resource resource, final Element element,
 				propertyValue = processPropertyValueContents(element); //process the contents of the element as a normal property value
 			}
 		}
-		if(propertyValue instanceof Resource) { //if we found a resource for the property value
-			//TODO del Log.trace("we found a resource property value:", propertyValue, "of type", propertyValue.getClass(), "creating a statement for subject resource", resource);
-			//add a statement in the form, {resource/resource proxy, property resource, resource/resource proxy value}
-			addStatement(new DefaultStatement(resource, propertyResource, (Resource)propertyValue));
-		} else if(propertyValue instanceof RDFLiteral) { //if we found a literal value for the property value
-			//add a statement in the form, {resource/resource proxy, property resource, literal value}
-			addStatement(new DefaultStatement(resource, propertyResource, (RDFLiteral)propertyValue));
-		} else { //we should only have found a resource (or resource proxy) or a literal
-			throw new AssertionError("Logical error: expected resource or literal for object, somehow created " + propertyValue.getClass());
-		}
+		//add a statement in the form, {resource/resource proxy, property resource, resource/resource proxy/literal value}
+		addStatement(createStatement(resource, propertyResource, propertyValue));
+		decreaseDepth();
 		return propertyResource; //return the resource that represents the property we processed
 	}
 
@@ -517,44 +807,55 @@ public Object processPropertyValueContents(final Node propertyNode) throws URISy
 			return processResource(childElement); //process the child element as an RDF resource, the value of the property in this case
 		} else { //if we didn't find any child elements, the content is a literal
 			final String childText = getText(propertyNode, true); //retrieve the child text
+			checkLiteralLength(childText.length()); //make sure the literal is within our limits
 			final String datatype = propertyNode instanceof Element ? getRDFAttribute((Element)propertyNode, ATTRIBUTE_DATATYPE) : null; //get the datatype, if there is one TODO check elsewhere to make sure a datatype isn't given for non-literal content
-			if(datatype != null) { //if a datatype is present
-				return getRDF().createTypedLiteral(childText, new URI(datatype)); //create a typed literal from the typed literal text
-			} else { //if a datatype is not present, this is a plain literal
-				//get the xml:lang language tag, if there is one
-				final String languageTag = propertyNode instanceof Element ? findAttribute((Element)propertyNode, XML.ATTRIBUTE_LANG).orElse(null) : null;
-				//create a locale for the language if there is a language tag
-				final Locale languageLocale = languageTag != null ? Locales.createLocale(languageTag) : null;
-				return new RDFPlainLiteral(childText, languageLocale); //create a literal from the element's text, noting the specified language if any
-			}
+			//get the xml:lang language tag, if there is one
+			final String languageTag = datatype == null && propertyNode instanceof Element ? findAttribute((Element)propertyNode, XML.ATTRIBUTE_LANG).orElse(null) : null;
+			return createLiteral(childText, datatype != null ? new URI(datatype) : null, languageTag); //create a typed or plain literal from the element's text
 		}
 	}
 
 	/**
-	 * Determines if an element attribute is an RDF attribute, recognizing either prefixed or non-prefixed attributes.
-	 * @param rdfAttributeLocalName The RDF attribute name to check for.
-	 * @param elementNamespaceURI The namespace of the element to which the attribute belongs.
-	 * @param attributeNamespaceURI namespace of the RDF attribute.
-	 * @param attributeLocalName The local name of the RDF attribute.
-	 * @return <code>true</code> if this is the specified RDF attribute.
+	 * Determines the role an attribute plays, recognizing either prefixed or non-prefixed RDF attributes according to the RDF attribute namespace requirement.
+	 * Attributes are classified using precomputed tables, so that an attribute is classified using at most one lookup by namespace and one lookup by local name,
+	 * rather than by comparing it against each RDF attribute in turn.
+	 * @param elementNamespaceURI The namespace of the element to which the attribute belongs, or <code>null</code> if the element has no namespace.
+	 * @param attributeNamespaceURI The namespace of the attribute, or <code>null</code> if the attribute has no namespace.
+	 * @param attributePrefix The prefix of the attribute, or <code>null</code> if the attribute has no prefix.
+	 * @param attributeLocalName The local name of the attribute.
+	 * @return The role of the attribute.
+	 * @see #getRDFAttributeNamespaceRequirement()
 	 */
-	protected boolean isRDFAttribute(final String rdfAttributeLocalName, final URI elementNamespaceURI, final URI attributeNamespaceURI,
+	protected AttributeRole getAttributeRole(final URI elementNamespaceURI, final URI attributeNamespaceURI, final String attributePrefix,
 			final String attributeLocalName) {
-		if(rdfAttributeLocalName.equals(attributeLocalName)) { //if the attribute has the correct local name
-			if(RDF.NAMESPACE_URI.equals(attributeNamespaceURI)) { //if the attribute is in the RDF namespace
-				return true; //show that this is the expected RDF attribute
+		if(attributeNamespaceURI != null) { //if the attribute has a namespace, see if the namespace alone determines the role
+			final AttributeRole namespaceAttributeRole = NAMESPACE_ATTRIBUTE_ROLES.get(attributeNamespaceURI);
+			if(namespaceAttributeRole != null) {
+				return namespaceAttributeRole;
+			}
+		} else if(attributePrefix != null) { //check for the reserved prefixes, in case the attribute namespace was not reported
+			if(XML.XMLNS_NAMESPACE_PREFIX.equals(attributePrefix)) {
+				return AttributeRole.NAMESPACE_DECLARATION;
+			} else if(XML.XML_NAMESPACE_PREFIX.equals(attributePrefix)) {
+				return AttributeRole.XML;
 			}
-			switch(getRDFAttributeNamespaceRequirement()) { //see if the RDF attribute namespace is required
+		}
+		final AttributeRole rdfAttributeRole = RDF_ATTRIBUTE_ROLES.get(attributeLocalName); //see if the local name is that of an RDF attribute
+		if(rdfAttributeRole != null) { //if so, make sure the attribute namespace allows it to be recognized as an RDF attribute
+			if(RDF.NAMESPACE_URI.equals(attributeNamespaceURI)) { //the RDF namespace is always accepted
+				return rdfAttributeRole;
+			}
+			switch(getRDFAttributeNamespaceRequirement()) {
 				case RDF_OR_NULL:
 					if(attributeNamespaceURI == null && RDF.NAMESPACE_URI.equals(elementNamespaceURI)) { //accept the null namespace if the element is in the RDF namespace
-						return true;
+						return rdfAttributeRole;
 					}
 					break;
 				case ANY:
-					return true; //the namespace doesn't matter
+					return rdfAttributeRole; //the namespace doesn't matter
 			}
 		}
-		return false; //show that this attribute is not the RDF attribute expected
+		return AttributeRole.PROPERTY;
 	}
 
 	/**
@@ -596,12 +897,66 @@ protected String getRDFAttribute(final Element element, final String attributeLo
 	 * @return A URI resolved to the in-scope base URI of the given element.
 	 * @throws NullPointerException if the given element and/or URI is <code>null</code>.
 	 * @throws URISyntaxException Thrown if the constructed URI is invalid.
-	 * @see XmlBaseDom
+	 * @see #getElementBaseURI(Element)
 	 * @see #resolveURI(URI, URI)
 	 */
 	protected URI resolveURI(final Element element, final URI uri) throws URISyntaxException {
-		final URI baseURI = XmlBaseDom.getBaseURI(element, getBaseURI()); //get the base URI of the element
-		return baseURI != null ? resolveURI(baseURI, uri) : uri; //resolve the given URI to the base URI we determine
+		return resolveURI(getElementBaseURI(element), uri); //resolve the given URI to the base URI of the element
+	}
+
+	/**
+	 * Determines the in-scope base URI of the given element, taking into account any <code>xml:base</code> attributes of the element and its ancestors and the
+	 * base URI of the document. The base URI of each element is cached, so that the ancestors of an element are only examined until an element with a known
+	 * base URI is found.
+	 * @param element The element for which a base URI should be determined.
+	 * @return The in-scope base URI of the given element.
+	 * @throws NullPointerException if the given element is <code>null</code>.
+	 * @throws URISyntaxException Thrown if an <code>xml:base</code> URI is syntactically incorrect.
+	 */
+	protected URI getElementBaseURI(final Element element) throws URISyntaxException {
+		URI baseURI = elementBaseURIMap.get(element);
+		if(baseURI == null) { //if we haven't determined the base URI of this element yet, find the nearest ancestor for which we have
+			final Deque<Element> elements = new ArrayDeque<Element>(); //the elements for which base URIs need to be determined, innermost first
+			Node node = element;
+			do {
+				elements.push((Element)node);
+				node = node.getParentNode();
+				baseURI = node instanceof Element ? elementBaseURIMap.get(node) : getBaseURI(); //if we run out of elements, start with the document base URI
+			} while(baseURI == null);
+			for(final Element descendantElement : elements) { //work our way back down, outermost first
+				final Attr xmlBaseAttribute = descendantElement.getAttributeNodeNS(XMLConstants.XML_NS_URI, XML_BASE_ATTRIBUTE_NAME); //see if this element changes the base URI
+				if(xmlBaseAttribute != null) {
+					baseURI = resolve(baseURI, new URI(xmlBaseAttribute.getValue()));
+				}
+				elementBaseURIMap.put(descendantElement, baseURI);
+			}
+		}
+		return baseURI;
+	}
+
+	/**
+	 * Resolves a reference against a base URI according to RDF/XML processing rules. The resolution is memoized for each base URI, so that a reference that
+	 * appears many times, such as that of a commonly referenced resource, is only parsed and resolved once. So that a large serialization with many distinct
+	 * references does not fill memory with memoized resolutions, they are all discarded once {@link #MAX_RESOLVED_REFERENCE_COUNT} have been memoized.
+	 * @param baseURI The in-scope base URI against which the reference should be resolved.
+	 * @param reference The lexical form of the URI to resolve.
+	 * @return A URI resolved to the given base URI according to RDF/XML processing rules.
+	 * @throws NullPointerException if the given base URI and/or reference is <code>null</code>.
+	 * @throws URISyntaxException Thrown if the reference is not a syntactically correct URI.
+	 * @see #resolveURI(URI, URI)
+	 */
+	protected URI resolveReference(final URI baseURI, final String reference) throws URISyntaxException {
+		final Map<String, URI> resolvedReferenceMap = baseResolvedReferenceMap.get(baseURI);
+		URI resolvedURI = resolvedReferenceMap != null ? resolvedReferenceMap.get(reference) : null;
+		if(resolvedURI == null) { //if we haven't resolved this reference against this base URI before
+			resolvedURI = resolveURI(baseURI, new URI(reference));
+			if(++resolvedReferenceCount > MAX_RESOLVED_REFERENCE_COUNT) { //if the memoized resolutions have grown too large, start over
+				baseResolvedReferenceMap.clear();
+				resolvedReferenceCount = 1;
+			}
+			baseResolvedReferenceMap.computeIfAbsent(baseURI, uri -> new HashMap<String, URI>()).put(reference, resolvedURI);
+		}
+		return resolvedURI;
 	}
 
 	/**
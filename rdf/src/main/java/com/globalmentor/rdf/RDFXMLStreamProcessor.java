@@ -0,0 +1,959 @@
+/*
+ * Copyright © 1996-2008 GlobalMentor, Inc. <https://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.globalmentor.rdf;
+
+import java.io.*;
+import java.net.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import javax.xml.XMLConstants;
+import javax.xml.stream.*;
+
+import org.w3c.dom.*;
+
+import com.globalmentor.net.*;
+import com.globalmentor.rdf.spec.RDF;
+import com.globalmentor.xml.XmlDom;
+
+import static com.globalmentor.net.URIs.*;
+import static com.globalmentor.rdf.spec.RDF.*;
+import static com.globalmentor.rdf.spec.RDF.XML.*;
+import static javax.xml.stream.XMLStreamConstants.*;
+
+/**
+ * Class that is able to construct an RDF data model from an XML-based RDF serialization by consuming XML stream events, without first building an XML document
+ * tree. The same RDF data model is produced as would be produced by processing a document tree of the same serialization using {@link RDFXMLProcessor}, and
+ * the same {@link NamespaceRequirement} rules and parse types are recognized.
+ * <p>
+ * The in-scope base URI of each element is maintained on a stack as elements are entered, taking into account any <code>xml:base</code> attributes.
+ * </p>
+ * <p>
+ * No document tree is built. The content of <code>rdf:parseType="Literal"</code> properties is captured as the lexical form of an {@link RDFXMLLiteral}, and
+ * markup surrounding RDF data islands in a host document is scanned without being retained; see {@link #processHostDocument(InputStream, URI)}. The only
+ * exception is parallel processing: if a pool has been set, the resource elements of each <code>&lt;rdf:RDF&gt;</code> element are read into a separate
+ * document tree for each chunk, so that the chunks may be processed concurrently while the stream continues to be read.
+ * </p>
+ * @author Garret Wilson
+ */
+public class RDFXMLStreamProcessor extends RDFXMLProcessor {
+
+	/** The local name of the <code>xml:lang</code> attribute. */
+	private static final String XML_LANG_ATTRIBUTE_NAME = "lang";
+
+	/** The stack of in-scope base URIs of the elements being processed. */
+	private final Deque<URI> baseURIStack = new ArrayDeque<URI>();
+
+	/** The XML input factory for reading host documents, or <code>null</code> if one has not yet been needed. */
+	private XMLInputFactory hostXMLInputFactory = null;
+
+	/** The DOM implementation for creating documents of chunks of resource elements, or <code>null</code> if one has not yet been needed. */
+	private DOMImplementation chunkDOMImplementation = null;
+
+	/** Whether processing stops as soon as the description of a projected resource is complete. */
+	private boolean earlyTermination = false;
+
+	/** @return Whether processing stops as soon as the description of a projected resource is complete. */
+	public boolean isEarlyTermination() {
+		return earlyTermination;
+	}
+
+	/**
+	 * Sets whether processing stops as soon as the description of a projected resource is complete.
+	 * <p>
+	 * This setting only has an effect if a projection targeting a single resource by reference URI has been set. After each top-level resource description has
+	 * been processed, the processor checks whether the target resource has been described and whether every blank node reachable from it that is referenced by an
+	 * <code>rdf:nodeID</code> has been described as well. If so, the rest of the input is not read. This assumes that the document does not describe the target
+	 * or the blank nodes it references again later in the document; resources with reference URIs that are referenced by the target are not waited for, as they
+	 * may be described elsewhere or not at all.
+	 * </p>
+	 * @param earlyTermination <code>true</code> if processing should stop once the projected resource is complete.
+	 * @see #setProjection(RDFProjection)
+	 * @see RDFProjection#getResourceURI()
+	 */
+	public void setEarlyTermination(final boolean earlyTermination) {
+		this.earlyTermination = earlyTermination;
+	}
+
+	/** The statements indexed by subject, maintained only when terminating early, for determining which resources are reachable from the target. */
+	private final Map<Resource, List<Statement>> subjectStatementsMap = new HashMap<Resource, List<Statement>>();
+
+	/** The resources the node elements of which have been processed, maintained only when terminating early. */
+	private final Set<Resource> describedResources = new HashSet<Resource>();
+
+	/** The resources reachable from the described target resource, maintained only when terminating early. */
+	private final Set<Resource> reachableResources = new HashSet<Resource>();
+
+	/** The reachable blank nodes with an <code>rdf:nodeID</code> given in the document that have not yet been described, maintained only when terminating early. */
+	private final Set<Resource> pendingResources = new HashSet<Resource>();
+
+	/** Whether the node element of the projected target resource has been processed, maintained only when terminating early. */
+	private boolean targetDescribed = false;
+
+	/** Whether processing has stopped before the end of the input because the projected resource is complete. */
+	private boolean terminated = false;
+
+	/** @return Whether the last processing stopped before the end of the input because the projected resource was complete. */
+	public boolean isTerminated() {
+		return terminated;
+	}
+
+	/** Default constructor. */
+	public RDFXMLStreamProcessor() {
+		super(); //construct parent base class
+	}
+
+	/**
+	 * Constructor that specifies an existing data model to continue filling.
+	 * @param newRDF The RDF data model to use.
+	 */
+	public RDFXMLStreamProcessor(final RDFModel newRDF) {
+		super(newRDF); //construct the parent class
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * This version clears the stack of element base URIs.
+	 * </p>
+	 */
+	@Override
+	public void reset() {
+		super.reset(); //reset the parent class
+		baseURIStack.clear(); //clear the stack of base URIs
+		subjectStatementsMap.clear();
+		describedResources.clear();
+		reachableResources.clear();
+		pendingResources.clear();
+		targetDescribed = false;
+	}
+
+	/** @return <code>true</code> if early termination was requested and there is a single projected target resource with a reference URI. */
+	protected boolean isTerminatingEarly() {
+		final RDFProjection projection = getProjection();
+		return isEarlyTermination() && projection != null && projection.getResourceURI() != null;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * This version indexes the statement by its subject if terminating early, and notes the resources that become reachable from the projected target resource.
+	 * </p>
+	 * @see #isTerminatingEarly()
+	 */
+	@Override
+	protected void addStatement(final Statement statement) {
+		if(isTerminatingEarly()) {
+			final Resource subject = statement.getSubject();
+			subjectStatementsMap.computeIfAbsent(subject, key -> new ArrayList<Statement>(4)).add(statement);
+			if(reachableResources.contains(subject) && statement.getObject() instanceof ResourceProxy) { //if the object just became reachable through this statement
+				addReachableResource((Resource)statement.getObject());
+			}
+		}
+		super.addStatement(statement);
+	}
+
+	/**
+	 * Notes that the node element of a resource has been processed, for determining whether the projected target resource is complete.
+	 * @param resource The resource that has been described.
+	 * @see #isTerminatingEarly()
+	 */
+	protected void addDescribedResource(final Resource resource) {
+		describedResources.add(resource);
+		pendingResources.remove(resource); //a reachable blank node is no longer waited for
+		if(getProjection().getResourceURI().equals(resource.getURI())) { //if this is the target resource
+			targetDescribed = true;
+			addReachableResource(resource); //everything the target references is now reachable
+		}
+	}
+
+	/**
+	 * Notes that a resource is reachable from the projected target resource, along with all the resources reachable from it through the statements gathered so
+	 * far. Each resource is only visited once, so that the total work in tracking reachability is proportional to the number of statements.
+	 * @param resource The resource that is reachable from the target resource.
+	 */
+	private void addReachableResource(final Resource resource) {
+		if(!reachableResources.add(resource)) { //if the resource was already known to be reachable, so were the resources it references
+			return;
+		}
+		final Deque<Resource> resourceQueue = new ArrayDeque<Resource>();
+		resourceQueue.add(resource);
+		Resource reachableResource;
+		while((reachableResource = resourceQueue.poll()) != null) {
+			if(reachableResource instanceof ResourceProxy) {
+				final String nodeID = ((ResourceProxy)reachableResource).getNodeID();
+				if(nodeID != null && !isGeneratedNodeID(nodeID) && !describedResources.contains(reachableResource)) { //a blank node described elsewhere in the document must be waited for
+					pendingResources.add(reachableResource);
+				}
+			}
+			for(final Statement statement : subjectStatementsMap.getOrDefault(reachableResource, Collections.<Statement>emptyList())) {
+				final Object object = statement.getObject();
+				if(object instanceof ResourceProxy && reachableResources.add((Resource)object)) { //if this is a new reachable resource proxy
+					resourceQueue.add((Resource)object);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Determines whether the description of the projected target resource is complete. The target is complete if its node element has been processed and every
+	 * resource reachable from it with an <code>rdf:nodeID</code> given in the document has also been described. Reachability is tracked as statements are added,
+	 * so this check takes constant time.
+	 * @return <code>true</code> if no further input is needed to describe the projected target resource.
+	 * @see #setEarlyTermination(boolean)
+	 */
+	protected boolean isProjectionComplete() {
+		return targetDescribed && pendingResources.isEmpty();
+	}
+
+	/**
+	 * Processes RDF serialized in an XML stream. Processes data contained in every <code>&lt;rdf:RDF&gt;</code> data island.
+	 * @param reader The reader positioned at or before the document element of the XML that might contain RDF data.
+	 * @param baseURI The base URI, or <code>null</code> if the base URI is not known.
+	 * @return The RDF data model resulting from this processing and any previous processing.
+	 * @throws XMLStreamException if there is an error reading the XML.
+	 * @throws URISyntaxException Thrown if a URI is syntactically incorrect.
+	 */
+	public RDFModel processRDF(final XMLStreamReader reader, final URI baseURI) throws XMLStreamException, URISyntaxException {
+		setBaseURI(baseURI); //set the base URI
+		return processRDF(reader); //process the data in the stream
+	}
+
+	/**
+	 * Processes RDF serialized in an XML stream. Processes data contained in every <code>&lt;rdf:RDF&gt;</code> data island. Whatever base URI has been set is
+	 * unchanged.
+	 * @param reader The reader positioned at or before the document element of the XML that might contain RDF data.
+	 * @return The RDF data model resulting from this processing and any previous processing.
+	 * @throws XMLStreamException if there is an error reading the XML.
+	 * @throws URISyntaxException Thrown if a URI is syntactically incorrect.
+	 */
+	public RDFModel processRDF(final XMLStreamReader reader) throws XMLStreamException, URISyntaxException {
+		reset(); //make sure we don't have temporary data left over from last time
+		terminated = false;
+		int eventType = reader.getEventType(); //find the document element
+		while(eventType != START_ELEMENT && reader.hasNext()) {
+			eventType = reader.next();
+		}
+		if(eventType == START_ELEMENT) { //if we found the document element
+			processRDFIslands(reader); //process any internal RDF islands
+		}
+		createResources(); //create all proxied resources in the statements we gathered
+		processStatements(); //process all the statements and assign resources to properties
+		reset(); //release all our references temporary resource proxies
+		return getRDF(); //return the RDF data collected
+	}
+
+	/**
+	 * Processes RDF serialized in an XML stream. Searches the current element and all its children, processing data contained in every
+	 * <code>&lt;rdf:RDF&gt;</code> data island. The reader will be left at the end of the current element, unless processing has terminated early.
+	 * @param reader The reader positioned at the start of the element that might contain RDF data.
+	 * @return The RDF data model resulting from this processing and any previous processing.
+	 * @throws XMLStreamException if there is an error reading the XML.
+	 * @throws URISyntaxException Thrown if a URI is syntactically incorrect.
+	 */
+	protected RDFModel processRDFIslands(final XMLStreamReader reader) throws XMLStreamException, URISyntaxException {
+		startElement(reader); //enter the element
+		if(RDF.NAMESPACE_URI.toString().equals(reader.getNamespaceURI()) //if this element is in the RDF namespace
+				&& ELEMENT_RDF.equals(reader.getLocalName())) { //if this element indicates that the children are RDF
+			final ForkJoinPool forkJoinPool = getForkJoinPool();
+			if(forkJoinPool != null && getStatementHandler() == getRDFModelStatementHandler() && getProjection() == null) { //if we're just populating the data model with all the data
+				processResources(reader, forkJoinPool); //process the resources in parallel
+			} else {
+				while(!terminated && nextChildElement(reader)) { //look at each child element
+					processResource(reader); //parse the contents of the RDF container element
+					if(isTerminatingEarly() && isProjectionComplete()) { //if we have all we need, don't read any further
+						terminated = true;
+					}
+				}
+			}
+		} else { //if this is a normal, non-RDF element
+			scanRDFIslands(reader); //scan the host markup for RDF data islands
+		}
+		endElement(); //leave the element
+		return getRDF(); //return the RDF data collected
+	}
+
+	/**
+	 * Processes the child elements of the current element as representing RDF resources in parallel.
+	 * <p>
+	 * The child elements are read on this thread into a separate document for each chunk of the parallel chunk size. Each chunk is processed from its document
+	 * on the given pool as soon as it has been read, while the following elements are being read. The chunk data models are then merged in order into the data
+	 * model of this processor. The reader will be left at the end of the current element.
+	 * </p>
+	 * @param reader The reader positioned at the start of the element the children of which represent RDF resources.
+	 * @param forkJoinPool The pool on which to process the resources.
+	 * @throws XMLStreamException if there is an error reading the XML.
+	 * @throws URISyntaxException Thrown if a URI is syntactically incorrect.
+	 * @see #forkChunk(List, URI, ForkJoinPool)
+	 * @see #joinChunks(List)
+	 */
+	protected void processResources(final XMLStreamReader reader, final ForkJoinPool forkJoinPool) throws XMLStreamException, URISyntaxException {
+		final int chunkSize = getParallelChunkSize();
+		final URI baseURI = getElementBaseURI(); //the chunks of elements will be processed without this element, so they will need its base URI
+		final List<ForkJoinTask<RDFXMLProcessor>> chunkTasks = new ArrayList<ForkJoinTask<RDFXMLProcessor>>();
+		boolean isRead = false; //note whether all the elements were read, so that we know to cancel the chunks if reading fails
+		try {
+			Document chunkDocument = null; //each chunk gets its own document
+			List<Element> chunkElements = new ArrayList<Element>(chunkSize);
+			while(nextChildElement(reader)) { //look at each child element
+				if(chunkDocument == null) {
+					chunkDocument = getChunkDOMImplementation().createDocument(null, null, null);
+				}
+				chunkElements.add(readElement(reader, chunkDocument));
+				if(chunkElements.size() == chunkSize) { //if the chunk is full, start processing it
+					chunkTasks.add(forkChunk(chunkElements, baseURI, forkJoinPool));
+					chunkDocument = null;
+					chunkElements = new ArrayList<Element>(chunkSize);
+				}
+			}
+			if(!chunkElements.isEmpty()) { //process any remaining elements
+				chunkTasks.add(forkChunk(chunkElements, baseURI, forkJoinPool));
+			}
+			isRead = true;
+		} finally {
+			if(!isRead) { //if we couldn't read all the elements, don't keep processing chunks that will not be merged
+				for(final ForkJoinTask<RDFXMLProcessor> chunkTask : chunkTasks) {
+					chunkTask.cancel(false);
+				}
+			}
+		}
+		joinChunks(chunkTasks);
+	}
+
+	/**
+	 * Returns the DOM implementation for creating the documents into which chunks of resource elements are read for parallel processing.
+	 * @return The DOM implementation for chunk documents, created when first needed and reused for the life of this processor.
+	 * @see #processResources(XMLStreamReader, ForkJoinPool)
+	 */
+	protected DOMImplementation getChunkDOMImplementation() {
+		if(chunkDOMImplementation == null) {
+			chunkDOMImplementation = XmlDom.createDocumentBuilder(true).getDOMImplementation();
+		}
+		return chunkDOMImplementation;
+	}
+
+	/**
+	 * Reads the current element and all its content into a new element of the given document. Namespace declarations are not copied, as each element and
+	 * attribute retains its namespace. The element is not added to the document. The reader will be left at the end of the element.
+	 * @param reader The reader positioned at the start of an element.
+	 * @param document The document with which to create the element.
+	 * @return A new element with the content of the current element.
+	 * @throws XMLStreamException if there is an error reading the XML.
+	 */
+	protected Element readElement(final XMLStreamReader reader, final Document document) throws XMLStreamException {
+		final Element element = createElement(reader, document);
+		increaseDepth(); //guard against runaway nesting, as it would otherwise only be detected once the element is processed
+		Node parentNode = element; //the node to which content is being added
+		while(true) {
+			switch(reader.next()) {
+				case START_ELEMENT:
+					increaseDepth();
+					parentNode = parentNode.appendChild(createElement(reader, document));
+					break;
+				case END_ELEMENT:
+					decreaseDepth();
+					if(parentNode == element) { //if we reached the end of the element
+						return element;
+					}
+					parentNode = parentNode.getParentNode();
+					break;
+				case CHARACTERS:
+				case CDATA:
+				case SPACE:
+					parentNode.appendChild(document.createTextNode(reader.getText()));
+					break;
+				case ENTITY_REFERENCE: //an entity that was not replaced, such as one declared by a host document DTD that was not read
+					final String replacementText = reader.getText(); //use the replacement text, if known
+					if(replacementText != null) {
+						parentNode.appendChild(document.createTextNode(replacementText));
+					}
+					break;
+				case COMMENT:
+					parentNode.appendChild(document.createComment(reader.getText()));
+					break;
+				case PROCESSING_INSTRUCTION:
+					parentNode.appendChild(document.createProcessingInstruction(reader.getPITarget(), reader.getPIData()));
+					break;
+			}
+		}
+	}
+
+	/**
+	 * Creates an element with the name and attributes of the current element.
+	 * @param reader The reader positioned at the start of an element.
+	 * @param document The document with which to create the element.
+	 * @return A new element with the name and attributes, but not the content, of the current element.
+	 */
+	protected static Element createElement(final XMLStreamReader reader, final Document document) {
+		final Element element = document.createElementNS(toDOMNamespaceURI(reader.getNamespaceURI()), createQualifiedName(reader.getPrefix(), reader.getLocalName()));
+		final int attributeCount = reader.getAttributeCount();
+		for(int i = 0; i < attributeCount; ++i) {
+			element.setAttributeNS(toDOMNamespaceURI(reader.getAttributeNamespace(i)), createQualifiedName(reader.getAttributePrefix(i), reader.getAttributeLocalName(i)),
+					reader.getAttributeValue(i));
+		}
+		return element;
+	}
+
+	/**
+	 * Determines the DOM namespace URI for a namespace URI reported by an XML stream reader, which may report no namespace as the empty string.
+	 * @param namespaceURI The namespace URI reported by the reader, or <code>null</code> if there is no namespace.
+	 * @return The namespace URI, or <code>null</code> if there is no namespace.
+	 */
+	private static String toDOMNamespaceURI(final String namespaceURI) {
+		return namespaceURI != null && !namespaceURI.isEmpty() ? namespaceURI : null;
+	}
+
+	/**
+	 * Creates a qualified name for an element or attribute reported by an XML stream reader, which may report no prefix as the empty string.
+	 * @param prefix The prefix reported by the reader, or <code>null</code> if there is no prefix.
+	 * @param localName The local name.
+	 * @return The local name, prefixed if there is a prefix.
+	 */
+	private static String createQualifiedName(final String prefix, final String localName) {
+		return prefix != null && !prefix.isEmpty() ? prefix + ':' + localName : localName;
+	}
+
+	/**
+	 * Scans the content of the current element, which is not an <code>&lt;rdf:RDF&gt;</code> element, processing any <code>&lt;rdf:RDF&gt;</code> data islands
+	 * it contains. The host markup is scanned iteratively rather than recursively and is not retained; the in-scope base URI is only recalculated for host
+	 * elements that specify <code>xml:base</code>. The reader will be left at the end of the current element, unless processing has terminated early.
+	 * @param reader The reader positioned at the start of the host element to scan.
+	 * @throws XMLStreamException if there is an error reading the XML.
+	 * @throws URISyntaxException Thrown if a URI is syntactically incorrect.
+	 */
+	protected void scanRDFIslands(final XMLStreamReader reader) throws XMLStreamException, URISyntaxException {
+		int depth = 0; //the depth of the host element being scanned, relative to the current element
+		final BitSet baseDepths = new BitSet(); //the depths of host elements that changed the base URI
+		while(!terminated) {
+			switch(reader.next()) {
+				case START_ELEMENT:
+					if(RDF.NAMESPACE_URI.toString().equals(reader.getNamespaceURI()) && ELEMENT_RDF.equals(reader.getLocalName())) { //if this is an RDF data island
+						processRDFIslands(reader); //process the island, leaving the reader at its end
+					} else {
+						++depth;
+						if(reader.getAttributeValue(XMLConstants.XML_NS_URI, XML_BASE_ATTRIBUTE_NAME) != null) { //only track host elements that change the base URI
+							startElement(reader);
+							baseDepths.set(depth);
+						} else {
+							increaseDepth(); //host documents are held to the nesting limit as well
+						}
+					}
+					break;
+				case END_ELEMENT:
+					if(depth == 0) { //if we reached the end of the current element
+						return;
+					}
+					if(baseDepths.get(depth)) { //if this host element changed the base URI, restore the base URI
+						endElement();
+						baseDepths.clear(depth);
+					} else {
+						decreaseDepth();
+					}
+					--depth;
+					break;
+			}
+		}
+	}
+
+	/**
+	 * Returns the XML input factory for reading host documents, such as XHTML pages, that contain RDF data islands. The factory is namespace-aware but does not
+	 * read document type definitions or external entities, so that a host document with a DOCTYPE does not cause the DTD to be retrieved.
+	 * References to entities such as <code>&amp;nbsp;</code> that would be declared by the DTD are reported rather than replaced; text is not coalesced, as
+	 * coalescing would require such entities to be resolved.
+	 * @return The XML input factory for host documents, created when first needed and reused for the life of this processor.
+	 * @throws FactoryConfigurationError if an XML input factory cannot be created.
+	 */
+	protected XMLInputFactory getHostXMLInputFactory() {
+		if(hostXMLInputFactory == null) {
+			final XMLInputFactory xmlInputFactory = XMLInputFactory.newInstance();
+			xmlInputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.TRUE); //make sure the factory understands namespaces
+			xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE); //don't retrieve or process the DTD of the host document
+			xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+			xmlInputFactory.setProperty(XMLInputFactory.IS_REPLACING_ENTITY_REFERENCES, Boolean.FALSE); //report undeclared entities such as &nbsp; instead of failing
+			hostXMLInputFactory = xmlInputFactory;
+		}
+		return hostXMLInputFactory;
+	}
+
+	/**
+	 * Processes the RDF data islands embedded in a host document such as an XHTML page. The host document is read as a stream using the host XML input factory;
+	 * only the <code>&lt;rdf:RDF&gt;</code> subtrees are processed, and no document tree is built for the surrounding markup. The input stream is not closed.
+	 * @param inputStream The input stream from which to read the host document.
+	 * @param baseURI The base URI, or <code>null</code> if the base URI is not known.
+	 * @return The RDF data model resulting from this processing and any previous processing.
+	 * @throws XMLStreamException if there is an error reading the XML.
+	 * @throws URISyntaxException Thrown if a URI is syntactically incorrect.
+	 * @see #getHostXMLInputFactory()
+	 */
+	public RDFModel processHostDocument(final InputStream inputStream, final URI baseURI) throws XMLStreamException, URISyntaxException {
+		final XMLInputFactory xmlInputFactory = getHostXMLInputFactory();
+		final XMLStreamReader reader = baseURI != null ? xmlInputFactory.createXMLStreamReader(baseURI.toString(), inputStream)
+				: xmlInputFactory.createXMLStreamReader(inputStream);
+		try {
+			return processRDF(reader, baseURI); //process the RDF islands in the host document
+		} finally {
+			reader.close(); //release the reader resources; this does not close the underlying input stream
+		}
+	}
+
+	/**
+	 * Processes the current element as representing an RDF resource. The reader will be left at the end of the element.
+	 * @param reader The reader positioned at the start of the XML element that represents the RDF resource.
+	 * @return An object identifying the resource the XML element represents.
+	 * @throws XMLStreamException if there is an error reading the XML.
+	 * @throws URISyntaxException Thrown if a URI is syntactically incorrect.
+	 */
+	protected Resource processResource(final XMLStreamReader reader) throws XMLStreamException, URISyntaxException {
+		startElement(reader); //enter the element
+		final URI elementNamespaceURI = getNamespaceURI(reader); //get the element's namespace, or null if the element has no namespace
+		final String elementLocalName = reader.getLocalName(); //get the element's local name
+		final List<Attribute> attributes = getAttributes(reader); //get the element's attributes before we move past the element
+		final String referenceURIValue = getRDFAttribute(attributes, elementNamespaceURI, ATTRIBUTE_ABOUT); //get the reference URI attribute value, if there is one
+		final String nodeIDValue = getRDFAttribute(attributes, elementNamespaceURI, ATTRIBUTE_NODE_ID); //get the node ID attribute value, if there is one
+		final String anchorID = getRDFAttribute(attributes, elementNamespaceURI, ATTRIBUTE_ID); //get the anchor ID if there is one
+		final Resource resource = getNodeResource(getElementBaseURI(), referenceURIValue, anchorID, nodeIDValue); //get a proxy for the resource
+		addNodeElementType(resource, elementNamespaceURI, elementLocalName); //the element name may give the type of the resource
+		processAttributeProperties(resource, elementNamespaceURI, attributes, AttributePropertyContext.DESCRIPTION); //parse the attributes for the resource description
+		processChildElementProperties(resource, reader); //parse the child elements as properties
+		endElement(); //leave the element
+		if(isTerminatingEarly()) { //note that the resource has been described
+			addDescribedResource(resource);
+		}
+		return resource; //return the resource proxy we created
+	}
+
+	/**
+	 * Parses the child elements of the current element and assign them as properties to the given resource. The reader will be left at the end of the current
+	 * element.
+	 * @param resource The object that represents the resource to which child element properties should be added.
+	 * @param reader The reader positioned within the element the children of which should be considered properties.
+	 * @throws XMLStreamException if there is an error reading the XML.
+	 * @throws URISyntaxException Thrown if a URI is syntactically incorrect.
+	 */
+	protected void processChildElementProperties(final Resource resource, final XMLStreamReader reader) throws XMLStreamException, URISyntaxException {
+		int memberCount = 0; //show that we haven't found any container members, yet
+		while(nextChildElement(reader)) { //look at each child element
+			final Resource property = processProperty(resource, reader, memberCount); //parse the element representing an RDF property
+			//if this is an rdf:_X property (originally serialized as rdf:li)
+			if(RDFResources.isContainerMemberPropertyReference(property.getURI())) {
+				++memberCount; //show that we have another member
+			}
+		}
+	}
+
+	/**
+	 * Parses the given attributes and assign them as properties to the given resource. Special RDF properties such as <code>rdf:about</code> are ignored.
+	 * @param resource The object that represents the resource to which attribute properties should be added.
+	 * @param elementNamespaceURI The namespace of the element to which the attributes belong, or <code>null</code> if the element has no namespace.
+	 * @param attributes The attributes to be considered properties.
+	 * @param context Whether the attributes are part of a resource description, a resource reference, a reference to a blank node resource in short form, or the
+	 *          creation of a blank node from an empty property element.
+	 * @throws URISyntaxException Thrown if an RDF URI is syntactically incorrect.
+	 */
+	protected void processAttributeProperties(final Resource resource, final URI elementNamespaceURI, final List<Attribute> attributes,
+			final AttributePropertyContext context) throws URISyntaxException {
+		for(int i = attributes.size() - 1; i >= 0; --i) { //look at each of the attributes
+			final Attribute attribute = attributes.get(i); //get a reference to this attribute
+			processAttributeProperty(resource, elementNamespaceURI, attribute.getNamespaceURI(), attribute.getPrefix(), attribute.getLocalName(), attribute.getName(),
+					attribute.getValue(), context); //process this attribute
+		}
+	}
+
+	/**
+	 * Processes the current element as representing an RDF property. The reader will be left at the end of the element.
+	 * @param resource The object that represents the resource to which the property should be added.
+	 * @param reader The reader positioned at the start of the XML element that represents the RDF property.
+	 * @param memberCount The number of container member items (represented by <code>rdf:li</code>) the resource already contains.
+	 * @return The resource that represents the processed property, the predicate of the added statement.
+	 * @throws XMLStreamException if there is an error reading the XML.
+	 * @throws URISyntaxException Thrown if an RDF URI is syntactically incorrect.
+	 */
+	public Resource processProperty(final Resource resource, final XMLStreamReader reader, final int memberCount)
+			throws XMLStreamException, URISyntaxException {
+		startElement(reader); //enter the element
+		final URI elementNamespaceURI = getNamespaceURI(reader); //get the element's namespace, or null if there is no namespace URI
+		final String elementLocalName = reader.getLocalName(); //get the element's local name
+		final List<Attribute> attributes = getAttributes(reader); //get the element's attributes before we move past the element
+		final boolean hasAttributes = !attributes.isEmpty() || reader.getNamespaceCount() > 0; //namespace declarations count as attributes in a document tree
+		final RDFResource propertyResource = getPropertyElementResource(elementNamespaceURI, elementLocalName, memberCount); //get a resource from the element name
+		final Object propertyValue; //we'll assign the property value to this variable---either a resource or a literal
+		final String parseType = getRDFAttribute(attributes, elementNamespaceURI, ATTRIBUTE_PARSE_TYPE); //get the parse type, if there is one
+		if(COLLECTION_PARSE_TYPE.equals(parseType)) { //if this is a collection
+			Resource firstItemListResource = null; //we haven't created the first item list resource, yet
+			Resource lastItemListResource = null; //we haven't created the last item list resource, yet
+			while(nextChildElement(reader)) { //look at each child element
+				final Resource elementValue = processResource(reader); //process the child element as an RDF resource
+				lastItemListResource = addListNode(lastItemListResource, elementValue); //add a list node for the resource, linking it to the previous node
+				if(firstItemListResource == null) { //if this is the first list item
+					firstItemListResource = lastItemListResource;
+				}
+			}
+			propertyValue = endList(firstItemListResource, lastItemListResource); //the first list node, or the rdf:nil list we created for an empty list
+		} else if(RESOURCE_PARSE_TYPE.equals(parseType)) { //if this is a resource as a property-and-node
+			propertyValue = getResourceProxy(generateNodeID()); //retrieve or create a new resource proxy with our own generated node ID, as the node is completely anonymous
+			processAttributeProperties((Resource)propertyValue, elementNamespaceURI, attributes, AttributePropertyContext.PROPERTY_AND_NODE); //parse the property attributes, which will simply create errors if there are any unexpected attributes
+			processChildElementProperties((Resource)propertyValue, reader); //parse the child elements as properties
+		} else if(LITERAL_PARSE_TYPE.equals(parseType)) { //if this is an XMLLiteral
+			propertyValue = RDFXMLLiteral.fromCanonicalLexicalForm(readLexicalForm(reader)); //capture the canonical lexical form of the XML content; the document fragment will only be created if needed
+		} else { //by default assume that we're parsing a resource as the property value
+			final String referenceURIValue = getRDFAttribute(attributes, elementNamespaceURI, ATTRIBUTE_RESOURCE); //get the reference URI of the referenced resource, if there is one
+			final String nodeIDValue = getRDFAttribute(attributes, elementNamespaceURI, ATTRIBUTE_NODE_ID); //get the node ID attribute value, if there is one
+			if(referenceURIValue != null || nodeIDValue != null) { //if there is a reference URI or a node ID, this is a reference to another node
+				propertyValue = getReferencedResource(getElementBaseURI(), referenceURIValue, nodeIDValue); //get a proxy for the referenced resource
+				processAttributeProperties((Resource)propertyValue, elementNamespaceURI, attributes, AttributePropertyContext.REFERENCE); //parse the property attributes, assigning them to the property value
+				skipElementContent(reader); //a reference has no content
+			} else { //if there is no reference URI or node ID, there is either an empty property, a normal property description below, or a literal
+				propertyValue = processPropertyValueContents(reader, elementNamespaceURI, attributes, hasAttributes); //process the contents of the element as a normal property value
+			}
+		}
+		//add a statement in the form, {resource/resource proxy, property resource, resource/resource proxy/literal value}
+		addStatement(createStatement(resource, propertyResource, propertyValue));
+		endElement(); //leave the element
+		return propertyResource; //return the resource that represents the property we processed
+	}
+
+	/**
+	 * Processes the contents of a property element as normal property contents. If the element has no content at all but has attributes, it represents a blank
+	 * node with the attributes as properties. The reader will be left at the end of the element.
+	 * @param reader The reader positioned at the start of the property element.
+	 * @param elementNamespaceURI The namespace of the property element, or <code>null</code> if the element has no namespace.
+	 * @param attributes The attributes of the property element.
+	 * @param hasAttributes Whether the element has any attributes, including namespace declarations.
+	 * @return An object representing the property value, such as an {@link RDFLiteral} or a {@link Resource} (which may be a proxy resource).
+	 * @throws XMLStreamException if there is an error reading the XML.
+	 * @throws URISyntaxException Thrown if an RDF URI is syntactically incorrect.
+	 */
+	protected Object processPropertyValueContents(final XMLStreamReader reader, final URI elementNamespaceURI, final List<Attribute> attributes,
+			final boolean hasAttributes) throws XMLStreamException, URISyntaxException {
+		boolean hasChildNodes = false; //we don't know yet if there is any content
+		Resource childResource = null; //show that we haven't found any child elements, yet
+		final StringBuilder textBuilder = new StringBuilder(); //collect the text of the element
+		int eventType;
+		while((eventType = reader.next()) != END_ELEMENT) { //read until the end of the property element
+			switch(eventType) {
+				case START_ELEMENT:
+					if(childResource == null) { //if we haven't already found a child element
+						childResource = processResource(reader); //process the child element as an RDF resource, the value of the property in this case
+					} else { //if we've already found a child element, ignore this one, as the document tree processor does
+						skipElementContent(reader);
+					}
+					break;
+				case CHARACTERS:
+				case CDATA:
+				case SPACE:
+					textBuilder.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength()); //collect the text
+					checkLiteralLength(textBuilder.length()); //stop collecting as soon as the literal is too long
+					break;
+				case ENTITY_REFERENCE: //an entity that was not replaced, such as one declared by a host document DTD that was not read
+					final String replacementText = reader.getText(); //use the replacement text, if known
+					if(replacementText != null) {
+						textBuilder.append(replacementText);
+						checkLiteralLength(textBuilder.length());
+					}
+					break;
+				case COMMENT:
+				case PROCESSING_INSTRUCTION:
+					break; //these contribute no text, but still count as content
+				default:
+					continue; //other events are not content
+			}
+			hasChildNodes = true; //note that we found content
+		}
+		if(!hasChildNodes && hasAttributes) { //if there are no child nodes but there are attributes, this is a blank node
+			final Resource resource = getResourceProxy(generateNodeID()); //retrieve or create a new resource proxy with our own generated node ID, as the node is completely anonymous
+			processAttributeProperties(resource, elementNamespaceURI, attributes, AttributePropertyContext.EMPTY_PROPERTY); //parse the property attributes, assigning them to the property value
+			return resource;
+		}
+		if(childResource != null) { //if we found a child element for the property value
+			return childResource;
+		}
+		//if we didn't find any child elements, the content is a literal
+		final String childText = textBuilder.toString(); //get the child text
+		final String datatype = getRDFAttribute(attributes, elementNamespaceURI, ATTRIBUTE_DATATYPE); //get the datatype, if there is one
+		final String languageTag = datatype == null ? getAttributeValue(attributes, XMLConstants.XML_NS_URI, XML_LANG_ATTRIBUTE_NAME) : null; //get the xml:lang language tag, if there is one
+		return createLiteral(childText, datatype != null ? new URI(datatype) : null, languageTag); //create a typed or plain literal from the element's text
+	}
+
+	/**
+	 * Reads the content of the current element as the lexical form of an XML literal, without creating a document fragment. The reader will be left at the end
+	 * of the element.
+	 * @param reader The reader positioned at the start of the element the content of which should be read.
+	 * @return The lexical form of the content of the element.
+	 * @throws XMLStreamException if there is an error reading the XML.
+	 * @see RDFXMLLiteral.LexicalFormBuilder
+	 */
+	protected String readLexicalForm(final XMLStreamReader reader) throws XMLStreamException {
+		final RDFXMLLiteral.LexicalFormBuilder lexicalFormBuilder = new RDFXMLLiteral.LexicalFormBuilder();
+		int depth = 0; //keep track of how deep we are inside the literal property element
+		while(true) {
+			switch(reader.next()) {
+				case START_ELEMENT:
+					lexicalFormBuilder.startElement(reader.getNamespaceURI(), reader.getPrefix(), reader.getLocalName());
+					for(final Attribute attribute : getAttributes(reader)) { //namespace declarations are not included; they are generated as needed
+						lexicalFormBuilder.attribute(attribute.getNamespaceURI() != null ? attribute.getNamespaceURI().toString() : null, attribute.getPrefix(),
+								attribute.getLocalName(), attribute.getValue());
+					}
+					++depth;
+					increaseDepth(); //literal content counts toward the nesting limit as well
+					break;
+				case END_ELEMENT:
+					if(depth == 0) { //if we reached the end of the literal property element
+						final String lexicalForm = lexicalFormBuilder.toString();
+						checkLiteralLength(lexicalForm.length()); //make sure the literal is within our limits
+						return lexicalForm;
+					}
+					lexicalFormBuilder.endElement();
+					--depth;
+					decreaseDepth();
+					break;
+				case CHARACTERS:
+				case SPACE:
+				case CDATA:
+					lexicalFormBuilder.text(reader.getText());
+					checkLiteralLength(lexicalFormBuilder.length()); //stop collecting as soon as the literal is too long
+					break;
+				case COMMENT:
+					lexicalFormBuilder.comment(reader.getText());
+					break;
+				case PROCESSING_INSTRUCTION:
+					lexicalFormBuilder.processingInstruction(reader.getPITarget(), reader.getPIData());
+					break;
+			}
+		}
+	}
+
+	/**
+	 * Notes that the current element has been entered, determining its base URI from any <code>xml:base</code> attribute and the base URI of its parent.
+	 * @param reader The reader positioned at the start of an element.
+	 * @throws URISyntaxException Thrown if the <code>xml:base</code> URI is syntactically incorrect.
+	 * @see #endElement()
+	 */
+	protected void startElement(final XMLStreamReader reader) throws URISyntaxException {
+		final URI parentBaseURI = getElementBaseURI(); //get the base URI of the parent element
+		final String xmlBase = reader.getAttributeValue(XMLConstants.XML_NS_URI, XML_BASE_ATTRIBUTE_NAME); //see if this element changes the base URI
+		baseURIStack.push(xmlBase != null ? resolve(parentBaseURI, new URI(xmlBase)) : parentBaseURI);
+		increaseDepth(); //guard against runaway nesting
+	}
+
+	/**
+	 * Notes that the current element has been left.
+	 * @see #startElement(XMLStreamReader)
+	 */
+	protected void endElement() {
+		baseURIStack.pop();
+		decreaseDepth();
+	}
+
+	/** @return The in-scope base URI of the current element, or the base URI of the document if no element has been entered. */
+	protected URI getElementBaseURI() {
+		final URI baseURI = baseURIStack.peek();
+		return baseURI != null ? baseURI : getBaseURI();
+	}
+
+	/**
+	 * Creates a URI by resolving the given URI relative to the in-scope base URI of the current element. URIs are resolved according to RDF/XML processing rules.
+	 * @param uri The URI to resolve.
+	 * @return A URI resolved to the in-scope base URI of the current element.
+	 * @throws NullPointerException if the given URI is <code>null</code>.
+	 * @see #resolveURI(URI, URI)
+	 */
+	protected URI resolveURI(final URI uri) {
+		return resolveURI(getElementBaseURI(), uri); //resolve the given URI to the base URI of the element
+	}
+
+	/**
+	 * Advances the reader to the start of the next child element of the current element, skipping any other content.
+	 * @param reader The reader positioned within an element.
+	 * @return <code>true</code> if the reader is at the start of a child element, or <code>false</code> if the reader is at the end of the current element.
+	 * @throws XMLStreamException if there is an error reading the XML.
+	 */
+	protected static boolean nextChildElement(final XMLStreamReader reader) throws XMLStreamException {
+		while(true) {
+			switch(reader.next()) {
+				case START_ELEMENT:
+					return true;
+				case END_ELEMENT:
+					return false;
+			}
+		}
+	}
+
+	/**
+	 * Skips the content of the current element. The reader will be left at the end of the element.
+	 * @param reader The reader positioned at the start of or within an element, but not within a child element.
+	 * @throws XMLStreamException if there is an error reading the XML.
+	 */
+	protected static void skipElementContent(final XMLStreamReader reader) throws XMLStreamException {
+		int depth = 1; //we're inside the element
+		while(depth > 0) {
+			switch(reader.next()) {
+				case START_ELEMENT:
+					++depth;
+					break;
+				case END_ELEMENT:
+					--depth;
+					break;
+			}
+		}
+	}
+
+	/**
+	 * Determines the namespace of the current element.
+	 * @param reader The reader positioned at the start of an element.
+	 * @return The namespace URI of the element, or <code>null</code> if the element has no namespace.
+	 * @throws URISyntaxException Thrown if the namespace is not a valid URI.
+	 */
+	protected URI getNamespaceURI(final XMLStreamReader reader) throws URISyntaxException {
+		return toNamespaceURI(reader.getNamespaceURI()); //use the cached namespace URI
+	}
+
+	/**
+	 * Retrieves the attributes of the current element.
+	 * @param reader The reader positioned at the start of an element.
+	 * @return The attributes of the element, not including namespace declarations.
+	 * @throws IllegalArgumentException if the namespace of an attribute is not a valid URI.
+	 */
+	protected List<Attribute> getAttributes(final XMLStreamReader reader) {
+		final int attributeCount = reader.getAttributeCount();
+		if(attributeCount == 0) { //most property elements have no attributes
+			return Collections.emptyList();
+		}
+		final List<Attribute> attributes = new ArrayList<Attribute>(attributeCount);
+		for(int i = 0; i < attributeCount; ++i) {
+			final URI namespaceURI;
+			try {
+				namespaceURI = toNamespaceURI(reader.getAttributeNamespace(i)); //use the cached namespace URI
+			} catch(final URISyntaxException uriSyntaxException) {
+				throw new IllegalArgumentException(uriSyntaxException.getMessage(), uriSyntaxException);
+			}
+			final String prefix = reader.getAttributePrefix(i);
+			attributes.add(new Attribute(namespaceURI, prefix != null && !prefix.isEmpty() ? prefix : null, reader.getAttributeLocalName(i), reader.getAttributeValue(i)));
+		}
+		return attributes;
+	}
+
+	/**
+	 * Retrieves the value of an attribute.
+	 * @param attributes The attributes to search.
+	 * @param namespaceURI The namespace of the attribute.
+	 * @param localName The local name of the attribute.
+	 * @return The value of the attribute, or <code>null</code> if there is no such attribute.
+	 */
+	protected static String getAttributeValue(final List<Attribute> attributes, final String namespaceURI, final String localName) {
+		for(final Attribute attribute : attributes) {
+			if(localName.equals(attribute.getLocalName()) && attribute.getNamespaceURI() != null && namespaceURI.equals(attribute.getNamespaceURI().toString())) {
+				return attribute.getValue();
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Retrieves an RDF attribute from an element's attributes, if it exists, recognizing either prefixed or non-prefixed attributes according to the RDF
+	 * attribute namespace requirement.
+	 * @param attributes The attributes of the element.
+	 * @param elementNamespaceURI The namespace of the element, or <code>null</code> if the element has no namespace.
+	 * @param attributeLocalName The local name of the RDF attribute to check for.
+	 * @return The specified RDF attribute, or <code>null</code> if no such attribute was found.
+	 * @see #getRDFAttributeNamespaceRequirement()
+	 */
+	protected String getRDFAttribute(final List<Attribute> attributes, final URI elementNamespaceURI, final String attributeLocalName) {
+		final String rdfAttributeValue = getAttributeValue(attributes, RDF.NAMESPACE_URI.toString(), attributeLocalName);
+		if(rdfAttributeValue != null) { //if there is a prefixed attribute value
+			return rdfAttributeValue;
+		}
+		switch(getRDFAttributeNamespaceRequirement()) { //see if the RDF attribute namespace is required
+			case RDF_OR_NULL:
+				if(RDF.NAMESPACE_URI.equals(elementNamespaceURI)) { //the non-prefixed attribute is only allowed in RDF elements
+					for(final Attribute attribute : attributes) {
+						if(attribute.getNamespaceURI() == null && attributeLocalName.equals(attribute.getLocalName())) { //if there is a non-prefixed attribute value
+							return attribute.getValue();
+						}
+					}
+				}
+				break;
+			case ANY:
+				for(int i = attributes.size() - 1; i >= 0; --i) { //look at all the attributes
+					final Attribute attribute = attributes.get(i); //get this attribute
+					if(attributeLocalName.equals(attribute.getLocalName())) { //if this attribute has the correct local name
+						return attribute.getValue(); //return the value of the attribute
+					}
+				}
+				break;
+		}
+		return null; //show that the RDF attribute is not available
+	}
+
+	/**
+	 * An attribute captured from an XML stream, as the attributes are no longer available once the reader moves past the start of an element.
+	 * @author Garret Wilson
+	 */
+	protected static class Attribute {
+
+		/** The namespace of the attribute, or <code>null</code> if the attribute has no namespace. */
+		private final URI namespaceURI;
+
+		/** @return The namespace of the attribute, or <code>null</code> if the attribute has no namespace. */
+		public URI getNamespaceURI() {
+			return namespaceURI;
+		}
+
+		/** The prefix of the attribute, or <code>null</code> if the attribute has no prefix. */
+		private final String prefix;
+
+		/** @return The prefix of the attribute, or <code>null</code> if the attribute has no prefix. */
+		public String getPrefix() {
+			return prefix;
+		}
+
+		/** The local name of the attribute. */
+		private final String localName;
+
+		/** @return The local name of the attribute. */
+		public String getLocalName() {
+			return localName;
+		}
+
+		/** The value of the attribute. */
+		private final String value;
+
+		/** @return The value of the attribute. */
+		public String getValue() {
+			return value;
+		}
+
+		/** @return The qualified name of the attribute. */
+		public String getName() {
+			return prefix != null ? prefix + ':' + localName : localName;
+		}
+
+		/**
+		 * Constructor.
+		 * @param namespaceURI The namespace of the attribute, or <code>null</code> if the attribute has no namespace.
+		 * @param prefix The prefix of the attribute, or <code>null</code> if the attribute has no prefix.
+		 * @param localName The local name of the attribute.
+		 * @param value The value of the attribute.
+		 */
+		public Attribute(final URI namespaceURI, final String prefix, final String localName, final String value) {
+			this.namespaceURI = namespaceURI;
+			this.prefix = prefix;
+			this.localName = localName;
+			this.value = value;
+		}
+	}
+
+}
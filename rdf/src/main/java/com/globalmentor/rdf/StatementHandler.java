@@ -0,0 +1,37 @@
+/*
+ * Copyright © 1996-2008 GlobalMentor, Inc. <https://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.globalmentor.rdf;
+
+/**
+ * A receiver of the statements produced by an RDF processor as it parses an RDF serialization.
+ * <p>
+ * The subject and predicate of each statement are resources, and the object is either a resource or an {@link RDFLiteral}. A resource may be an
+ * {@link RDFResource} or a stand-in identifying the resource; a stand-in for a blank node has no URI, but stand-ins for the same blank node are equal within a
+ * single processing of a serialization and return the node ID as their string representation.
+ * </p>
+ * @author Garret Wilson
+ * @see AbstractRDFProcessor#setStatementHandler(StatementHandler)
+ */
+public interface StatementHandler {
+
+	/**
+	 * Handles a statement produced by an RDF processor.
+	 * @param statement The statement, in the form {subject, predicate, object}.
+	 */
+	public void handleStatement(final Statement statement);
+
+}
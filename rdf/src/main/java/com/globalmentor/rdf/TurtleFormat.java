@@ -0,0 +1,164 @@
+/*
+ * Copyright © 1996-2008 GlobalMentor, Inc. <https://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.globalmentor.rdf;
+
+import java.io.*;
+import java.net.URI;
+import java.util.*;
+
+import static java.nio.charset.StandardCharsets.*;
+import static java.util.Collections.*;
+import static java.util.Objects.*;
+
+/**
+ * The Turtle serialization format of RDF, read and written as UTF-8.
+ * @author Garret Wilson
+ * @see TurtleProcessor
+ * @see TurtleGenerator
+ */
+public class TurtleFormat implements RDFFormat {
+
+	@Override
+	public boolean isReadable() {
+		return true;
+	}
+
+	/**
+	 * {@inheritDoc} Statements are applied to the data model as they are parsed.
+	 */
+	@Override
+	public RDFModel read(final RDFModel rdf, final InputStream inputStream, final URI baseURI, final RDFProjection projection,
+			final RDFProcessingLimits limits) throws IOException {
+		requireNonNull(inputStream, "Input stream cannot be null.");
+		final TurtleProcessor turtleProcessor = new TurtleProcessor(requireNonNull(rdf, "RDF cannot be null."));
+		turtleProcessor.setStreaming(true); //apply statements to the data model as they are parsed, as we have no need for the statements themselves
+		turtleProcessor.setProjection(projection); //only create the resources needed
+		turtleProcessor.setLimits(limits); //guard against unexpectedly large or deep data
+		try {
+			return turtleProcessor.processRDF(inputStream, baseURI);
+		} catch(final RDFLimitExceededException limitExceededException) { //if the data was too large
+			throw (IOException)new IOException(limitExceededException.getMessage()).initCause(limitExceededException); //convert the exception into an IO exception
+		}
+	}
+
+	@Override
+	public void write(final OutputStream outputStream, final URI baseURI, final RDFResource resource, final Map<URI, String> namespacePrefixMap)
+			throws IOException {
+		final Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, UTF_8));
+		createTurtleGenerator(namespacePrefixMap).generate(resource, writer);
+		writer.flush();
+	}
+
+	@Override
+	public void write(final OutputStream outputStream, final URI baseURI, final RDFModel rdf, final Map<URI, String> namespacePrefixMap) throws IOException {
+		final Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, UTF_8));
+		createTurtleGenerator(namespacePrefixMap).generate(rdf, writer);
+		writer.flush();
+	}
+
+	/**
+	 * Creates a generator for writing Turtle.
+	 * @param namespacePrefixMap The serialization prefixes to use, keyed by namespace URIs.
+	 * @return A new Turtle generator with the given prefixes registered.
+	 */
+	protected TurtleGenerator createTurtleGenerator(final Map<URI, String> namespacePrefixMap) {
+		final TurtleGenerator turtleGenerator = new TurtleGenerator();
+		for(final Map.Entry<URI, String> namespaceURIPrefixEntry : namespacePrefixMap.entrySet()) { //transfer the namespace/prefix pairs to the generator
+			turtleGenerator.registerNamespacePrefix(namespaceURIPrefixEntry.getKey(), namespaceURIPrefixEntry.getValue());
+		}
+		return turtleGenerator;
+	}
+
+	/**
+	 * The provider of the Turtle format. Content is recognized if, after any comments, it begins with a prefix or base declaration, or with a statement that uses
+	 * no prefixes: a blank node or collection subject, or a subject IRI followed by an absolute predicate IRI or <code>a</code>. Content recognized as N-Triples
+	 * is also Turtle, but the N-Triples provider is consulted first.
+	 * @author Garret Wilson
+	 */
+	public static class Provider implements RDFFormatProvider {
+
+		/** The shared format instance. */
+		private final RDFFormat format = new TurtleFormat();
+
+		@Override
+		public String getMediaType() {
+			return "text/turtle";
+		}
+
+		@Override
+		public Set<String> getFilenameExtensions() {
+			return singleton("ttl");
+		}
+
+		@Override
+		public boolean isFormat(final byte[] bytes, final int length) {
+			final int index = RDFFormats.skipInsignificant(bytes, length, true);
+			if(RDFFormats.startsWith(bytes, length, index, "@prefix", false) || RDFFormats.startsWith(bytes, length, index, "@base", false)
+					|| RDFFormats.startsWith(bytes, length, index, "PREFIX ", true) || RDFFormats.startsWith(bytes, length, index, "BASE ", true)) { //SPARQL-style declarations are not case sensitive
+				return true;
+			}
+			if(RDFFormats.startsWith(bytes, length, index, "_:", false) || RDFFormats.startsWith(bytes, length, index, "(", false)) { //no other format starts with a blank node or collection
+				return true;
+			}
+			if(RDFFormats.startsWith(bytes, length, index, "[", false)) { //distinguish a blank node property list from a JSON array
+				int nextIndex = index + 1;
+				while(nextIndex < length && isWhitespace(bytes[nextIndex])) {
+					nextIndex++;
+				}
+				if(nextIndex < length && (bytes[nextIndex] == ']' || bytes[nextIndex] == '<')) {
+					return true;
+				}
+				while(nextIndex < length && (Character.isLetterOrDigit(bytes[nextIndex]) || bytes[nextIndex] == '_' || bytes[nextIndex] == '-')) { //prefixed name
+					nextIndex++;
+				}
+				return nextIndex < length && bytes[nextIndex] == ':';
+			}
+			int predicateIndex = RDFFormats.skipIRI(bytes, length, index, false); //subject IRI
+			if(predicateIndex < 0) {
+				return false;
+			}
+			if(predicateIndex >= length || !isWhitespace(bytes[predicateIndex])) { //the subject must be separated from the predicate
+				return false;
+			}
+			while(predicateIndex < length && isWhitespace(bytes[predicateIndex])) {
+				predicateIndex++;
+			}
+			if(RDFFormats.startsWith(bytes, length, predicateIndex, "a", false) && predicateIndex + 1 < length
+					&& isWhitespace(bytes[predicateIndex + 1])) {
+				return true;
+			}
+			return RDFFormats.skipIRI(bytes, length, predicateIndex, true) >= 0; //an element name, as in XML, is never an absolute IRI
+		}
+
+		/**
+		 * Determines whether a byte is Turtle whitespace.
+		 * @param b The byte to check.
+		 * @return <code>true</code> if the byte is a space, tab, carriage return, or line feed.
+		 */
+		private static boolean isWhitespace(final byte b) {
+			return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+		}
+
+		@Override
+		public RDFFormat getFormat() {
+			return format;
+		}
+
+	}
+
+}
@@ -0,0 +1,531 @@
+/*
+ * Copyright © 1996-2008 GlobalMentor, Inc. <https://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.globalmentor.rdf;
+
+import java.io.*;
+import java.net.URI;
+import java.util.*;
+
+import com.globalmentor.model.Locales;
+
+import static com.globalmentor.rdf.spec.RDF.*;
+import static com.globalmentor.xml.spec.XMLSchema.*;
+import static java.util.Collections.*;
+
+/**
+ * Class that writes RDF as Turtle, abbreviating IRIs as prefixed names using the registered namespace prefixes.
+ * <p>
+ * Before writing, the statements to be written are visited once to determine which prefixes are used, so that only those prefixes are declared, and how many
+ * times each blank node is referenced. A blank node referenced only once is written in place as a blank node property list, or as a collection if it is the
+ * first node of a well-formed list; other blank nodes are given labels in the order in which they are encountered. The statements of each subject are grouped
+ * by predicate.
+ * </p>
+ * <p>
+ * This class is not thread safe.
+ * </p>
+ * @author Garret Wilson
+ * @see <a href="https://www.w3.org/TR/turtle/">RDF 1.1 Turtle</a>
+ */
+public class TurtleGenerator {
+
+	/** The prefix of generated blank node labels. */
+	private static final String BLANK_NODE_LABEL_PREFIX = "_:b";
+
+	/** The string used for each level of indention. */
+	private static final String INDENT = "\t";
+
+	/** The reference URI of the <code>rdf:first</code> property. */
+	private static final URI FIRST_PROPERTY_REFERENCE_URI = createReferenceURI(NAMESPACE_URI, FIRST_PROPERTY_NAME);
+
+	/** The reference URI of the <code>rdf:rest</code> property. */
+	private static final URI REST_PROPERTY_REFERENCE_URI = createReferenceURI(NAMESPACE_URI, REST_PROPERTY_NAME);
+
+	/** The reference URI of the <code>rdf:List</code> class. */
+	private static final URI LIST_CLASS_REFERENCE_URI = createReferenceURI(NAMESPACE_URI, LIST_CLASS_NAME);
+
+	/** The map of serialization prefixes, keyed by namespace URIs. */
+	private final Map<URI, String> namespacePrefixMap = new HashMap<URI, String>();
+
+	/**
+	 * Registers the given serialization prefix to be used with the given namespace URI. If a prefix is already registered with the given namespace, it is
+	 * replaced with this prefix. The <code>rdf</code> and <code>xsd</code> prefixes are registered by default.
+	 * @param namespaceURI The namespace URI.
+	 * @param prefix The serialization prefix to use with the given namespace.
+	 */
+	public void registerNamespacePrefix(final URI namespaceURI, final String prefix) {
+		namespacePrefixMap.put(namespaceURI, prefix);
+	}
+
+	/**
+	 * Unregisters the serialization prefix for the given namespace URI. If no prefix is registered for the given namespace, no action occurs.
+	 * @param namespaceURI The namespace URI.
+	 */
+	public void unregisterNamespacePrefix(final URI namespaceURI) {
+		namespacePrefixMap.remove(namespaceURI);
+	}
+
+	/** The labels of the blank nodes encountered, using identity rather than equality for equivalence. */
+	private final Map<RDFResource, String> blankNodeLabelMap = new IdentityHashMap<RDFResource, String>();
+
+	/** The number of references to each blank node, using identity rather than equality for equivalence. */
+	private final Map<RDFResource, Integer> blankNodeReferenceCountMap = new IdentityHashMap<RDFResource, Integer>();
+
+	/** The resources the statements of which have been written, using identity rather than equality for equivalence. */
+	private final Set<RDFResource> writtenResourceSet = newSetFromMap(new IdentityHashMap<RDFResource, Boolean>());
+
+	/** Default constructor. */
+	public TurtleGenerator() {
+		registerNamespacePrefix(NAMESPACE_URI, NAMESPACE_PREFIX);
+		registerNamespacePrefix(XML_SCHEMA_NAMESPACE_URI, "xsd");
+	}
+
+	/** Resets the generator, forgetting any blank node labels and written resources. */
+	public void reset() {
+		blankNodeLabelMap.clear();
+		blankNodeReferenceCountMap.clear();
+		writtenResourceSet.clear();
+	}
+
+	/**
+	 * Writes all the statements of the resources in the given data model, along with those of any blank nodes they reference.
+	 * @param rdf The data model to write.
+	 * @param writer The writer to which the statements should be written.
+	 * @throws IOException if there is an error writing the statements.
+	 */
+	public void generate(final RDFModel rdf, final Writer writer) throws IOException {
+		generate(rdf.getResources(), writer);
+	}
+
+	/**
+	 * Writes the statements of the given resource, along with those of any blank nodes it references.
+	 * @param resource The resource to write.
+	 * @param writer The writer to which the statements should be written.
+	 * @throws IOException if there is an error writing the statements.
+	 */
+	public void generate(final RDFResource resource, final Writer writer) throws IOException {
+		generate(singleton(resource), writer);
+	}
+
+	/**
+	 * Writes the statements of the given resources, along with those of any blank nodes they reference. Blank nodes referenced only once are written in place;
+	 * any other blank nodes not among the given resources are written after them.
+	 * @param resources The resources to write.
+	 * @param writer The writer to which the statements should be written.
+	 * @throws IOException if there is an error writing the statements.
+	 */
+	protected void generate(final Iterable<RDFResource> resources, final Writer writer) throws IOException {
+		reset();
+		final List<RDFResource> blankNodes = new ArrayList<RDFResource>(); //the blank nodes in the order encountered
+		final SortedMap<String, URI> usedPrefixNamespaceMap = new TreeMap<String, URI>();
+		final Deque<RDFResource> resourceStack = new ArrayDeque<RDFResource>();
+		for(final RDFResource resource : resources) { //gather the prefixes used and count the blank node references
+			resourceStack.push(resource);
+			RDFResource subject;
+			while((subject = resourceStack.poll()) != null) {
+				if(!writtenResourceSet.add(subject)) { //the written set temporarily records the resources visited
+					continue;
+				}
+				if(subject.getURI() == null) {
+					blankNodes.add(subject);
+				} else {
+					addUsedPrefix(subject.getURI(), usedPrefixNamespaceMap);
+				}
+				for(final RDFPropertyValuePair propertyValuePair : subject.getProperties()) {
+					addUsedPrefix(propertyValuePair.getProperty().getURI(), usedPrefixNamespaceMap);
+					final RDFObject value = propertyValuePair.getPropertyValue();
+					if(value instanceof RDFResource) {
+						final RDFResource valueResource = (RDFResource)value;
+						if(valueResource.getURI() != null) {
+							addUsedPrefix(valueResource.getURI(), usedPrefixNamespaceMap);
+						} else {
+							final Integer referenceCount = blankNodeReferenceCountMap.get(valueResource);
+							blankNodeReferenceCountMap.put(valueResource, referenceCount != null ? referenceCount + 1 : 1);
+							if(!writtenResourceSet.contains(valueResource)) { //blank nodes are not necessarily in the data model, so they are followed as they are referenced
+								resourceStack.push(valueResource);
+							}
+						}
+					} else if(value instanceof RDFTypedLiteral) {
+						addUsedPrefix(((RDFTypedLiteral<?>)value).getDatatypeURI(), usedPrefixNamespaceMap);
+					}
+				}
+			}
+		}
+		writtenResourceSet.clear();
+		for(final Map.Entry<String, URI> prefixNamespaceEntry : usedPrefixNamespaceMap.entrySet()) { //declare the prefixes used
+			writer.write("@prefix ");
+			writer.write(prefixNamespaceEntry.getKey());
+			writer.write(": ");
+			writeIRI(prefixNamespaceEntry.getValue(), writer);
+			writer.write(" .\n");
+		}
+		if(!usedPrefixNamespaceMap.isEmpty()) {
+			writer.write('\n');
+		}
+		for(final RDFResource resource : resources) {
+			if(resource.getURI() != null || !isNestable(resource)) { //blank nodes referenced once are written where they are referenced
+				writeSubject(resource, writer);
+			}
+		}
+		for(final RDFResource blankNode : blankNodes) { //write any blank nodes not yet written, such as those only referenced from a cycle of blank nodes
+			writeSubject(blankNode, writer);
+		}
+	}
+
+	/**
+	 * Records the prefix used to abbreviate the given reference URI, if any.
+	 * @param referenceURI The reference URI.
+	 * @param usedPrefixNamespaceMap The namespace URIs of the prefixes used, keyed to the prefixes.
+	 */
+	private void addUsedPrefix(final URI referenceURI, final Map<String, URI> usedPrefixNamespaceMap) {
+		final Map.Entry<URI, String> namespacePrefixEntry = getNamespacePrefixEntry(referenceURI);
+		if(namespacePrefixEntry != null) {
+			usedPrefixNamespaceMap.put(namespacePrefixEntry.getValue(), namespacePrefixEntry.getKey());
+		}
+	}
+
+	/**
+	 * Determines whether a blank node can be written in place where it is referenced.
+	 * @param blankNode The blank node.
+	 * @return <code>true</code> if the blank node is referenced exactly once and has not been written.
+	 */
+	private boolean isNestable(final RDFResource blankNode) {
+		final Integer referenceCount = blankNodeReferenceCountMap.get(blankNode);
+		return referenceCount != null && referenceCount.intValue() == 1 && !writtenResourceSet.contains(blankNode);
+	}
+
+	/**
+	 * Writes a resource and its properties as a Turtle statement, unless it has already been written or has no properties.
+	 * @param subject The resource to write.
+	 * @param writer The writer to which the statement should be written.
+	 * @throws IOException if there is an error writing the statement.
+	 */
+	protected void writeSubject(final RDFResource subject, final Writer writer) throws IOException {
+		if(subject.getPropertyCount() == 0 || !writtenResourceSet.add(subject)) {
+			return;
+		}
+		writeResource(subject, writer);
+		writePredicateObjectList(subject, 1, writer);
+		writer.write(" .\n\n");
+	}
+
+	/**
+	 * Writes the properties of a resource, grouped by predicate, with each predicate on its own line. Any types are written first.
+	 * @param subject The resource the properties of which to write.
+	 * @param depth The level of indention of the predicates.
+	 * @param writer The writer to which the properties should be written.
+	 * @throws IOException if there is an error writing the properties.
+	 */
+	protected void writePredicateObjectList(final RDFResource subject, final int depth, final Writer writer) throws IOException {
+		final Map<URI, List<RDFObject>> predicateObjectsMap = new LinkedHashMap<URI, List<RDFObject>>();
+		predicateObjectsMap.put(TYPE_PROPERTY_REFERENCE_URI, new ArrayList<RDFObject>()); //types are listed first
+		for(final RDFPropertyValuePair propertyValuePair : subject.getProperties()) {
+			predicateObjectsMap.computeIfAbsent(propertyValuePair.getProperty().getURI(), uri -> new ArrayList<RDFObject>()).add(propertyValuePair.getPropertyValue());
+		}
+		boolean isFirstPredicate = true;
+		for(final Map.Entry<URI, List<RDFObject>> predicateObjectsEntry : predicateObjectsMap.entrySet()) {
+			final List<RDFObject> objects = predicateObjectsEntry.getValue();
+			if(objects.isEmpty()) {
+				continue;
+			}
+			if(!isFirstPredicate) {
+				writer.write(" ;");
+			}
+			writer.write('\n');
+			writeIndent(depth, writer);
+			final URI predicateURI = predicateObjectsEntry.getKey();
+			if(TYPE_PROPERTY_REFERENCE_URI.equals(predicateURI)) {
+				writer.write('a');
+			} else {
+				writeURI(predicateURI, writer);
+			}
+			writer.write(' ');
+			boolean isFirstObject = true;
+			for(final RDFObject object : objects) {
+				if(!isFirstObject) {
+					writer.write(", ");
+				}
+				writeObject(object, depth, writer);
+				isFirstObject = false;
+			}
+			isFirstPredicate = false;
+		}
+	}
+
+	/**
+	 * Writes the object of a statement. A blank node referenced only once is written in place.
+	 * @param object The object to write.
+	 * @param depth The level of indention of the predicate of the statement.
+	 * @param writer The writer to which the object should be written.
+	 * @throws IOException if there is an error writing the object.
+	 */
+	protected void writeObject(final RDFObject object, final int depth, final Writer writer) throws IOException {
+		if(!(object instanceof RDFResource)) {
+			writeLiteral((RDFLiteral)object, writer);
+			return;
+		}
+		final RDFResource resource = (RDFResource)object;
+		if(resource.getURI() != null || !isNestable(resource)) {
+			writeResource(resource, writer);
+			return;
+		}
+		final List<RDFObject> items = getCollectionItems(resource);
+		if(items != null) { //write a well-formed list as a collection
+			writer.write('(');
+			for(final RDFObject item : items) {
+				writer.write(' ');
+				writeObject(item, depth, writer);
+			}
+			writer.write(" )");
+		} else {
+			writtenResourceSet.add(resource);
+			if(resource.getPropertyCount() == 0) {
+				writer.write("[]");
+			} else {
+				writer.write('[');
+				writePredicateObjectList(resource, depth + 1, writer);
+				writer.write('\n');
+				writeIndent(depth, writer);
+				writer.write(']');
+			}
+		}
+	}
+
+	/**
+	 * Determines the items of the list beginning with the given blank node, if the list can be written as a collection. Each node of the list must be a blank
+	 * node referenced only once, with exactly one <code>rdf:first</code> and one <code>rdf:rest</code> property and no properties other than an optional
+	 * <code>rdf:type</code> of <code>rdf:List</code>, and the list must end with <code>rdf:nil</code>. If the list can be written as a collection, its nodes are
+	 * marked as written.
+	 * @param listNode The first node of the list.
+	 * @return The items of the list, or <code>null</code> if the list cannot be written as a collection.
+	 */
+	protected List<RDFObject> getCollectionItems(final RDFResource listNode) {
+		final List<RDFObject> items = new ArrayList<RDFObject>();
+		final Set<RDFResource> listNodes = newSetFromMap(new IdentityHashMap<RDFResource, Boolean>()); //guard against cycles
+		RDFResource node = listNode;
+		while(!NIL_RESOURCE_URI.equals(node.getURI())) {
+			if(node.getURI() != null || !isNestable(node) || listNodes.contains(node)) {
+				return null;
+			}
+			RDFObject first = null;
+			RDFObject rest = null;
+			for(final RDFPropertyValuePair propertyValuePair : node.getProperties()) {
+				final URI propertyURI = propertyValuePair.getProperty().getURI();
+				final RDFObject value = propertyValuePair.getPropertyValue();
+				if(FIRST_PROPERTY_REFERENCE_URI.equals(propertyURI) && first == null) {
+					first = value;
+				} else if(REST_PROPERTY_REFERENCE_URI.equals(propertyURI) && rest == null) {
+					rest = value;
+				} else if(!TYPE_PROPERTY_REFERENCE_URI.equals(propertyURI) || !(value instanceof RDFResource) || !LIST_CLASS_REFERENCE_URI.equals(((RDFResource)value).getURI())) {
+					return null;
+				}
+			}
+			if(first == null || !(rest instanceof RDFResource)) {
+				return null;
+			}
+			items.add(first);
+			listNodes.add(node);
+			node = (RDFResource)rest;
+		}
+		if(listNodes.isEmpty()) {
+			return null;
+		}
+		writtenResourceSet.addAll(listNodes);
+		return items;
+	}
+
+	/**
+	 * Writes the term identifying a resource: a prefixed name or IRI reference, or a blank node label if the resource has no reference URI.
+	 * @param resource The resource to identify.
+	 * @param writer The writer to which the term should be written.
+	 * @throws IOException if there is an error writing the term.
+	 */
+	protected void writeResource(final RDFResource resource, final Writer writer) throws IOException {
+		final URI referenceURI = resource.getURI();
+		if(referenceURI != null) {
+			writeURI(referenceURI, writer);
+		} else {
+			String label = blankNodeLabelMap.get(resource);
+			if(label == null) {
+				label = BLANK_NODE_LABEL_PREFIX + (blankNodeLabelMap.size() + 1);
+				blankNodeLabelMap.put(resource, label);
+			}
+			writer.write(label);
+		}
+	}
+
+	/**
+	 * Writes a URI as a prefixed name if it is in a namespace with a registered prefix and the rest of the URI is a valid local name, or as an IRI reference
+	 * otherwise.
+	 * @param uri The URI to write.
+	 * @param writer The writer to which the URI should be written.
+	 * @throws IOException if there is an error writing the URI.
+	 */
+	protected void writeURI(final URI uri, final Writer writer) throws IOException {
+		final Map.Entry<URI, String> namespacePrefixEntry = getNamespacePrefixEntry(uri);
+		if(namespacePrefixEntry != null) {
+			writer.write(namespacePrefixEntry.getValue());
+			writer.write(':');
+			writer.write(uri.toString().substring(namespacePrefixEntry.getKey().toString().length()));
+		} else {
+			writeIRI(uri, writer);
+		}
+	}
+
+	/**
+	 * Determines the namespace with a registered prefix that can be used to abbreviate the given URI. If more than one namespace applies, the longest is used.
+	 * @param uri The URI to abbreviate.
+	 * @return The namespace URI and prefix, or <code>null</code> if the URI cannot be abbreviated.
+	 */
+	protected Map.Entry<URI, String> getNamespacePrefixEntry(final URI uri) {
+		final String iri = uri.toString();
+		Map.Entry<URI, String> bestNamespacePrefixEntry = null;
+		int bestLength = -1;
+		for(final Map.Entry<URI, String> namespacePrefixEntry : namespacePrefixMap.entrySet()) {
+			final String namespace = namespacePrefixEntry.getKey().toString();
+			if(namespace.length() > bestLength && iri.startsWith(namespace) && isLocalName(iri.substring(namespace.length()))) {
+				bestNamespacePrefixEntry = namespacePrefixEntry;
+				bestLength = namespace.length();
+			}
+		}
+		return bestNamespacePrefixEntry;
+	}
+
+	/**
+	 * Determines whether the given string can be written as the local part of a prefixed name without escaping.
+	 * @param localName The local name to check.
+	 * @return <code>true</code> if the local name is empty, or consists of name characters and internal periods.
+	 */
+	protected static boolean isLocalName(final String localName) {
+		final int length = localName.length();
+		for(int i = 0; i < length; ++i) {
+			final char c = localName.charAt(i);
+			if(c == '.') {
+				if(i == 0 || i == length - 1) {
+					return false;
+				}
+			} else if(c == '-') {
+				if(i == 0) {
+					return false;
+				}
+			} else if(!Character.isLetterOrDigit(c) && c != '_' && c != ':' && !Character.isSurrogate(c)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Writes an IRI reference, escaping any characters not allowed in a Turtle IRI reference.
+	 * @param uri The URI to write.
+	 * @param writer The writer to which the IRI reference should be written.
+	 * @throws IOException if there is an error writing the IRI reference.
+	 */
+	protected void writeIRI(final URI uri, final Writer writer) throws IOException {
+		final String iri = uri.toString();
+		writer.write('<');
+		final int length = iri.length();
+		for(int i = 0; i < length; ++i) {
+			final char c = iri.charAt(i);
+			if(c <= ' ' || c == '<' || c == '>' || c == '"' || c == '{' || c == '}' || c == '|' || c == '^' || c == '`' || c == '\\') {
+				writer.write(String.format("\\u%04X", (int)c));
+			} else {
+				writer.write(c);
+			}
+		}
+		writer.write('>');
+	}
+
+	/**
+	 * Writes a literal, including any language tag or datatype. Integers and booleans are written in their abbreviated forms if their lexical forms allow.
+	 * @param literal The literal to write.
+	 * @param writer The writer to which the literal should be written.
+	 * @throws IOException if there is an error writing the literal.
+	 */
+	protected void writeLiteral(final RDFLiteral literal, final Writer writer) throws IOException {
+		final String lexicalForm = literal.getLexicalForm();
+		if(literal instanceof RDFTypedLiteral) {
+			final URI datatypeURI = ((RDFTypedLiteral<?>)literal).getDatatypeURI();
+			if((INTEGER_DATATYPE_URI.equals(datatypeURI) && lexicalForm.matches("[+-]?[0-9]+"))
+					|| (BOOLEAN_DATATYPE_URI.equals(datatypeURI) && (lexicalForm.equals("true") || lexicalForm.equals("false")))) {
+				writer.write(lexicalForm);
+				return;
+			}
+			writeString(lexicalForm, writer);
+			writer.write("^^");
+			writeURI(datatypeURI, writer);
+			return;
+		}
+		writeString(lexicalForm, writer);
+		if(literal instanceof RDFPlainLiteral) {
+			final Locale language = ((RDFPlainLiteral)literal).getLanguage();
+			if(language != null) {
+				writer.write('@');
+				writer.write(Locales.getLanguageTag(language));
+			}
+		}
+	}
+
+	/**
+	 * Writes a quoted string, escaping the characters that must be escaped.
+	 * @param string The string to write.
+	 * @param writer The writer to which the string should be written.
+	 * @throws IOException if there is an error writing the string.
+	 */
+	protected void writeString(final String string, final Writer writer) throws IOException {
+		writer.write('"');
+		final int length = string.length();
+		int start = 0; //write unescaped runs of characters at once
+		for(int i = 0; i < length; ++i) {
+			final String escape;
+			switch(string.charAt(i)) {
+				case '"':
+					escape = "\\\"";
+					break;
+				case '\\':
+					escape = "\\\\";
+					break;
+				case '\n':
+					escape = "\\n";
+					break;
+				case '\r':
+					escape = "\\r";
+					break;
+				default:
+					continue;
+			}
+			writer.write(string, start, i - start);
+			writer.write(escape);
+			start = i + 1;
+		}
+		writer.write(string, start, length - start);
+		writer.write('"');
+	}
+
+	/**
+	 * Writes indention for the given level.
+	 * @param depth The level of indention.
+	 * @param writer The writer to which the indention should be written.
+	 * @throws IOException if there is an error writing the indention.
+	 */
+	private static void writeIndent(final int depth, final Writer writer) throws IOException {
+		for(int i = 0; i < depth; ++i) {
+			writer.write(INDENT);
+		}
+	}
+
+}
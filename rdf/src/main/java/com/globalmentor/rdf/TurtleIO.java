@@ -0,0 +1,62 @@
+/*
+ * Copyright © 1996-2008 GlobalMentor, Inc. <https://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.globalmentor.rdf;
+
+import java.io.*;
+import java.net.URI;
+
+/**
+ * Class for loading and saving an entire RDF data model as Turtle, abbreviating IRIs using the registered namespace prefixes.
+ * @author Garret Wilson
+ * @see TurtleFormat
+ */
+public class TurtleIO extends AbstractRDFIO<RDFModel> {
+
+	/** The Turtle format used for reading and writing. */
+	private final RDFFormat format = new TurtleFormat();
+
+	/** Default constructor. */
+	public TurtleIO() {
+		super(RDFModel.class);
+	}
+
+	/**
+	 * Reads RDF data from an input stream using an existing RDF instance.
+	 * @param rdf The RDF instance to use in creating new resources.
+	 * @param inputStream The input stream containing UTF-8 encoded Turtle.
+	 * @param baseURI The base URI of the data, or <code>null</code> if no base URI is available.
+	 * @return The RDF instance representing the data read.
+	 * @throws NullPointerException if the given RDF instance and/or input stream is <code>null</code>.
+	 * @throws IOException if there is an error reading the data, or if the data exceeds the processing limits.
+	 */
+	public RDFModel read(final RDFModel rdf, final InputStream inputStream, final URI baseURI) throws IOException {
+		return format.read(rdf, inputStream, baseURI, null, getLimits());
+	}
+
+	/**
+	 * Writes an RDF data model to an output stream as UTF-8 encoded Turtle. The output stream is flushed but not closed.
+	 * @param outputStream The output stream to which to write the data.
+	 * @param baseURI The base URI of the data, or <code>null</code> if no base URI is available.
+	 * @param rdf The data model to write to the given output stream.
+	 * @throws IOException Thrown if there is an error writing the data.
+	 */
+	public void write(final OutputStream outputStream, final URI baseURI, final RDFModel rdf) throws IOException {
+		format.write(outputStream, baseURI, rdf, getNamespacePrefixMap());
+	}
+
+}
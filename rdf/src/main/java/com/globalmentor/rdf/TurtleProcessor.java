@@ -0,0 +1,834 @@
+/*
+ * Copyright © 1996-2008 GlobalMentor, Inc. <https://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.globalmentor.rdf;
+
+import java.io.*;
+import java.net.*;
+import java.util.*;
+
+import com.globalmentor.io.ParseIOException;
+import com.globalmentor.model.Locales;
+import com.globalmentor.net.Resource;
+
+import static com.globalmentor.rdf.spec.RDF.*;
+import static com.globalmentor.xml.spec.XMLSchema.*;
+import static java.nio.charset.StandardCharsets.*;
+
+/**
+ * Class that is able to construct an RDF data model from a Turtle serialization.
+ * <p>
+ * The input is parsed in a single pass as it is read, and each statement is added as soon as it is parsed, so that in streaming mode the data model is
+ * populated without the input or the parsed statements being retained. Both the <code>@prefix</code>/<code>@base</code> directives and their SPARQL-style
+ * <code>PREFIX</code>/<code>BASE</code> equivalents are recognized. Collections are represented as for the RDF/XML <code>Collection</code> parse type, with
+ * each list node explicitly typed as an <code>rdf:List</code>.
+ * </p>
+ * @author Garret Wilson
+ * @see <a href="https://www.w3.org/TR/turtle/">RDF 1.1 Turtle</a>
+ */
+public class TurtleProcessor extends AbstractRDFProcessor {
+
+	/** The reference URI of the <code>xsd:decimal</code> datatype. */
+	protected static final URI DECIMAL_DATATYPE_URI = createReferenceURI(XML_SCHEMA_NAMESPACE_URI, "decimal");
+
+	/** The character beginning a comment. */
+	protected static final char COMMENT_BEGIN = '#';
+	/** The character beginning an IRI reference. */
+	protected static final char IRI_BEGIN = '<';
+	/** The character ending an IRI reference. */
+	protected static final char IRI_END = '>';
+	/** The character separating a prefix from a local name. */
+	protected static final char PREFIX_DELIMITER = ':';
+	/** The character beginning a blank node label. */
+	protected static final char BLANK_NODE_LABEL_BEGIN = '_';
+	/** The character beginning a blank node property list. */
+	protected static final char BLANK_NODE_PROPERTY_LIST_BEGIN = '[';
+	/** The character ending a blank node property list. */
+	protected static final char BLANK_NODE_PROPERTY_LIST_END = ']';
+	/** The character beginning a collection. */
+	protected static final char COLLECTION_BEGIN = '(';
+	/** The character ending a collection. */
+	protected static final char COLLECTION_END = ')';
+	/** The character beginning a directive or a language tag. */
+	protected static final char AT = '@';
+	/** The character delimiting a literal string. */
+	protected static final char STRING_DELIMITER = '"';
+	/** The alternate character delimiting a literal string. */
+	protected static final char ALTERNATE_STRING_DELIMITER = '\'';
+	/** The character introducing a datatype IRI, which appears twice. */
+	protected static final char DATATYPE_DELIMITER = '^';
+	/** The escape character in strings, IRIs, and local names. */
+	protected static final char ESCAPE = '\\';
+	/** The character ending a statement. */
+	protected static final char STATEMENT_END = '.';
+	/** The character separating predicate-object lists. */
+	protected static final char PREDICATE_OBJECT_LIST_DELIMITER = ';';
+	/** The character separating objects. */
+	protected static final char OBJECT_LIST_DELIMITER = ',';
+
+	/** The keyword of the prefix directive. */
+	protected static final String PREFIX_KEYWORD = "prefix";
+	/** The keyword of the base directive. */
+	protected static final String BASE_KEYWORD = "base";
+	/** The keyword abbreviating the <code>rdf:type</code> predicate. */
+	protected static final String TYPE_KEYWORD = "a";
+	/** The keyword of the boolean true literal. */
+	protected static final String TRUE_KEYWORD = "true";
+	/** The keyword of the boolean false literal. */
+	protected static final String FALSE_KEYWORD = "false";
+
+	/** The namespace IRIs, keyed to the prefixes declared in the document. */
+	private final Map<String, String> prefixNamespaceMap = new HashMap<String, String>();
+
+	/** The resources representing predicates and types, keyed to their resolved IRIs, until the processor is reset. */
+	private final Map<String, RDFResource> iriResourceMap = new HashMap<String, RDFResource>();
+
+	/** The reader from which characters are being read. */
+	private Reader reader = null;
+
+	/** The buffer of characters read. */
+	private final char[] buffer = new char[8 * 1024];
+
+	/** The index of the next character to read in the buffer. */
+	private int index = 0;
+
+	/** The number of valid characters in the buffer. */
+	private int count = 0;
+
+	/** The index of the current line. */
+	private long lineIndex = 0;
+
+	/** The index of the next character in the current line. */
+	private long charIndex = 0;
+
+	/** Default constructor. */
+	public TurtleProcessor() {
+		super(); //construct parent base class
+	}
+
+	/**
+	 * Constructor that specifies an existing data model to continue filling.
+	 * @param newRDF The RDF data model to use.
+	 */
+	public TurtleProcessor(final RDFModel newRDF) {
+		super(newRDF); //construct the parent class
+	}
+
+	@Override
+	public void reset() {
+		super.reset();
+		prefixNamespaceMap.clear(); //prefixes are scoped to a document
+		iriResourceMap.clear(); //the data model may change before the next processing
+		reader = null; //release the reader
+		index = 0;
+		count = 0;
+		lineIndex = 0;
+		charIndex = 0;
+	}
+
+	/**
+	 * Processes RDF serialized as Turtle.
+	 * @param inputStream The input stream containing UTF-8 encoded Turtle. The stream will not be closed.
+	 * @param baseURI The base URI, or <code>null</code> if the base URI is not known.
+	 * @return The RDF data model resulting from this processing and any previous processing.
+	 * @throws IOException if there is an error reading the data or the data is not valid Turtle.
+	 */
+	public RDFModel processRDF(final InputStream inputStream, final URI baseURI) throws IOException {
+		return processRDF(new InputStreamReader(inputStream, UTF_8), baseURI);
+	}
+
+	/**
+	 * Processes RDF serialized as Turtle.
+	 * @param reader The reader from which to read the Turtle. The reader will not be closed.
+	 * @param baseURI The base URI, or <code>null</code> if the base URI is not known.
+	 * @return The RDF data model resulting from this processing and any previous processing.
+	 * @throws IOException if there is an error reading the data or the data is not valid Turtle.
+	 */
+	public RDFModel processRDF(final Reader reader, final URI baseURI) throws IOException {
+		setBaseURI(baseURI); //set the base URI
+		reset(); //make sure we don't have temporary data left over from last time
+		this.reader = reader;
+		while(skipWhitespace()) { //parse each statement until the end of the data
+			parseStatement();
+		}
+		createResources(); //create all proxied resources in the statements we gathered
+		processStatements(); //process all the statements and assign resources to properties
+		setBaseURI(baseURI); //restore the base URI, which the data may have changed
+		reset(); //release all our references temporary resource proxies
+		return getRDF(); //return the RDF data collected
+	}
+
+	/**
+	 * Parses a directive or a list of triples ending with a period.
+	 * @throws IOException if there is an error reading the data or the data is not valid Turtle.
+	 */
+	protected void parseStatement() throws IOException {
+		final int c = peek();
+		if(c == AT) { //@prefix or @base
+			read();
+			final String keyword = parseName();
+			if(PREFIX_KEYWORD.equals(keyword)) {
+				parsePrefixDirective();
+			} else if(BASE_KEYWORD.equals(keyword)) {
+				parseBaseDirective();
+			} else {
+				throw createParseIOException("Unknown directive @" + keyword + ".");
+			}
+			skipWhitespace();
+			expect(STATEMENT_END);
+			return;
+		}
+		final Resource subject;
+		if(c == BLANK_NODE_PROPERTY_LIST_BEGIN) { //a blank node property list may appear alone
+			subject = parseBlankNodePropertyList();
+			skipWhitespace();
+			if(peek() == STATEMENT_END) {
+				read();
+				return;
+			}
+		} else if(c == IRI_BEGIN) {
+			subject = getResourceProxy(parseIRI());
+		} else if(c == COLLECTION_BEGIN) {
+			subject = parseCollection();
+		} else if(c == BLANK_NODE_LABEL_BEGIN && peek(1) == PREFIX_DELIMITER) {
+			subject = getResourceProxy(parseBlankNodeLabel());
+		} else { //a prefixed name, or a SPARQL-style directive
+			final String prefix = parsePrefix();
+			if(peek() != PREFIX_DELIMITER) { //if this is not a prefixed name, it must be a keyword
+				if(PREFIX_KEYWORD.equalsIgnoreCase(prefix)) {
+					parsePrefixDirective();
+				} else if(BASE_KEYWORD.equalsIgnoreCase(prefix)) {
+					parseBaseDirective();
+				} else {
+					throw createParseIOException("Expected subject.");
+				}
+				return; //SPARQL-style directives have no ending period
+			}
+			subject = getResourceProxy(parsePrefixedName(prefix));
+		}
+		parsePredicateObjectList(subject);
+		skipWhitespace();
+		expect(STATEMENT_END);
+	}
+
+	/**
+	 * Parses the prefix and namespace IRI of a prefix directive, following the directive keyword.
+	 * @throws IOException if there is an error reading the data or the data is not valid Turtle.
+	 */
+	protected void parsePrefixDirective() throws IOException {
+		skipWhitespace();
+		final String prefix = parsePrefix();
+		expect(PREFIX_DELIMITER);
+		skipWhitespace();
+		prefixNamespaceMap.put(prefix, parseIRI().toString());
+	}
+
+	/**
+	 * Parses the IRI of a base directive, following the directive keyword, and changes the base URI.
+	 * @throws IOException if there is an error reading the data or the data is not valid Turtle.
+	 */
+	protected void parseBaseDirective() throws IOException {
+		skipWhitespace();
+		setBaseURI(parseIRI()); //relative base IRIs are resolved against the current base
+	}
+
+	/**
+	 * Parses a list of predicates, each followed by a list of objects, and adds the resulting statements.
+	 * @param subject The subject of the statements.
+	 * @throws IOException if there is an error reading the data or the data is not valid Turtle.
+	 */
+	protected void parsePredicateObjectList(final Resource subject) throws IOException {
+		while(true) {
+			skipWhitespace();
+			final RDFResource predicate = parseVerb();
+			do { //parse each object for this predicate
+				skipWhitespace();
+				addStatement(createStatement(subject, predicate, parseObject(predicate)));
+				skipWhitespace();
+			} while(consume(OBJECT_LIST_DELIMITER));
+			if(!consume(PREDICATE_OBJECT_LIST_DELIMITER)) {
+				return;
+			}
+			while(skipWhitespace() && consume(PREDICATE_OBJECT_LIST_DELIMITER)) { //repeated delimiters are allowed
+			}
+			final int c = peek();
+			if(c == STATEMENT_END || c == BLANK_NODE_PROPERTY_LIST_END || c == -1) { //a trailing delimiter ends the list
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Parses a predicate, which may be abbreviated as <code>a</code> for <code>rdf:type</code>. Predicates are never proxied.
+	 * @return The predicate resource.
+	 * @throws IOException if there is an error reading the data or the data is not valid Turtle.
+	 */
+	protected RDFResource parseVerb() throws IOException {
+		if(peek() == IRI_BEGIN) {
+			return locateResource(parseIRI());
+		}
+		final String prefix = parsePrefix();
+		if(peek() != PREFIX_DELIMITER) { //if this isn't a prefixed name, it must be the type keyword
+			if(!TYPE_KEYWORD.equals(prefix)) {
+				throw createParseIOException("Expected predicate.");
+			}
+			return getTypeProperty();
+		}
+		return locateResource(parsePrefixedName(prefix));
+	}
+
+	/**
+	 * Parses an object.
+	 * @param predicate The predicate of the statement; resources that are the object of <code>rdf:type</code> are located directly, so that resources may be
+	 *          created as soon as their type is known.
+	 * @return The resource proxy or literal object.
+	 * @throws IOException if there is an error reading the data or the data is not valid Turtle.
+	 * @throws RDFLimitExceededException if a literal exceeds the maximum literal length.
+	 */
+	protected Object parseObject(final RDFResource predicate) throws IOException {
+		final int c = peek();
+		switch(c) {
+			case IRI_BEGIN: {
+				final URI uri = parseIRI();
+				return TYPE_PROPERTY_REFERENCE_URI.equals(predicate.getURI()) ? locateResource(uri) : getResourceProxy(uri);
+			}
+			case BLANK_NODE_PROPERTY_LIST_BEGIN:
+				return parseBlankNodePropertyList();
+			case COLLECTION_BEGIN:
+				return parseCollection();
+			case STRING_DELIMITER:
+			case ALTERNATE_STRING_DELIMITER:
+				return parseRDFLiteral();
+			case '+':
+			case '-':
+			case STATEMENT_END:
+				return parseNumericLiteral();
+			default:
+				if(c >= '0' && c <= '9') {
+					return parseNumericLiteral();
+				}
+				if(c == BLANK_NODE_LABEL_BEGIN && peek(1) == PREFIX_DELIMITER) {
+					return getResourceProxy(parseBlankNodeLabel());
+				}
+				final String prefix = parsePrefix();
+				if(peek() != PREFIX_DELIMITER) { //if this isn't a prefixed name, it must be a boolean literal
+					if(TRUE_KEYWORD.equals(prefix) || FALSE_KEYWORD.equals(prefix)) {
+						return getRDF().createTypedLiteral(prefix, BOOLEAN_DATATYPE_URI);
+					}
+					throw createParseIOException("Expected object.");
+				}
+				final URI uri = parsePrefixedName(prefix);
+				return TYPE_PROPERTY_REFERENCE_URI.equals(predicate.getURI()) ? locateResource(uri) : getResourceProxy(uri);
+		}
+	}
+
+	/**
+	 * Parses a blank node property list such as <code>[ foaf:name "Bob" ]</code>, adding the statements it contains.
+	 * @return The resource proxy representing the blank node.
+	 * @throws IOException if there is an error reading the data or the data is not valid Turtle.
+	 * @throws RDFLimitExceededException if the nesting exceeds the maximum depth.
+	 */
+	protected Resource parseBlankNodePropertyList() throws IOException {
+		expect(BLANK_NODE_PROPERTY_LIST_BEGIN);
+		increaseDepth();
+		final Resource blankNode = getResourceProxy(generateNodeID()); //the node is completely anonymous
+		skipWhitespace();
+		if(peek() != BLANK_NODE_PROPERTY_LIST_END) { //the property list may be empty
+			parsePredicateObjectList(blankNode);
+			skipWhitespace();
+		}
+		expect(BLANK_NODE_PROPERTY_LIST_END);
+		decreaseDepth();
+		return blankNode;
+	}
+
+	/**
+	 * Parses a collection such as <code>( 1 2 3 )</code>, adding statements describing a list.
+	 * @return The resource proxy representing the first list node, or a list resource representing <code>rdf:nil</code> if the collection is empty.
+	 * @throws IOException if there is an error reading the data or the data is not valid Turtle.
+	 * @throws RDFLimitExceededException if the nesting exceeds the maximum depth.
+	 */
+	protected Resource parseCollection() throws IOException {
+		expect(COLLECTION_BEGIN);
+		increaseDepth();
+		Resource firstItemListResource = null; //we haven't created the first item list resource, yet
+		Resource lastItemListResource = null; //we haven't created the last item list resource, yet
+		while(skipWhitespace() && peek() != COLLECTION_END) { //parse each item in the collection
+			lastItemListResource = addListNode(lastItemListResource, parseObject(getFirstProperty())); //add a list node for the item, linking it to the previous node
+			if(firstItemListResource == null) {
+				firstItemListResource = lastItemListResource;
+			}
+		}
+		expect(COLLECTION_END);
+		decreaseDepth();
+		return endList(firstItemListResource, lastItemListResource); //an empty collection is the rdf:nil list
+	}
+
+	/**
+	 * Parses a string literal, including any language tag or datatype.
+	 * @return The literal.
+	 * @throws IOException if there is an error reading the data or the data is not valid Turtle.
+	 * @throws RDFLimitExceededException if the lexical form exceeds the maximum literal length.
+	 */
+	protected RDFLiteral parseRDFLiteral() throws IOException {
+		final String lexicalForm = parseString();
+		final int c = peek();
+		if(c == AT) { //language tag
+			read();
+			final StringBuilder languageTagBuilder = new StringBuilder();
+			int next;
+			while((next = peek()) != -1 && (Character.isLetterOrDigit(next) || next == '-')) {
+				languageTagBuilder.append((char)read());
+			}
+			if(languageTagBuilder.length() == 0) {
+				throw createParseIOException("Missing language tag.");
+			}
+			return new RDFPlainLiteral(lexicalForm, Locales.createLocale(languageTagBuilder.toString()));
+		} else if(c == DATATYPE_DELIMITER) { //datatype
+			read();
+			expect(DATATYPE_DELIMITER);
+			final URI datatypeURI;
+			if(peek() == IRI_BEGIN) {
+				datatypeURI = parseIRI();
+			} else {
+				final String prefix = parsePrefix();
+				if(peek() != PREFIX_DELIMITER) {
+					throw createParseIOException("Expected datatype IRI.");
+				}
+				datatypeURI = parsePrefixedName(prefix);
+			}
+			return createTypedLiteral(lexicalForm, datatypeURI);
+		}
+		return new RDFPlainLiteral(lexicalForm);
+	}
+
+	/**
+	 * Parses an unquoted numeric literal, which is an integer, a decimal, or a double depending on its form.
+	 * @return The typed literal.
+	 * @throws IOException if there is an error reading the data or the data is not valid Turtle.
+	 */
+	protected RDFLiteral parseNumericLiteral() throws IOException {
+		final StringBuilder lexicalFormBuilder = new StringBuilder();
+		int c = peek();
+		if(c == '+' || c == '-') {
+			lexicalFormBuilder.append((char)read());
+		}
+		final int integerDigitCount = appendDigits(lexicalFormBuilder);
+		URI datatypeURI = INTEGER_DATATYPE_URI;
+		if(peek() == STATEMENT_END && isDigit(peek(1))) { //a period is only part of the number if followed by a digit; otherwise it ends the statement
+			lexicalFormBuilder.append((char)read());
+			appendDigits(lexicalFormBuilder);
+			datatypeURI = DECIMAL_DATATYPE_URI;
+		} else if(integerDigitCount == 0) {
+			throw createParseIOException("Expected number.");
+		}
+		c = peek();
+		if(c == 'e' || c == 'E') { //exponent
+			lexicalFormBuilder.append((char)read());
+			c = peek();
+			if(c == '+' || c == '-') {
+				lexicalFormBuilder.append((char)read());
+			}
+			if(appendDigits(lexicalFormBuilder) == 0) {
+				throw createParseIOException("Missing exponent.");
+			}
+			datatypeURI = DOUBLE_DATATYPE_URI;
+		}
+		return createTypedLiteral(lexicalFormBuilder.toString(), datatypeURI);
+	}
+
+	/**
+	 * Appends any decimal digits at the current position.
+	 * @param stringBuilder The string builder to which to append the digits.
+	 * @return The number of digits appended.
+	 * @throws IOException if there is an error reading the data.
+	 */
+	private int appendDigits(final StringBuilder stringBuilder) throws IOException {
+		int digitCount = 0;
+		while(isDigit(peek())) {
+			stringBuilder.append((char)read());
+			++digitCount;
+		}
+		return digitCount;
+	}
+
+	/**
+	 * Determines whether the given character is a decimal digit.
+	 * @param c The character, or -1 for the end of the data.
+	 * @return <code>true</code> if the character is an ASCII decimal digit.
+	 */
+	private static boolean isDigit(final int c) {
+		return c >= '0' && c <= '9';
+	}
+
+	/**
+	 * Creates a typed literal, reporting a lexical form that is invalid for its datatype as a syntax error.
+	 * @param lexicalForm The lexical form of the literal.
+	 * @param datatypeURI The datatype of the literal.
+	 * @return The typed literal.
+	 * @throws ParseIOException if the lexical form is not valid for the datatype.
+	 */
+	protected RDFTypedLiteral<?> createTypedLiteral(final String lexicalForm, final URI datatypeURI) throws ParseIOException {
+		try {
+			return getRDF().createTypedLiteral(lexicalForm, datatypeURI);
+		} catch(final IllegalArgumentException illegalArgumentException) {
+			throw new ParseIOException(illegalArgumentException.getMessage(), illegalArgumentException, lineIndex, charIndex);
+		}
+	}
+
+	/**
+	 * Parses a quoted string, which may use single or double quotes and may be a long string delimited by three quotes.
+	 * @return The unescaped contents of the string.
+	 * @throws IOException if there is an error reading the data or the data is not valid Turtle.
+	 * @throws RDFLimitExceededException if the string exceeds the maximum literal length.
+	 */
+	protected String parseString() throws IOException {
+		final int delimiter = read();
+		final boolean isLong = peek() == delimiter && peek(1) == delimiter;
+		if(isLong) {
+			read();
+			read();
+		} else if(peek() == delimiter) { //empty short string
+			read();
+			return "";
+		}
+		final StringBuilder stringBuilder = new StringBuilder();
+		while(true) {
+			int c = read();
+			if(c == -1) {
+				throw createParseIOException("Unterminated string.");
+			}
+			if(c == delimiter) {
+				if(!isLong) {
+					break;
+				}
+				if(peek() == delimiter && peek(1) == delimiter && peek(2) != delimiter) { //the last of a run of quotes end the string
+					read();
+					read();
+					break;
+				}
+			} else if(c == ESCAPE) {
+				c = parseEscape(true);
+			} else if(!isLong && (c == '\n' || c == '\r')) {
+				throw createParseIOException("Line break in short string.");
+			}
+			stringBuilder.appendCodePoint(c);
+			checkLiteralLength(stringBuilder.length()); //make sure the literal is within our limits
+		}
+		return stringBuilder.toString();
+	}
+
+	/**
+	 * Parses an escape sequence following the escape character.
+	 * @param isStringEscapeAllowed <code>true</code> if string escapes are allowed, or <code>false</code> if only Unicode escapes are allowed, as in IRIs.
+	 * @return The code point represented by the escape sequence.
+	 * @throws IOException if there is an error reading the data or the escape sequence is not valid.
+	 */
+	protected int parseEscape(final boolean isStringEscapeAllowed) throws IOException {
+		final int escaped = read();
+		if(escaped == 'u' || escaped == 'U') {
+			final int digitCount = escaped == 'u' ? 4 : 8;
+			final StringBuilder hexBuilder = new StringBuilder(digitCount);
+			for(int i = 0; i < digitCount; ++i) {
+				final int c = read();
+				if(c == -1) {
+					throw createParseIOException("Incomplete Unicode escape sequence.");
+				}
+				hexBuilder.append((char)c);
+			}
+			try {
+				final int codePoint = Integer.parseInt(hexBuilder.toString(), 16);
+				if(!Character.isValidCodePoint(codePoint)) {
+					throw createParseIOException("Invalid Unicode escape sequence.");
+				}
+				return codePoint;
+			} catch(final NumberFormatException numberFormatException) {
+				throw new ParseIOException("Invalid Unicode escape sequence.", numberFormatException, lineIndex, charIndex);
+			}
+		}
+		if(isStringEscapeAllowed) {
+			switch(escaped) {
+				case 't':
+					return '\t';
+				case 'b':
+					return '\b';
+				case 'n':
+					return '\n';
+				case 'r':
+					return '\r';
+				case 'f':
+					return '\f';
+				case '"':
+				case '\'':
+				case ESCAPE:
+					return escaped;
+			}
+		}
+		throw createParseIOException("Invalid escape sequence.");
+	}
+
+	/**
+	 * Parses an IRI reference such as <code>&lt;http://example.com/&gt;</code>, resolving it against the base URI if it is relative.
+	 * @return The URI.
+	 * @throws IOException if there is an error reading the data or there is no valid IRI reference at the current position.
+	 */
+	protected URI parseIRI() throws IOException {
+		expect(IRI_BEGIN);
+		final StringBuilder iriBuilder = new StringBuilder();
+		while(true) {
+			int c = read();
+			if(c == IRI_END) {
+				break;
+			}
+			if(c == -1 || c == '\n' || c == '\r') {
+				throw createParseIOException("Unterminated IRI reference.");
+			}
+			if(c == ESCAPE) {
+				c = parseEscape(false);
+			}
+			iriBuilder.appendCodePoint(c);
+		}
+		return toURI(iriBuilder.toString());
+	}
+
+	/**
+	 * Parses a blank node label such as <code>_:b1</code>.
+	 * @return The label, not including the <code>_:</code> prefix.
+	 * @throws IOException if there is an error reading the data or there is no blank node label at the current position.
+	 */
+	protected String parseBlankNodeLabel() throws IOException {
+		expect(BLANK_NODE_LABEL_BEGIN);
+		expect(PREFIX_DELIMITER);
+		final String label = parseName();
+		if(label.isEmpty()) {
+			throw createParseIOException("Missing blank node label.");
+		}
+		return label;
+	}
+
+	/**
+	 * Parses a prefix, which is a possibly empty name appearing before the colon of a prefixed name. A bare keyword is parsed in the same way.
+	 * @return The prefix or keyword.
+	 * @throws IOException if there is an error reading the data.
+	 */
+	protected String parsePrefix() throws IOException {
+		return parseName();
+	}
+
+	/**
+	 * Parses the local part of a prefixed name, following the prefix, and determines the URI it represents.
+	 * @param prefix The prefix, which must have been declared.
+	 * @return The URI formed from the namespace IRI and the local name.
+	 * @throws IOException if there is an error reading the data, or the prefix has not been declared.
+	 */
+	protected URI parsePrefixedName(final String prefix) throws IOException {
+		final String namespace = prefixNamespaceMap.get(prefix);
+		if(namespace == null) {
+			throw createParseIOException("Undeclared prefix \"" + prefix + "\".");
+		}
+		expect(PREFIX_DELIMITER);
+		final StringBuilder localNameBuilder = new StringBuilder(namespace);
+		while(true) {
+			final int c = peek();
+			if(c == ESCAPE) { //reserved characters may be escaped
+				read();
+				final int escaped = read();
+				if(escaped == -1 || "_~.-!$&'()*+,;=/?#@%".indexOf(escaped) < 0) {
+					throw createParseIOException("Invalid local name escape sequence.");
+				}
+				localNameBuilder.append((char)escaped);
+			} else if(isNameChar(c) || c == PREFIX_DELIMITER || c == '%') { //percent encodings are kept in the IRI
+				localNameBuilder.append((char)read());
+			} else if(c == STATEMENT_END && (isNameChar(peek(1)) || peek(1) == PREFIX_DELIMITER)) { //a local name cannot end with a period
+				localNameBuilder.append((char)read());
+			} else {
+				break;
+			}
+		}
+		return toURI(localNameBuilder.toString());
+	}
+
+	/**
+	 * Parses a name consisting of name characters, which may contain but not end with periods.
+	 * @return The name, which may be empty.
+	 * @throws IOException if there is an error reading the data.
+	 */
+	protected String parseName() throws IOException {
+		final StringBuilder nameBuilder = new StringBuilder();
+		while(true) {
+			final int c = peek();
+			if(isNameChar(c)) {
+				nameBuilder.append((char)read());
+			} else if(c == STATEMENT_END && isNameChar(peek(1)) && nameBuilder.length() > 0) { //a name cannot end with a period
+				nameBuilder.append((char)read());
+			} else {
+				break;
+			}
+		}
+		return nameBuilder.toString();
+	}
+
+	/**
+	 * Determines whether the given character may appear in a name.
+	 * @param c The character, or -1 for the end of the data.
+	 * @return <code>true</code> if the character is a letter, a digit, an underscore, or a hyphen, or is part of a supplementary character.
+	 */
+	protected static boolean isNameChar(final int c) {
+		return c != -1 && (Character.isLetterOrDigit(c) || c == '_' || c == '-' || c == '·' || Character.isSurrogate((char)c));
+	}
+
+	/**
+	 * Locates a resource in the data model, such as a predicate or a type, caching it until the processor is reset.
+	 * @param uri The reference URI of the resource.
+	 * @return The resource in the data model.
+	 */
+	protected RDFResource locateResource(final URI uri) {
+		final String iri = uri.toString();
+		RDFResource resource = iriResourceMap.get(iri);
+		if(resource == null) {
+			resource = locateModelResource(uri);
+			iriResourceMap.put(iri, resource);
+		}
+		return resource;
+	}
+
+	/**
+	 * Converts an IRI to a URI, resolving it against the base URI if it is relative.
+	 * @param iri The unescaped IRI.
+	 * @return The URI.
+	 * @throws ParseIOException if the IRI is not a valid URI.
+	 */
+	protected URI toURI(final String iri) throws ParseIOException {
+		try {
+			final URI uri = new URI(iri);
+			final URI baseURI = getBaseURI();
+			return uri.isAbsolute() || baseURI == null ? uri : baseURI.resolve(uri);
+		} catch(final URISyntaxException uriSyntaxException) {
+			throw new ParseIOException(uriSyntaxException.getMessage(), uriSyntaxException, lineIndex, charIndex);
+		}
+	}
+
+	/**
+	 * Skips whitespace and comments.
+	 * @return <code>true</code> if there are characters remaining.
+	 * @throws IOException if there is an error reading the data.
+	 */
+	protected boolean skipWhitespace() throws IOException {
+		while(true) {
+			final int c = peek();
+			if(c == -1) {
+				return false;
+			}
+			if(c == COMMENT_BEGIN) { //skip the comment to the end of the line
+				int next;
+				do {
+					next = read();
+				} while(next != -1 && next != '\n' && next != '\r');
+			} else if(c == ' ' || c == '\t' || c == '\n' || c == '\r') {
+				read();
+			} else {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Consumes the next character if it is the given character.
+	 * @param c The character to consume.
+	 * @return <code>true</code> if the character was consumed.
+	 * @throws IOException if there is an error reading the data.
+	 */
+	protected boolean consume(final char c) throws IOException {
+		if(peek() != c) {
+			return false;
+		}
+		read();
+		return true;
+	}
+
+	/**
+	 * Consumes the next character, which must be the given character.
+	 * @param c The expected character.
+	 * @throws IOException if there is an error reading the data.
+	 * @throws ParseIOException if the next character is not the expected character.
+	 */
+	protected void expect(final char c) throws IOException {
+		if(!consume(c)) {
+			throw createParseIOException("Expected '" + c + "'.");
+		}
+	}
+
+	/**
+	 * Returns the next character without consuming it.
+	 * @return The next character, or -1 if the end of the data has been reached.
+	 * @throws IOException if there is an error reading the data.
+	 */
+	protected int peek() throws IOException {
+		return peek(0);
+	}
+
+	/**
+	 * Returns a character following the current position without consuming any characters.
+	 * @param offset The number of characters after the next character; must be less than the size of the buffer.
+	 * @return The character, or -1 if the end of the data is reached before that character.
+	 * @throws IOException if there is an error reading the data.
+	 */
+	protected int peek(final int offset) throws IOException {
+		while(index + offset >= count) { //make sure the character is buffered
+			if(index > 0) { //keep the unread characters at the start of the buffer
+				System.arraycopy(buffer, index, buffer, 0, count - index);
+				count -= index;
+				index = 0;
+			}
+			final int readCount = reader.read(buffer, count, buffer.length - count);
+			if(readCount < 0) {
+				return -1;
+			}
+			count += readCount;
+		}
+		return buffer[index + offset];
+	}
+
+	/**
+	 * Consumes the next character, keeping track of the current line and character index.
+	 * @return The next character, or -1 if the end of the data has been reached.
+	 * @throws IOException if there is an error reading the data.
+	 */
+	protected int read() throws IOException {
+		final int c = peek();
+		if(c != -1) {
+			++index;
+			if(c == '\n') {
+				++lineIndex;
+				charIndex = 0;
+			} else {
+				++charIndex;
+			}
+		}
+		return c;
+	}
+
+	/**
+	 * Creates an exception indicating a syntax error at the current position.
+	 * @param message The description of the error.
+	 * @return A new exception.
+	 */
+	protected ParseIOException createParseIOException(final String message) {
+		return new ParseIOException(message, lineIndex, charIndex);
+	}
+
+}
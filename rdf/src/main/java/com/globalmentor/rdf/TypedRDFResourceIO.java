@@ -21,6 +21,7 @@
 
 import static com.globalmentor.java.Classes.*;
 import static com.globalmentor.rdf.RDFResources.*;
+import static com.globalmentor.rdf.spec.RDF.*;
 
 import static java.util.Objects.*;
 
@@ -47,6 +48,24 @@ public String getResourceClassName() {
 		return resourceClassName;
 	}
 
+	/** Whether only resources of the supported type, and the resources reachable from them, are read, rather than every resource in the input. */
+	private boolean projecting = false;
+
+	/** @return Whether only resources of the supported type, and the resources reachable from them, are read, rather than every resource in the input. */
+	public boolean isProjecting() {
+		return projecting;
+	}
+
+	/**
+	 * Sets whether only resources of the supported type, and the resources reachable from them, are read. This avoids creating unrelated resources, but any such
+	 * resources will then be missing from the data model being populated.
+	 * @param projecting <code>true</code> if descriptions of resources not reachable from resources of the supported type should be skipped.
+	 * @see RDFProjection#ofType(URI)
+	 */
+	public void setProjecting(final boolean projecting) {
+		this.projecting = projecting;
+	}
+
 	/**
 	 * Class and namespace constructor. A {@link DefaultRDFResourceFactory} will be registered with the given namespace, configured to create Java instances from
 	 * the package of the resource class. The class name will be set to the local name of the given resource class.
@@ -86,7 +105,8 @@ public TypedRDFResourceIO(final Class<T> resourceClass, final URI resourceNamesp
 	}
 
 	/**
-	 * Reads a resource from an input stream using an existing RDF instance.
+	 * Reads a resource from an input stream using an existing RDF instance. If projecting, only resources of the supported type, and the resources reachable
+	 * from them, are created; otherwise all resources in the input are created.
 	 * @param rdf The RDF instance to use in creating new resources.
 	 * @param inputStream The input stream from which to read the data.
 	 * @param baseURI The base URI of the data, or <code>null</code> if no base URI is available.
@@ -96,8 +116,9 @@ public TypedRDFResourceIO(final Class<T> resourceClass, final URI resourceNamesp
 	 * @throws ClassCastException if no appropriate resource factory was installed, and the loaded resource is not of the correct Java class.
 	 */
 	public T read(final RDFModel rdf, final InputStream inputStream, final URI baseURI) throws IOException {
-		readRDF(rdf, inputStream, baseURI); //read RDF from the input stream
-		final RDFResource resource = getResourceByType(rdf, getResourceNamespaceURI(), getResourceClassName()); //load the correct resource
+		final URI typeURI = createReferenceURI(getResourceNamespaceURI(), getResourceClassName()); //determine the type of resource we're looking for
+		readRDF(rdf, inputStream, baseURI, isProjecting() ? RDFProjection.ofType(typeURI) : null); //read RDF from the input stream, skipping resources unrelated to the type we need if projecting
+		final RDFResource resource = getResourceByType(rdf, typeURI); //load the correct resource
 		if(resource == null) { //if there is no resource
 			throw new IOException("No resource found in namespace " + getResourceNamespaceURI() + " with class name " + getResourceClassName() + "."); //TODO i18n
 		}
@@ -0,0 +1,170 @@
+/*
+ * Copyright © 1996-2008 GlobalMentor, Inc. <https://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.globalmentor.rdf;
+
+import static java.nio.charset.StandardCharsets.*;
+import static java.util.Collections.*;
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.net.URI;
+import java.util.*;
+
+import org.junit.jupiter.api.*;
+
+import com.globalmentor.rdf.spec.RDF;
+import com.globalmentor.rdf.xmlschema.IntegerLiteral;
+
+/**
+ * Tests of {@link BinaryRDFFormat}.
+ * @author Garret Wilson
+ */
+public class BinaryRDFFormatTest {
+
+	/** The namespace of the test vocabulary. */
+	private static final URI EX_NAMESPACE_URI = URI.create("http://example.com/ns#");
+
+	/**
+	 * Describes a literal by its class, lexical form, and language or datatype.
+	 * @param literal The literal to describe.
+	 * @return A description of the literal.
+	 */
+	private static String describe(final RDFLiteral literal) {
+		final StringBuilder description = new StringBuilder(literal.getClass().getSimpleName()).append(" \"").append(literal.getLexicalForm()).append('"');
+		if(literal instanceof RDFPlainLiteral && ((RDFPlainLiteral)literal).getLanguage() != null) {
+			description.append('@').append(((RDFPlainLiteral)literal).getLanguage());
+		} else if(literal instanceof RDFTypedLiteral) {
+			description.append("^^").append(((RDFTypedLiteral<?>)literal).getDatatypeURI());
+		}
+		return description.toString();
+	}
+
+	/**
+	 * Describes the statements about the named resources of a data model other than <code>rdf:nil</code>, along with the class of each resource, so that
+	 * data models can be compared. Blank node objects are described by their class and number of properties.
+	 * @param rdf The data model to describe.
+	 * @return The sorted descriptions of the statements of the data model.
+	 */
+	private static List<String> describe(final RDFModel rdf) {
+		final List<String> descriptions = new ArrayList<String>();
+		for(final RDFResource resource : rdf.getResources()) {
+			if(resource.getURI() == null || RDF.NIL_RESOURCE_URI.equals(resource.getURI())) { //processors do not all add the rdf:nil list to the data model
+				continue;
+			}
+			descriptions.add(resource.getURI() + " " + resource.getClass().getSimpleName());
+			for(final RDFPropertyValuePair property : resource.getProperties()) {
+				final RDFObject value = property.getPropertyValue();
+				final String valueDescription;
+				if(value instanceof RDFLiteral) {
+					valueDescription = describe((RDFLiteral)value);
+				} else if(((RDFResource)value).getURI() == null) {
+					valueDescription = "[" + value.getClass().getSimpleName() + " " + ((RDFResource)value).getPropertyCount() + "]";
+				} else {
+					valueDescription = String.valueOf(((RDFResource)value).getURI());
+				}
+				descriptions.add(resource.getURI() + " " + property.getProperty().getURI() + " " + valueDescription);
+			}
+		}
+		sort(descriptions);
+		return descriptions;
+	}
+
+	/**
+	 * Reads Turtle into a new data model.
+	 * @param turtle The Turtle to read.
+	 * @return The data model containing the resources described by the Turtle.
+	 * @throws IOException if there is an error reading the Turtle.
+	 */
+	private static RDFModel readTurtle(final String turtle) throws IOException {
+		return new TurtleIO().read(new ByteArrayInputStream(turtle.getBytes(UTF_8)), null);
+	}
+
+	/**
+	 * Writes a data model in the binary format and reads it back into a new data model.
+	 * @param rdf The data model to write.
+	 * @param limits The limits to use when reading.
+	 * @return The data model read from the binary serialization.
+	 * @throws IOException if there is an error writing or reading the data.
+	 */
+	private static RDFModel roundTrip(final RDFModel rdf, final RDFProcessingLimits limits) throws IOException {
+		final BinaryRDFFormat binaryRDFFormat = new BinaryRDFFormat();
+		final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		binaryRDFFormat.write(outputStream, null, rdf, emptyMap());
+		return binaryRDFFormat.read(new RDFModel(), new ByteArrayInputStream(outputStream.toByteArray()), null, null, limits);
+	}
+
+	/**
+	 * Verifies that resources, blank nodes, lists, and literals survive a round trip through the binary format, with typed literals created by the same
+	 * factories.
+	 * @throws IOException if there is an error writing or reading the data.
+	 */
+	@Test
+	public void testRoundTrip() throws IOException {
+		final RDFModel rdf = readTurtle("@prefix ex: <http://example.com/ns#> .\n" //
+				+ "ex:a a ex:Thing ; ex:count 2 ; ex:name \"A\"@en ; ex:next ex:b ; ex:items ( ex:b \"c\" ) ; ex:child [ ex:name \"Child\" ] .\n" //
+				+ "ex:b ex:note \"line\\nbreak \\u00e9\" ; ex:next ex:a .\n");
+		final RDFModel roundTripRDF = roundTrip(rdf, RDFProcessingLimits.UNLIMITED);
+		assertThat(describe(roundTripRDF), is(describe(rdf)));
+		final RDFResource a = roundTripRDF.getResource(EX_NAMESPACE_URI.resolve("#a"));
+		assertThat(a.getPropertyValue(EX_NAMESPACE_URI, "count"), instanceOf(IntegerLiteral.class));
+		assertThat(((RDFResource)a.getPropertyValue(EX_NAMESPACE_URI, "next")).getPropertyValue(EX_NAMESPACE_URI, "next"), sameInstance(a));
+		assertThat(((RDFListResource<?>)a.getPropertyValue(EX_NAMESPACE_URI, "items")).size(), is(2));
+	}
+
+	/**
+	 * Verifies that literals with the same lexical form but different languages or datatypes remain distinct after a round trip.
+	 * @throws IOException if there is an error writing or reading the data.
+	 */
+	@Test
+	public void testRoundTripDistinguishesLiteralsWithSameLexicalForm() throws IOException {
+		final RDFModel rdf = readTurtle("@prefix ex: <http://example.com/ns#> .\n@prefix xsd: <http://www.w3.org/2001/XMLSchema#> .\n" //
+				+ "ex:a ex:plain \"1\" ; ex:en \"1\"@en ; ex:fr \"1\"@fr ; ex:integer 1 ; ex:string \"1\"^^xsd:string ; ex:custom \"1\"^^ex:type .\n");
+		final RDFResource a = roundTrip(rdf, RDFProcessingLimits.UNLIMITED).getResource(EX_NAMESPACE_URI.resolve("#a"));
+		for(final String localName : List.of("plain", "en", "fr", "integer", "string", "custom")) {
+			assertThat(localName, describe((RDFLiteral)a.getPropertyValue(EX_NAMESPACE_URI, localName)),
+					is(describe((RDFLiteral)rdf.getResource(EX_NAMESPACE_URI.resolve("#a")).getPropertyValue(EX_NAMESPACE_URI, localName))));
+		}
+		assertThat(((RDFPlainLiteral)a.getPropertyValue(EX_NAMESPACE_URI, "fr")).getLanguage(), is(Locale.FRENCH));
+		assertThat(((RDFTypedLiteral<?>)a.getPropertyValue(EX_NAMESPACE_URI, "custom")).getDatatypeURI(), is(EX_NAMESPACE_URI.resolve("#type")));
+	}
+
+	/** Verifies that data that is not binary RDF is rejected. */
+	@Test
+	public void testReadRejectsOtherData() {
+		assertThrows(IOException.class, () -> new BinaryRDFFormat().read(new RDFModel(), new ByteArrayInputStream("<rdf:RDF/>".getBytes(UTF_8)), null, null,
+				RDFProcessingLimits.UNLIMITED));
+	}
+
+	/**
+	 * Verifies that the processing limits are enforced when reading.
+	 * @throws IOException if there is an error writing the data.
+	 */
+	@Test
+	public void testReadEnforcesLimits() throws IOException {
+		final RDFModel rdf = readTurtle("@prefix ex: <http://example.com/ns#> .\nex:a ex:p \"12345\", \"x\" ; ex:q [ ex:r ex:b ] .\n");
+		final int noLimit = RDFProcessingLimits.NO_LIMIT;
+		for(final RDFProcessingLimits limits : List.of(new RDFProcessingLimits(3, noLimit, noLimit, noLimit),
+				new RDFProcessingLimits(noLimit, 0, noLimit, noLimit), new RDFProcessingLimits(noLimit, noLimit, noLimit, 4))) {
+			final IOException ioException = assertThrows(IOException.class, () -> roundTrip(rdf, limits));
+			assertThat(ioException.getCause(), instanceOf(RDFLimitExceededException.class));
+		}
+		assertThat(describe(roundTrip(rdf, new RDFProcessingLimits(4, 1, noLimit, 5))), is(describe(rdf)));
+	}
+
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright © 1996-2008 GlobalMentor, Inc. <https://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.globalmentor.rdf;
+
+import static java.nio.charset.StandardCharsets.*;
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.net.URI;
+import java.util.*;
+
+import org.junit.jupiter.api.*;
+
+import com.globalmentor.rdf.spec.RDF;
+
+/**
+ * Tests of {@link JSONLDFormat} and {@link JSONLDGenerator}.
+ * @author Garret Wilson
+ */
+public class JSONLDFormatTest {
+
+	/** The namespace of the test vocabulary. */
+	private static final URI EX_NAMESPACE_URI = URI.create("http://example.com/ns#");
+
+	/**
+	 * Reads Turtle into a new data model.
+	 * @param turtle The Turtle to read.
+	 * @return The data model containing the resources described by the Turtle.
+	 * @throws IOException if there is an error reading the Turtle.
+	 */
+	private static RDFModel readTurtle(final String turtle) throws IOException {
+		return new TurtleIO().read(new ByteArrayInputStream(turtle.getBytes(UTF_8)), null);
+	}
+
+	/**
+	 * Writes a resource as JSON-LD, using the <code>ex:</code> prefix for the test vocabulary, along with a <code>v:</code> prefix for a namespace that does not
+	 * end in a delimiter.
+	 * @param resource The resource to write.
+	 * @return The JSON-LD describing the resource.
+	 * @throws IOException if there is an error writing the JSON-LD.
+	 */
+	private static String write(final RDFResource resource) throws IOException {
+		final Map<URI, String> namespacePrefixMap = new LinkedHashMap<URI, String>();
+		namespacePrefixMap.put(EX_NAMESPACE_URI, "ex");
+		namespacePrefixMap.put(URI.create("http://example.com/vocab"), "v");
+		final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		new JSONLDFormat().write(outputStream, null, resource, namespacePrefixMap);
+		return new String(outputStream.toByteArray(), UTF_8);
+	}
+
+	/**
+	 * Verifies the compacted JSON-LD written for a resource: prefixed IRIs in the context, native numbers and booleans, value objects for language-tagged and
+	 * typed literals, arrays for multiple values, and blank nodes written in place.
+	 * @throws IOException if there is an error writing the JSON-LD.
+	 */
+	@Test
+	public void testWriteResource() throws IOException {
+		final URI xsdNamespaceURI = URI.create("http://www.w3.org/2001/XMLSchema#");
+		final RDFModel rdf = new RDFModel();
+		final RDFResource a = rdf.locateResource(EX_NAMESPACE_URI.resolve("#a"));
+		a.addProperty(RDF.NAMESPACE_URI, RDF.TYPE_PROPERTY_NAME, EX_NAMESPACE_URI.resolve("#Thing"));
+		a.addProperty(EX_NAMESPACE_URI, "count", rdf.createTypedLiteral("2", xsdNamespaceURI.resolve("#integer")));
+		a.addProperty(EX_NAMESPACE_URI, "flag", rdf.createTypedLiteral("true", xsdNamespaceURI.resolve("#boolean")));
+		a.addProperty(EX_NAMESPACE_URI, "name", "A", Locale.ENGLISH);
+		a.addProperty(EX_NAMESPACE_URI, "ratio", rdf.createTypedLiteral("-2.5", xsdNamespaceURI.resolve("#decimal")));
+		a.addProperty(EX_NAMESPACE_URI, "knows", EX_NAMESPACE_URI.resolve("#b"));
+		a.addProperty(EX_NAMESPACE_URI, "knows", EX_NAMESPACE_URI.resolve("#c"));
+		final RDFResource child = rdf.createResource();
+		child.addProperty(EX_NAMESPACE_URI, "name", "Child");
+		a.addProperty(EX_NAMESPACE_URI, "child", child);
+		a.addProperty(URI.create("http://example.com/vocabterm"), "v");
+		assertThat(write(a), is("{\n" //
+				+ "\t\"@context\": {\n" //
+				+ "\t\t\"ex\": \"http://example.com/ns#\",\n" //
+				+ "\t\t\"rdf\": \"http://www.w3.org/1999/02/22-rdf-syntax-ns#\",\n" //
+				+ "\t\t\"xsd\": \"http://www.w3.org/2001/XMLSchema#\"\n" //
+				+ "\t},\n" //
+				+ "\t\"@graph\": [\n" //
+				+ "\t\t{\n" //
+				+ "\t\t\t\"@id\": \"ex:a\",\n" //
+				+ "\t\t\t\"@type\": \"ex:Thing\",\n" //
+				+ "\t\t\t\"ex:count\": 2,\n" //
+				+ "\t\t\t\"ex:flag\": true,\n" //
+				+ "\t\t\t\"ex:name\": {\"@value\": \"A\", \"@language\": \"en\"},\n" //
+				+ "\t\t\t\"ex:ratio\": {\"@value\": \"-2.5\", \"@type\": \"xsd:decimal\"},\n" //
+				+ "\t\t\t\"ex:knows\": [\n" //
+				+ "\t\t\t\t{\"@id\": \"ex:b\"},\n" //
+				+ "\t\t\t\t{\"@id\": \"ex:c\"}\n" //
+				+ "\t\t\t],\n" //
+				+ "\t\t\t\"ex:child\": {\n" //
+				+ "\t\t\t\t\"@id\": \"_:b1\",\n" //
+				+ "\t\t\t\t\"ex:name\": \"Child\"\n" //
+				+ "\t\t\t},\n" //
+				+ "\t\t\t\"http://example.com/vocabterm\": \"v\"\n" //
+				+ "\t\t}\n" //
+				+ "\t]\n" //
+				+ "}\n"));
+	}
+
+	/**
+	 * Verifies that quotation marks, backslashes, and control characters in literals are escaped as JSON requires.
+	 * @throws IOException if there is an error reading the Turtle or writing the JSON-LD.
+	 */
+	@Test
+	public void testWriteEscapesStrings() throws IOException {
+		final RDFModel rdf = readTurtle("<http://example.com/ns#a> <http://example.com/ns#note> \"say \\\"hi\\\"\\n\\t\\\\ \\u0001 \\u00e9\" .\n");
+		assertThat(write(rdf.getResource(EX_NAMESPACE_URI.resolve("#a"))), containsString("\"ex:note\": \"say \\\"hi\\\"\\n\\t\\\\ \\u0001 \u00e9\""));
+	}
+
+	/**
+	 * Verifies that a blank node referenced by more than one resource is written once and referenced elsewhere by its label.
+	 * @throws IOException if there is an error reading the Turtle or writing the JSON-LD.
+	 */
+	@Test
+	public void testWriteSharedBlankNode() throws IOException {
+		final RDFModel rdf = readTurtle("@prefix ex: <http://example.com/ns#> .\nex:a ex:first _:shared ; ex:second _:shared .\n_:shared ex:name \"S\" .\n");
+		final String jsonld = write(rdf.getResource(EX_NAMESPACE_URI.resolve("#a")));
+		assertThat(jsonld, containsString("\"ex:name\": \"S\""));
+		assertThat(jsonld.indexOf("\"ex:name\""), is(jsonld.lastIndexOf("\"ex:name\"")));
+		assertThat(jsonld, containsString("\"ex:second\": {\"@id\": \"_:b1\"}"));
+	}
+
+	/** Verifies that JSON-LD is neither readable nor detected. */
+	@Test
+	public void testReadUnsupported() {
+		final JSONLDFormat jsonldFormat = new JSONLDFormat();
+		assertThat(jsonldFormat.isReadable(), is(false));
+		assertThrows(IOException.class,
+				() -> jsonldFormat.read(new RDFModel(), new ByteArrayInputStream("{}".getBytes(UTF_8)), null, null, RDFProcessingLimits.UNLIMITED));
+		final byte[] jsonld = "{\"@context\": {}, \"@graph\": []}".getBytes(UTF_8);
+		assertThat(new JSONLDFormat.Provider().isFormat(jsonld, jsonld.length), is(false));
+	}
+
+}
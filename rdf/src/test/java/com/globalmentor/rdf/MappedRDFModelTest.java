@@ -0,0 +1,139 @@
+/*
+ * Copyright © 1996-2008 GlobalMentor, Inc. <https://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.globalmentor.rdf;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.net.URI;
+import java.nio.file.*;
+import java.util.*;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.globalmentor.rdf.xmlschema.IntegerLiteral;
+
+/**
+ * Tests of {@link MappedRDFModel}.
+ * @author Garret Wilson
+ */
+public class MappedRDFModelTest {
+
+	/** The namespace of the test vocabulary. */
+	private static final URI EX_NAMESPACE_URI = URI.create("http://example.com/ns#");
+
+	/** The property relating each test resource to its label. */
+	private static final URI LABEL_PROPERTY_URI = EX_NAMESPACE_URI.resolve("#label");
+
+	/** The property relating each test resource to the next resource. */
+	private static final URI NEXT_PROPERTY_URI = EX_NAMESPACE_URI.resolve("#next");
+
+	/** The number of test resources, enough that the reference URIs span several blocks of the dictionary. */
+	private static final int RESOURCE_COUNT = 100;
+
+	/**
+	 * Creates the reference URI of a test resource. The reference URIs share long prefixes, and some are prefixes of others, such as <code>.../r/1</code> and
+	 * <code>.../r/10</code>.
+	 * @param index The index of the resource.
+	 * @return The reference URI of the resource with the given index.
+	 */
+	private static URI getResourceURI(final int index) {
+		return URI.create("http://example.com/resources/r/" + index);
+	}
+
+	/**
+	 * Writes a test data model and maps the written file.
+	 * @param tempDirectory The directory in which to write the file.
+	 * @return The mapped data model.
+	 * @throws IOException if there is an error writing or mapping the file.
+	 */
+	private static MappedRDFModel writeAndMap(final Path tempDirectory) throws IOException {
+		final RDFModel rdf = new RDFModel();
+		for(int i = 0; i < RESOURCE_COUNT; ++i) {
+			final RDFResource resource = rdf.locateResource(getResourceURI(i));
+			resource.addProperty(LABEL_PROPERTY_URI, new RDFPlainLiteral("resource " + i));
+			resource.addProperty(rdf.locateResource(NEXT_PROPERTY_URI), rdf.locateResource(getResourceURI((i + 1) % RESOURCE_COUNT)));
+		}
+		final RDFResource first = rdf.getResource(getResourceURI(0));
+		first.addProperty(rdf.locateResource(EX_NAMESPACE_URI.resolve("#title")), new RDFPlainLiteral("first", Locale.ENGLISH));
+		first.addProperty(rdf.locateResource(EX_NAMESPACE_URI.resolve("#count")), new IntegerLiteral(42));
+		final RDFResource blankNode = rdf.createResource();
+		blankNode.addProperty(LABEL_PROPERTY_URI, new RDFPlainLiteral("blank"));
+		first.addProperty(rdf.locateResource(EX_NAMESPACE_URI.resolve("#detail")), blankNode);
+		final File file = tempDirectory.resolve("test.rdfm").toFile();
+		MappedRDFModel.write(rdf, file);
+		return new MappedRDFModel(file);
+	}
+
+	/** Tests that every resource written, including those with reference URIs that are prefixes of others, is found with its properties. */
+	@Test
+	public void testWriteThenMapFindsResourcesSharingPrefixes(@TempDir final Path tempDirectory) throws IOException {
+		final MappedRDFModel mappedRDF = writeAndMap(tempDirectory);
+		for(int i = 0; i < RESOURCE_COUNT; ++i) {
+			final RDFResource resource = mappedRDF.getResource(getResourceURI(i));
+			assertThat(resource.getURI(), is(getResourceURI(i)));
+			assertThat(((RDFLiteral)resource.getPropertyValue(LABEL_PROPERTY_URI)).getLexicalForm(), is("resource " + i));
+			assertThat(((RDFResource)resource.getPropertyValue(NEXT_PROPERTY_URI)).getURI(), is(getResourceURI((i + 1) % RESOURCE_COUNT)));
+		}
+	}
+
+	/** Tests that literals and blank nodes keep their language, datatype, and properties through writing and mapping. */
+	@Test
+	public void testWriteThenMapPreservesLiteralsAndBlankNodes(@TempDir final Path tempDirectory) throws IOException {
+		final RDFResource first = writeAndMap(tempDirectory).getResource(getResourceURI(0));
+		final RDFPlainLiteral title = (RDFPlainLiteral)first.getPropertyValue(EX_NAMESPACE_URI.resolve("#title"));
+		assertThat(title.getLexicalForm(), is("first"));
+		assertThat(title.getLanguage(), is(Locale.ENGLISH));
+		assertThat(first.getPropertyValue(EX_NAMESPACE_URI.resolve("#count")), is(new IntegerLiteral(42)));
+		final RDFResource blankNode = (RDFResource)first.getPropertyValue(EX_NAMESPACE_URI.resolve("#detail"));
+		assertThat(blankNode.getURI(), is(nullValue()));
+		assertThat(((RDFLiteral)blankNode.getPropertyValue(LABEL_PROPERTY_URI)).getLexicalForm(), is("blank"));
+	}
+
+	/** Tests that resources not in the mapped file are not found, whether their reference URIs sort before, among, or after those written. */
+	@Test
+	public void testGetResourceMissing(@TempDir final Path tempDirectory) throws IOException {
+		final MappedRDFModel mappedRDF = writeAndMap(tempDirectory);
+		assertThat(mappedRDF.getResource(URI.create("http://a.example.com/")), is(nullValue()));
+		assertThat(mappedRDF.getResource(URI.create("http://example.com/resources/r/")), is(nullValue())); //a prefix of every resource
+		assertThat(mappedRDF.getResource(getResourceURI(RESOURCE_COUNT)), is(nullValue())); //shares a prefix with an existing resource
+		assertThat(mappedRDF.getResource(URI.create("http://z.example.com/")), is(nullValue()));
+		assertThat(mappedRDF.getResource(getResourceURI(0)).getPropertyValue(EX_NAMESPACE_URI.resolve("#missing")), is(nullValue()));
+	}
+
+	/** Tests that locating a resource returns the mapped resource if present and fails clearly if not, rather than attempting to create the resource. */
+	@Test
+	public void testLocateResource(@TempDir final Path tempDirectory) throws IOException {
+		final MappedRDFModel mappedRDF = writeAndMap(tempDirectory);
+		assertThat(mappedRDF.locateResource(getResourceURI(1)), is(sameInstance(mappedRDF.getResource(getResourceURI(1)))));
+		assertThrows(IllegalArgumentException.class, () -> mappedRDF.locateResource(getResourceURI(RESOURCE_COUNT)));
+		assertThrows(IllegalArgumentException.class, () -> mappedRDF.locateTypedResource(getResourceURI(RESOURCE_COUNT), EX_NAMESPACE_URI.resolve("#Thing")));
+	}
+
+	/** Tests that modifying a mapped resource is unsupported, even by the URI of a property not in the mapped file. */
+	@Test
+	public void testModifyResourceUnsupported(@TempDir final Path tempDirectory) throws IOException {
+		final RDFResource resource = writeAndMap(tempDirectory).getResource(getResourceURI(0));
+		assertThrows(UnsupportedOperationException.class, () -> resource.addProperty(EX_NAMESPACE_URI.resolve("#missing"), "value"));
+		assertThrows(UnsupportedOperationException.class, () -> resource.addProperty(NEXT_PROPERTY_URI, getResourceURI(RESOURCE_COUNT)));
+		assertThrows(UnsupportedOperationException.class, () -> resource.setProperty(NEXT_PROPERTY_URI, getResourceURI(RESOURCE_COUNT)));
+	}
+
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright © 1996-2008 GlobalMentor, Inc. <https://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.globalmentor.rdf;
+
+import static java.nio.charset.StandardCharsets.*;
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.net.URI;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests of {@link NTriplesProcessor}.
+ * @author Garret Wilson
+ */
+public class NTriplesProcessorTest {
+
+	/** The namespace of the test vocabulary. */
+	private static final URI EX_NAMESPACE_URI = URI.create("http://example.com/ns#");
+
+	/** A resource typed as a person by the resource factory of the test vocabulary. */
+	public static class Person extends DefaultRDFResource {
+
+		/**
+		 * Reference URI constructor.
+		 * @param referenceURI The reference URI for the new resource, or <code>null</code> if the resource has no reference URI.
+		 */
+		public Person(final URI referenceURI) {
+			super(referenceURI);
+		}
+	}
+
+	/** @return A new data model that creates a {@link Person} for each resource of type <code>ex:Person</code>. */
+	private static RDFModel createRDF() {
+		final RDFModel rdf = new RDFModel();
+		rdf.registerResourceFactory(EX_NAMESPACE_URI,
+				(referenceURI, typeNamespaceURI, typeLocalName) -> "Person".equals(typeLocalName) ? new Person(referenceURI) : null);
+		return rdf;
+	}
+
+	/**
+	 * Describes the statements about the named resources of a data model, along with the class of each resource, so that data models produced by different
+	 * processing can be compared. Blank node objects are described by their class and number of properties.
+	 * @param rdf The data model to describe.
+	 * @return The sorted descriptions of the statements of the data model.
+	 */
+	private static List<String> describe(final RDFModel rdf) {
+		final List<String> descriptions = new ArrayList<String>();
+		for(final RDFResource resource : rdf.getResources()) {
+			if(resource.getURI() == null) {
+				continue;
+			}
+			descriptions.add(resource.getURI() + " " + resource.getClass().getSimpleName());
+			for(final RDFPropertyValuePair property : resource.getProperties()) {
+				final RDFObject value = property.getPropertyValue();
+				final String valueDescription;
+				if(value instanceof RDFResource && ((RDFResource)value).getURI() == null) {
+					valueDescription = "[" + value.getClass().getSimpleName() + " " + ((RDFResource)value).getPropertyCount() + "]";
+				} else {
+					valueDescription = value instanceof RDFResource ? String.valueOf(((RDFResource)value).getURI()) : value.toString();
+				}
+				descriptions.add(resource.getURI() + " " + property.getProperty().getURI() + " " + valueDescription);
+			}
+		}
+		Collections.sort(descriptions);
+		return descriptions;
+	}
+
+	/**
+	 * Verifies that processing a file in parallel produces the same data model as processing it sequentially, even when a resource is referenced in one chunk
+	 * and only given a type by a resource factory in a later chunk.
+	 * @param tempDirectory A temporary directory for the N-Triples file.
+	 * @throws IOException if there is an error processing the file.
+	 */
+	@Test
+	public void testProcessRDFParallelMatchesSequentialForResourceTypedAfterReference(@TempDir final Path tempDirectory) throws IOException {
+		final StringBuilder ntriples = new StringBuilder();
+		ntriples.append("<http://example.com/a> <http://example.com/ns#knows> <http://example.com/x> .\n");
+		ntriples.append("<http://example.com/a> <http://example.com/ns#knows> _:y .\n");
+		for(int i = 0; i < 200; ++i) { //separate the references from the types by several chunks
+			ntriples.append("<http://example.com/r").append(i).append("> <http://example.com/ns#value> \"").append(i).append("\" .\n");
+		}
+		ntriples.append("<http://example.com/x> <http://www.w3.org/1999/02/22-rdf-syntax-ns#type> <http://example.com/ns#Person> .\n");
+		ntriples.append("_:y <http://www.w3.org/1999/02/22-rdf-syntax-ns#type> <http://example.com/ns#Person> .\n");
+		ntriples.append("_:y <http://example.com/ns#name> \"Y\" .\n");
+		final Path file = Files.write(tempDirectory.resolve("typed-after-reference.nt"), ntriples.toString().getBytes(UTF_8));
+
+		final RDFModel sequentialRDF;
+		try (final InputStream inputStream = Files.newInputStream(file)) {
+			sequentialRDF = new NTriplesProcessor(createRDF()).processRDF(inputStream, null);
+		}
+		final NTriplesProcessor parallelProcessor = new NTriplesProcessor(createRDF());
+		parallelProcessor.setParallelChunkSize(1024);
+		assertThat(Files.size(file), greaterThan((long)parallelProcessor.getParallelChunkSize() * 2));
+		final RDFModel parallelRDF = parallelProcessor.processRDF(file, null, ForkJoinPool.commonPool());
+
+		for(final RDFModel rdf : List.of(sequentialRDF, parallelRDF)) {
+			final RDFResource x = rdf.getResource(URI.create("http://example.com/x"));
+			assertThat(x, instanceOf(Person.class));
+			final List<RDFObject> known = new ArrayList<RDFObject>();
+			rdf.getResource(URI.create("http://example.com/a")).getPropertyValues(EX_NAMESPACE_URI, "knows").forEach(known::add);
+			assertThat(known, hasSize(2));
+			assertThat(known, hasItem(sameInstance(x)));
+			assertThat(known, everyItem(instanceOf(Person.class)));
+		}
+		assertThat(parallelRDF.getResourceCount(), is(sequentialRDF.getResourceCount()));
+		assertThat(describe(parallelRDF), is(describe(sequentialRDF)));
+	}
+
+
+	/**
+	 * Creates N-Triples with the given line ending, including blank nodes, a comment, an empty line, and literals of varying lengths, so that chunks of different
+	 * sizes split the data at every position of a line.
+	 * @param lineEnding The line ending to use: a line feed, a carriage return, or a carriage return followed by a line feed.
+	 * @return The N-Triples data.
+	 */
+	private static String createNTriples(final String lineEnding) {
+		final StringBuilder ntriples = new StringBuilder();
+		ntriples.append("# test data").append(lineEnding).append(lineEnding);
+		for(int i = 0; i < 12; ++i) {
+			ntriples.append("<http://example.com/r").append(i).append("> <http://example.com/ns#next> _:b").append((i + 1) % 4).append(" .").append(lineEnding);
+			ntriples.append("_:b").append(i % 4).append(" <http://example.com/ns#value> \"").append(String.join("", Collections.nCopies(i + 1, "v"))).append("\"@en .")
+					.append(lineEnding);
+		}
+		return ntriples.toString();
+	}
+
+	/**
+	 * Verifies that processing a file in parallel produces the same data model as processing it sequentially for every chunk size, so that chunk boundaries fall
+	 * within lines, just before and after line endings, and between the carriage return and line feed of a line ending.
+	 * @param tempDirectory A temporary directory for the N-Triples files.
+	 * @throws IOException if there is an error processing a file.
+	 */
+	@Test
+	public void testProcessRDFParallelMatchesSequentialAtEachChunkBoundary(@TempDir final Path tempDirectory) throws IOException {
+		for(final String lineEnding : List.of("\n", "\r", "\r\n")) {
+			final Path file = Files.write(tempDirectory.resolve("line-ending-" + lineEnding.length() + lineEnding.charAt(0) + ".nt"),
+					createNTriples(lineEnding).getBytes(UTF_8));
+			final RDFModel sequentialRDF;
+			try (final InputStream inputStream = Files.newInputStream(file)) {
+				sequentialRDF = new NTriplesProcessor(createRDF()).processRDF(inputStream, null);
+			}
+			final List<String> sequentialDescription = describe(sequentialRDF);
+			assertThat(sequentialRDF.getResourceCount(), greaterThan(12));
+			for(int chunkSize = 1; chunkSize < Files.size(file); ++chunkSize) {
+				final NTriplesProcessor parallelProcessor = new NTriplesProcessor(createRDF());
+				parallelProcessor.setParallelChunkSize(chunkSize);
+				final RDFModel parallelRDF = parallelProcessor.processRDF(file, null, ForkJoinPool.commonPool());
+				assertThat("chunk size " + chunkSize, parallelRDF.getResourceCount(), is(sequentialRDF.getResourceCount()));
+				assertThat("chunk size " + chunkSize, describe(parallelRDF), is(sequentialDescription));
+			}
+		}
+	}
+
+	/**
+	 * Verifies that the processing limits are enforced both sequentially and in parallel, with the statement and blank node counts shared among the chunks, and
+	 * that data exactly at the limits is processed.
+	 * @param tempDirectory A temporary directory for the N-Triples file.
+	 * @throws IOException if there is an error processing the file.
+	 */
+	@Test
+	public void testProcessRDFEnforcesLimits(@TempDir final Path tempDirectory) throws IOException {
+		final Path file = Files.write(tempDirectory.resolve("limits.nt"), createNTriples("\n").getBytes(UTF_8));
+		final int noLimit = RDFProcessingLimits.NO_LIMIT;
+		final List<RDFProcessingLimits> exceededLimits = List.of(new RDFProcessingLimits(23, noLimit, noLimit, noLimit), //there are 24 statements
+				new RDFProcessingLimits(noLimit, 3, noLimit, noLimit), //there are 4 blank nodes
+				new RDFProcessingLimits(noLimit, noLimit, noLimit, 11)); //the longest literal has 12 characters
+		for(final RDFProcessingLimits limits : exceededLimits) {
+			final NTriplesProcessor sequentialProcessor = new NTriplesProcessor(new RDFModel());
+			sequentialProcessor.setLimits(limits);
+			assertThrows(RDFLimitExceededException.class, () -> {
+				try (final InputStream inputStream = Files.newInputStream(file)) {
+					sequentialProcessor.processRDF(inputStream, null);
+				}
+			});
+			final NTriplesProcessor parallelProcessor = new NTriplesProcessor(new RDFModel());
+			parallelProcessor.setLimits(limits);
+			parallelProcessor.setParallelChunkSize(64); //make sure no single chunk exceeds the limits on counts by itself
+			assertThrows(RDFLimitExceededException.class, () -> parallelProcessor.processRDF(file, null, ForkJoinPool.commonPool()));
+		}
+		final NTriplesProcessor processor = new NTriplesProcessor(new RDFModel());
+		processor.setLimits(new RDFProcessingLimits(24, 4, noLimit, 12)); //the data is exactly at the limits
+		try (final InputStream inputStream = Files.newInputStream(file)) {
+			assertThat(processor.processRDF(inputStream, null).getResourceCount(), greaterThan(12));
+		}
+	}
+
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright © 1996-2008 GlobalMentor, Inc. <https://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.globalmentor.rdf;
+
+import static com.globalmentor.rdf.spec.RDF.*;
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+import java.net.URI;
+
+import org.junit.jupiter.api.*;
+
+import com.globalmentor.rdf.xmlschema.IntegerLiteral;
+
+/**
+ * Tests of {@link RDFBagResource}.
+ * @author Garret Wilson
+ */
+public class RDFBagResourceTest {
+
+	/**
+	 * Creates the reference URI of a member property.
+	 * @param number The member number.
+	 * @return The reference URI of the <code>rdf:_X</code> property with the given number.
+	 */
+	private static URI getMemberPropertyURI(final int number) {
+		return URI.create(NAMESPACE_URI + "_" + number);
+	}
+
+	/**
+	 * Creates a blank node with the given <code>rdf:value</code>.
+	 * @param value The value of the blank node.
+	 * @return A new blank node resource.
+	 */
+	private static RDFResource createBlankNode(final String value) {
+		final RDFResource blankNode = new DefaultRDFResource();
+		RDFResources.setValue(blankNode, value);
+		return blankNode;
+	}
+
+	/** Tests that added members are contained and counted, including repeated members. */
+	@Test
+	public void testAddCountsMembers() {
+		final RDFBagResource bag = new RDFBagResource(URI.create("http://example.com/bag"));
+		final RDFResource resource = new DefaultRDFResource(URI.create("http://example.com/resource"));
+		bag.add(resource);
+		bag.add(new RDFPlainLiteral("x"));
+		bag.add(new RDFPlainLiteral("x"));
+		assertThat(bag.getItemCount(), is(3));
+		assertThat(bag.getItemCount(new DefaultRDFResource(URI.create("http://example.com/resource"))), is(1));
+		assertThat(bag.getItemCount(new RDFPlainLiteral("x")), is(2));
+		assertThat(bag.containsItem(new RDFPlainLiteral("y")), is(false));
+		assertThat(bag.getItemCollection(), hasSize(3));
+	}
+
+	/** Tests that adding a member property that already exists with an equal value has no effect. */
+	@Test
+	public void testAddPropertyIgnoresEquivalentMember() {
+		final RDFBagResource bag = new RDFBagResource(URI.create("http://example.com/bag"));
+		bag.addProperty(getMemberPropertyURI(2), new RDFPlainLiteral("x"));
+		bag.addProperty(getMemberPropertyURI(1), new RDFPlainLiteral("y"));
+		bag.addProperty(getMemberPropertyURI(1), new RDFPlainLiteral("y"));
+		bag.addProperty(getMemberPropertyURI(1), new RDFPlainLiteral("x")); //the same value under a different member property is a different statement
+		assertThat(bag.getItemCount(), is(3));
+		assertThat(bag.getItemCollection(), hasSize(3));
+		assertThat(bag.getItemCount(new RDFPlainLiteral("x")), is(2));
+	}
+
+	/** Tests that blank node members are compared by equality, which compares their <code>rdf:value</code>, rather than by identity. */
+	@Test
+	public void testBlankNodeMembersComparedByEquality() {
+		final RDFBagResource bag = new RDFBagResource(URI.create("http://example.com/bag"));
+		bag.addProperty(getMemberPropertyURI(1), createBlankNode("x"));
+		assertThat(bag.containsItem(createBlankNode("x")), is(true));
+		assertThat(bag.containsItem(createBlankNode("y")), is(false));
+		bag.addProperty(getMemberPropertyURI(1), createBlankNode("x")); //an equal blank node is an equivalent property
+		assertThat(bag.getItemCount(), is(1));
+		bag.addProperty(getMemberPropertyURI(1), createBlankNode("y"));
+		assertThat(bag.getItemCount(), is(2));
+		assertThat(bag.getItemCount(createBlankNode("x")), is(1));
+	}
+
+	/** Tests that typed literal members are compared by value, even with different lexical forms. */
+	@Test
+	public void testTypedLiteralMembersComparedByValue() {
+		final RDFBagResource bag = new RDFBagResource(URI.create("http://example.com/bag"));
+		bag.addProperty(getMemberPropertyURI(1), new IntegerLiteral("01"));
+		assertThat(bag.containsItem(new IntegerLiteral(1)), is(true));
+		bag.addProperty(getMemberPropertyURI(1), new IntegerLiteral(1));
+		assertThat(bag.getItemCount(), is(1));
+	}
+
+	/** Tests that removed members are no longer contained or counted. */
+	@Test
+	public void testRemoveUpdatesMembers() {
+		final RDFBagResource bag = new RDFBagResource(URI.create("http://example.com/bag"));
+		final RDFResource blankNode = createBlankNode("b");
+		bag.add(new RDFPlainLiteral("x"));
+		bag.add(blankNode);
+		bag.add(new RDFPlainLiteral("x"));
+		bag.removeProperty(getMemberPropertyURI(1), new RDFPlainLiteral("x"));
+		assertThat(bag.getItemCount(new RDFPlainLiteral("x")), is(1));
+		bag.removeProperties(getMemberPropertyURI(2));
+		assertThat(bag.containsItem(blankNode), is(false));
+		assertThat(bag.getItemCount(), is(1));
+		bag.add(new RDFPlainLiteral("y"));
+		assertThat(bag.getItemCount(), is(2));
+		assertThat(bag.getPropertyValue(getMemberPropertyURI(4)), is(new RDFPlainLiteral("y"))); //member numbers are not reused
+	}
+
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright © 1996-2008 GlobalMentor, Inc. <https://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.globalmentor.rdf;
+
+import static java.nio.charset.StandardCharsets.*;
+import static java.util.Collections.*;
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+import java.io.*;
+import java.net.URI;
+
+import org.junit.jupiter.api.*;
+
+/**
+ * Tests of {@link RDFFormats}.
+ * @author Garret Wilson
+ */
+public class RDFFormatsTest {
+
+	/**
+	 * Detects the format of content using a signature input stream, verifying that the content can still be read in its entirety afterwards.
+	 * @param content The content, which will be encoded in UTF-8.
+	 * @return The detected format, or <code>null</code> if the format could not be determined.
+	 * @throws IOException if there is an error reading the content.
+	 */
+	private static RDFFormat detectFormat(final String content) throws IOException {
+		return detectFormat(content.getBytes(UTF_8));
+	}
+
+	/**
+	 * Detects the format of content using a signature input stream, verifying that the content can still be read in its entirety afterwards.
+	 * @param bytes The content.
+	 * @return The detected format, or <code>null</code> if the format could not be determined.
+	 * @throws IOException if there is an error reading the content.
+	 */
+	private static RDFFormat detectFormat(final byte[] bytes) throws IOException {
+		final PushbackInputStream inputStream = RDFFormats.createSignatureInputStream(new ByteArrayInputStream(bytes));
+		final RDFFormat format = RDFFormats.detectFormat(inputStream);
+		final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		final byte[] buffer = new byte[64];
+		int count;
+		while((count = inputStream.read(buffer)) >= 0) {
+			outputStream.write(buffer, 0, count);
+		}
+		assertThat("Content is unchanged after detection.", outputStream.toByteArray(), is(bytes));
+		return format;
+	}
+
+	/**
+	 * Verifies that content with only absolute IRIs, blank node labels, and literals on each line is detected as N-Triples.
+	 * @throws IOException if there is an error reading the content.
+	 */
+	@Test
+	public void testDetectNTriples() throws IOException {
+		assertThat(detectFormat("<http://example.com/s> <http://example.com/p> <http://example.com/o> .\n"), is(instanceOf(NTriplesFormat.class)));
+		assertThat(detectFormat("\uFEFF# comment\n<http://example.com/s> <http://example.com/p> \"a\\\"b\"@en-US .\r\n"), is(instanceOf(NTriplesFormat.class)));
+		assertThat(detectFormat("_:b1 <http://example.com/p> \"x\"^^<http://example.com/t> . # comment\n"), is(instanceOf(NTriplesFormat.class)));
+	}
+
+	/**
+	 * Verifies that content using Turtle abbreviations is detected as Turtle rather than as N-Triples.
+	 * @throws IOException if there is an error reading the content.
+	 */
+	@Test
+	public void testDetectTurtle() throws IOException {
+		assertThat(detectFormat("@prefix ex: <http://example.com/ns#> .\nex:s ex:p ex:o .\n"), is(instanceOf(TurtleFormat.class)));
+		assertThat(detectFormat("<http://example.com/s> <http://example.com/p> <http://example.com/o> ;\n <http://example.com/q> \"x\" ."),
+				is(instanceOf(TurtleFormat.class)));
+		assertThat(detectFormat("<http://example.com/s>\n <http://example.com/p>\n <http://example.com/o> ."), is(instanceOf(TurtleFormat.class)));
+		assertThat(detectFormat("<http://example.com/s> a <http://example.com/C> ."), is(instanceOf(TurtleFormat.class)));
+		assertThat(detectFormat("[ ] <http://example.com/p> \"x\" ."), is(instanceOf(TurtleFormat.class)));
+		assertThat(detectFormat("_:b <http://example.com/p> [ ] ."), is(instanceOf(TurtleFormat.class)));
+		assertThat(detectFormat("( 1 2 ) <http://example.com/p> 1 ."), is(instanceOf(TurtleFormat.class)));
+	}
+
+	/**
+	 * Verifies that RDF/XML is detected.
+	 * @throws IOException if there is an error reading the content.
+	 */
+	@Test
+	public void testDetectRDFXML() throws IOException {
+		assertThat(detectFormat("<?xml version=\"1.0\"?><rdf:RDF xmlns:rdf=\"http://www.w3.org/1999/02/22-rdf-syntax-ns#\"/>"), is(instanceOf(RDFXMLFormat.class)));
+	}
+
+	/**
+	 * Verifies that content written in the binary format is detected.
+	 * @throws IOException if there is an error writing or reading the content.
+	 */
+	@Test
+	public void testDetectBinary() throws IOException {
+		final RDFModel rdf = new RDFModel();
+		rdf.locateResource(URI.create("http://example.com/ns#a")).addProperty(URI.create("http://example.com/ns#"), "name", "A");
+		final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		new BinaryRDFFormat().write(outputStream, null, rdf, emptyMap());
+		assertThat(detectFormat(outputStream.toByteArray()), is(instanceOf(BinaryRDFFormat.class)));
+	}
+
+	/**
+	 * Verifies that content in no readable format is not detected, including JSON-LD, which cannot be read.
+	 * @throws IOException if there is an error reading the content.
+	 */
+	@Test
+	public void testDetectUnknown() throws IOException {
+		assertThat(detectFormat(""), is(nullValue()));
+		assertThat(detectFormat("<html>\n<head>"), is(nullValue()));
+		assertThat(detectFormat("[{\"@id\":\"x\"}]"), is(nullValue()));
+		assertThat(detectFormat("{\"@context\": {}, \"@graph\": []}"), is(nullValue()));
+	}
+
+	/**
+	 * Verifies that content longer than the signature is detected from its first bytes and pushed back intact.
+	 * @throws IOException if there is an error reading the content.
+	 */
+	@Test
+	public void testDetectLongContent() throws IOException {
+		final StringBuilder nTriples = new StringBuilder();
+		for(int i = 0; nTriples.length() <= RDFFormats.SIGNATURE_LENGTH * 2; ++i) {
+			nTriples.append("<http://example.com/s").append(i).append("> <http://example.com/p> \"").append(i).append("\" .\n");
+		}
+		assertThat(detectFormat(nTriples.toString()), is(instanceOf(NTriplesFormat.class)));
+	}
+
+	/** Verifies looking up formats by media type, filename, and filename extension. */
+	@Test
+	public void testGetFormat() {
+		assertThat(RDFFormats.getFormatByMediaType("text/turtle"), is(instanceOf(TurtleFormat.class)));
+		assertThat(RDFFormats.getFormatByMediaType("Application/RDF+XML; charset=UTF-8"), is(instanceOf(RDFXMLFormat.class)));
+		assertThat(RDFFormats.getFormatByMediaType("application/ld+json"), is(instanceOf(JSONLDFormat.class)));
+		assertThat(RDFFormats.getFormatByMediaType("text/plain"), is(nullValue()));
+		assertThat(RDFFormats.getFormatByFilenameExtension("NT"), is(instanceOf(NTriplesFormat.class)));
+		assertThat(RDFFormats.getFormatByFilename("/data/example.rdfb"), is(instanceOf(BinaryRDFFormat.class)));
+		assertThat(RDFFormats.getFormatByFilename("/data.ttl/example"), is(nullValue()));
+		assertThat(RDFFormats.getFormatByFilename("example"), is(nullValue()));
+	}
+
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright © 1996-2008 GlobalMentor, Inc. <https://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.globalmentor.rdf;
+
+import static com.globalmentor.rdf.RDFXMLStreamProcessorTest.*;
+import static java.nio.charset.StandardCharsets.*;
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.*;
+
+import org.junit.jupiter.api.*;
+
+/**
+ * Tests of {@link RDFXMLFeedProcessor}.
+ * @author Garret Wilson
+ */
+public class RDFXMLFeedProcessorTest {
+
+	/** The base URI of the test documents. */
+	private static final URI BASE_URI = URI.create("http://example.com/doc.rdf");
+
+	/**
+	 * Feeds bytes to a new feed processor in slices of random lengths.
+	 * @param bytes The bytes to feed.
+	 * @param random The source of slice lengths.
+	 * @param maxSliceLength The maximum number of bytes in each slice.
+	 * @return The data model containing the processed resources.
+	 * @throws IOException if there is an error processing the bytes.
+	 */
+	private static RDFModel feed(final byte[] bytes, final Random random, final int maxSliceLength) throws IOException {
+		final RDFXMLFeedProcessor feedProcessor = new RDFXMLFeedProcessor(new RDFModel(), BASE_URI);
+		int index = 0;
+		while(index < bytes.length) {
+			final int length = Math.min(bytes.length - index, 1 + random.nextInt(maxSliceLength));
+			feedProcessor.feed(ByteBuffer.wrap(bytes, index, length));
+			index += length;
+		}
+		return feedProcessor.end();
+	}
+
+	/**
+	 * Verifies that feeding a document in slices of any length, splitting tags, attributes, and multibyte characters, produces the same resources as processing
+	 * the entire document with the streaming processor.
+	 * @throws Exception if there is an error processing the RDF/XML.
+	 */
+	@Test
+	public void testFeedMatchesStreamProcessor() throws Exception {
+		final String rdfXML = RDF_XML.replace(">Alpha<", ">Alpha é中😀<");
+		final byte[] bytes = rdfXML.getBytes(UTF_8);
+		final List<String> streamDescription = describe(processStream(rdfXML, null, 1));
+		final Random random = new Random(1);
+		for(int i = 0; i < 50; ++i) {
+			final int maxSliceLength = i < 10 ? 3 : 200;
+			assertThat("iteration " + i, describe(feed(bytes, random, maxSliceLength)), is(streamDescription));
+		}
+		assertThat(describe(feed(bytes, random, bytes.length)), is(streamDescription));
+	}
+
+	/**
+	 * Verifies that a document that is incomplete when the feed ends is rejected.
+	 * @throws IOException if there is an error processing the bytes.
+	 */
+	@Test
+	public void testEndIncompleteFails() throws IOException {
+		final byte[] bytes = RDF_XML.getBytes(UTF_8);
+		final RDFXMLFeedProcessor feedProcessor = new RDFXMLFeedProcessor(new RDFModel(), BASE_URI);
+		feedProcessor.feed(ByteBuffer.wrap(bytes, 0, bytes.length - 4));
+		assertThrows(IOException.class, feedProcessor::end);
+	}
+
+	/** Verifies that entities declared in a document type declaration are not expanded, so that a document referring to external content is rejected. */
+	@Test
+	public void testFeedDoesNotExpandDeclaredEntities() {
+		final byte[] bytes = ("<?xml version=\"1.0\"?>\n<!DOCTYPE rdf:RDF [<!ENTITY ext SYSTEM \"file:///etc/passwd\">]>\n" //
+				+ "<rdf:RDF xmlns:rdf=\"http://www.w3.org/1999/02/22-rdf-syntax-ns#\" xmlns:ex=\"http://example.com/ns#\">" //
+				+ "<rdf:Description rdf:about=\"http://example.com/ns#a\"><ex:p>&ext;</ex:p></rdf:Description></rdf:RDF>").getBytes(UTF_8);
+		assertThrows(IOException.class, () -> feed(bytes, new Random(1), bytes.length));
+	}
+
+}
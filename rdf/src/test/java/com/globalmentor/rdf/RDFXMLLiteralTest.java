@@ -0,0 +1,92 @@
+/*
+ * Copyright © 1996-2008 GlobalMentor, Inc. <https://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.globalmentor.rdf;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.URI;
+
+import org.junit.jupiter.api.*;
+import org.w3c.dom.DocumentFragment;
+
+import com.globalmentor.rdf.spec.RDF;
+
+/**
+ * Tests of {@link RDFXMLLiteral}.
+ * @author Garret Wilson
+ */
+public class RDFXMLLiteralTest {
+
+	/** Verifies that equivalent markup is canonicalized to the same lexical form, so that the literals are equal. */
+	@Test
+	public void testCanonicalization() {
+		final RDFXMLLiteral xmlLiteral = new RDFXMLLiteral("<b  z='1' a=\"2\"/>x&gt;");
+		assertThat(xmlLiteral.getLexicalForm(), is("<b a=\"2\" z=\"1\"></b>x&gt;"));
+		assertThat(new RDFXMLLiteral("<b a='2' z='1'></b>x>"), is(xmlLiteral));
+		assertThat(new RDFXMLLiteral("<b a='2' z='1'></b>x>").hashCode(), is(xmlLiteral.hashCode()));
+		assertThat(new RDFXMLLiteral("<b a='2' z='1'></b>y"), not(equalTo(xmlLiteral)));
+	}
+
+	/** Verifies that markup that is not well-formed is rejected. */
+	@Test
+	public void testMalformedFails() {
+		assertThrows(IllegalArgumentException.class, () -> new RDFXMLLiteral("<b>"));
+	}
+
+	/** Verifies that neither the document fragment used to create a literal nor the one it returns can be used to modify the literal. */
+	@Test
+	public void testValueIsCopied() {
+		final RDFXMLLiteral xmlLiteral = new RDFXMLLiteral("a<b>c</b>");
+		final DocumentFragment value = xmlLiteral.getValue();
+		value.appendChild(value.getOwnerDocument().createTextNode("d"));
+		assertThat(xmlLiteral.getLexicalForm(), is("a<b>c</b>"));
+		assertThat(xmlLiteral.getValue().getChildNodes().getLength(), is(2));
+		final RDFXMLLiteral fragmentXMLLiteral = new RDFXMLLiteral(value);
+		value.appendChild(value.getOwnerDocument().createTextNode("e"));
+		assertThat(fragmentXMLLiteral.getLexicalForm(), is("a<b>c</b>d"));
+		assertThat(fragmentXMLLiteral, is(new RDFXMLLiteral("a<b>c</b>d")));
+	}
+
+	/** Verifies that a literal is equal to a typed literal with the same lexical form only if the typed literal is of the XML literal datatype. */
+	@Test
+	public void testEqualsTypedLiteral() {
+		final RDFXMLLiteral xmlLiteral = new RDFXMLLiteral("a<b>c</b>");
+		final RDFTypedLiteral<String> typedLiteral = new RDFTypedLiteral<String>("a<b>c</b>", RDF.XML_LITERAL_DATATYPE_URI);
+		assertThat(xmlLiteral.equals(typedLiteral), is(true));
+		assertThat(typedLiteral.equals(xmlLiteral), is(true));
+		assertThat(typedLiteral.hashCode(), is(xmlLiteral.hashCode()));
+		final RDFTypedLiteral<String> otherTypedLiteral = new RDFTypedLiteral<String>("a<b>c</b>", URI.create("http://example.com/ns#type"));
+		assertThat(xmlLiteral.equals(otherTypedLiteral), is(false));
+		assertThat(otherTypedLiteral.equals(xmlLiteral), is(false));
+	}
+
+	/** Verifies that the lexical form built from markup events is the same as the one created by canonicalizing the equivalent markup. */
+	@Test
+	public void testLexicalFormBuilder() {
+		final RDFXMLLiteral.LexicalFormBuilder lexicalFormBuilder = new RDFXMLLiteral.LexicalFormBuilder();
+		lexicalFormBuilder.text("a");
+		lexicalFormBuilder.startElement(null, null, "b");
+		lexicalFormBuilder.attribute(null, null, "z", "1");
+		lexicalFormBuilder.attribute(null, null, "a", "<\"&");
+		lexicalFormBuilder.text("c>");
+		lexicalFormBuilder.endElement();
+		assertThat(lexicalFormBuilder.toString(), is(new RDFXMLLiteral("a<b z='1' a='&lt;&quot;&amp;'>c&gt;</b>").getLexicalForm()));
+	}
+
+}
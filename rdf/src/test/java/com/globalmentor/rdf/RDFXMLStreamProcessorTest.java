@@ -0,0 +1,225 @@
+/*
+ * Copyright © 1996-2008 GlobalMentor, Inc. <https://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.globalmentor.rdf;
+
+import static java.nio.charset.StandardCharsets.*;
+import static java.util.Collections.*;
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.net.*;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+import javax.xml.parsers.*;
+import javax.xml.stream.*;
+
+import org.junit.jupiter.api.*;
+import org.w3c.dom.Document;
+
+/**
+ * Tests of {@link RDFXMLStreamProcessor}, comparing its results with those of {@link RDFXMLProcessor}.
+ * @author Garret Wilson
+ */
+public class RDFXMLStreamProcessorTest {
+
+	/** The base URI of the test documents. */
+	private static final URI BASE_URI = URI.create("http://example.com/doc.rdf");
+
+	/** The namespace of the test vocabulary. */
+	private static final URI EX_NAMESPACE_URI = URI.create("http://example.com/ns#");
+
+	/** RDF/XML exercising the abbreviated forms of the syntax. */
+	static final String RDF_XML = "<?xml version=\"1.0\"?>\n" //
+			+ "<rdf:RDF xmlns:rdf=\"http://www.w3.org/1999/02/22-rdf-syntax-ns#\" xmlns:ex=\"http://example.com/ns#\" xml:base=\"http://example.com/base/\">\n" //
+			+ "\t<ex:Thing rdf:about=\"a\" ex:title=\"A\">\n" //
+			+ "\t\t<ex:name xml:lang=\"en\">Alpha</ex:name>\n" //
+			+ "\t\t<ex:count rdf:datatype=\"http://www.w3.org/2001/XMLSchema#integer\">2</ex:count>\n" //
+			+ "\t\t<ex:next rdf:resource=\"#b\"/>\n" //
+			+ "\t\t<ex:shared rdf:nodeID=\"n1\"/>\n" //
+			+ "\t\t<ex:child rdf:parseType=\"Resource\"><ex:name>Child</ex:name></ex:child>\n" //
+			+ "\t\t<ex:nested><rdf:Description><ex:name>Nested</ex:name></rdf:Description></ex:nested>\n" //
+			+ "\t\t<ex:items rdf:parseType=\"Collection\"><rdf:Description rdf:about=\"#b\"/><ex:Thing rdf:about=\"c\"/></ex:items>\n" //
+			+ "\t\t<ex:none rdf:parseType=\"Collection\"/>\n" //
+			+ "\t\t<ex:markup rdf:parseType=\"Literal\">a<b xmlns=\"http://example.com/markup\">c</b></ex:markup>\n" //
+			+ "\t</ex:Thing>\n" //
+			+ "\t<rdf:Description rdf:ID=\"b\" xml:base=\"http://example.com/other/\">\n" //
+			+ "\t\t<ex:next rdf:resource=\"a\"/>\n" //
+			+ "\t</rdf:Description>\n" //
+			+ "\t<rdf:Bag rdf:about=\"bag\">\n" //
+			+ "\t\t<rdf:li>one</rdf:li>\n" //
+			+ "\t\t<rdf:li rdf:resource=\"a\"/>\n" //
+			+ "\t</rdf:Bag>\n" //
+			+ "\t<rdf:Description rdf:nodeID=\"n1\">\n" //
+			+ "\t\t<ex:name>Shared</ex:name>\n" //
+			+ "\t</rdf:Description>\n" //
+			+ "</rdf:RDF>\n";
+
+	/**
+	 * Describes the named resources of a data model, along with their classes and the properties of any blank nodes they reference, so that data models
+	 * produced by different processors can be compared regardless of the identifiers generated for blank nodes.
+	 * @param rdf The data model to describe.
+	 * @return The sorted descriptions of the named resources of the data model.
+	 */
+	static List<String> describe(final RDFModel rdf) {
+		final List<String> descriptions = new ArrayList<String>();
+		for(final RDFResource resource : rdf.getResources()) {
+			if(resource.getURI() != null) {
+				descriptions.add(resource.getClass().getSimpleName() + " " + describe(resource, 0));
+			}
+		}
+		sort(descriptions);
+		return descriptions;
+	}
+
+	/**
+	 * Describes an object; resources are described by their reference URIs except for the subject and for blank nodes, which are described by their sorted
+	 * properties.
+	 * @param object The object to describe.
+	 * @param depth The depth of the object, which prevents infinite recursion for cyclic blank nodes.
+	 * @return A description of the object.
+	 */
+	private static String describe(final RDFObject object, final int depth) {
+		if(object instanceof RDFLiteral) {
+			final RDFLiteral literal = (RDFLiteral)object;
+			final StringBuilder description = new StringBuilder(literal.getClass().getSimpleName()).append(" \"").append(literal.getLexicalForm()).append('"');
+			if(literal instanceof RDFPlainLiteral && ((RDFPlainLiteral)literal).getLanguage() != null) {
+				description.append('@').append(((RDFPlainLiteral)literal).getLanguage());
+			}
+			return description.toString();
+		}
+		final RDFResource resource = (RDFResource)object;
+		if(resource.getURI() != null && depth > 0) {
+			return "<" + resource.getURI() + ">";
+		}
+		if(depth > 8) {
+			return "[...]";
+		}
+		final List<String> propertyDescriptions = new ArrayList<String>();
+		for(final RDFPropertyValuePair property : resource.getProperties()) {
+			propertyDescriptions.add(property.getProperty().getURI() + "=" + describe(property.getPropertyValue(), depth + 1));
+		}
+		sort(propertyDescriptions);
+		return (resource.getURI() != null ? "<" + resource.getURI() + ">" : "[]") + propertyDescriptions;
+	}
+
+	/**
+	 * Processes RDF/XML using the streaming processor.
+	 * @param rdfXML The RDF/XML to process.
+	 * @param forkJoinPool The pool for processing top-level resources in parallel, or <code>null</code> if they should be processed sequentially.
+	 * @param parallelChunkSize The number of top-level resources in each parallel chunk.
+	 * @return The data model containing the processed resources.
+	 * @throws XMLStreamException if there is an error reading the XML.
+	 * @throws URISyntaxException if a URI in the RDF/XML is invalid.
+	 */
+	static RDFModel processStream(final String rdfXML, final ForkJoinPool forkJoinPool, final int parallelChunkSize)
+			throws XMLStreamException, URISyntaxException {
+		final XMLInputFactory xmlInputFactory = XMLInputFactory.newInstance();
+		xmlInputFactory.setProperty(XMLInputFactory.IS_COALESCING, true);
+		final RDFXMLStreamProcessor rdfProcessor = new RDFXMLStreamProcessor();
+		rdfProcessor.setForkJoinPool(forkJoinPool);
+		rdfProcessor.setParallelChunkSize(parallelChunkSize);
+		return rdfProcessor.processRDF(xmlInputFactory.createXMLStreamReader(new ByteArrayInputStream(rdfXML.getBytes(UTF_8))), BASE_URI);
+	}
+
+	/**
+	 * Processes RDF/XML using the DOM processor.
+	 * @param rdfXML The RDF/XML to process.
+	 * @param forkJoinPool The pool for processing top-level resources in parallel, or <code>null</code> if they should be processed sequentially.
+	 * @param parallelChunkSize The number of top-level resources in each parallel chunk.
+	 * @return The data model containing the processed resources.
+	 * @throws Exception if there is an error parsing or processing the XML.
+	 */
+	private static RDFModel processDocument(final String rdfXML, final ForkJoinPool forkJoinPool, final int parallelChunkSize) throws Exception {
+		final DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
+		documentBuilderFactory.setNamespaceAware(true);
+		final Document document = documentBuilderFactory.newDocumentBuilder().parse(new ByteArrayInputStream(rdfXML.getBytes(UTF_8)));
+		document.normalize();
+		final RDFXMLProcessor rdfProcessor = new RDFXMLProcessor();
+		rdfProcessor.setForkJoinPool(forkJoinPool);
+		rdfProcessor.setParallelChunkSize(parallelChunkSize);
+		return rdfProcessor.processRDF(document, BASE_URI);
+	}
+
+	/**
+	 * Verifies that the streaming processor produces the same resources as the DOM processor, with base URIs, typed nodes, property attributes, blank nodes,
+	 * collections, literal markup, and container members resolved the same way.
+	 * @throws Exception if there is an error processing the RDF/XML.
+	 */
+	@Test
+	public void testProcessRDFMatchesDOM() throws Exception {
+		final RDFModel rdf = processStream(RDF_XML, null, 1);
+		assertThat(describe(rdf), is(describe(processDocument(RDF_XML, null, 1))));
+		final RDFResource a = rdf.getResource(URI.create("http://example.com/base/a"));
+		assertThat(a, not(nullValue()));
+		assertThat(((RDFResource)a.getPropertyValue(EX_NAMESPACE_URI, "next")).getURI(), is(URI.create("http://example.com/base/#b")));
+		final RDFResource b = rdf.getResource(URI.create("http://example.com/other/#b"));
+		assertThat(((RDFResource)b.getPropertyValue(EX_NAMESPACE_URI, "next")).getURI(), is(URI.create("http://example.com/other/a")));
+		assertThat(((RDFListResource<?>)a.getPropertyValue(EX_NAMESPACE_URI, "items")).size(), is(2));
+		assertThat(a.getPropertyValue(EX_NAMESPACE_URI, "markup"), instanceOf(RDFXMLLiteral.class));
+		assertThat(((RDFResource)a.getPropertyValue(EX_NAMESPACE_URI, "shared")).getPropertyValue(EX_NAMESPACE_URI, "name"),
+				is(new RDFPlainLiteral("Shared")));
+	}
+
+	/**
+	 * Verifies that processing top-level resources in parallel produces the same resources as processing them sequentially, for both processors and for every
+	 * chunk size.
+	 * @throws Exception if there is an error processing the RDF/XML.
+	 */
+	@Test
+	public void testProcessRDFParallelMatchesSequential() throws Exception {
+		final List<String> sequentialDescription = describe(processStream(RDF_XML, null, 1));
+		final ForkJoinPool forkJoinPool = new ForkJoinPool(4);
+		try {
+			for(int chunkSize = 1; chunkSize <= 4; ++chunkSize) {
+				assertThat("stream chunk size " + chunkSize, describe(processStream(RDF_XML, forkJoinPool, chunkSize)), is(sequentialDescription));
+				assertThat("document chunk size " + chunkSize, describe(processDocument(RDF_XML, forkJoinPool, chunkSize)), is(sequentialDescription));
+			}
+		} finally {
+			forkJoinPool.shutdown();
+		}
+	}
+
+	/**
+	 * Verifies that the base URI of an <code>rdf:RDF</code> element nested inside other XML takes into account the <code>xml:base</code> of its ancestors.
+	 * @throws Exception if there is an error processing the RDF/XML.
+	 */
+	@Test
+	public void testProcessRDFNestedBase() throws Exception {
+		final String rdfXML = "<root xmlns:rdf=\"http://www.w3.org/1999/02/22-rdf-syntax-ns#\"><outer xml:base=\"http://example.org/dir/\">" //
+				+ "<rdf:RDF xmlns:ex=\"http://example.com/ns#\" xml:base=\"sub/\"><rdf:Description rdf:about=\"a\"><ex:p rdf:resource=\"b\"/></rdf:Description></rdf:RDF>" //
+				+ "</outer></root>";
+		final RDFModel rdf = processStream(rdfXML, null, 1);
+		assertThat(rdf.getResource(URI.create("http://example.org/dir/sub/a")), not(nullValue()));
+		assertThat(describe(rdf), is(describe(processDocument(rdfXML, null, 1))));
+	}
+
+	/**
+	 * Verifies that a node element identified in more than one way is rejected by both processors.
+	 * @throws Exception if there is an error parsing the RDF/XML.
+	 */
+	@Test
+	public void testProcessRDFRejectsConflictingIdentifiers() throws Exception {
+		final String rdfXML = "<rdf:RDF xmlns:rdf=\"http://www.w3.org/1999/02/22-rdf-syntax-ns#\" xmlns:ex=\"http://example.com/ns#\">" //
+				+ "<rdf:Description rdf:about=\"a\" rdf:nodeID=\"n\"><ex:p>x</ex:p></rdf:Description></rdf:RDF>";
+		assertThrows(IllegalStateException.class, () -> processStream(rdfXML, null, 1));
+		assertThrows(IllegalStateException.class, () -> processDocument(rdfXML, null, 1));
+	}
+
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright © 1996-2008 GlobalMentor, Inc. <https://www.globalmentor.com/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.globalmentor.rdf;
+
+import static java.nio.charset.StandardCharsets.*;
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.net.URI;
+import java.util.*;
+
+import org.junit.jupiter.api.*;
+
+import com.globalmentor.io.ParseIOException;
+import com.globalmentor.rdf.spec.RDF;
+import com.globalmentor.rdf.xmlschema.*;
+
+/**
+ * Tests of {@link TurtleProcessor} and of writing Turtle using {@link TurtleGenerator}.
+ * @author Garret Wilson
+ */
+public class TurtleProcessorTest {
+
+	/** The namespace of the test vocabulary. */
+	private static final URI EX_NAMESPACE_URI = URI.create("http://example.com/ns#");
+
+	/** Turtle exercising prefixes, the type keyword, numeric and boolean literals, language tags, long strings, collections, and blank nodes. */
+	private static final String TURTLE = "@prefix ex: <http://example.com/ns#> .\n" //
+			+ "# a resource using the abbreviations of Turtle\n" //
+			+ "ex:a a ex:Thing ;\n" //
+			+ "\tex:count 2 ;\n" //
+			+ "\tex:ratio -2.5 ;\n" //
+			+ "\tex:flag true ;\n" //
+			+ "\tex:name \"A\"@en ;\n" //
+			+ "\tex:note '''two\nlines''' ;\n" //
+			+ "\tex:items ( ex:b \"c\" ) ;\n" //
+			+ "\tex:child [ ex:name \"Child\" ] .\n";
+
+	/**
+	 * Reads Turtle into a new data model.
+	 * @param turtle The Turtle to read.
+	 * @return The data model containing the resources described by the Turtle.
+	 * @throws IOException if there is an error reading the Turtle.
+	 */
+	private static RDFModel read(final String turtle) throws IOException {
+		return new TurtleIO().read(new ByteArrayInputStream(turtle.getBytes(UTF_8)), null);
+	}
+
+	/**
+	 * Writes a data model as Turtle, using the <code>ex:</code> prefix for the test vocabulary.
+	 * @param rdf The data model to write.
+	 * @return The Turtle describing the data model.
+	 * @throws IOException if there is an error writing the Turtle.
+	 */
+	private static String write(final RDFModel rdf) throws IOException {
+		final TurtleIO turtleIO = new TurtleIO();
+		turtleIO.registerNamespacePrefix(EX_NAMESPACE_URI, "ex");
+		final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		turtleIO.write(outputStream, null, rdf);
+		return new String(outputStream.toByteArray(), UTF_8);
+	}
+
+	/**
+	 * Verifies that each construct of Turtle produces the expected resources and literals.
+	 * @throws IOException if there is an error reading the Turtle.
+	 */
+	@Test
+	public void testRead() throws IOException {
+		final RDFModel rdf = read(TURTLE);
+		final RDFResource a = rdf.getResource(EX_NAMESPACE_URI.resolve("#a"));
+		assertThat(a, not(nullValue()));
+		assertThat(((RDFResource)a.getPropertyValue(RDF.NAMESPACE_URI, RDF.TYPE_PROPERTY_NAME)).getURI(),
+				is(EX_NAMESPACE_URI.resolve("#Thing")));
+		assertThat(a.getPropertyValue(EX_NAMESPACE_URI, "count"), instanceOf(IntegerLiteral.class));
+		assertThat(((RDFLiteral)a.getPropertyValue(EX_NAMESPACE_URI, "count")).getLexicalForm(), is("2"));
+		final RDFTypedLiteral<?> ratio = (RDFTypedLiteral<?>)a.getPropertyValue(EX_NAMESPACE_URI, "ratio");
+		assertThat(ratio.getLexicalForm(), is("-2.5"));
+		assertThat(ratio.getDatatypeURI(), is(URI.create("http://www.w3.org/2001/XMLSchema#decimal")));
+		assertThat(a.getPropertyValue(EX_NAMESPACE_URI, "flag"), instanceOf(BooleanLiteral.class));
+		final RDFPlainLiteral name = (RDFPlainLiteral)a.getPropertyValue(EX_NAMESPACE_URI, "name");
+		assertThat(name.getLexicalForm(), is("A"));
+		assertThat(name.getLanguage(), is(Locale.ENGLISH));
+		assertThat(((RDFLiteral)a.getPropertyValue(EX_NAMESPACE_URI, "note")).getLexicalForm(), is("two\nlines"));
+		final RDFListResource<?> items = (RDFListResource<?>)a.getPropertyValue(EX_NAMESPACE_URI, "items");
+		assertThat(items.size(), is(2));
+		assertThat(((RDFResource)items.get(0)).getURI(), is(EX_NAMESPACE_URI.resolve("#b")));
+		assertThat(((RDFLiteral)items.get(1)).getLexicalForm(), is("c"));
+		final RDFResource child = (RDFResource)a.getPropertyValue(EX_NAMESPACE_URI, "child");
+		assertThat(child.getURI(), is(nullValue()));
+		assertThat(((RDFLiteral)child.getPropertyValue(EX_NAMESPACE_URI, "name")).getLexicalForm(), is("Child"));
+	}
+
+	/**
+	 * Verifies that an empty collection is the <code>rdf:nil</code> list.
+	 * @throws IOException if there is an error reading the Turtle.
+	 */
+	@Test
+	public void testReadEmptyCollection() throws IOException {
+		final RDFModel rdf = read("@prefix ex: <http://example.com/ns#> .\nex:a ex:items () .\n");
+		final RDFListResource<?> items = (RDFListResource<?>)rdf.getResource(EX_NAMESPACE_URI.resolve("#a")).getPropertyValue(EX_NAMESPACE_URI, "items");
+		assertThat(items.getURI(), is(RDF.NIL_RESOURCE_URI));
+		assertThat(items.isEmpty(), is(true));
+	}
+
+	/** Verifies that invalid Turtle is reported as a parse error. */
+	@Test
+	public void testReadUndefinedPrefixFails() {
+		assertThrows(ParseIOException.class, () -> read("@prefix ex: <http://example.com/ns#> .\nex:a other:b ex:c .\n"));
+	}
+
+	/** Verifies that the nesting limit is enforced for blank nodes and collections. */
+	@Test
+	public void testReadEnforcesDepthLimit() {
+		final int noLimit = RDFProcessingLimits.NO_LIMIT;
+		final RDFProcessingLimits limits = new RDFProcessingLimits(noLimit, noLimit, 2, noLimit);
+		for(final String turtle : List.of("[ <http://example.com/ns#p> [ <http://example.com/ns#p> [ <http://example.com/ns#p> 1 ] ] ] .\n",
+				"<http://example.com/ns#a> <http://example.com/ns#p> ( ( ( 1 ) ) ) .\n")) {
+			final IOException ioException = assertThrows(IOException.class,
+					() -> new TurtleFormat().read(new RDFModel(), new ByteArrayInputStream(turtle.getBytes(UTF_8)), null, null, limits));
+			assertThat(ioException.getCause(), instanceOf(RDFLimitExceededException.class));
+		}
+	}
+
+	/**
+	 * Verifies that written Turtle uses the registered prefixes and the abbreviations of Turtle, and that reading it back produces a data model that is written
+	 * identically.
+	 * @throws IOException if there is an error reading or writing the Turtle.
+	 */
+	@Test
+	public void testWriteRoundTrip() throws IOException {
+		final String turtle = write(read(TURTLE));
+		assertThat(turtle, containsString("@prefix ex: <http://example.com/ns#> ."));
+		assertThat(turtle, containsString("a ex:Thing ;"));
+		assertThat(turtle, containsString("ex:count 2 ;"));
+		assertThat(turtle, containsString("ex:flag true ;"));
+		assertThat(turtle, containsString("ex:name \"A\"@en ;"));
+		assertThat(turtle, containsString("ex:note \"two\\nlines\" ;"));
+		assertThat(turtle, containsString("ex:items ( ex:b \"c\" ) ;"));
+		assertThat(write(read(turtle)), is(turtle));
+	}
+
+}